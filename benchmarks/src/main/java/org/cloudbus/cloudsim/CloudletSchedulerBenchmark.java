@@ -0,0 +1,115 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of one {@link CloudletScheduler#updateVmProcessing(double, List)} call for a
+ * VM holding a given number of cloudlets. The cloudlets are long enough never to finish during
+ * the measurement. The time-shared schedulers run all of them; the space-shared scheduler runs
+ * one per PE and queues the others.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloudletSchedulerBenchmark {
+
+	/** The scheduler class: TimeShared, SpaceShared or DynamicWorkload. */
+	@Param({ "TimeShared", "SpaceShared", "DynamicWorkload" })
+	private String scheduler;
+
+	/** The number of cloudlets of the VM. */
+	@Param({ "1000", "10000", "100000" })
+	private int cloudlets;
+
+	/** The number of PEs of the VM. */
+	@Param({ "4" })
+	private int pes;
+
+	/** The MIPS of each PE. */
+	private static final double MIPS = 1000;
+
+	/** The time elapsed between two updates. */
+	private static final double TIME_STEP = 0.001;
+
+	/** The cloudlet scheduler. */
+	private CloudletScheduler cloudletScheduler;
+
+	/** The mips share of the VM. */
+	private List<Double> mipsShare;
+
+	/** The current time. */
+	private double time;
+
+	@Setup
+	public void setUp() {
+		mipsShare = new ArrayList<Double>();
+		for (int i = 0; i < pes; i++) {
+			mipsShare.add(MIPS);
+		}
+
+		if (scheduler.equals("TimeShared")) {
+			cloudletScheduler = new CloudletSchedulerTimeShared();
+		} else if (scheduler.equals("SpaceShared")) {
+			cloudletScheduler = new CloudletSchedulerSpaceShared();
+		} else if (scheduler.equals("DynamicWorkload")) {
+			cloudletScheduler = new CloudletSchedulerDynamicWorkload(MIPS, pes);
+		} else {
+			throw new IllegalArgumentException("Unknown scheduler: " + scheduler);
+		}
+		cloudletScheduler.updateVmProcessing(0, mipsShare);
+
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		List<ResCloudlet> execList = null;
+		if (cloudletScheduler instanceof CloudletSchedulerTimeShared) {
+			// submitting to a time-shared scheduler visits the running cloudlets
+			execList = ((CloudletSchedulerTimeShared) cloudletScheduler).getCloudletExecList();
+		}
+		for (int i = 0; i < cloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 1000000000L, 1, 300, 300, utilizationModel,
+					utilizationModel, utilizationModel);
+			cloudlet.setResourceParameter(0, 0.0, 0.0);
+			if (execList != null) {
+				ResCloudlet rcl = new ResCloudlet(cloudlet);
+				rcl.setCloudletStatus(Cloudlet.INEXEC);
+				execList.add(rcl);
+			} else {
+				cloudletScheduler.cloudletSubmit(cloudlet);
+			}
+		}
+		time = 0;
+	}
+
+	@Benchmark
+	public double updateVmProcessing() {
+		time += TIME_STEP;
+		return cloudletScheduler.updateVmProcessing(time, mipsShare);
+	}
+
+}
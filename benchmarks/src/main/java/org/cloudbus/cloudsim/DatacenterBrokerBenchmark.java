@@ -0,0 +1,125 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the submission of a large number of cloudlets by a {@link DatacenterBroker}, one
+ * event per cloudlet or one batch per datacenter. Each operation runs a new simulation that
+ * creates the VMs, submits the cloudlets and stops shortly after, before any cloudlet finishes.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DatacenterBrokerBenchmark {
+
+	/** The submission mode: PerCloudlet or Batch. */
+	@Param({ "PerCloudlet", "Batch" })
+	private String submission;
+
+	/** The number of cloudlets. */
+	@Param({ "10000", "100000" })
+	private int cloudlets;
+
+	/** The number of hosts, each running one VM. */
+	private static final int HOSTS = 16;
+
+	/** The simulation time at which the simulation stops. */
+	private static final double STOP_TIME = 10;
+
+	@Setup
+	public void setUp() {
+		if (!submission.equals("PerCloudlet") && !submission.equals("Batch")) {
+			throw new IllegalArgumentException("Unknown submission mode: " + submission);
+		}
+		Log.disable();
+	}
+
+	@TearDown
+	public void tearDown() {
+		CloudSim.setContext(null);
+		Log.enable();
+	}
+
+	@Benchmark
+	public int submitCloudlets() throws Exception {
+		CloudSim.setContext(new SimulationContext());
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		List<Host> hostList = new ArrayList<Host>();
+		for (int i = 0; i < HOSTS; i++) {
+			List<Pe> peList = new ArrayList<Pe>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			hostList.add(new Host(
+					i,
+					new RamProvisionerSimple(2048),
+					new BwProvisionerSimple(10000),
+					1000000,
+					peList,
+					new VmSchedulerTimeShared(peList)));
+		}
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+				"x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		new Datacenter("Datacenter_0", characteristics, new VmAllocationPolicySimple(hostList),
+				new LinkedList<Storage>(), 0);
+
+		DatacenterBroker broker = new DatacenterBroker("Broker");
+		broker.setBatchSubmission(submission.equals("Batch"));
+
+		List<Vm> vmList = new ArrayList<Vm>();
+		for (int i = 0; i < HOSTS; i++) {
+			vmList.add(new Vm(i, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen",
+					new CloudletSchedulerTimeShared()));
+		}
+		broker.submitVmList(vmList);
+
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		List<Cloudlet> cloudletList = new ArrayList<Cloudlet>();
+		for (int i = 0; i < cloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 1000000000L, 1, 300, 300, utilizationModel,
+					utilizationModel, utilizationModel);
+			cloudlet.setUserId(broker.getId());
+			cloudletList.add(cloudlet);
+		}
+		broker.submitCloudletList(cloudletList);
+
+		CloudSim.terminateSimulation(STOP_TIME);
+		CloudSim.startSimulation();
+		return broker.getCloudletSubmittedList().size();
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the building of a random connected topology with distinct links, link by link through
+ * {@link NetworkTopology#addLink(int, int, double, double)}, at once through
+ * {@link NetworkTopology#addLinks(int[], int[], double[], double[])}, or at once with the delays
+ * computed on demand, followed by the delays between some pairs of nodes.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkTopologyBenchmark {
+
+	/** The way the topology is built: addLink, addLinks or onDemand. */
+	@Param({ "addLink", "addLinks", "onDemand" })
+	private String build;
+
+	/** The number of nodes. */
+	@Param({ "100", "500" })
+	private int nodes;
+
+	/** The number of links per node. */
+	private static final int LINKS_PER_NODE = 3;
+
+	/** The number of delays asked for. */
+	private static final int DELAYS = 100;
+
+	/** The sources of the links. */
+	private int[] srcIds;
+
+	/** The destinations of the links. */
+	private int[] destIds;
+
+	/** The bandwidths of the links. */
+	private double[] bw;
+
+	/** The latencies of the links. */
+	private double[] lat;
+
+	/** The pairs of nodes whose delay is asked for. */
+	private int[] delayPairs;
+
+	@Setup
+	public void setUp() {
+		if (!build.equals("addLink") && !build.equals("addLinks") && !build.equals("onDemand")) {
+			throw new IllegalArgumentException("Unknown build: " + build);
+		}
+		Log.disable();
+		Random random = new Random(42);
+		int links = nodes * LINKS_PER_NODE;
+		srcIds = new int[links];
+		destIds = new int[links];
+		bw = new double[links];
+		lat = new double[links];
+		Set<Long> linkedPairs = new HashSet<Long>();
+		for (int i = 0; i < links; i++) {
+			// a spanning tree first, so that all the nodes are connected, then distinct links
+			do {
+				srcIds[i] = i < nodes - 1 ? i + 1 : random.nextInt(nodes);
+				destIds[i] = i < nodes - 1 ? random.nextInt(i + 1) : random.nextInt(nodes);
+			} while (srcIds[i] == destIds[i] || !linkedPairs.add(
+					(long) Math.min(srcIds[i], destIds[i]) << 32 | Math.max(srcIds[i], destIds[i])));
+			bw[i] = 100 + random.nextInt(900);
+			lat[i] = 1 + random.nextInt(50);
+		}
+		delayPairs = new int[2 * DELAYS];
+		for (int i = 0; i < delayPairs.length; i++) {
+			delayPairs[i] = random.nextInt(nodes);
+		}
+	}
+
+	@Benchmark
+	public double buildTopology() {
+		CloudSim.setContext(new SimulationContext());
+		try {
+			if (build.equals("addLink")) {
+				for (int i = 0; i < srcIds.length; i++) {
+					NetworkTopology.addLink(srcIds[i], destIds[i], bw[i], lat[i]);
+				}
+			} else {
+				NetworkTopology.setDelaysComputedOnDemand(build.equals("onDemand"));
+				NetworkTopology.addLinks(srcIds, destIds, bw, lat);
+			}
+			double delays = 0;
+			for (int i = 0; i < delayPairs.length; i += 2) {
+				delays += NetworkTopology.getDelay(delayPairs[i], delayPairs[i + 1]);
+			}
+			return delays;
+		} finally {
+			CloudSim.setContext(null);
+		}
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the bin packing VM allocation policies against {@link VmAllocationPolicySimple} on a
+ * fleet of hosts of three kinds, half full of VMs of four kinds. Each operation places one VM or
+ * one VM per host with {@link VmAllocationPolicy#allocateHostsForVms(List)}, and releases them
+ * again, so the state of the hosts is the same for all the operations.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VmAllocationPolicyBinPackingBenchmark {
+
+	/** The policy class: Simple, FirstFitDecreasing, BestFitDecreasing, DotProduct or NormBased. */
+	@Param({ "Simple", "FirstFitDecreasing", "BestFitDecreasing", "DotProduct", "NormBased" })
+	private String allocation;
+
+	/** The number of hosts. */
+	@Param({ "1000", "10000" })
+	private int hosts;
+
+	/** The PEs, MIPS per PE and RAM of each kind of host. */
+	private static final int[][] HOST_TYPES = { { 4, 1860, 4096 }, { 8, 2660, 16384 },
+			{ 16, 3000, 32768 } };
+
+	/** The PEs, MIPS and RAM of each kind of VM. */
+	private static final int[][] VM_TYPES = { { 1, 500, 613 }, { 1, 1000, 1740 },
+			{ 2, 2000, 1740 }, { 4, 2500, 3840 } };
+
+	/** The allocation policy. */
+	private VmAllocationPolicy policy;
+
+	/** The VM placed by each operation. */
+	private Vm vm;
+
+	/** The VMs placed together by each operation, one per host. */
+	private List<Vm> vmList;
+
+	@Setup
+	public void setUp() {
+		List<Host> hostList = new ArrayList<Host>();
+		for (int i = 0; i < hosts; i++) {
+			int[] type = HOST_TYPES[i % HOST_TYPES.length];
+			List<Pe> peList = new ArrayList<Pe>();
+			for (int j = 0; j < type[0]; j++) {
+				peList.add(new Pe(j, new PeProvisionerSimple(type[1])));
+			}
+			hostList.add(new Host(
+					i,
+					new RamProvisionerSimple(type[2]),
+					new BwProvisionerSimple(1000000),
+					1000000,
+					peList,
+					new VmSchedulerTimeShared(peList)));
+		}
+		policy = createPolicy(hostList);
+
+		// fill the hosts to about half of their PEs
+		int id = 0;
+		int pes = 0;
+		for (int[] type : HOST_TYPES) {
+			pes += type[0];
+		}
+		int placed = 0;
+		while (placed < hosts * pes / HOST_TYPES.length / 2) {
+			Vm vm = createVm(id++);
+			if (!policy.allocateHostForVm(vm)) {
+				break;
+			}
+			placed += vm.getNumberOfPes();
+		}
+		vm = createVm(id++);
+
+		vmList = new ArrayList<Vm>();
+		for (int i = 0; i < hosts; i++) {
+			vmList.add(createVm(id++));
+		}
+	}
+
+	@Benchmark
+	public boolean allocateHostForVm() {
+		boolean result = policy.allocateHostForVm(vm);
+		policy.deallocateHostForVm(vm);
+		return result;
+	}
+
+	@Benchmark
+	public int allocateHostsForVms() {
+		int allocated = 0;
+		for (boolean result : policy.allocateHostsForVms(vmList)) {
+			if (result) {
+				allocated++;
+			}
+		}
+		for (Vm vm : vmList) {
+			if (policy.getHost(vm) != null) {
+				policy.deallocateHostForVm(vm);
+			}
+		}
+		return allocated;
+	}
+
+	/**
+	 * Creates the policy of the benchmark.
+	 *
+	 * @param hostList the hosts
+	 * @return the policy
+	 */
+	private VmAllocationPolicy createPolicy(List<Host> hostList) {
+		if (allocation.equals("Simple")) {
+			return new VmAllocationPolicySimple(hostList);
+		} else if (allocation.equals("FirstFitDecreasing")) {
+			return new VmAllocationPolicyFirstFitDecreasing(hostList);
+		} else if (allocation.equals("BestFitDecreasing")) {
+			return new VmAllocationPolicyBestFitDecreasing(hostList);
+		} else if (allocation.equals("DotProduct")) {
+			return new VmAllocationPolicyDotProduct(hostList);
+		} else if (allocation.equals("NormBased")) {
+			return new VmAllocationPolicyNormBased(hostList);
+		}
+		throw new IllegalArgumentException("Unknown policy: " + allocation);
+	}
+
+	/**
+	 * Creates a VM of one of the kinds, in turn.
+	 *
+	 * @param id the id of the VM
+	 * @return the VM
+	 */
+	private static Vm createVm(int id) {
+		int[] type = VM_TYPES[id % VM_TYPES.length];
+		return new Vm(id, 0, type[1] / type[0], type[0], type[2], 1000, 2500, "Xen",
+				new CloudletSchedulerTimeShared());
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link VmAllocationPolicySimple#allocateHostForVm(Vm)} on a datacenter already
+ * hosting a number of VMs per host. Each operation places a VM and releases it again, so the
+ * state of the hosts is the same for all the operations. The other operations place one more VM
+ * per host, one by one or with {@link VmAllocationPolicySimple#allocateHostsForVms(List)}, and
+ * release them again.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VmAllocationPolicySimpleBenchmark {
+
+	/** The number of hosts. */
+	@Param({ "100", "1000", "10000" })
+	private int hosts;
+
+	/** The number of VMs placed on each host before the measurement. */
+	@Param({ "0", "4" })
+	private int vmsPerHost;
+
+	/** The number of PEs of each host. */
+	private static final int HOST_PES = 8;
+
+	/** The allocation policy. */
+	private VmAllocationPolicySimple policy;
+
+	/** The VM placed by each operation. */
+	private Vm vm;
+
+	/** The VMs placed together by each operation, one per host. */
+	private List<Vm> vmList;
+
+	@Setup
+	public void setUp() {
+		List<Host> hostList = new ArrayList<Host>();
+		for (int i = 0; i < hosts; i++) {
+			List<Pe> peList = new ArrayList<Pe>();
+			for (int j = 0; j < HOST_PES; j++) {
+				peList.add(new Pe(j, new PeProvisionerSimple(1000)));
+			}
+			hostList.add(new Host(
+					i,
+					new RamProvisionerSimple(16384),
+					new BwProvisionerSimple(10000),
+					1000000,
+					peList,
+					new VmSchedulerTimeShared(peList)));
+		}
+		policy = new VmAllocationPolicySimple(hostList);
+
+		int id = 0;
+		for (int i = 0; i < hosts * vmsPerHost; i++) {
+			if (!policy.allocateHostForVm(createVm(id++))) {
+				throw new IllegalStateException("The hosts cannot hold " + vmsPerHost + " VMs each");
+			}
+		}
+		vm = createVm(id++);
+
+		vmList = new ArrayList<Vm>();
+		for (int i = 0; i < hosts; i++) {
+			vmList.add(createVm(id++));
+		}
+	}
+
+	@Benchmark
+	public boolean allocateHostForVm() {
+		boolean result = policy.allocateHostForVm(vm);
+		policy.deallocateHostForVm(vm);
+		return result;
+	}
+
+	@Benchmark
+	public int allocateHostForEachVm() {
+		int allocated = 0;
+		for (Vm vm : vmList) {
+			if (policy.allocateHostForVm(vm)) {
+				allocated++;
+			}
+		}
+		deallocate();
+		return allocated;
+	}
+
+	@Benchmark
+	public int allocateHostsForVms() {
+		int allocated = 0;
+		for (boolean result : policy.allocateHostsForVms(vmList)) {
+			if (result) {
+				allocated++;
+			}
+		}
+		deallocate();
+		return allocated;
+	}
+
+	/**
+	 * Releases the VMs placed together.
+	 */
+	private void deallocate() {
+		for (Vm vm : vmList) {
+			if (policy.getHost(vm) != null) {
+				policy.deallocateHostForVm(vm);
+			}
+		}
+	}
+
+	/**
+	 * Creates a VM with one PE.
+	 *
+	 * @param id the id of the VM
+	 * @return the VM
+	 */
+	private static Vm createVm(int id) {
+		return new Vm(id, 0, 1000, 1, 1024, 1000, 10000, "Xen", new CloudletSchedulerTimeShared());
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link FutureQueue} with the classic hold model: each operation polls the first
+ * event and inserts a new one at a random later time, so the queue keeps a constant size. The
+ * increments are exponentially distributed and precomputed.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FutureQueueBenchmark {
+
+	/** The event queue: TreeSet, Calendar or PairingHeap. */
+	@Param({ "TreeSet", "Calendar", "PairingHeap" })
+	private String queue;
+
+	/** The number of events in the queue. */
+	@Param({ "1000", "100000" })
+	private int events;
+
+	/** The number of precomputed increments, a power of two. */
+	private static final int INCREMENTS = 1 << 16;
+
+	/** The future queue. */
+	private FutureQueue future;
+
+	/** The time increments. */
+	private double[] increments;
+
+	/** The index of the next increment. */
+	private int next;
+
+	@Setup
+	public void setUp() {
+		EventQueue eventQueue;
+		if (queue.equals("TreeSet")) {
+			eventQueue = new TreeSetEventQueue();
+		} else if (queue.equals("Calendar")) {
+			eventQueue = new CalendarEventQueue();
+		} else if (queue.equals("PairingHeap")) {
+			eventQueue = new PairingHeapEventQueue();
+		} else {
+			throw new IllegalArgumentException("Unknown queue: " + queue);
+		}
+		future = new FutureQueue(eventQueue);
+
+		Random random = new Random(0);
+		increments = new double[INCREMENTS];
+		for (int i = 0; i < INCREMENTS; i++) {
+			increments[i] = -Math.log(1 - random.nextDouble());
+		}
+		for (int i = 0; i < events; i++) {
+			future.addEvent(new SimEvent(SimEvent.SEND, nextIncrement(), 0, 0, 0, null));
+		}
+	}
+
+	@Benchmark
+	public SimEvent hold() {
+		SimEvent first = future.poll();
+		future.addEvent(new SimEvent(SimEvent.SEND, first.eventTime() + nextIncrement(), 0, 0, 0, null));
+		return first;
+	}
+
+	/**
+	 * Returns the next precomputed increment.
+	 *
+	 * @return the increment
+	 */
+	private double nextIncrement() {
+		double increment = increments[next];
+		next = (next + 1) & (INCREMENTS - 1);
+		return increment;
+	}
+
+}
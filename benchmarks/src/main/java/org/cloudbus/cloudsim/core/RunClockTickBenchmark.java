@@ -0,0 +1,122 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CloudSim#runClockTick()} on a simulation that never ends. Each entity wakes up
+ * periodically and sends a message to the next entity, so a tick runs the entities and processes
+ * the events of the earliest time. The periods differ between entities, so the number of events
+ * per tick varies.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunClockTickBenchmark {
+
+	/** The number of entities. */
+	@Param({ "10", "100", "1000" })
+	private int entities;
+
+	/** The tag of the periodic events. */
+	private static final int TICK = 1000;
+
+	/** The tag of the messages between entities. */
+	private static final int MESSAGE = 1001;
+
+	@Setup
+	public void setUp() {
+		Log.disable();
+		CloudSim.setContext(new SimulationContext());
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		Ticker first = null;
+		Ticker previous = null;
+		for (int i = 0; i < entities; i++) {
+			Ticker ticker = new Ticker("Ticker_" + i, 1.0 + (i % 10) * 0.1);
+			if (previous != null) {
+				previous.next = ticker.getId();
+			} else {
+				first = ticker;
+			}
+			previous = ticker;
+		}
+		previous.next = first.getId();
+
+		CloudSim.runStart();
+	}
+
+	@TearDown
+	public void tearDown() {
+		CloudSim.setContext(null);
+		Log.enable();
+	}
+
+	@Benchmark
+	public boolean runClockTick() {
+		return CloudSim.runClockTick();
+	}
+
+	/**
+	 * An entity that wakes up periodically and sends a message to the next entity.
+	 */
+	private static class Ticker extends SimEntity {
+
+		/** The period. */
+		private final double period;
+
+		/** The id of the next entity. */
+		private int next;
+
+		public Ticker(String name, double period) {
+			super(name);
+			this.period = period;
+		}
+
+		@Override
+		public void startEntity() {
+			schedule(getId(), period, TICK);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (ev.getTag() == TICK) {
+				schedule(getId(), period, TICK);
+				sendNow(next, MESSAGE);
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+	}
+
+}
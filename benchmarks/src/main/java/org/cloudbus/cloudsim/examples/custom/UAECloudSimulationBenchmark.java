@@ -0,0 +1,87 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples.custom;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.examples.custom.UAECloudSimulation.ScenarioParameters;
+import org.cloudbus.cloudsim.examples.custom.UAECloudSimulation.ScenarioResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the UAE scenarios end to end, each in a new simulation context. The scale factors
+ * multiply the number of hosts, the number of VMs and the length of the cloudlets of the
+ * reference configuration of each scenario.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UAECloudSimulationBenchmark {
+
+	/** The scenario: 1 (centralized), 2 (per city) or 3 (hybrid). */
+	@Param({ "1", "2", "3" })
+	private int scenario;
+
+	/** The scale factor of the number of hosts. */
+	@Param({ "1" })
+	private double hostScale;
+
+	/** The scale factor of the number of VMs. */
+	@Param({ "1" })
+	private double vmScale;
+
+	/** The scale factor of the length of the cloudlets. */
+	@Param({ "1" })
+	private double lengthScale;
+
+	/** The parameters of the scenario. */
+	private ScenarioParameters parameters;
+
+	@Setup
+	public void setUp() {
+		Log.disable();
+		parameters = new ScenarioParameters(hostScale, vmScale, lengthScale);
+	}
+
+	@TearDown
+	public void tearDown() {
+		CloudSim.setContext(null);
+		Log.enable();
+	}
+
+	@Benchmark
+	public ScenarioResult runScenario() {
+		CloudSim.setContext(new SimulationContext());
+		ScenarioResult result = UAECloudSimulation.runScenario(scenario, parameters);
+		if (result == null) {
+			throw new IllegalStateException("Scenario " + scenario + " failed");
+		}
+		return result;
+	}
+
+}
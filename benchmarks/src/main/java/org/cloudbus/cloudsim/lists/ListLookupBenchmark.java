@@ -0,0 +1,126 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.ResCloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lookup of a random cloudlet by id, through {@link CloudletList#getById(List, int)}
+ * and through the status query of a time-shared scheduler, and its removal from the middle of the
+ * list, through the cancel of a cloudlet which is then submitted again, on a plain array list and
+ * on an {@link IndexedList}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListLookupBenchmark {
+
+	/** The kind of list: ArrayList or IndexedList. */
+	@Param({ "ArrayList", "IndexedList" })
+	private String list;
+
+	/** The number of cloudlets. */
+	@Param({ "1000", "100000" })
+	private int cloudlets;
+
+	/** The cloudlets. */
+	private List<Cloudlet> cloudletList;
+
+	/** The scheduler holding the cloudlets. */
+	private Scheduler scheduler;
+
+	/** The random generator of the ids. */
+	private Random random;
+
+	@Setup
+	public void setUp() {
+		if (list.equals("ArrayList")) {
+			cloudletList = new ArrayList<Cloudlet>();
+		} else if (list.equals("IndexedList")) {
+			cloudletList = CloudletList.createIndexedList();
+		} else {
+			throw new IllegalArgumentException("Unknown list: " + list);
+		}
+		scheduler = new Scheduler(list.equals("IndexedList"));
+
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		for (int i = 0; i < cloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 1000000000L, 1, 300, 300, utilizationModel,
+					utilizationModel, utilizationModel);
+			cloudlet.setResourceParameter(0, 0.0, 0.0);
+			cloudletList.add(cloudlet);
+			scheduler.addRunning(cloudlet);
+		}
+		random = new Random(42);
+	}
+
+	@Benchmark
+	public Cloudlet getById() {
+		return CloudletList.getById(cloudletList, random.nextInt(cloudlets));
+	}
+
+	@Benchmark
+	public int getCloudletStatus() {
+		return scheduler.getCloudletStatus(random.nextInt(cloudlets));
+	}
+
+	@Benchmark
+	public Cloudlet cancelAndResubmit() {
+		Cloudlet cloudlet = scheduler.cloudletCancel(random.nextInt(cloudlets));
+		scheduler.addRunning(cloudlet);
+		return cloudlet;
+	}
+
+	/**
+	 * A time-shared scheduler whose cloudlets are put straight into the exec list, which is a
+	 * plain array list or an indexed one.
+	 */
+	private static class Scheduler extends CloudletSchedulerTimeShared {
+
+		public Scheduler(boolean indexed) {
+			if (!indexed) {
+				setCloudletExecList(new ArrayList<ResCloudlet>());
+				setCloudletPausedList(new ArrayList<ResCloudlet>());
+			}
+		}
+
+		public void addRunning(Cloudlet cloudlet) {
+			ResCloudlet rcl = new ResCloudlet(cloudlet);
+			rcl.setCloudletStatus(Cloudlet.INEXEC);
+			getCloudletExecList().add(rcl);
+		}
+
+	}
+
+}
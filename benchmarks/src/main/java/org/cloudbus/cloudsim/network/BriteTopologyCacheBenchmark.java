@@ -0,0 +1,114 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the loading of a random BRITE topology with its all-pairs delays, as a new run of a
+ * sweep does: parsed into a {@link TopologicalGraph} and computed with Floyd-Warshall, or read
+ * from the {@link BriteTopologyCache cache file} written by a previous run.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BriteTopologyCacheBenchmark {
+
+	/** The way the topology is loaded: parse or cache. */
+	@Param({ "parse", "cache" })
+	private String load;
+
+	/** The number of nodes. */
+	@Param({ "100", "400" })
+	private int nodes;
+
+	/** The number of links per node. */
+	private static final int LINKS_PER_NODE = 3;
+
+	/** The BRITE file. */
+	private File briteFile;
+
+	/** The cache file. */
+	private File cacheFile;
+
+	@Setup
+	public void setUp() throws IOException {
+		if (!load.equals("parse") && !load.equals("cache")) {
+			throw new IllegalArgumentException("Unknown load: " + load);
+		}
+		briteFile = File.createTempFile("topology", ".brite");
+		cacheFile = File.createTempFile("topology", ".bin");
+		cacheFile.delete();
+
+		Random random = new Random(42);
+		int links = nodes * LINKS_PER_NODE;
+		PrintWriter writer = new PrintWriter(briteFile);
+		try {
+			writer.println("Topology: ( " + nodes + " Nodes, " + links + " Edges )");
+			writer.println();
+			writer.println("Nodes: ( " + nodes + " )");
+			for (int node = 0; node < nodes; node++) {
+				writer.println(node + "\t" + random.nextInt(100) + "\t" + random.nextInt(100)
+						+ "\t3\t3\t-1\tRT_NODE");
+			}
+			writer.println();
+			writer.println("Edges: ( " + links + " )");
+			for (int link = 0; link < links; link++) {
+				// a spanning tree first, so that all the nodes are connected
+				int from = link < nodes - 1 ? link + 1 : random.nextInt(nodes);
+				int to = link < nodes - 1 ? random.nextInt(link + 1) : random.nextInt(nodes);
+				writer.println(link + "\t" + from + "\t" + to + "\t1.0\t" + (1 + random.nextInt(50))
+						+ "\t" + (100 + random.nextInt(900)) + "\t-1\t-1\tE_RT\tU");
+			}
+		} finally {
+			writer.close();
+		}
+		if (load.equals("cache")) {
+			BriteTopologyCache.getInstance(briteFile, cacheFile).getDelayMatrix();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		briteFile.delete();
+		cacheFile.delete();
+	}
+
+	@Benchmark
+	public DelayMatrix_Float loadTopology() throws IOException {
+		if (load.equals("parse")) {
+			return new DelayMatrix_Float(new GraphReaderBrite().readGraphFile(briteFile.getPath()),
+					false);
+		}
+		return BriteTopologyCache.getInstance(briteFile, cacheFile).getDelayMatrix();
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a {@link FlowNetwork} through which random flows are started at random times and run
+ * until they all finish, the max-min rates being computed again at each start and finish.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowNetworkBenchmark {
+
+	/** The number of flows. */
+	@Param({ "100", "1000" })
+	private int flows;
+
+	/** The number of links. */
+	private static final int LINKS = 2000;
+
+	/** The largest number of links crossed by a flow. */
+	private static final int MAX_PATH_LENGTH = 6;
+
+	/** The capacities of the links. */
+	private double[] capacities;
+
+	/** The links crossed by the flows. */
+	private int[][] paths;
+
+	/** The sizes of the flows. */
+	private double[] sizes;
+
+	/** The start times of the flows, in increasing order. */
+	private double[] startTimes;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		capacities = new double[LINKS];
+		for (int link = 0; link < LINKS; link++) {
+			capacities[link] = 10 + random.nextInt(100);
+		}
+		paths = new int[flows][];
+		sizes = new double[flows];
+		startTimes = new double[flows];
+		double time = 0;
+		for (int flow = 0; flow < flows; flow++) {
+			paths[flow] = new int[1 + random.nextInt(MAX_PATH_LENGTH)];
+			for (int i = 0; i < paths[flow].length; i++) {
+				paths[flow][i] = random.nextInt(LINKS);
+			}
+			sizes[flow] = 100 + random.nextInt(1000);
+			time += random.nextDouble();
+			startTimes[flow] = time;
+		}
+	}
+
+	@Benchmark
+	public double runFlows() {
+		FlowNetwork network = new FlowNetwork();
+		for (double capacity : capacities) {
+			network.addLink(capacity);
+		}
+		double time = 0;
+		int flow = 0;
+		while (flow < flows || !network.getFlows().isEmpty()) {
+			double finishTime = network.getNextFinishTime();
+			if (flow < flows && startTimes[flow] <= finishTime) {
+				time = startTimes[flow];
+				network.startFlow(time, paths[flow], sizes[flow], null);
+				flow++;
+			} else {
+				time = finishTime;
+				network.finishFlows(time);
+			}
+		}
+		return time;
+	}
+
+}
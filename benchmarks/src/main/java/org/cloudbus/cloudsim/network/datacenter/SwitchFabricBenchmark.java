@@ -0,0 +1,165 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the forwarding of bursts of packets between random hosts of a three-tier fabric, a
+ * {@link RootSwitch} above {@link AggregateSwitch aggregate switches} above {@link EdgeSwitch edge
+ * switches}, with the packets sent one by one or {@link Switch#setPacketBatching(boolean) batched}
+ * by port.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwitchFabricBenchmark {
+
+	/** Whether the packets are batched by port. */
+	@Param({ "false", "true" })
+	private boolean batching;
+
+	/** The number of packets sent by each host in each burst. */
+	@Param({ "10", "100" })
+	private int packets;
+
+	/** The number of aggregate switches below the root switch. */
+	private static final int AGGREGATE_SWITCHES = 4;
+
+	/** The number of edge switches below each aggregate switch. */
+	private static final int EDGE_SWITCHES = 4;
+
+	/** The number of hosts below each edge switch. */
+	private static final int HOSTS = 4;
+
+	/** The number of bursts, one per second. */
+	private static final int BURSTS = 10;
+
+	/** The size of the packets. */
+	private static final double PACKET_SIZE = 1000;
+
+	/** The destination hosts of the packets, by burst, host and packet. */
+	private int[][][] destinations;
+
+	@Setup
+	public void setUp() {
+		Log.disable();
+		Random random = new Random(42);
+		int hosts = AGGREGATE_SWITCHES * EDGE_SWITCHES * HOSTS;
+		destinations = new int[BURSTS][hosts][packets];
+		for (int burst = 0; burst < BURSTS; burst++) {
+			for (int host = 0; host < hosts; host++) {
+				for (int packet = 0; packet < packets; packet++) {
+					destinations[burst][host][packet] = random.nextInt(hosts);
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public int forwardPackets() throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		List<NetworkHost> hosts = new ArrayList<NetworkHost>();
+		for (int i = 0; i < AGGREGATE_SWITCHES * EDGE_SWITCHES * HOSTS; i++) {
+			List<Pe> peList = new ArrayList<Pe>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			hosts.add(new NetworkHost(i, new RamProvisionerSimple(2048), new BwProvisionerSimple(
+					10000), 1000000, peList, new VmSchedulerTimeShared(peList)));
+		}
+		NetworkDatacenter dc = new NetworkDatacenter("Datacenter", new DatacenterCharacteristics(
+				"x86", "Linux", "Xen", hosts, 10.0, 3.0, 0.05, 0.001, 0.0),
+				new NetworkVmAllocationPolicy(hosts), new LinkedList<Storage>(), 0);
+
+		RootSwitch root = new RootSwitch("Root", NetworkConstants.ROOT_LEVEL, dc);
+		root.setPacketBatching(batching);
+		dc.Switchlist.put(root.getId(), root);
+		EdgeSwitch[] edges = new EdgeSwitch[AGGREGATE_SWITCHES * EDGE_SWITCHES];
+		for (int i = 0; i < AGGREGATE_SWITCHES; i++) {
+			AggregateSwitch agg = new AggregateSwitch("Agg" + i, NetworkConstants.Agg_LEVEL, dc);
+			agg.setPacketBatching(batching);
+			agg.uplinkswitches.add(root);
+			root.downlinkswitches.add(agg);
+			dc.Switchlist.put(agg.getId(), agg);
+			for (int j = 0; j < EDGE_SWITCHES; j++) {
+				EdgeSwitch edge = new EdgeSwitch("Edge" + (i * EDGE_SWITCHES + j),
+						NetworkConstants.EDGE_LEVEL, dc);
+				edge.setPacketBatching(batching);
+				edge.uplinkswitches.add(agg);
+				agg.downlinkswitches.add(edge);
+				dc.Switchlist.put(edge.getId(), edge);
+				edges[i * EDGE_SWITCHES + j] = edge;
+			}
+		}
+		// one VM per host, with the id of its host
+		for (NetworkHost host : hosts) {
+			EdgeSwitch edge = edges[host.getId() / HOSTS];
+			host.bandwidth = NetworkConstants.BandWidthEdgeHost;
+			host.sw = edge;
+			edge.hostlist.put(host.getId(), host);
+			dc.HostToSwitchid.put(host.getId(), edge.getId());
+			dc.VmtoHostlist.put(host.getId(), host.getId());
+			dc.VmToSwitchid.put(host.getId(), edge.getId());
+		}
+
+		// the packets of a host in a burst reach its edge switch together
+		for (int burst = 0; burst < BURSTS; burst++) {
+			for (NetworkHost host : hosts) {
+				List<NetworkPacket> pktlist = new ArrayList<NetworkPacket>();
+				for (int destination : destinations[burst][host.getId()]) {
+					HostPacket pkt = new HostPacket(host.getId(), destination, PACKET_SIZE, burst,
+							-1, host.getId(), destination);
+					pktlist.add(new NetworkPacket(host.getId(), pkt, host.getId(), 0));
+				}
+				CloudSim.send(host.sw.getId(), host.sw.getId(), burst,
+						CloudSimTags.Network_Event_UP, pktlist);
+			}
+		}
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		int received = 0;
+		for (NetworkHost host : hosts) {
+			received += host.packetrecieved.size();
+		}
+		return received;
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G4Xeon3040;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the median absolute deviation policy deciding whether the hosts are over-utilized, as
+ * at the start of each optimization, and whether they would be with one more VM, as for each
+ * candidate host of a migration. Both read the utilization history of the hosts, the sum of the
+ * full histories of their VMs. The decision is also measured after each VM has added a value to
+ * its history, as at the next scheduling interval.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PowerHostUtilizationHistoryBenchmark {
+
+	/** The number of hosts. */
+	private static final int HOSTS = 100;
+
+	/** The number of VMs of each host. */
+	@Param({ "2", "8" })
+	private int vmsPerHost;
+
+	/** The MIPS of the PEs of the hosts. */
+	private static final int HOST_MIPS = 3000;
+
+	/** The MIPS of the VMs. */
+	private static final int VM_MIPS = 250;
+
+	/** The allocation policy. */
+	private PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation policy;
+
+	/** The hosts. */
+	private List<PowerHost> hostList;
+
+	/** The VM tried on each host. */
+	private PowerVm candidate;
+
+	/** The VMs of the hosts. */
+	private List<PowerVm> vmList;
+
+	/** The random generator of the added utilization values. */
+	private Random random;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Log.disable();
+
+		hostList = new ArrayList<PowerHost>();
+		for (int i = 0; i < HOSTS; i++) {
+			List<Pe> peList = new ArrayList<Pe>();
+			for (int j = 0; j < 2; j++) {
+				peList.add(new Pe(j, new PeProvisionerSimple(HOST_MIPS)));
+			}
+			hostList.add(new PowerHostUtilizationHistory(
+					i,
+					new RamProvisionerSimple(65536),
+					new BwProvisionerSimple(1000000),
+					1000000,
+					peList,
+					new VmSchedulerTimeSharedOverSubscription(peList),
+					new PowerModelSpecPowerHpProLiantMl110G4Xeon3040()));
+		}
+		policy = new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(
+				hostList,
+				new PowerVmSelectionPolicyMinimumMigrationTime(),
+				2.5,
+				new PowerVmAllocationPolicyMigrationStaticThreshold(
+						hostList,
+						new PowerVmSelectionPolicyMinimumMigrationTime(),
+						0.8));
+
+		random = new Random(0);
+		vmList = new ArrayList<PowerVm>();
+		for (int i = 0; i < HOSTS * vmsPerHost; i++) {
+			PowerVm vm = createVm(i, random);
+			policy.allocateHostForVm(vm, hostList.get(i / vmsPerHost));
+			vmList.add(vm);
+		}
+		candidate = createVm(HOSTS * vmsPerHost, random);
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		Log.enable();
+	}
+
+	@Benchmark
+	public int overUtilizedHosts() {
+		int count = 0;
+		for (PowerHost host : hostList) {
+			if (policy.isHostOverUtilized(host)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int overUtilizedHostsWithVm() {
+		int count = 0;
+		for (PowerHost host : hostList) {
+			if (policy.isHostOverUtilized(host, candidate)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int overUtilizedHostsAfterInterval() {
+		for (PowerVm vm : vmList) {
+			vm.addUtilizationHistoryValue(0.1 + 0.9 * random.nextDouble());
+		}
+		return overUtilizedHosts();
+	}
+
+	/**
+	 * Creates a VM with a full random utilization history.
+	 *
+	 * @param id the id
+	 * @param random the random generator
+	 * @return the VM
+	 */
+	private static PowerVm createVm(int id, Random random) {
+		PowerVm vm = new PowerVm(id, 0, VM_MIPS, 1, 1024, 1000, 2500, 1, "Xen",
+				new CloudletSchedulerDynamicWorkload(VM_MIPS, 1), 300);
+		for (int i = 0; i < PowerVm.HISTORY_LENGTH; i++) {
+			vm.addUtilizationHistoryValue(0.1 + 0.9 * random.nextDouble());
+		}
+		return vm;
+	}
+
+}
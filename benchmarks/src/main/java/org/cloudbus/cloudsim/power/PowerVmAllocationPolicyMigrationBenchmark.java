@@ -0,0 +1,166 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelNull;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G4Xeon3040;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PowerVmAllocationPolicyMigrationAbstract#optimizeAllocation(List)} with the
+ * static threshold policy and the minimum migration time selection. Each VM runs a cloudlet with
+ * a fixed random utilization, so some hosts are over-utilized and others under-utilized. The
+ * optimization restores the allocation when it returns, so each operation sees the same state.
+ * <p>
+ * The policy records history on each call, so it is recreated for each iteration.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PowerVmAllocationPolicyMigrationBenchmark {
+
+	/** The number of hosts. */
+	@Param({ "100", "1000" })
+	private int hosts;
+
+	/** The number of VMs of each host. */
+	@Param({ "2", "3" })
+	private int vmsPerHost;
+
+	/** The number of threads evaluating the hosts for a VM. */
+	@Param({ "1", "4" })
+	private int parallelism;
+
+	/** The utilization threshold of the hosts. */
+	private static final double UTILIZATION_THRESHOLD = 0.8;
+
+	/** The MIPS of the PEs of the hosts. */
+	private static final int HOST_MIPS = 3000;
+
+	/** The MIPS of the VMs. */
+	private static final int VM_MIPS = 2000;
+
+	/** The scheduling interval of the VMs. */
+	private static final double SCHEDULING_INTERVAL = 300;
+
+	/** The allocation policy. */
+	private PowerVmAllocationPolicyMigrationAbstract policy;
+
+	/** The VMs. */
+	private List<PowerVm> vmList;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Log.disable();
+
+		List<PowerHost> hostList = new ArrayList<PowerHost>();
+		for (int i = 0; i < hosts; i++) {
+			List<Pe> peList = new ArrayList<Pe>();
+			for (int j = 0; j < 2; j++) {
+				peList.add(new Pe(j, new PeProvisionerSimple(HOST_MIPS)));
+			}
+			hostList.add(new PowerHostUtilizationHistory(
+					i,
+					new RamProvisionerSimple(16384),
+					new BwProvisionerSimple(1000000),
+					1000000,
+					peList,
+					new VmSchedulerTimeSharedOverSubscription(peList),
+					new PowerModelSpecPowerHpProLiantMl110G4Xeon3040()));
+		}
+		policy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList,
+				new PowerVmSelectionPolicyMinimumMigrationTime(),
+				UTILIZATION_THRESHOLD);
+		policy.setParallelism(parallelism);
+
+		Random random = new Random(0);
+		vmList = new ArrayList<PowerVm>();
+		for (int i = 0; i < hosts * vmsPerHost; i++) {
+			PowerVm vm = new PowerVm(i, 0, VM_MIPS, 1, 1024, 1000, 2500, 1, "Xen",
+					new CloudletSchedulerDynamicWorkload(VM_MIPS, 1), SCHEDULING_INTERVAL);
+			policy.allocateHostForVm(vm, hostList.get(i / vmsPerHost));
+
+			Cloudlet cloudlet = new Cloudlet(i, 1000000000L, 1, 300, 300,
+					new FixedUtilization(0.1 + 0.9 * random.nextDouble()),
+					new UtilizationModelNull(),
+					new UtilizationModelNull());
+			cloudlet.setResourceParameter(0, 0.0, 0.0);
+			vm.getCloudletScheduler().cloudletSubmit(cloudlet);
+			vm.setBeingInstantiated(false);
+			vmList.add(vm);
+		}
+		// the schedulers cache the requested MIPS of time 0, so the VMs run one interval first
+		for (PowerHost host : hostList) {
+			host.updateVmsProcessing(SCHEDULING_INTERVAL);
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		Log.enable();
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> optimizeAllocation() {
+		return policy.optimizeAllocation(vmList);
+	}
+
+	/**
+	 * A utilization model that always returns the same utilization.
+	 */
+	private static class FixedUtilization implements UtilizationModel {
+
+		/** The utilization. */
+		private final double utilization;
+
+		public FixedUtilization(double utilization) {
+			this.utilization = utilization;
+		}
+
+		@Override
+		public double getUtilization(double time) {
+			return utilization;
+		}
+
+	}
+
+}
@@ -35,8 +35,6 @@ import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 public class UAECloudSimulation {
     
     private static List<ScenarioResult> scenarioResults = new ArrayList<>();
-    private static List<Vm> globalVmList;
-    private static List<Datacenter> globalDatacenters;
 
     public static void main(String[] args) {
         Log.printLine("========================================");
@@ -50,7 +48,7 @@ public class UAECloudSimulation {
             Log.printLine("DÉBUT DU SCÉNARIO " + scenario + " : " + getScenarioName(scenario));
             Log.printLine("=".repeat(80));
             
-            ScenarioResult result = runScenario(scenario);
+            ScenarioResult result = runScenario(scenario, ScenarioParameters.DEFAULT);
             if (result != null) {
                 scenarioResults.add(result);
             }
@@ -68,7 +66,12 @@ public class UAECloudSimulation {
         }
     }
 
-    private static ScenarioResult runScenario(int scenario) {
+    /**
+     * Exécute un scénario dans le contexte de simulation lié au thread courant.
+     * Aucun état statique n'est partagé, de sorte que plusieurs scénarios peuvent
+     * s'exécuter en parallèle dans des contextes distincts (voir {@link UAEScenarioSweep}).
+     */
+    static ScenarioResult runScenario(int scenario, ScenarioParameters params) {
         try {
             int num_user = 5;
             Calendar calendar = Calendar.getInstance();
@@ -76,14 +79,14 @@ public class UAECloudSimulation {
             CloudSim.init(num_user, calendar, trace_flag);
 
             // Création des datacenters selon le scénario
-            globalDatacenters = createDatacentersForScenario(scenario);
-            if (globalDatacenters.isEmpty()) {
+            List<Datacenter> datacenters = createDatacentersForScenario(scenario, params);
+            if (datacenters.isEmpty()) {
                 Log.printLine("Erreur: Aucun datacenter créé pour le scénario " + scenario);
                 return null;
             }
             
             // AFFICHER LES DÉTAILS DES DATACENTERS
-            printDatacenterDetails(scenario);
+            printDatacenterDetails(scenario, datacenters);
             
             // Création des brokers pour chaque campus
             DatacenterBroker brokerTetouan = createBroker("Broker_Tetouan");
@@ -104,29 +107,29 @@ public class UAECloudSimulation {
             int brokerLaracheId = brokerLarache.getId();
             int brokerKsarElKebirId = brokerKsarElKebir.getId();
 
-            globalVmList = new ArrayList<Vm>();
+            List<Vm> vmList = new ArrayList<Vm>();
             
             // Création des VMs selon le scénario
-            createVMsForScenario(scenario, globalVmList, brokerTetouanId, brokerTangerId, brokerHoceimaId, 
+            createVMsForScenario(scenario, params, vmList, brokerTetouanId, brokerTangerId, brokerHoceimaId, 
                                brokerLaracheId, brokerKsarElKebirId);
 
-            if (globalVmList.isEmpty()) {
+            if (vmList.isEmpty()) {
                 Log.printLine("Erreur: Aucune VM créée pour le scénario " + scenario);
                 return null;
             }
 
             // AFFICHER LES DÉTAILS DES VMs PAR CAMPUS
-            printVMsDetailsByCampus(globalVmList, brokerTetouanId, brokerTangerId, brokerHoceimaId, 
+            printVMsDetailsByCampus(vmList, brokerTetouanId, brokerTangerId, brokerHoceimaId, 
                                   brokerLaracheId, brokerKsarElKebirId);
 
             // Distribution des VMs aux brokers
-            distributeVMsToBrokers(globalVmList, brokerTetouan, brokerTanger, brokerHoceima, 
+            distributeVMsToBrokers(vmList, brokerTetouan, brokerTanger, brokerHoceima, 
                                  brokerLarache, brokerKsarElKebir);
 
             List<Cloudlet> cloudletList = new ArrayList<Cloudlet>();
 
             // Création des cloudlets selon le scénario
-            createCloudletsForScenario(scenario, cloudletList, brokerTetouanId, brokerTangerId, brokerHoceimaId,
+            createCloudletsForScenario(scenario, params, cloudletList, brokerTetouanId, brokerTangerId, brokerHoceimaId,
                                     brokerLaracheId, brokerKsarElKebirId, 
                                     brokerTetouan, brokerTanger, brokerHoceima, brokerLarache, brokerKsarElKebir);
 
@@ -147,18 +150,19 @@ public class UAECloudSimulation {
             Log.printLine("DÉMARRAGE SIMULATION - " + getScenarioName(scenario));
             Log.printLine("=".repeat(50));
             Log.printLine("Résumé configuration:");
-            Log.printLine("  - Total VMs: " + globalVmList.size());
+            Log.printLine("  - Total VMs: " + vmList.size());
             Log.printLine("  - Total Cloudlets: " + cloudletList.size());
-            Log.printLine("  - Datacenters: " + globalDatacenters.size());
+            Log.printLine("  - Datacenters: " + datacenters.size());
             
-            CloudSim.startSimulation();
+            // l'horloge est remise à zéro en fin de simulation : on garde l'instant final
+            double makespan = CloudSim.startSimulation();
             CloudSim.stopSimulation();
 
             // Collecter les résultats DÉTAILLÉS
-            ScenarioResult result = collectDetailedScenarioResults(scenario, brokerTetouan, brokerTanger, 
+            ScenarioResult result = collectDetailedScenarioResults(scenario, makespan, brokerTetouan, brokerTanger, 
                                                          brokerHoceima, brokerLarache, brokerKsarElKebir);
             
-            printDetailedScenarioSummary(result, brokerTetouan, brokerTanger, brokerHoceima, 
+            printDetailedScenarioSummary(result, datacenters, brokerTetouan, brokerTanger, brokerHoceima, 
                                        brokerLarache, brokerKsarElKebir);
 
             return result;
@@ -171,7 +175,8 @@ public class UAECloudSimulation {
     }
 
     // NOUVELLE MÉTHODE : Résultats DÉTAILLÉS avec analyse par type de workload
-    private static ScenarioResult collectDetailedScenarioResults(int scenario, DatacenterBroker... brokers) {
+    private static ScenarioResult collectDetailedScenarioResults(int scenario, double makespan,
+                                                                DatacenterBroker... brokers) {
         ScenarioResult result = new ScenarioResult(scenario, getScenarioName(scenario));
         
         int totalCloudlets = 0;
@@ -253,7 +258,7 @@ public class UAECloudSimulation {
         }
         result.minExecutionTime = globalMinTime == Double.MAX_VALUE ? 0 : globalMinTime;
         result.maxExecutionTime = globalMaxTime;
-        result.makespan = CloudSim.clock();
+        result.makespan = makespan;
         result.successRate = totalCloudlets > 0 ? (totalSuccess * 100.0) / totalCloudlets : 0;
         result.cloudletsPerVM = totalVMs > 0 ? (double) totalCloudlets / totalVMs : 0;
 
@@ -319,7 +324,8 @@ public class UAECloudSimulation {
     }
 
     // NOUVELLE MÉTHODE : Résumé DÉTAILLÉ du scénario
-    private static void printDetailedScenarioSummary(ScenarioResult result, DatacenterBroker... brokers) {
+    private static void printDetailedScenarioSummary(ScenarioResult result, List<Datacenter> datacenters,
+                                                     DatacenterBroker... brokers) {
         DecimalFormat dft = new DecimalFormat("###.##");
         
         Log.printLine("\n" + "=".repeat(70));
@@ -328,8 +334,8 @@ public class UAECloudSimulation {
         
         // Architecture détaillée
         Log.printLine("🏗️  ARCHITECTURE DÉTAILLÉE:");
-        Log.printLine("   ├─ Datacenters: " + globalDatacenters.size());
-        for (Datacenter dc : globalDatacenters) {
+        Log.printLine("   ├─ Datacenters: " + datacenters.size());
+        for (Datacenter dc : datacenters) {
             Log.printLine("   │  └─ " + dc.getName() + ": " + dc.getHostList().size() + " hosts");
         }
         Log.printLine("   ├─ VMs totales: " + result.totalVMs);
@@ -397,7 +403,7 @@ public class UAECloudSimulation {
     }
 
     // Les méthodes existantes restent inchangées mais sont inclues pour complétude
-    private static void printDatacenterDetails(int scenario) {
+    private static void printDatacenterDetails(int scenario, List<Datacenter> datacenters) {
         Log.printLine("\n" + "-".repeat(60));
         Log.printLine("CONFIGURATION DES DATACENTERS - " + getScenarioName(scenario));
         Log.printLine("-".repeat(60));
@@ -407,7 +413,7 @@ public class UAECloudSimulation {
         long totalRam = 0;
         int totalMips = 0;
 
-        for (Datacenter dc : globalDatacenters) {
+        for (Datacenter dc : datacenters) {
             List<Host> hostList = dc.getHostList();
             totalHosts += hostList.size();
             
@@ -436,7 +442,7 @@ public class UAECloudSimulation {
         }
         
         Log.printLine("\n📈 TOTAUX " + getScenarioName(scenario) + ":");
-        Log.printLine("   ├─ Datacenters: " + globalDatacenters.size());
+        Log.printLine("   ├─ Datacenters: " + datacenters.size());
         Log.printLine("   ├─ Hosts: " + totalHosts);
         Log.printLine("   ├─ Cores CPU: " + totalCores);
         Log.printLine("   ├─ RAM: " + (totalRam / 1024) + " GB");
@@ -629,7 +635,37 @@ public class UAECloudSimulation {
         }
     }
 
-    private static String getScenarioName(int scenario) {
+    // Facteurs d'échelle appliqués à un scénario (1.0 = configuration de référence)
+    static class ScenarioParameters {
+        static final ScenarioParameters DEFAULT = new ScenarioParameters(1.0, 1.0, 1.0);
+
+        final double hostScale;
+        final double vmScale;
+        final double lengthScale;
+
+        ScenarioParameters(double hostScale, double vmScale, double lengthScale) {
+            if (hostScale <= 0 || vmScale <= 0 || lengthScale <= 0) {
+                throw new IllegalArgumentException("Scale factors must be greater than zero");
+            }
+            this.hostScale = hostScale;
+            this.vmScale = vmScale;
+            this.lengthScale = lengthScale;
+        }
+
+        int scaleHosts(int numHosts) {
+            return Math.max(1, (int) Math.round(numHosts * hostScale));
+        }
+
+        int scaleVms(int count) {
+            return Math.max(1, (int) Math.round(count * vmScale));
+        }
+
+        long scaleLength(long length) {
+            return Math.max(1, Math.round(length * lengthScale));
+        }
+    }
+
+    static String getScenarioName(int scenario) {
         switch(scenario) {
             case 1: return "DATACENTER CENTRALISÉ";
             case 2: return "DATACENTER PAR VILLES";
@@ -638,30 +674,30 @@ public class UAECloudSimulation {
         }
     }
 
-    private static List<Datacenter> createDatacentersForScenario(int scenario) {
+    private static List<Datacenter> createDatacentersForScenario(int scenario, ScenarioParameters params) {
         List<Datacenter> datacenters = new ArrayList<>();
         
         switch(scenario) {
             case 1: // Centralisé - Un seul grand datacenter
                 Log.printLine("Création du datacenter centralisé...");
-                datacenters.add(createDatacenter("DC_Central_Tetouan", 200, 32, 524288, 2500, 200, 800));
+                datacenters.add(createDatacenter("DC_Central_Tetouan", params.scaleHosts(200), 32, 524288, 2500, 200, 800));
                 break;
                 
             case 2: // Par villes - Un datacenter par campus
                 Log.printLine("Création des datacenters par villes...");
-                datacenters.add(createDatacenter("DC_Tetouan", 60, 32, 131072, 2500, 70, 200));
-                datacenters.add(createDatacenter("DC_Tanger", 50, 64, 262144, 3000, 90, 250));
-                datacenters.add(createDatacenter("DC_Hoceima", 20, 16, 65536, 2000, 30, 100));
-                datacenters.add(createDatacenter("DC_Larache", 15, 16, 65536, 2000, 25, 80));
-                datacenters.add(createDatacenter("DC_KsarElKebir", 15, 16, 65536, 2000, 25, 80));
+                datacenters.add(createDatacenter("DC_Tetouan", params.scaleHosts(60), 32, 131072, 2500, 70, 200));
+                datacenters.add(createDatacenter("DC_Tanger", params.scaleHosts(50), 64, 262144, 3000, 90, 250));
+                datacenters.add(createDatacenter("DC_Hoceima", params.scaleHosts(20), 16, 65536, 2000, 30, 100));
+                datacenters.add(createDatacenter("DC_Larache", params.scaleHosts(15), 16, 65536, 2000, 25, 80));
+                datacenters.add(createDatacenter("DC_KsarElKebir", params.scaleHosts(15), 16, 65536, 2000, 25, 80));
                 break;
                 
             case 3: // Hybride - Mix de centralisé et edge
                 Log.printLine("Création de l'architecture hybride...");
-                datacenters.add(createDatacenter("DC_Central_Tetouan", 100, 32, 262144, 2500, 100, 400));
-                datacenters.add(createDatacenter("DC_Edge_Tanger", 40, 64, 131072, 3000, 60, 200));
-                datacenters.add(createDatacenter("DC_Edge_Hoceima", 15, 16, 32768, 2000, 20, 60));
-                datacenters.add(createDatacenter("DC_Public_Cloud", 50, 16, 65536, 2000, 50, 150));
+                datacenters.add(createDatacenter("DC_Central_Tetouan", params.scaleHosts(100), 32, 262144, 2500, 100, 400));
+                datacenters.add(createDatacenter("DC_Edge_Tanger", params.scaleHosts(40), 64, 131072, 3000, 60, 200));
+                datacenters.add(createDatacenter("DC_Edge_Hoceima", params.scaleHosts(15), 16, 32768, 2000, 20, 60));
+                datacenters.add(createDatacenter("DC_Public_Cloud", params.scaleHosts(50), 16, 65536, 2000, 50, 150));
                 break;
         }
         
@@ -670,7 +706,7 @@ public class UAECloudSimulation {
         return datacenters;
     }
 
-    private static void createVMsForScenario(int scenario, List<Vm> vmList, int brokerTetouanId, int brokerTangerId, 
+    private static void createVMsForScenario(int scenario, ScenarioParameters params, List<Vm> vmList, int brokerTetouanId, int brokerTangerId, 
                                            int brokerHoceimaId, int brokerLaracheId, int brokerKsarElKebirId) {
         
         Log.printLine("\n" + "-".repeat(50));
@@ -680,42 +716,42 @@ public class UAECloudSimulation {
         switch(scenario) {
             case 1: // Centralisé - Toutes les VMs dans le datacenter central
                 Log.printLine("🎯 Stratégie: Toutes les VMs centralisées à Tétouan");
-                createVMsForCampus(vmList, brokerTetouanId, 0, 80, 2000, 4096, 2, 10000, 1000, "LMS_Central");
-                createVMsForCampus(vmList, brokerTetouanId, 80, 60, 2500, 8192, 2, 20000, 1000, "Sciences_Central");
-                createVMsForCampus(vmList, brokerTangerId, 140, 40, 3000, 32768, 8, 50000, 10000, "HPC_Central");
-                createVMsForCampus(vmList, brokerTangerId, 180, 30, 2500, 16384, 4, 30000, 5000, "Medecine_Central");
-                createVMsForCampus(vmList, brokerHoceimaId, 210, 20, 1500, 2048, 2, 10000, 500, "Edge_Central");
-                createVMsForCampus(vmList, brokerLaracheId, 230, 15, 1500, 2048, 2, 10000, 500, "FP_Central");
-                createVMsForCampus(vmList, brokerKsarElKebirId, 245, 15, 1600, 2048, 2, 12000, 600, "FP2_Central");
+                createVMsForCampus(vmList, brokerTetouanId, vmList.size(), params.scaleVms(80), 2000, 4096, 2, 10000, 1000, "LMS_Central");
+                createVMsForCampus(vmList, brokerTetouanId, vmList.size(), params.scaleVms(60), 2500, 8192, 2, 20000, 1000, "Sciences_Central");
+                createVMsForCampus(vmList, brokerTangerId, vmList.size(), params.scaleVms(40), 3000, 32768, 8, 50000, 10000, "HPC_Central");
+                createVMsForCampus(vmList, brokerTangerId, vmList.size(), params.scaleVms(30), 2500, 16384, 4, 30000, 5000, "Medecine_Central");
+                createVMsForCampus(vmList, brokerHoceimaId, vmList.size(), params.scaleVms(20), 1500, 2048, 2, 10000, 500, "Edge_Central");
+                createVMsForCampus(vmList, brokerLaracheId, vmList.size(), params.scaleVms(15), 1500, 2048, 2, 10000, 500, "FP_Central");
+                createVMsForCampus(vmList, brokerKsarElKebirId, vmList.size(), params.scaleVms(15), 1600, 2048, 2, 12000, 600, "FP2_Central");
                 break;
                 
             case 2: // Par villes - VMs locales dans chaque datacenter
                 Log.printLine("🎯 Stratégie: VMs locales dans chaque datacenter de ville");
-                createVMsForCampus(vmList, brokerTetouanId, 0, 40, 2000, 4096, 2, 10000, 1000, "LMS_Tetouan_Local");
-                createVMsForCampus(vmList, brokerTetouanId, 40, 30, 2500, 8192, 2, 20000, 1000, "Sciences_Tetouan_Local");
-                createVMsForCampus(vmList, brokerTangerId, 70, 20, 3000, 32768, 8, 50000, 10000, "HPC_Tanger_Local");
-                createVMsForCampus(vmList, brokerTangerId, 90, 15, 2500, 16384, 4, 30000, 5000, "Medecine_Tanger_Local");
-                createVMsForCampus(vmList, brokerHoceimaId, 105, 10, 1500, 2048, 2, 10000, 500, "Edge_Hoceima_Local");
-                createVMsForCampus(vmList, brokerLaracheId, 115, 8, 1500, 2048, 2, 10000, 500, "FP_Larache_Local");
-                createVMsForCampus(vmList, brokerKsarElKebirId, 123, 7, 1600, 2048, 2, 12000, 600, "FP_Ksar_Local");
+                createVMsForCampus(vmList, brokerTetouanId, vmList.size(), params.scaleVms(40), 2000, 4096, 2, 10000, 1000, "LMS_Tetouan_Local");
+                createVMsForCampus(vmList, brokerTetouanId, vmList.size(), params.scaleVms(30), 2500, 8192, 2, 20000, 1000, "Sciences_Tetouan_Local");
+                createVMsForCampus(vmList, brokerTangerId, vmList.size(), params.scaleVms(20), 3000, 32768, 8, 50000, 10000, "HPC_Tanger_Local");
+                createVMsForCampus(vmList, brokerTangerId, vmList.size(), params.scaleVms(15), 2500, 16384, 4, 30000, 5000, "Medecine_Tanger_Local");
+                createVMsForCampus(vmList, brokerHoceimaId, vmList.size(), params.scaleVms(10), 1500, 2048, 2, 10000, 500, "Edge_Hoceima_Local");
+                createVMsForCampus(vmList, brokerLaracheId, vmList.size(), params.scaleVms(8), 1500, 2048, 2, 10000, 500, "FP_Larache_Local");
+                createVMsForCampus(vmList, brokerKsarElKebirId, vmList.size(), params.scaleVms(7), 1600, 2048, 2, 12000, 600, "FP_Ksar_Local");
                 break;
                 
             case 3: // Hybride - Mix selon la criticité
                 Log.printLine("🎯 Stratégie: Mix centralisé (critique) + edge (latence) + cloud (standard)");
                 // Tétouan (central) - Charges critiques
-                createVMsForCampus(vmList, brokerTetouanId, 0, 30, 2000, 4096, 2, 10000, 1000, "LMS_Hybrid_Central");
-                createVMsForCampus(vmList, brokerTetouanId, 30, 20, 2500, 8192, 2, 20000, 1000, "Sciences_Hybrid_Central");
+                createVMsForCampus(vmList, brokerTetouanId, vmList.size(), params.scaleVms(30), 2000, 4096, 2, 10000, 1000, "LMS_Hybrid_Central");
+                createVMsForCampus(vmList, brokerTetouanId, vmList.size(), params.scaleVms(20), 2500, 8192, 2, 20000, 1000, "Sciences_Hybrid_Central");
                 
                 // Tanger (edge) - HPC et médical (latence critique)
-                createVMsForCampus(vmList, brokerTangerId, 50, 15, 3000, 32768, 8, 50000, 10000, "HPC_Hybrid_Edge");
-                createVMsForCampus(vmList, brokerTangerId, 65, 10, 2500, 16384, 4, 30000, 5000, "Medical_Hybrid_Edge");
+                createVMsForCampus(vmList, brokerTangerId, vmList.size(), params.scaleVms(15), 3000, 32768, 8, 50000, 10000, "HPC_Hybrid_Edge");
+                createVMsForCampus(vmList, brokerTangerId, vmList.size(), params.scaleVms(10), 2500, 16384, 4, 30000, 5000, "Medical_Hybrid_Edge");
                 
                 // Hoceima (edge) - Applications locales
-                createVMsForCampus(vmList, brokerHoceimaId, 75, 8, 1500, 2048, 2, 10000, 500, "Apps_Hybrid_Edge");
+                createVMsForCampus(vmList, brokerHoceimaId, vmList.size(), params.scaleVms(8), 1500, 2048, 2, 10000, 500, "Apps_Hybrid_Edge");
                 
                 // Cloud public - Charges non critiques
-                createVMsForCampus(vmList, brokerLaracheId, 83, 6, 1800, 2048, 2, 15000, 800, "FP_Hybrid_Public");
-                createVMsForCampus(vmList, brokerKsarElKebirId, 89, 6, 1800, 2048, 2, 15000, 800, "FP2_Hybrid_Public");
+                createVMsForCampus(vmList, brokerLaracheId, vmList.size(), params.scaleVms(6), 1800, 2048, 2, 15000, 800, "FP_Hybrid_Public");
+                createVMsForCampus(vmList, brokerKsarElKebirId, vmList.size(), params.scaleVms(6), 1800, 2048, 2, 15000, 800, "FP2_Hybrid_Public");
                 break;
         }
         
@@ -822,7 +858,7 @@ public class UAECloudSimulation {
         Log.printLine("  - Ksar El-Kébir: " + vmsKsarElKebir.size() + " VMs");
     }
 
-    private static void createCloudletsForScenario(int scenario, List<Cloudlet> cloudletList, 
+    private static void createCloudletsForScenario(int scenario, ScenarioParameters params, List<Cloudlet> cloudletList, 
                                                  int brokerTetouanId, int brokerTangerId, int brokerHoceimaId,
                                                  int brokerLaracheId, int brokerKsarElKebirId,
                                                  DatacenterBroker brokerTetouan, DatacenterBroker brokerTanger,
@@ -841,13 +877,13 @@ public class UAECloudSimulation {
         List<Vm> vmsKsarElKebir = brokerKsarElKebir.getVmList();
 
         // Nombre de cloudlets réduit pour accélérer la simulation comparative
-        createCloudletsForCampus(cloudletList, brokerTetouanId, 0, 500, 40000, 500, 300, 2, vmsTetouan, "LMS_Tetouan");
-        createCloudletsForCampus(cloudletList, brokerTetouanId, 500, 400, 100000, 1024, 512, 2, vmsTetouan, "Sciences_Tetouan");
-        createCloudletsForCampus(cloudletList, brokerTangerId, 900, 300, 500000, 5120, 2048, 8, vmsTanger, "HPC_Tanger");
-        createCloudletsForCampus(cloudletList, brokerTangerId, 1200, 200, 200000, 10240, 5120, 4, vmsTanger, "Medical_Tanger");
-        createCloudletsForCampus(cloudletList, brokerHoceimaId, 1400, 100, 30000, 400, 200, 2, vmsHoceima, "Edge_Hoceima");
-        createCloudletsForCampus(cloudletList, brokerLaracheId, 1500, 80, 25000, 400, 200, 2, vmsLarache, "FP_Larache");
-        createCloudletsForCampus(cloudletList, brokerKsarElKebirId, 1580, 80, 35000, 450, 250, 2, vmsKsarElKebir, "FP_KsarElKebir");
+        createCloudletsForCampus(cloudletList, brokerTetouanId, 0, 500, params.scaleLength(40000), 500, 300, 2, vmsTetouan, "LMS_Tetouan");
+        createCloudletsForCampus(cloudletList, brokerTetouanId, 500, 400, params.scaleLength(100000), 1024, 512, 2, vmsTetouan, "Sciences_Tetouan");
+        createCloudletsForCampus(cloudletList, brokerTangerId, 900, 300, params.scaleLength(500000), 5120, 2048, 8, vmsTanger, "HPC_Tanger");
+        createCloudletsForCampus(cloudletList, brokerTangerId, 1200, 200, params.scaleLength(200000), 10240, 5120, 4, vmsTanger, "Medical_Tanger");
+        createCloudletsForCampus(cloudletList, brokerHoceimaId, 1400, 100, params.scaleLength(30000), 400, 200, 2, vmsHoceima, "Edge_Hoceima");
+        createCloudletsForCampus(cloudletList, brokerLaracheId, 1500, 80, params.scaleLength(25000), 400, 200, 2, vmsLarache, "FP_Larache");
+        createCloudletsForCampus(cloudletList, brokerKsarElKebirId, 1580, 80, params.scaleLength(35000), 450, 250, 2, vmsKsarElKebir, "FP_KsarElKebir");
         
         Log.printLine("✅ Création terminée: " + cloudletList.size() + " cloudlets créés");
     }
@@ -0,0 +1,249 @@
+package org.cloudbus.cloudsim.examples.custom;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.examples.custom.UAECloudSimulation.ScenarioParameters;
+import org.cloudbus.cloudsim.examples.custom.UAECloudSimulation.ScenarioResult;
+
+/**
+ * Balayage de paramètres des scénarios UAE.
+ * Chaque point de la grille (scénario x hôtes x VMs x longueur des cloudlets) est exécuté
+ * dans son propre {@link SimulationContext} sur un pool de threads borné. Les résultats sont
+ * ajoutés au fichier CSV dès qu'un point se termine ; une relance avec le même fichier
+ * ignore les points déjà présents.
+ *
+ * Usage: UAEScenarioSweep [scenario=1,2,3] [hostScale=0.5,1] [vmScale=1,2] [lengthScale=1]
+ *                         [workers=4] [output=uae-sweep.csv]
+ */
+public class UAEScenarioSweep {
+
+    private static final String[] COLUMNS = {
+        "point", "scenario", "scenarioName", "hostScale", "vmScale", "lengthScale",
+        "totalVMs", "totalCloudlets", "successfulCloudlets", "successRate",
+        "averageExecutionTime", "minExecutionTime", "maxExecutionTime", "makespan", "cloudletsPerVM"
+    };
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("scenario", "1,2,3");
+        options.put("hostScale", "1");
+        options.put("vmScale", "1");
+        options.put("lengthScale", "1");
+        options.put("workers", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        options.put("output", "uae-sweep.csv");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !options.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        List<SweepPoint> grid = createGrid(
+                parseInts(options.get("scenario")),
+                parseDoubles(options.get("hostScale")),
+                parseDoubles(options.get("vmScale")),
+                parseDoubles(options.get("lengthScale")));
+        int workers = Integer.parseInt(options.get("workers"));
+        File output = new File(options.get("output"));
+
+        run(grid, workers, output);
+    }
+
+    /**
+     * Produit le point de chaque combinaison de valeurs de la grille.
+     */
+    static List<SweepPoint> createGrid(int[] scenarios, double[] hostScales, double[] vmScales,
+                                       double[] lengthScales) {
+        List<SweepPoint> grid = new ArrayList<>();
+        for (int scenario : scenarios) {
+            for (double hostScale : hostScales) {
+                for (double vmScale : vmScales) {
+                    for (double lengthScale : lengthScales) {
+                        grid.add(new SweepPoint(scenario,
+                                new ScenarioParameters(hostScale, vmScale, lengthScale)));
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Exécute les points de la grille qui ne figurent pas encore dans le fichier de sortie.
+     */
+    static void run(List<SweepPoint> grid, int workers, File output) throws IOException, InterruptedException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("The number of workers must be at least 1");
+        }
+
+        Set<String> done = readCompletedPoints(output);
+        List<SweepPoint> pending = new ArrayList<>();
+        for (SweepPoint point : grid) {
+            if (!done.contains(point.getKey())) {
+                pending.add(point);
+            }
+        }
+        System.out.println("Balayage: " + grid.size() + " points, " + (grid.size() - pending.size())
+                + " déjà terminés, " + pending.size() + " à exécuter sur " + workers + " threads");
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Log est partagé par toutes les simulations : on le coupe pendant le balayage
+        boolean logDisabled = Log.isDisabled();
+        Log.disable();
+
+        boolean writeHeader = !output.exists() || output.length() == 0;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, pending.size()));
+        try (PrintWriter writer = new PrintWriter(new FileWriter(output, true))) {
+            if (writeHeader) {
+                writer.println(String.join(",", COLUMNS));
+                writer.flush();
+            }
+
+            CompletionService<SweepOutcome> completion = new ExecutorCompletionService<>(executor);
+            for (SweepPoint point : pending) {
+                completion.submit(() -> runPoint(point));
+            }
+
+            int failed = 0;
+            for (int i = 1; i <= pending.size(); i++) {
+                SweepOutcome outcome;
+                try {
+                    outcome = completion.take().get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Sweep worker failed", e.getCause());
+                }
+                if (outcome.result == null) {
+                    failed++;
+                    System.out.println("[" + i + "/" + pending.size() + "] " + outcome.point.getKey() + " : ÉCHEC");
+                    continue;
+                }
+                writer.println(toCsvRow(outcome.point, outcome.result));
+                writer.flush();
+                System.out.println("[" + i + "/" + pending.size() + "] " + outcome.point.getKey()
+                        + String.format(Locale.ROOT, " : makespan %.2f s, succès %.2f%%",
+                                outcome.result.makespan, outcome.result.successRate));
+            }
+            if (failed > 0) {
+                System.out.println(failed + " point(s) en échec ; relancer le balayage pour les réexécuter");
+            }
+        } finally {
+            executor.shutdownNow();
+            if (!logDisabled) {
+                Log.enable();
+            }
+        }
+    }
+
+    private static SweepOutcome runPoint(SweepPoint point) {
+        CloudSim.setContext(new SimulationContext());
+        try {
+            return new SweepOutcome(point, UAECloudSimulation.runScenario(point.scenario, point.parameters));
+        } finally {
+            CloudSim.setContext(null);
+        }
+    }
+
+    private static Set<String> readCompletedPoints(File output) throws IOException {
+        Set<String> done = new HashSet<>();
+        if (!output.exists()) {
+            return done;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(output))) {
+            String line = reader.readLine(); // en-tête
+            while ((line = reader.readLine()) != null) {
+                // une ligne incomplète (arrêt pendant l'écriture) n'est pas comptée
+                if (line.split(",", -1).length == COLUMNS.length) {
+                    done.add(line.substring(0, line.indexOf(',')));
+                }
+            }
+        }
+        return done;
+    }
+
+    private static String toCsvRow(SweepPoint point, ScenarioResult result) {
+        return String.format(Locale.ROOT, "%s,%d,%s,%s,%s,%s,%d,%d,%d,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f",
+                point.getKey(),
+                point.scenario,
+                result.scenarioName.replace(',', ' '),
+                point.parameters.hostScale,
+                point.parameters.vmScale,
+                point.parameters.lengthScale,
+                result.totalVMs,
+                result.totalCloudlets,
+                result.successfulCloudlets,
+                result.successRate,
+                result.averageExecutionTime,
+                result.minExecutionTime,
+                result.maxExecutionTime,
+                result.makespan,
+                result.cloudletsPerVM);
+    }
+
+    private static int[] parseInts(String values) {
+        String[] parts = values.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+
+    private static double[] parseDoubles(String values) {
+        String[] parts = values.split(",");
+        double[] result = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Double.parseDouble(parts[i].trim());
+        }
+        return result;
+    }
+
+    // Un point de la grille
+    static class SweepPoint {
+        final int scenario;
+        final ScenarioParameters parameters;
+
+        SweepPoint(int scenario, ScenarioParameters parameters) {
+            this.scenario = scenario;
+            this.parameters = parameters;
+        }
+
+        // Identifiant stable du point, utilisé pour la reprise
+        String getKey() {
+            return String.format(Locale.ROOT, "s%d-h%s-v%s-l%s", scenario,
+                    parameters.hostScale, parameters.vmScale, parameters.lengthScale);
+        }
+    }
+
+    private static class SweepOutcome {
+        final SweepPoint point;
+        final ScenarioResult result;
+
+        SweepOutcome(SweepPoint point, ScenarioResult result) {
+            this.point = point;
+            this.result = result;
+        }
+    }
+}
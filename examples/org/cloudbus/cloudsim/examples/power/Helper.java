@@ -1,7 +1,10 @@
 package org.cloudbus.cloudsim.examples.power;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.DecimalFormat;
@@ -19,14 +22,14 @@ import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
-import org.cloudbus.cloudsim.HostStateHistoryEntry;
+import org.cloudbus.cloudsim.HostStateHistory;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
-import org.cloudbus.cloudsim.VmStateHistoryEntry;
+import org.cloudbus.cloudsim.VmStateHistory;
 import org.cloudbus.cloudsim.power.PowerDatacenter;
 import org.cloudbus.cloudsim.power.PowerDatacenterBroker;
 import org.cloudbus.cloudsim.power.PowerHost;
@@ -196,14 +199,16 @@ public class Helper {
 		for (Host host : hosts) {
 			boolean previousIsActive = true;
 			double lastTimeSwitchedOn = 0;
-			for (HostStateHistoryEntry entry : ((HostDynamicWorkload) host).getStateHistory()) {
-				if (previousIsActive == true && entry.isActive() == false) {
-					timeBeforeShutdown.add(entry.getTime() - lastTimeSwitchedOn);
+			HostStateHistory stateHistory = ((HostDynamicWorkload) host).getStateHistoryColumns();
+			for (int i = 0; i < stateHistory.size(); i++) {
+				boolean isActive = stateHistory.isActive(i);
+				if (previousIsActive == true && isActive == false) {
+					timeBeforeShutdown.add(stateHistory.getTime(i) - lastTimeSwitchedOn);
 				}
-				if (previousIsActive == false && entry.isActive() == true) {
-					lastTimeSwitchedOn = entry.getTime();
+				if (previousIsActive == false && isActive == true) {
+					lastTimeSwitchedOn = stateHistory.getTime(i);
 				}
-				previousIsActive = entry.isActive();
+				previousIsActive = isActive;
 			}
 		}
 		return timeBeforeShutdown;
@@ -220,14 +225,16 @@ public class Helper {
 		for (Vm vm : vms) {
 			boolean previousIsInMigration = false;
 			double lastTimeMigrationFinished = 0;
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
-				if (previousIsInMigration == true && entry.isInMigration() == false) {
-					timeBeforeVmMigration.add(entry.getTime() - lastTimeMigrationFinished);
+			VmStateHistory stateHistory = vm.getStateHistoryColumns();
+			for (int i = 0; i < stateHistory.size(); i++) {
+				boolean isInMigration = stateHistory.isInMigration(i);
+				if (previousIsInMigration == true && isInMigration == false) {
+					timeBeforeVmMigration.add(stateHistory.getTime(i) - lastTimeMigrationFinished);
 				}
-				if (previousIsInMigration == false && entry.isInMigration() == true) {
-					lastTimeMigrationFinished = entry.getTime();
+				if (previousIsInMigration == false && isInMigration == true) {
+					lastTimeMigrationFinished = stateHistory.getTime(i);
 				}
-				previousIsInMigration = entry.isInMigration();
+				previousIsInMigration = isInMigration;
 			}
 		}
 		return timeBeforeVmMigration;
@@ -312,6 +319,10 @@ public class Helper {
 			if (!folder4.exists()) {
 				folder4.mkdir();
 			}
+			File folder5 = new File(outputFolder + "/state_history");
+			if (!folder5.exists()) {
+				folder5.mkdir();
+			}
 
 			StringBuilder data = new StringBuilder();
 			String delimeter = ",";
@@ -378,6 +389,8 @@ public class Helper {
 					+ experimentName + "_time_before_host_shutdown.csv");
 			writeDataColumn(timeBeforeVmMigration, outputFolder + "/time_before_vm_migration/"
 					+ experimentName + "_time_before_vm_migration.csv");
+			writeStateHistory(hosts, vms, outputFolder + "/state_history/" + experimentName
+					+ "_state_history");
 
 		} else {
 			Log.setDisabled(false);
@@ -501,19 +514,21 @@ public class Helper {
 			double previousRequested = 0;
 			boolean previousIsActive = true;
 
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
+			HostStateHistory stateHistory = host.getStateHistoryColumns();
+			for (int i = 0; i < stateHistory.size(); i++) {
+				double time = stateHistory.getTime(i);
 				if (previousTime != -1 && previousIsActive) {
-					double timeDiff = entry.getTime() - previousTime;
+					double timeDiff = time - previousTime;
 					totalTime += timeDiff;
 					if (previousAllocated < previousRequested) {
 						slaViolationTimePerHost += timeDiff;
 					}
 				}
 
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsActive = entry.isActive();
+				previousAllocated = stateHistory.getAllocatedMips(i);
+				previousRequested = stateHistory.getRequestedMips(i);
+				previousTime = time;
+				previousIsActive = stateHistory.isActive(i);
 			}
 		}
 
@@ -536,18 +551,20 @@ public class Helper {
 			double previousAllocated = 0;
 			double previousRequested = 0;
 
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
+			HostStateHistory stateHistory = host.getStateHistoryColumns();
+			for (int i = 0; i < stateHistory.size(); i++) {
+				double time = stateHistory.getTime(i);
 				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
+					double timeDiff = time - previousTime;
 					totalTime += timeDiff;
 					if (previousAllocated < previousRequested) {
 						slaViolationTimePerHost += timeDiff;
 					}
 				}
 
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
+				previousAllocated = stateHistory.getAllocatedMips(i);
+				previousRequested = stateHistory.getRequestedMips(i);
+				previousTime = time;
 			}
 		}
 
@@ -576,9 +593,11 @@ public class Helper {
 			double previousRequested = 0;
 			boolean previousIsInMigration = false;
 
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
+			VmStateHistory stateHistory = vm.getStateHistoryColumns();
+			for (int i = 0; i < stateHistory.size(); i++) {
+				double time = stateHistory.getTime(i);
 				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
+					double timeDiff = time - previousTime;
 					vmTotalAllocated += previousAllocated * timeDiff;
 					vmTotalRequested += previousRequested * timeDiff;
 
@@ -591,10 +610,10 @@ public class Helper {
 					}
 				}
 
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsInMigration = entry.isInMigration();
+				previousAllocated = stateHistory.getAllocatedMips(i);
+				previousRequested = stateHistory.getRequestedMips(i);
+				previousTime = time;
+				previousIsInMigration = stateHistory.isInMigration(i);
 			}
 
 			totalAllocated += vmTotalAllocated;
@@ -667,6 +686,41 @@ public class Helper {
 		}
 	}
 
+	/**
+	 * Writes the state histories of the hosts and the VMs, column by column, to the files
+	 * outputPath_hosts.bin and outputPath_vms.bin. Each file starts with the number of hosts or VMs,
+	 * followed by the id of each one and its
+	 * {@link org.cloudbus.cloudsim.StateHistory#writeColumns(java.io.DataOutput) columns}.
+	 * 
+	 * @param hosts the hosts
+	 * @param vms the vms
+	 * @param outputPath the output path
+	 */
+	public static void writeStateHistory(List<Host> hosts, List<Vm> vms, String outputPath) {
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(outputPath + "_hosts.bin")));
+			out.writeInt(hosts.size());
+			for (Host host : hosts) {
+				out.writeInt(host.getId());
+				((HostDynamicWorkload) host).getStateHistoryColumns().writeColumns(out);
+			}
+			out.close();
+
+			out = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(outputPath + "_vms.bin")));
+			out.writeInt(vms.size());
+			for (Vm vm : vms) {
+				out.writeInt(vm.getId());
+				vm.getStateHistoryColumns().writeColumns(out);
+			}
+			out.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(0);
+		}
+	}
+
 	/**
 	 * Write metric history.
 	 * 
@@ -2,14 +2,15 @@ package org.cloudbus.cloudsim.examples.power.planetlab;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelNull;
-import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
 import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.util.PlanetLabTraceStore;
 
 /**
  * A helper class for the running examples for the PlanetLab workload.
@@ -46,6 +47,15 @@ public class PlanetLabHelper {
 		File inputFolder = new File(inputFolderName);
 		File[] files = inputFolder.listFiles();
 
+		PlanetLabTraceStore traceStore = null;
+		try {
+			// the traces are parsed once, and shared by the simulations of the JVM
+			traceStore = PlanetLabTraceStore.getInstance(inputFolder);
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(0);
+		}
+
 		for (int i = 0; i < files.length; i++) {
 			Cloudlet cloudlet = null;
 			try {
@@ -55,8 +65,8 @@ public class PlanetLabHelper {
 						Constants.CLOUDLET_PES,
 						fileSize,
 						outputSize,
-						new UtilizationModelPlanetLabInMemory(
-								files[i].getAbsolutePath(),
+						traceStore.getUtilizationModel(
+								files[i].getName(),
 								Constants.SCHEDULING_INTERVAL), utilizationModelNull, utilizationModelNull);
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -14,6 +14,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.EventTrace;
 
 /**
  * Cloudlet is an extension to the cloudlet. It stores, despite all the information encapsulated in
@@ -559,7 +560,8 @@ public class Cloudlet {
 
 	/**
 	 * Gets the history of this Cloudlet. The layout of this history is in a readable table column
-	 * with <tt>time</tt> and <tt>description</tt> as headers.
+	 * with <tt>time</tt> and <tt>description</tt> as headers. When the simulation has an
+	 * {@link EventTrace}, the history is recorded there instead.
 	 * 
 	 * @return a String containing the history of this Cloudlet object.
 	 * @pre $none
@@ -642,7 +644,7 @@ public class Cloudlet {
 		final Resource res = resList.get(index);
 		res.finishedSoFar = length;
 
-		if (record) {
+		if (record && !trace(EventTrace.CLOUDLET_FINISHED_SO_FAR, -1, res.resourceId, length, 0)) {
 			write("Sets the length's finished so far to " + length);
 		}
 	}
@@ -657,7 +659,7 @@ public class Cloudlet {
 	 */
 	public void setUserId(final int id) {
 		userId = id;
-		if (record) {
+		if (record && !trace(EventTrace.CLOUDLET_USER, id, -1, 0, 0)) {
 			write("Assigns the Cloudlet to " + CloudSim.getEntityName(id) + " (ID #" + id + ")");
 		}
 	}
@@ -730,14 +732,18 @@ public class Cloudlet {
 		// add into a list if moving to a new grid resource
 		resList.add(res);
 
-		if (index == -1 && record) {
-			write("Allocates this Cloudlet to " + res.resourceName + " (ID #" + resourceID
-					+ ") with cost = $" + cost + "/sec");
-		} else if (record) {
-			final int id = resList.get(index).resourceId;
-			final String name = resList.get(index).resourceName;
-			write("Moves Cloudlet from " + name + " (ID #" + id + ") to " + res.resourceName + " (ID #"
-					+ resourceID + ") with cost = $" + cost + "/sec");
+		if (record) {
+			final int previousId = index == -1 ? -1 : resList.get(index).resourceId;
+			if (trace(EventTrace.CLOUDLET_RESOURCE, previousId, resourceID, cost, 0)) {
+				// recorded in the event trace
+			} else if (index == -1) {
+				write("Allocates this Cloudlet to " + res.resourceName + " (ID #" + resourceID
+						+ ") with cost = $" + cost + "/sec");
+			} else {
+				final String name = resList.get(index).resourceName;
+				write("Moves Cloudlet from " + name + " (ID #" + previousId + ") to " + res.resourceName
+						+ " (ID #" + resourceID + ") with cost = $" + cost + "/sec");
+			}
 		}
 
 		index++;  // initially, index = -1
@@ -758,7 +764,7 @@ public class Cloudlet {
 		final Resource res = resList.get(index);
 		res.submissionTime = clockTime;
 
-		if (record) {
+		if (record && !trace(EventTrace.CLOUDLET_SUBMISSION, -1, res.resourceId, clockTime, 0)) {
 			write("Sets the submission time to " + num.format(clockTime));
 		}
 	}
@@ -789,7 +795,7 @@ public class Cloudlet {
 	 */
 	public void setExecStartTime(final double clockTime) {
 		execStartTime = clockTime;
-		if (record) {
+		if (record && !trace(EventTrace.CLOUDLET_EXEC_START, -1, getResourceId(), clockTime, 0)) {
 			write("Sets the execution start time to " + num.format(clockTime));
 		}
 	}
@@ -825,7 +831,7 @@ public class Cloudlet {
 		res.wallClockTime = wallTime;
 		res.actualCPUTime = actualTime;
 
-		if (record) {
+		if (record && !trace(EventTrace.CLOUDLET_EXEC_PARAM, -1, res.resourceId, wallTime, actualTime)) {
 			write("Sets the wall clock time to " + num.format(wallTime) + " and the actual CPU time to "
 					+ num.format(actualTime));
 		}
@@ -855,7 +861,7 @@ public class Cloudlet {
 			finishTime = CloudSim.clock();
 		}
 
-		if (record) {
+		if (record && !trace(EventTrace.CLOUDLET_STATUS, -1, getResourceId(), status, newStatus)) {
 			write("Sets Cloudlet status from " + getCloudletStatusString() + " to "
 					+ Cloudlet.getStatusString(newStatus));
 		}
@@ -1165,6 +1171,27 @@ public class Cloudlet {
 
 	// //////////////////////// PROTECTED METHODS //////////////////////////////
 
+	/**
+	 * Records a history transaction of this Cloudlet in the event trace of the simulation, if
+	 * there is one.
+	 * 
+	 * @param kind the kind of record, one of the CLOUDLET constants of {@link EventTrace}
+	 * @param source the source entity, or -1
+	 * @param destination the destination entity, or -1
+	 * @param value1 the first value
+	 * @param value2 the second value
+	 * @return true, if the transaction was recorded in the trace; false, if it has to be written
+	 *         into the history
+	 */
+	protected boolean trace(int kind, int source, int destination, double value1, double value2) {
+		EventTrace trace = CloudSim.getEventTrace();
+		if (trace == null) {
+			return false;
+		}
+		trace.recordCloudlet(kind, this, source, destination, value1, value2);
+		return true;
+	}
+
 	/**
 	 * Writes this particular history transaction of this Cloudlet into a log.
 	 * 
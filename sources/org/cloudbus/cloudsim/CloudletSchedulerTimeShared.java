@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.lists.ResCloudletList;
 
 /**
  * CloudletSchedulerTimeShared implements a policy of scheduling performed by a virtual machine.
@@ -43,9 +44,9 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	public CloudletSchedulerTimeShared() {
 		super();
-		cloudletExecList = new ArrayList<ResCloudlet>();
-		cloudletPausedList = new ArrayList<ResCloudlet>();
-		cloudletFinishedList = new ArrayList<ResCloudlet>();
+		cloudletExecList = ResCloudletList.createIndexedList();
+		cloudletPausedList = ResCloudletList.createIndexedList();
+		cloudletFinishedList = ResCloudletList.createIndexedList();
 		currentCPUs = 0;
 	}
 
@@ -63,33 +64,45 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
 		setCurrentMipsShare(mipsShare);
 		double timeSpam = currentTime - getPreviousTime();
+		List<ResCloudlet> execList = getCloudletExecList();
 
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			rcl.updateCloudletFinishedSoFar((long) (getCapacity(mipsShare) * timeSpam * rcl.getNumberOfPes() * Consts.MILLION));
-		}
-
-		if (getCloudletExecList().size() == 0) {
+		if (execList.size() == 0) {
 			setPreviousTime(currentTime);
 			return 0.0;
 		}
 
-		// check finished cloudlets
-		double nextEvent = Double.MAX_VALUE;
-		List<ResCloudlet> toRemove = new ArrayList<ResCloudlet>();
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			long remainingLength = rcl.getRemainingCloudletLength();
-			if (remainingLength == 0) {// finished: remove from the list
-				toRemove.add(rcl);
+		// the capacity is shared by all the cloudlets, so it is only computed once
+		double capacity = getCapacity(mipsShare);
+
+		// update the cloudlets and remove the finished ones by compacting the list in place
+		int size = execList.size();
+		int running = 0;
+		for (int i = 0; i < size; i++) {
+			ResCloudlet rcl = execList.get(i);
+			rcl.updateCloudletFinishedSoFar((long) (capacity * timeSpam * rcl.getNumberOfPes() * Consts.MILLION));
+			if (rcl.getRemainingCloudletLength() == 0) {
 				cloudletFinish(rcl);
-				continue;
+			} else {
+				if (running != i) {
+					execList.set(running, rcl);
+				}
+				running++;
+			}
+		}
+		if (running < size) {
+			execList.subList(running, size).clear();
+			if (running > 0) {
+				// the capacity depends on the number of PEs in use
+				capacity = getCapacity(mipsShare);
 			}
 		}
-		getCloudletExecList().removeAll(toRemove);
 
 		// estimate finish time of cloudlets
-		for (ResCloudlet rcl : getCloudletExecList()) {
+		double nextEvent = Double.MAX_VALUE;
+		for (int i = 0; i < running; i++) {
+			ResCloudlet rcl = execList.get(i);
 			double estimatedFinishTime = currentTime
-					+ (rcl.getRemainingCloudletLength() / (getCapacity(mipsShare) * rcl.getNumberOfPes()));
+					+ (rcl.getRemainingCloudletLength() / (capacity * rcl.getNumberOfPes()));
 			if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
 				estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
 			}
@@ -143,34 +156,15 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public Cloudlet cloudletCancel(int cloudletId) {
-		boolean found = false;
-		int position = 0;
-
 		// First, looks in the finished queue
-		found = false;
-		for (ResCloudlet rcl : getCloudletFinishedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
-
-		if (found) {
+		int position = ResCloudletList.getPositionById(getCloudletFinishedList(), cloudletId);
+		if (position >= 0) {
 			return getCloudletFinishedList().remove(position).getCloudlet();
 		}
 
 		// Then searches in the exec list
-		position=0;
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
-
-		if (found) {
+		position = ResCloudletList.getPositionById(getCloudletExecList(), cloudletId);
+		if (position >= 0) {
 			ResCloudlet rcl = getCloudletExecList().remove(position);
 			if (rcl.getRemainingCloudletLength() == 0) {
 				cloudletFinish(rcl);
@@ -181,19 +175,11 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		}
 
 		// Now, looks in the paused queue
-		found = false;
-		position=0;
-		for (ResCloudlet rcl : getCloudletPausedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				rcl.setCloudletStatus(Cloudlet.CANCELED);
-				break;
-			}
-			position++;
-		}
-
-		if (found) {
-			return getCloudletPausedList().remove(position).getCloudlet();
+		position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		if (position >= 0) {
+			ResCloudlet rcl = getCloudletPausedList().remove(position);
+			rcl.setCloudletStatus(Cloudlet.CANCELED);
+			return rcl.getCloudlet();
 		}
 
 		return null;
@@ -209,18 +195,9 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public boolean cloudletPause(int cloudletId) {
-		boolean found = false;
-		int position = 0;
+		int position = ResCloudletList.getPositionById(getCloudletExecList(), cloudletId);
 
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
-
-		if (found) {
+		if (position >= 0) {
 			// remove cloudlet from the exec list and put it in the paused list
 			ResCloudlet rcl = getCloudletExecList().remove(position);
 			if (rcl.getRemainingCloudletLength() == 0) {
@@ -258,19 +235,10 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public double cloudletResume(int cloudletId) {
-		boolean found = false;
-		int position = 0;
-
 		// look for the cloudlet in the paused list
-		for (ResCloudlet rcl : getCloudletPausedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
+		int position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
 
-		if (found) {
+		if (position >= 0) {
 			ResCloudlet rgl = getCloudletPausedList().remove(position);
 			rgl.setCloudletStatus(Cloudlet.INEXEC);
 			getCloudletExecList().add(rgl);
@@ -309,11 +277,12 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 
 		// use the current capacity to estimate the extra amount of
 		// time to file transferring. It must be added to the cloudlet length
-		double extraSize = getCapacity(getCurrentMipsShare()) * fileTransferTime;
+		double capacity = getCapacity(getCurrentMipsShare());
+		double extraSize = capacity * fileTransferTime;
 		long length = (long) (cloudlet.getCloudletLength() + extraSize);
 		cloudlet.setCloudletLength(length);
 
-		return cloudlet.getCloudletLength() / getCapacity(getCurrentMipsShare());
+		return cloudlet.getCloudletLength() / capacity;
 	}
 
 	/*
@@ -335,15 +304,13 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public int getCloudletStatus(int cloudletId) {
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				return rcl.getCloudletStatus();
-			}
+		int position = ResCloudletList.getPositionById(getCloudletExecList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletExecList().get(position).getCloudletStatus();
 		}
-		for (ResCloudlet rcl : getCloudletPausedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				return rcl.getCloudletStatus();
-			}
+		position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletPausedList().get(position).getCloudletStatus();
 		}
 		return -1;
 	}
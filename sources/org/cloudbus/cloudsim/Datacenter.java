@@ -7,16 +7,20 @@
 
 package org.cloudbus.cloudsim;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.lists.VmList;
 
 /**
  * Datacenter class is a CloudResource whose hostList are virtualized. It deals with processing of
@@ -52,6 +56,27 @@ public class Datacenter extends SimEntity {
 	/** The scheduling interval. */
 	private double schedulingInterval;
 
+	/** Whether only the hosts whose state changed or whose next completion is due are updated. */
+	private boolean incrementalUpdate;
+
+	/** The position of each host in the host list, used by the incremental update. */
+	private Map<Host, Integer> hostPositions;
+
+	/** The next expected completion time of each host, indexed by position. */
+	private double[] hostCompletionTimes;
+
+	/** The time each host was last updated, indexed by position. */
+	private double[] hostUpdateTimes;
+
+	/** The hosts ordered by next expected completion time. Entries may be stale. */
+	private PriorityQueue<HostCompletion> completionQueue;
+
+	/** The positions of the hosts updated since the last completion check. */
+	private BitSet updatedHosts;
+
+	/** The positions of the hosts whose state changed since the last update of the processing. */
+	private BitSet changedHosts;
+
 	/**
 	 * Allocates a new PowerDatacenter object.
 	 * 
@@ -84,7 +109,7 @@ public class Datacenter extends SimEntity {
 		setVmAllocationPolicy(vmAllocationPolicy);
 		setLastProcessTime(0.0);
 		setStorageList(storageList);
-		setVmList(new ArrayList<Vm>());
+		setVmList(VmList.<Vm> createIndexedList());
 		setSchedulingInterval(schedulingInterval);
 
 		for (Host host : getCharacteristics().getHostList()) {
@@ -158,6 +183,11 @@ public class Datacenter extends SimEntity {
 				processCloudletSubmit(ev, true);
 				break;
 
+			// Several new Cloudlets arrive at once
+			case CloudSimTags.CLOUDLET_SUBMIT_BATCH:
+				processCloudletSubmitBatch(ev);
+				break;
+
 			// Cancels a previously submitted Cloudlet
 			case CloudSimTags.CLOUDLET_CANCEL:
 				processCloudlet(ev, CloudSimTags.CLOUDLET_CANCEL);
@@ -213,6 +243,14 @@ public class Datacenter extends SimEntity {
 				processVmCreate(ev, true);
 				break;
 
+			case CloudSimTags.VM_CREATE_BATCH:
+				processVmCreateBatch(ev, false);
+				break;
+
+			case CloudSimTags.VM_CREATE_BATCH_ACK:
+				processVmCreateBatch(ev, true);
+				break;
+
 			case CloudSimTags.VM_DESTROY:
 				processVmDestroy(ev, false);
 				break;
@@ -430,6 +468,41 @@ public class Datacenter extends SimEntity {
 
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
 
+		vmCreated(vm, result, ack);
+	}
+
+	/**
+	 * Process the event for an User/Broker who wants to create a list of VMs in this Datacenter.
+	 * The hosts are allocated to all the VMs at once by
+	 * {@link VmAllocationPolicy#allocateHostsForVms(List)}. The status of each VM is then sent
+	 * back to the User/Broker as for {@link #processVmCreate(SimEvent, boolean)}.
+	 * 
+	 * @param ev a Sim_event object whose data is the list of VMs
+	 * @param ack the ack
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processVmCreateBatch(SimEvent ev, boolean ack) {
+		@SuppressWarnings("unchecked")
+		List<? extends Vm> vms = (List<? extends Vm>) ev.getData();
+
+		boolean[] results = getVmAllocationPolicy().allocateHostsForVms(vms);
+
+		for (int i = 0; i < results.length; i++) {
+			vmCreated(vms.get(i), results[i], ack);
+		}
+	}
+
+	/**
+	 * Completes the creation of a VM once the allocation policy has placed it, or failed to.
+	 * 
+	 * @param vm the VM
+	 * @param result whether a host was allocated to the VM
+	 * @param ack whether the status is sent back to the owner of the VM
+	 * @pre vm != null
+	 * @post $none
+	 */
+	protected void vmCreated(Vm vm, boolean result, boolean ack) {
 		if (ack) {
 			int[] data = new int[3];
 			data[0] = getId();
@@ -450,6 +523,8 @@ public class Datacenter extends SimEntity {
 				vm.setBeingInstantiated(false);
 			}
 
+			// the host is only known after the allocation
+			prepareHostChange(getVmAllocationPolicy().getHost(vm));
 			vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
 					.getAllocatedMipsForVm(vm));
 		}
@@ -468,6 +543,8 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void processVmDestroy(SimEvent ev, boolean ack) {
 		Vm vm = (Vm) ev.getData();
+		Host host = getVmAllocationPolicy().getHost(vm);
+		prepareHostChange(host);
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 
 		if (ack) {
@@ -501,7 +578,10 @@ public class Datacenter extends SimEntity {
 
 		Vm vm = (Vm) migrate.get("vm");
 		Host host = (Host) migrate.get("host");
+		Host sourceHost = getVmAllocationPolicy().getHost(vm);
 
+		prepareHostChange(sourceHost);
+		prepareHostChange(host);
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 		host.removeMigratingInVm(vm);
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm, host);
@@ -617,8 +697,9 @@ public class Datacenter extends SimEntity {
 		int destId = array[4];
 
 		// get the cloudlet
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletCancel(cloudletId);
+		Host sourceHost = getVmAllocationPolicy().getHost(vmId, userId);
+		prepareHostChange(sourceHost);
+		Cloudlet cl = sourceHost.getVm(vmId,userId).getCloudletScheduler().cloudletCancel(cloudletId);
 
 		boolean failed = false;
 		if (cl == null) {// cloudlet doesn't exist
@@ -631,7 +712,8 @@ public class Datacenter extends SimEntity {
 				data[1] = cloudletId;
 				data[2] = 0;
 				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, data);
-				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
+				sendTransfer(cl.getUserId(), (double) cl.getCloudletOutputSize() / Consts.MILLION,
+						CloudSimTags.CLOUDLET_RETURN, cl);
 			}
 
 			// prepare cloudlet for migration
@@ -639,18 +721,20 @@ public class Datacenter extends SimEntity {
 
 			// the cloudlet will migrate from one vm to another does the destination VM exist?
 			if (destId == getId()) {
-				Vm vm = getVmAllocationPolicy().getHost(vmDestId, userId).getVm(vmDestId,userId);
+				Host destHost = getVmAllocationPolicy().getHost(vmDestId, userId);
+				Vm vm = destHost.getVm(vmDestId,userId);
 				if (vm == null) {
 					failed = true;
 				} else {
 					// time to transfer the files
 					double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+					prepareHostChange(destHost);
 					vm.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
 				}
 			} else {// the cloudlet will migrate from one resource to another
 				int tag = ((type == CloudSimTags.CLOUDLET_MOVE_ACK) ? CloudSimTags.CLOUDLET_SUBMIT_ACK
 						: CloudSimTags.CLOUDLET_SUBMIT);
-				sendNow(destId, tag, cl);
+				sendTransfer(destId, (double) cl.getCloudletFileSize() / Consts.MILLION, tag, cl);
 			}
 		}
 
@@ -682,79 +766,138 @@ public class Datacenter extends SimEntity {
 			// gets the Cloudlet object
 			Cloudlet cl = (Cloudlet) ev.getData();
 
-			// checks whether this Cloudlet has finished or not
-			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
-				Log.printLine(getName() + ": Warning - Cloudlet #" + cl.getCloudletId() + " owned by " + name
-						+ " is already completed/finished.");
-				Log.printLine("Therefore, it is not being executed again");
-				Log.printLine();
-
-				// NOTE: If a Cloudlet has finished, then it won't be processed.
-				// So, if ack is required, this method sends back a result.
-				// If ack is not required, this method don't send back a result.
-				// Hence, this might cause CloudSim to be hanged since waiting
-				// for this Cloudlet back.
-				if (ack) {
-					int[] data = new int[3];
-					data[0] = getId();
-					data[1] = cl.getCloudletId();
-					data[2] = CloudSimTags.FALSE;
-
-					// unique tag = operation tag
-					int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-					sendNow(cl.getUserId(), tag, data);
-				}
-
-				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
+			double estimatedFinishTime = submitCloudlet(cl, ack);
 
-				return;
+			// if this cloudlet is in the exec queue
+			if (estimatedFinishTime > 0.0) {
+				send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
 			}
+		} catch (ClassCastException c) {
+			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
+			c.printStackTrace();
+		} catch (Exception e) {
+			Log.printLine(getName() + ".processCloudletSubmit(): " + "Exception error.");
+			e.printStackTrace();
+		}
 
-			// process this Cloudlet to this CloudResource
-			cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
-					.getCostPerBw());
+		checkCloudletCompletion();
+	}
 
-			int userId = cl.getUserId();
-			int vmId = cl.getVmId();
+	/**
+	 * Processes the submission of a list of Cloudlets. The hosts are updated and the finished
+	 * Cloudlets are checked once for the whole list, and a single event is scheduled for the
+	 * earliest expected completion, instead of once per Cloudlet.
+	 * 
+	 * @param ev a SimEvent object whose data is the list of Cloudlets
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processCloudletSubmitBatch(SimEvent ev) {
+		updateCloudletProcessing();
 
-			// time to transfer the files
-			double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+		double nextFinishTime = Double.MAX_VALUE;
+		for (Object data : (List<?>) ev.getData()) {
+			try {
+				double estimatedFinishTime = submitCloudlet((Cloudlet) data, false);
+				if (estimatedFinishTime > 0.0 && estimatedFinishTime < nextFinishTime) {
+					nextFinishTime = estimatedFinishTime;
+				}
+			} catch (ClassCastException c) {
+				Log.printLine(getName() + ".processCloudletSubmitBatch(): " + "ClassCastException error.");
+				c.printStackTrace();
+			} catch (Exception e) {
+				Log.printLine(getName() + ".processCloudletSubmitBatch(): " + "Exception error.");
+				e.printStackTrace();
+			}
+		}
 
-			Host host = getVmAllocationPolicy().getHost(vmId, userId);
-			Vm vm = host.getVm(vmId, userId);
-			CloudletScheduler scheduler = vm.getCloudletScheduler();
-			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+		if (nextFinishTime != Double.MAX_VALUE) {
+			send(getId(), nextFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
+		}
 
-			// if this cloudlet is in the exec queue
-			if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
-				estimatedFinishTime += fileTransferTime;
-				send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
-			}
+		checkCloudletCompletion();
+	}
 
+	/**
+	 * Submits a Cloudlet to the scheduler of its VM. A Cloudlet that already finished is sent back
+	 * to its owner instead. The hosts must have been updated to the current time beforehand.
+	 * 
+	 * @param cl the Cloudlet
+	 * @param ack whether an acknowledgement is sent to the owner
+	 * @return the expected time until the Cloudlet finishes, including the file transfer, or 0 if
+	 *         it does not run yet or was not accepted
+	 * @pre cl != null
+	 * @post $none
+	 */
+	protected double submitCloudlet(Cloudlet cl, boolean ack) {
+		// checks whether this Cloudlet has finished or not
+		if (cl.isFinished()) {
+			String name = CloudSim.getEntityName(cl.getUserId());
+			Log.printLine(getName() + ": Warning - Cloudlet #" + cl.getCloudletId() + " owned by " + name
+					+ " is already completed/finished.");
+			Log.printLine("Therefore, it is not being executed again");
+			Log.printLine();
+
+			// NOTE: If a Cloudlet has finished, then it won't be processed.
+			// So, if ack is required, this method sends back a result.
+			// If ack is not required, this method don't send back a result.
+			// Hence, this might cause CloudSim to be hanged since waiting
+			// for this Cloudlet back.
 			if (ack) {
 				int[] data = new int[3];
 				data[0] = getId();
 				data[1] = cl.getCloudletId();
-				data[2] = CloudSimTags.TRUE;
+				data[2] = CloudSimTags.FALSE;
 
 				// unique tag = operation tag
 				int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
 				sendNow(cl.getUserId(), tag, data);
 			}
-		} catch (ClassCastException c) {
-			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
-			c.printStackTrace();
-		} catch (Exception e) {
-			Log.printLine(getName() + ".processCloudletSubmit(): " + "Exception error.");
-			e.printStackTrace();
+
+			sendTransfer(cl.getUserId(), (double) cl.getCloudletOutputSize() / Consts.MILLION,
+					CloudSimTags.CLOUDLET_RETURN, cl);
+
+			return 0.0;
 		}
 
-		checkCloudletCompletion();
+		// process this Cloudlet to this CloudResource
+		cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
+				.getCostPerBw());
+
+		int userId = cl.getUserId();
+		int vmId = cl.getVmId();
+
+		// time to transfer the files
+		double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		Vm vm = host.getVm(vmId, userId);
+		CloudletScheduler scheduler = vm.getCloudletScheduler();
+		prepareHostChange(host);
+		double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+
+		if (ack) {
+			int[] data = new int[3];
+			data[0] = getId();
+			data[1] = cl.getCloudletId();
+			data[2] = CloudSimTags.TRUE;
+
+			// unique tag = operation tag
+			int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
+			sendNow(cl.getUserId(), tag, data);
+		}
+
+		// if this cloudlet is in the exec queue
+		if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
+			return estimatedFinishTime + fileTransferTime;
+		}
+		return 0.0;
 	}
 
 	/**
-	 * Predict file transfer time.
+	 * Predict file transfer time. Only the reading of the files from the local storage is
+	 * counted: the transfers of the cloudlets between the users and the datacenter share the
+	 * network when the {@link NetworkTopology#setFlowModelEnabled(boolean) flow model} is enabled.
 	 * 
 	 * @param requiredFiles the required files
 	 * @return the double
@@ -788,8 +931,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletResume(int cloudletId, int userId, int vmId, boolean ack) {
-		double eventTime = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletResume(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		prepareHostChange(host);
+		double eventTime = host.getVm(vmId,userId).getCloudletScheduler().cloudletResume(cloudletId);
 
 		boolean status = false;
 		if (eventTime > 0.0) { // if this cloudlet is in the exec queue
@@ -823,8 +967,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletPause(int cloudletId, int userId, int vmId, boolean ack) {
-		boolean status = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletPause(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		prepareHostChange(host);
+		boolean status = host.getVm(vmId,userId).getCloudletScheduler().cloudletPause(cloudletId);
 
 		if (ack) {
 			int[] data = new int[3];
@@ -849,8 +994,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletCancel(int cloudletId, int userId, int vmId) {
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletCancel(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		prepareHostChange(host);
+		Cloudlet cl = host.getVm(vmId,userId).getCloudletScheduler().cloudletCancel(cloudletId);
 		sendNow(userId, CloudSimTags.CLOUDLET_CANCEL, cl);
 	}
 
@@ -858,25 +1004,38 @@ public class Datacenter extends SimEntity {
 	 * Updates processing of each cloudlet running in this PowerDatacenter. It is necessary because
 	 * Hosts and VirtualMachines are simple objects, not entities. So, they don't receive events and
 	 * updating cloudlets inside them must be called from the outside.
+	 * <p>
+	 * If the incremental update is enabled, only the hosts whose next cloudlet completion is due
+	 * are updated.
 	 * 
 	 * @pre $none
 	 * @post $none
+	 * @see #setIncrementalUpdate(boolean)
 	 */
 	protected void updateCloudletProcessing() {
 		// if some time passed since last processing
 		// R: for term is to allow loop at simulation start. Otherwise, one initial
 		// simulation step is skipped and schedulers are not properly initialized
 		if (CloudSim.clock() < 0.111 || CloudSim.clock() > getLastProcessTime() + CloudSim.getMinTimeBetweenEvents()) {
-			List<? extends Host> list = getVmAllocationPolicy().getHostList();
-			double smallerTime = Double.MAX_VALUE;
-			// for each host...
-			for (int i = 0; i < list.size(); i++) {
-				Host host = list.get(i);
-				// inform VMs to update processing
-				double time = host.updateVmsProcessing(CloudSim.clock());
-				// what time do we expect that the next cloudlet will finish?
-				if (time < smallerTime) {
-					smallerTime = time;
+			double smallerTime;
+			if (isIncrementalUpdate()) {
+				if (CloudSim.clock() < 0.111) {
+					smallerTime = updateAllHostsProcessing();
+				} else {
+					smallerTime = updateDueHostsProcessing();
+				}
+			} else {
+				List<? extends Host> list = getVmAllocationPolicy().getHostList();
+				smallerTime = Double.MAX_VALUE;
+				// for each host...
+				for (int i = 0; i < list.size(); i++) {
+					Host host = list.get(i);
+					// inform VMs to update processing
+					double time = host.updateVmsProcessing(CloudSim.clock());
+					// what time do we expect that the next cloudlet will finish?
+					if (time < smallerTime) {
+						smallerTime = time;
+					}
 				}
 			}
 			// gurantees a minimal interval before scheduling the event
@@ -899,19 +1058,165 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void checkCloudletCompletion() {
 		List<? extends Host> list = getVmAllocationPolicy().getHostList();
+		if (isIncrementalUpdate()) {
+			// cloudlets only finish when their host is updated
+			initIncrementalUpdate();
+			for (int i = updatedHosts.nextSetBit(0); i >= 0; i = updatedHosts.nextSetBit(i + 1)) {
+				checkCloudletCompletion(list.get(i));
+			}
+			updatedHosts.clear();
+			return;
+		}
 		for (int i = 0; i < list.size(); i++) {
-			Host host = list.get(i);
-			for (Vm vm : host.getVmList()) {
-				while (vm.getCloudletScheduler().isFinishedCloudlets()) {
-					Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
-					if (cl != null) {
-						sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
-					}
+			checkCloudletCompletion(list.get(i));
+		}
+	}
+
+	/**
+	 * Sends the finished cloudlets of the VMs of a host back to their users.
+	 * 
+	 * @param host the host
+	 */
+	private void checkCloudletCompletion(Host host) {
+		for (Vm vm : host.getVmList()) {
+			while (vm.getCloudletScheduler().isFinishedCloudlets()) {
+				Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
+				if (cl != null) {
+					sendTransfer(cl.getUserId(), (double) cl.getCloudletOutputSize() / Consts.MILLION,
+							CloudSimTags.CLOUDLET_RETURN, cl);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Updates the processing of a host and records the expected completion time of its next
+	 * cloudlet, for the incremental update.
+	 * 
+	 * @param host the host
+	 * @return the expected completion time of the next cloudlet of the host, or
+	 *         {@link Double#MAX_VALUE} if none is running
+	 */
+	protected double updateHostProcessing(Host host) {
+		return updateHostProcessing(host, CloudSim.clock());
+	}
+
+	/**
+	 * Updates the processing of a host up to a given time and records the expected completion time
+	 * of its next cloudlet, for the incremental update.
+	 * 
+	 * @param host the host
+	 * @param currentTime the time up to which the host is updated
+	 * @return the expected completion time of the next cloudlet of the host, or
+	 *         {@link Double#MAX_VALUE} if none is running
+	 */
+	private double updateHostProcessing(Host host, double currentTime) {
+		initIncrementalUpdate();
+		int position = hostPositions.get(host);
+		double time = host.updateVmsProcessing(currentTime);
+		hostCompletionTimes[position] = time;
+		hostUpdateTimes[position] = currentTime;
+		if (time != Double.MAX_VALUE) {
+			completionQueue.add(new HostCompletion(position, time));
+		}
+		updatedHosts.set(position);
+		return time;
+	}
+
+	/**
+	 * Updates the processing of all the hosts, for the incremental update.
+	 * 
+	 * @return the expected completion time of the next cloudlet
+	 */
+	private double updateAllHostsProcessing() {
+		double smallerTime = Double.MAX_VALUE;
+		for (Host host : getVmAllocationPolicy().getHostList()) {
+			double time = updateHostProcessing(host);
+			if (time < smallerTime) {
+				smallerTime = time;
+			}
+		}
+		changedHosts.clear();
+		return smallerTime;
+	}
+
+	/**
+	 * Updates the processing of the hosts whose next cloudlet completion is due, and of the hosts
+	 * whose state changed since the last update. The hosts expected to complete a cloudlet within
+	 * the minimal time between events are considered due, as they would otherwise only be updated
+	 * after that interval.
+	 * 
+	 * @return the expected completion time of the next cloudlet
+	 */
+	private double updateDueHostsProcessing() {
+		initIncrementalUpdate();
+		double dueTime = CloudSim.clock() + CloudSim.getMinTimeBetweenEvents();
+		List<? extends Host> list = getVmAllocationPolicy().getHostList();
+
+		// collect the due hosts first, as an update can bring a completion within the due time
+		BitSet due = new BitSet(list.size());
+		while (!completionQueue.isEmpty() && completionQueue.peek().time <= dueTime) {
+			HostCompletion completion = completionQueue.poll();
+			if (completion.time == hostCompletionTimes[completion.position]) {
+				due.set(completion.position);
+			}
+		}
+		due.or(changedHosts);
+		changedHosts.clear();
+		for (int i = due.nextSetBit(0); i >= 0; i = due.nextSetBit(i + 1)) {
+			updateHostProcessing(list.get(i));
+		}
+
+		while (!completionQueue.isEmpty()) {
+			HostCompletion completion = completionQueue.peek();
+			if (completion.time == hostCompletionTimes[completion.position]) {
+				return completion.time;
+			}
+			completionQueue.poll();
+		}
+		return Double.MAX_VALUE;
+	}
+
+	/**
+	 * Prepares a change of the state of a host when the incremental update is enabled. The default
+	 * mode updates all the hosts at each update of the processing, so the host is first brought
+	 * to the time of the last update, and the change does not apply to the time elapsed before.
+	 * The host is then updated with the next update of the processing, like all the hosts in the
+	 * default mode, so that its expected completion time reflects the change.
+	 * 
+	 * @param host the host
+	 */
+	private void prepareHostChange(Host host) {
+		if (isIncrementalUpdate() && host != null) {
+			initIncrementalUpdate();
+			int position = hostPositions.get(host);
+			if (hostUpdateTimes[position] < getLastProcessTime()) {
+				updateHostProcessing(host, getLastProcessTime());
+			}
+			changedHosts.set(position);
+		}
+	}
+
+	/**
+	 * Creates the index of the incremental update, if not created yet.
+	 */
+	private void initIncrementalUpdate() {
+		if (hostPositions != null) {
+			return;
+		}
+		List<? extends Host> list = getVmAllocationPolicy().getHostList();
+		hostPositions = new IdentityHashMap<Host, Integer>();
+		for (int i = 0; i < list.size(); i++) {
+			hostPositions.put(list.get(i), i);
+		}
+		hostCompletionTimes = new double[list.size()];
+		Arrays.fill(hostCompletionTimes, Double.MAX_VALUE);
+		hostUpdateTimes = new double[list.size()];
+		completionQueue = new PriorityQueue<HostCompletion>();
+		updatedHosts = new BitSet(list.size());
+		changedHosts = new BitSet(list.size());
+	}
+
 	/**
 	 * Adds a file into the resource's storage before the experiment starts. If the file is a master
 	 * file, then it will be registered to the RC when the experiment begins.
@@ -1176,4 +1481,64 @@ public class Datacenter extends SimEntity {
 		this.schedulingInterval = schedulingInterval;
 	}
 
+	/**
+	 * Checks if the incremental update is enabled.
+	 * 
+	 * @return true, if the incremental update is enabled
+	 */
+	public boolean isIncrementalUpdate() {
+		return incrementalUpdate;
+	}
+
+	/**
+	 * Enables or disables the incremental update. By default, each update of the cloudlet
+	 * processing updates every host, and each completion check visits every VM. With the
+	 * incremental update, the datacenter keeps the expected completion time of the next cloudlet
+	 * of each host, and only updates the hosts whose completion is due or whose state changes
+	 * (cloudlet submission, pause, resume, cancellation or move, VM creation, destruction or
+	 * migration). Only the updated hosts are then checked for finished cloudlets.
+	 * <p>
+	 * The hosts follow the update schedule of the default mode: a host whose state changes is
+	 * first brought to the time of the last update, and is updated again with the next update.
+	 * Skipping the update of a host is only valid if the progress of its cloudlets does not depend
+	 * on the other hosts. The results may still differ slightly from the default mode: a cloudlet
+	 * is finished once less than one MI remains, which the default mode may observe earlier, at an
+	 * update caused by another host. A finish time thus differs by at most the time to run one MI
+	 * or the minimal interval between two updates, and the difference propagates to the cloudlets
+	 * that run after it. Besides, a VM is placed before its host is known, so its host is
+	 * brought to the time of the last update after the allocation, which only differs from the
+	 * default mode if the VM scheduler changes the share of the VMs already running on the host.
+	 * 
+	 * @param incrementalUpdate true to enable the incremental update
+	 */
+	public void setIncrementalUpdate(boolean incrementalUpdate) {
+		this.incrementalUpdate = incrementalUpdate;
+	}
+
+	/**
+	 * The expected completion time of the next cloudlet of a host.
+	 */
+	private static class HostCompletion implements Comparable<HostCompletion> {
+
+		/** The position of the host in the host list. */
+		private final int position;
+
+		/** The expected completion time. */
+		private final double time;
+
+		public HostCompletion(int position, double time) {
+			this.position = position;
+			this.time = time;
+		}
+
+		@Override
+		public int compareTo(HostCompletion other) {
+			if (time != other.time) {
+				return time < other.time ? -1 : 1;
+			}
+			return position - other.position;
+		}
+
+	}
+
 }
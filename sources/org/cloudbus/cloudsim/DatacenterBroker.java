@@ -9,11 +9,17 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
+import org.cloudbus.cloudsim.Log.Level;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
@@ -70,6 +76,9 @@ public class DatacenterBroker extends SimEntity {
 	/** The datacenter characteristics list. */
 	protected Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/** Whether the cloudlets and the VMs are sent to each datacenter in a single event. */
+	private boolean batchSubmission;
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -82,11 +91,11 @@ public class DatacenterBroker extends SimEntity {
 	public DatacenterBroker(String name) throws Exception {
 		super(name);
 
-		setVmList(new ArrayList<Vm>());
-		setVmsCreatedList(new ArrayList<Vm>());
-		setCloudletList(new ArrayList<Cloudlet>());
-		setCloudletSubmittedList(new ArrayList<Cloudlet>());
-		setCloudletReceivedList(new ArrayList<Cloudlet>());
+		setVmList(VmList.<Vm> createIndexedList());
+		setVmsCreatedList(VmList.<Vm> createIndexedList());
+		setCloudletList(CloudletList.<Cloudlet> createIndexedList());
+		setCloudletSubmittedList(CloudletList.<Cloudlet> createIndexedList());
+		setCloudletReceivedList(CloudletList.<Cloudlet> createIndexedList());
 
 		cloudletsSubmitted = 0;
 		setVmsRequested(0);
@@ -317,14 +326,25 @@ public class DatacenterBroker extends SimEntity {
 		// send as much vms as possible for this datacenter before trying the next one
 		int requestedVms = 0;
 		String datacenterName = CloudSim.getEntityName(datacenterId);
+		List<Vm> batch = null;
+		if (isBatchSubmission()) {
+			batch = new ArrayList<Vm>();
+		}
 		for (Vm vm : getVmList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
 				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
 						+ " in " + datacenterName);
-				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
+				if (batch == null) {
+					sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
+				} else {
+					batch.add(vm);
+				}
 				requestedVms++;
 			}
 		}
+		if (batch != null && !batch.isEmpty()) {
+			sendNow(datacenterId, CloudSimTags.VM_CREATE_BATCH_ACK, batch);
+		}
 
 		getDatacenterRequestedIdsList().add(datacenterId);
 
@@ -339,6 +359,13 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void submitCloudlets() {
+		boolean log = Log.isLoggable(Log.BROKER, Level.INFO);
+		Map<Integer, List<Cloudlet>> batches = null;
+		if (isBatchSubmission()) {
+			batches = new LinkedHashMap<Integer, List<Cloudlet>>();
+		}
+		Set<Cloudlet> submitted = Collections.newSetFromMap(new IdentityHashMap<Cloudlet, Boolean>());
+
 		int vmIndex = 0;
 		for (Cloudlet cloudlet : getCloudletList()) {
 			Vm vm;
@@ -354,19 +381,42 @@ public class DatacenterBroker extends SimEntity {
 				}
 			}
 
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
-					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
+			if (log) {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
+						+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
+			}
 			cloudlet.setVmId(vm.getId());
-			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			int datacenterId = getVmsToDatacentersMap().get(vm.getId());
+			if (batches == null) {
+				sendTransfer(datacenterId, (double) cloudlet.getCloudletFileSize() / Consts.MILLION,
+						CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			} else {
+				List<Cloudlet> batch = batches.get(datacenterId);
+				if (batch == null) {
+					batch = new ArrayList<Cloudlet>();
+					batches.put(datacenterId, batch);
+				}
+				batch.add(cloudlet);
+			}
 			cloudletsSubmitted++;
 			vmIndex = (vmIndex + 1) % getVmsCreatedList().size();
 			getCloudletSubmittedList().add(cloudlet);
+			submitted.add(cloudlet);
 		}
 
-		// remove submitted cloudlets from waiting list
-		for (Cloudlet cloudlet : getCloudletSubmittedList()) {
-			getCloudletList().remove(cloudlet);
+		if (batches != null) {
+			for (Entry<Integer, List<Cloudlet>> batch : batches.entrySet()) {
+				long fileSize = 0;
+				for (Cloudlet cloudlet : batch.getValue()) {
+					fileSize += cloudlet.getCloudletFileSize();
+				}
+				sendTransfer(batch.getKey(), (double) fileSize / Consts.MILLION,
+						CloudSimTags.CLOUDLET_SUBMIT_BATCH, batch.getValue());
+			}
 		}
+
+		// remove submitted cloudlets from waiting list, in a single pass
+		getCloudletList().removeAll(submitted);
 	}
 
 	/**
@@ -652,4 +702,29 @@ public class DatacenterBroker extends SimEntity {
 		this.datacenterRequestedIdsList = datacenterRequestedIdsList;
 	}
 
+	/**
+	 * Checks whether the cloudlets and the VMs are sent to each datacenter in a single event.
+	 * 
+	 * @return true if the cloudlets are submitted in batches
+	 */
+	public boolean isBatchSubmission() {
+		return batchSubmission;
+	}
+
+	/**
+	 * Sets whether the cloudlets are sent to each datacenter in a single
+	 * {@link CloudSimTags#CLOUDLET_SUBMIT_BATCH} event, instead of one event per cloudlet. The
+	 * datacenter then updates its hosts once for all the cloudlets, so that submitting a large
+	 * number of cloudlets takes linear time. The cloudlets run the same way, but the datacenter
+	 * schedules fewer events.
+	 * <p>
+	 * The VMs are likewise requested in a single {@link CloudSimTags#VM_CREATE_BATCH_ACK} event,
+	 * and the datacenter places them with {@link VmAllocationPolicy#allocateHostsForVms(List)}.
+	 * 
+	 * @param batchSubmission whether the cloudlets are submitted in batches
+	 */
+	public void setBatchSubmission(boolean batchSubmission) {
+		this.batchSubmission = batchSubmission;
+	}
+
 }
@@ -0,0 +1,451 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the free capacity of a list of hosts, to find the host that suits a VM best
+ * without evaluating every host. The capacity of a host is a vector of {@link #DIMENSIONS}
+ * values: the free PEs, MIPS, RAM, bandwidth and storage, the MIPS of one PE, and the slack, the
+ * relative sum of the free PEs, MIPS, RAM and bandwidth. A host may hold a VM when each of its
+ * values is at least the requirement of the VM.
+ * <p>
+ * The index is a segment tree over the hosts. Each node holds the minimum and the maximum of each
+ * value over the hosts below it. A search walks the tree from the root, skips the subtrees where
+ * no host has enough of some value, and skips the subtrees whose
+ * {@link Scorer#getScoreBound(double[], double[], double[], double[]) score bound} shows that
+ * they cannot hold a better host than the best one found so far. The host with the lowest score
+ * is found, and the first one of the host list among equal hosts.
+ * <p>
+ * The hosts are ordered in the tree by their total capacity rather than by their position in the
+ * host list, so that the hosts of the same kind are adjacent. Otherwise, in a fleet of mixed
+ * hosts, most subtrees mix hosts that have some value left with hosts that have another one
+ * left, and their minimum and maximum tell too little to skip them.
+ * <p>
+ * The index does not follow the hosts by itself: it reads the state of a host when it is built
+ * and when {@link #update(int)} is called for the host.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class HostCapacityIndex {
+
+	/** The free PEs, counting the PEs of the VMs of the host. */
+	public static final int PES = 0;
+
+	/** The available MIPS of the VM scheduler. */
+	public static final int MIPS = 1;
+
+	/** The available RAM. */
+	public static final int RAM = 2;
+
+	/** The available bandwidth. */
+	public static final int BW = 3;
+
+	/** The storage. */
+	public static final int STORAGE = 4;
+
+	/** The MIPS of one PE, which bounds the MIPS of one PE of a VM. */
+	public static final int PE_MIPS = 5;
+
+	/**
+	 * The sum of the free PEs, MIPS, RAM and bandwidth, each relative to its scale. A VM requires
+	 * none of it; it bounds the scores that depend on the whole free capacity of a host.
+	 */
+	public static final int SLACK = 6;
+
+	/** The number of values of the capacity of a host. */
+	public static final int DIMENSIONS = 7;
+
+	/**
+	 * The number of values that the scorers take into account: the free PEs, MIPS, RAM and
+	 * bandwidth. The others only decide whether a host may hold a VM.
+	 */
+	public static final int SCORED_DIMENSIONS = 4;
+
+	/**
+	 * Scores the hosts that may hold a VM. The lower the score, the better the host.
+	 */
+	public interface Scorer {
+
+		/**
+		 * Gets the score of a host for a VM.
+		 *
+		 * @param free the free capacity of the host
+		 * @param required the requirements of the VM
+		 * @param scale the scale of each value, the largest capacity of the hosts
+		 * @return the score
+		 */
+		double getScore(double[] free, double[] required, double[] scale);
+
+		/**
+		 * Gets a lower bound of the scores of a group of hosts for a VM, knowing only the minimum
+		 * and the maximum of each value over the group. The bound must not be greater than the
+		 * score of any host of the group that may hold the VM.
+		 *
+		 * @param minFree the minimum free capacity of the hosts
+		 * @param maxFree the maximum free capacity of the hosts
+		 * @param required the requirements of the VM
+		 * @param scale the scale of each value, the largest capacity of the hosts
+		 * @return the bound
+		 */
+		double getScoreBound(double[] minFree, double[] maxFree, double[] required, double[] scale);
+
+	}
+
+	/** The hosts. */
+	private final List<? extends Host> hostList;
+
+	/** The positions of the hosts in the host list. */
+	private final Map<Host, Integer> positions;
+
+	/** The position in the host list of the host of each leaf, or -1. */
+	private final int[] hostOfLeaf;
+
+	/** The leaf of each host of the host list. */
+	private final int[] leafOfHost;
+
+	/** The first position in the host list of the hosts below each node. */
+	private final int[] firstHost;
+
+	/** The number of leaves, a power of two. */
+	private final int leaves;
+
+	/** The minimum of each value, by node then by dimension. */
+	private final double[] min;
+
+	/** The maximum of each value, by node then by dimension. */
+	private final double[] max;
+
+	/** The scale of each value. */
+	private final double[] scale;
+
+	/** The scorer of the current search. */
+	private Scorer scorer;
+
+	/** The requirements of the VM of the current search. */
+	private final double[] required = new double[DIMENSIONS];
+
+	/** The minimum values of the node being bounded. */
+	private final double[] nodeMin = new double[DIMENSIONS];
+
+	/** The maximum values of the node being bounded. */
+	private final double[] nodeMax = new double[DIMENSIONS];
+
+	/** The host found by the current search, or -1. */
+	private int found;
+
+	/** The score of the host found by the current search. */
+	private double foundScore;
+
+	/**
+	 * Builds the index from the current state of the hosts.
+	 *
+	 * @param hostList the hosts
+	 */
+	public HostCapacityIndex(List<? extends Host> hostList) {
+		this.hostList = hostList;
+		positions = new IdentityHashMap<Host, Integer>();
+		int size = 1;
+		while (size < hostList.size()) {
+			size *= 2;
+		}
+		leaves = size;
+		min = new double[2 * size * DIMENSIONS];
+		max = new double[2 * size * DIMENSIONS];
+
+		scale = new double[DIMENSIONS];
+		for (int i = 0; i < hostList.size(); i++) {
+			Host host = hostList.get(i);
+			positions.put(host, i);
+			scale[PES] = Math.max(scale[PES], host.getNumberOfPes());
+			scale[MIPS] = Math.max(scale[MIPS], host.getTotalMips());
+			scale[RAM] = Math.max(scale[RAM], host.getRam());
+			scale[BW] = Math.max(scale[BW], host.getBw());
+			scale[STORAGE] = Math.max(scale[STORAGE], host.getStorage());
+			scale[PE_MIPS] = Math.max(scale[PE_MIPS], host.getVmScheduler().getPeCapacity());
+		}
+		for (int d = 0; d < DIMENSIONS; d++) {
+			if (scale[d] <= 0) {
+				scale[d] = 1;
+			}
+		}
+
+		Integer[] order = new Integer[hostList.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		final double[][] capacities = new double[order.length][];
+		for (int i = 0; i < order.length; i++) {
+			Host host = hostList.get(i);
+			capacities[i] = new double[] { host.getNumberOfPes(), host.getTotalMips(), host.getRam(),
+					host.getBw(), host.getStorage() };
+		}
+		// the sort is stable, so the hosts of the same kind keep the order of the list
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				for (int d = 0; d < capacities[a].length; d++) {
+					int result = Double.compare(capacities[a][d], capacities[b][d]);
+					if (result != 0) {
+						return result;
+					}
+				}
+				return 0;
+			}
+		});
+
+		hostOfLeaf = new int[size];
+		leafOfHost = new int[order.length];
+		firstHost = new int[2 * size];
+		for (int leaf = 0; leaf < size; leaf++) {
+			if (leaf < order.length) {
+				hostOfLeaf[leaf] = order[leaf];
+				leafOfHost[order[leaf]] = leaf;
+				firstHost[size + leaf] = order[leaf];
+				setLeaf(leaf);
+			} else {
+				hostOfLeaf[leaf] = -1;
+				firstHost[size + leaf] = Integer.MAX_VALUE;
+				excludeLeaf(leaf);
+			}
+		}
+		for (int node = size - 1; node > 0; node--) {
+			firstHost[node] = Math.min(firstHost[2 * node], firstHost[2 * node + 1]);
+			merge(node);
+		}
+	}
+
+	/**
+	 * Finds the host with the lowest score among the hosts that may hold a VM and are not
+	 * excluded.
+	 *
+	 * @param vm the VM
+	 * @param scorer the scorer of the hosts
+	 * @return the position of the host in the host list, or -1 if there is none
+	 */
+	public int findHost(Vm vm, Scorer scorer) {
+		getRequirements(vm, required);
+		this.scorer = scorer;
+		found = -1;
+		foundScore = Double.POSITIVE_INFINITY;
+		if (mayFit(1)) {
+			search(1, getBound(1));
+		}
+		this.scorer = null;
+		return found;
+	}
+
+	/**
+	 * Reads again the state of a host, after a VM was created in it or removed from it, or to undo
+	 * an exclusion.
+	 *
+	 * @param idx the position of the host in the host list
+	 */
+	public void update(int idx) {
+		int leaf = leafOfHost[idx];
+		setLeaf(leaf);
+		propagate(leaf);
+	}
+
+	/**
+	 * Excludes a host from the next searches, until it is updated.
+	 *
+	 * @param idx the position of the host in the host list
+	 */
+	public void exclude(int idx) {
+		int leaf = leafOfHost[idx];
+		excludeLeaf(leaf);
+		propagate(leaf);
+	}
+
+	/**
+	 * Gets the position of a host in the host list.
+	 *
+	 * @param host the host
+	 * @return the position, or -1 if the host was not in the list when the index was built
+	 */
+	public int indexOf(Host host) {
+		Integer idx = positions.get(host);
+		return idx == null ? -1 : idx;
+	}
+
+	/**
+	 * Gets the scale of each value, the largest capacity of the hosts when the index was built.
+	 *
+	 * @return a copy of the scales
+	 */
+	public double[] getScale() {
+		return Arrays.copyOf(scale, DIMENSIONS);
+	}
+
+	/**
+	 * Gets the requirements of a VM, the amounts it requests now.
+	 *
+	 * @param vm the VM
+	 * @param requirements the array filled with the requirements, of {@link #DIMENSIONS} values
+	 */
+	public static void getRequirements(Vm vm, double[] requirements) {
+		requirements[PES] = vm.getNumberOfPes();
+		requirements[MIPS] = vm.getCurrentRequestedTotalMips();
+		requirements[RAM] = Math.min(vm.getCurrentRequestedRam(), vm.getRam());
+		requirements[BW] = vm.getCurrentRequestedBw();
+		requirements[STORAGE] = vm.getSize();
+		requirements[PE_MIPS] = vm.getCurrentRequestedMaxMips();
+		requirements[SLACK] = 0;
+	}
+
+	/**
+	 * Gets the free capacity of a host.
+	 *
+	 * @param host the host
+	 * @param free the array filled with the free capacity, of {@link #DIMENSIONS} values
+	 */
+	public void getFreeCapacity(Host host, double[] free) {
+		int usedPes = 0;
+		for (Vm vm : host.getVmList()) {
+			usedPes += vm.getNumberOfPes();
+		}
+		free[PES] = host.getNumberOfPes() - usedPes;
+		free[MIPS] = host.getAvailableMips();
+		free[RAM] = host.getRamProvisioner().getAvailableRam();
+		free[BW] = host.getBwProvisioner().getAvailableBw();
+		free[STORAGE] = host.getStorage();
+		free[PE_MIPS] = host.getVmScheduler().getPeCapacity();
+		free[SLACK] = 0;
+		for (int d = 0; d < SCORED_DIMENSIONS; d++) {
+			free[SLACK] += free[d] / scale[d];
+		}
+	}
+
+	/**
+	 * Searches the subtree of a node that may hold the VM. The child with the lower bound is
+	 * searched first, the one with the first host of the list on equal bounds.
+	 *
+	 * @param node the node
+	 * @param bound the score bound of the node
+	 */
+	private void search(int node, double bound) {
+		if (found >= 0 && (bound > foundScore || (bound == foundScore && firstHost[node] > found))) {
+			return;
+		}
+		if (node >= leaves) {
+			System.arraycopy(min, node * DIMENSIONS, nodeMin, 0, DIMENSIONS);
+			double score = scorer.getScore(nodeMin, required, scale);
+			int idx = hostOfLeaf[node - leaves];
+			if (found < 0 || score < foundScore || (score == foundScore && idx < found)) {
+				found = idx;
+				foundScore = score;
+			}
+			return;
+		}
+
+		int left = 2 * node;
+		int right = left + 1;
+		boolean leftFits = mayFit(left);
+		boolean rightFits = mayFit(right);
+		double leftBound = leftFits ? getBound(left) : 0;
+		double rightBound = rightFits ? getBound(right) : 0;
+		if (leftFits && rightFits && (rightBound < leftBound || rightBound == leftBound
+				&& firstHost[right] < firstHost[left])) {
+			search(right, rightBound);
+			search(left, leftBound);
+		} else {
+			if (leftFits) {
+				search(left, leftBound);
+			}
+			if (rightFits) {
+				search(right, rightBound);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether some host below a node may have enough of each value for the VM.
+	 *
+	 * @param node the node
+	 * @return true if the node may hold the VM
+	 */
+	private boolean mayFit(int node) {
+		int offset = node * DIMENSIONS;
+		for (int d = 0; d < DIMENSIONS; d++) {
+			if (max[offset + d] < required[d]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the score bound of a node.
+	 *
+	 * @param node the node
+	 * @return the bound
+	 */
+	private double getBound(int node) {
+		System.arraycopy(min, node * DIMENSIONS, nodeMin, 0, DIMENSIONS);
+		System.arraycopy(max, node * DIMENSIONS, nodeMax, 0, DIMENSIONS);
+		return scorer.getScoreBound(nodeMin, nodeMax, required, scale);
+	}
+
+	/**
+	 * Sets a leaf from the state of its host.
+	 *
+	 * @param leaf the leaf
+	 */
+	private void setLeaf(int leaf) {
+		int offset = (leaves + leaf) * DIMENSIONS;
+		getFreeCapacity(hostList.get(hostOfLeaf[leaf]), nodeMin);
+		System.arraycopy(nodeMin, 0, min, offset, DIMENSIONS);
+		System.arraycopy(nodeMin, 0, max, offset, DIMENSIONS);
+	}
+
+	/**
+	 * Sets a leaf so that it never fits.
+	 *
+	 * @param leaf the leaf
+	 */
+	private void excludeLeaf(int leaf) {
+		int offset = (leaves + leaf) * DIMENSIONS;
+		Arrays.fill(min, offset, offset + DIMENSIONS, Double.POSITIVE_INFINITY);
+		Arrays.fill(max, offset, offset + DIMENSIONS, Double.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Updates the ancestors of a leaf.
+	 *
+	 * @param leaf the leaf
+	 */
+	private void propagate(int leaf) {
+		for (int node = (leaves + leaf) / 2; node > 0; node /= 2) {
+			merge(node);
+		}
+	}
+
+	/**
+	 * Sets a node from its children.
+	 *
+	 * @param node the node
+	 */
+	private void merge(int node) {
+		int offset = node * DIMENSIONS;
+		int left = 2 * node * DIMENSIONS;
+		int right = left + DIMENSIONS;
+		for (int d = 0; d < DIMENSIONS; d++) {
+			min[offset + d] = Math.min(min[left + d], min[right + d]);
+			max[offset + d] = Math.max(max[left + d], max[right + d]);
+		}
+	}
+
+}
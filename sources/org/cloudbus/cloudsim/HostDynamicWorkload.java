@@ -9,9 +9,9 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
+import org.cloudbus.cloudsim.Log.Level;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
@@ -32,7 +32,7 @@ public class HostDynamicWorkload extends Host {
 	private double previousUtilizationMips;
 
 	/** The state history. */
-	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<HostStateHistoryEntry>();
+	private final HostStateHistory stateHistory = new HostStateHistory();
 
 	/**
 	 * Instantiates a new host.
@@ -66,6 +66,7 @@ public class HostDynamicWorkload extends Host {
 		setPreviousUtilizationMips(getUtilizationMips());
 		setUtilizationMips(0);
 		double hostTotalRequestedMips = 0;
+		boolean log = Log.isLoggable(Log.HOST, Level.INFO);
 
 		for (Vm vm : getVmList()) {
 			getVmScheduler().deallocatePesForVm(vm);
@@ -79,7 +80,7 @@ public class HostDynamicWorkload extends Host {
 			double totalRequestedMips = vm.getCurrentRequestedTotalMips();
 			double totalAllocatedMips = getVmScheduler().getTotalAllocatedMipsForVm(vm);
 
-			if (!Log.isDisabled()) {
+			if (log) {
 				Log.formatLine(
 						"%.2f: [Host #" + getId() + "] Total allocated MIPS for VM #" + vm.getId()
 								+ " (Host #" + vm.getHost().getId()
@@ -104,10 +105,12 @@ public class HostDynamicWorkload extends Host {
 			}
 
 			if (getVmsMigratingIn().contains(vm)) {
-				Log.formatLine("%.2f: [Host #" + getId() + "] VM #" + vm.getId()
-						+ " is being migrated to Host #" + getId(), CloudSim.clock());
+				if (log) {
+					Log.formatLine("%.2f: [Host #" + getId() + "] VM #" + vm.getId()
+							+ " is being migrated to Host #" + getId(), CloudSim.clock());
+				}
 			} else {
-				if (totalAllocatedMips + 0.1 < totalRequestedMips) {
+				if (log && totalAllocatedMips + 0.1 < totalRequestedMips) {
 					Log.formatLine("%.2f: [Host #" + getId() + "] Under allocated MIPS for VM #" + vm.getId()
 							+ ": %.2f", CloudSim.clock(), totalRequestedMips - totalAllocatedMips);
 				}
@@ -119,9 +122,11 @@ public class HostDynamicWorkload extends Host {
 						(vm.isInMigration() && !getVmsMigratingIn().contains(vm)));
 
 				if (vm.isInMigration()) {
-					Log.formatLine(
-							"%.2f: [Host #" + getId() + "] VM #" + vm.getId() + " is in migration",
-							CloudSim.clock());
+					if (log) {
+						Log.formatLine(
+								"%.2f: [Host #" + getId() + "] VM #" + vm.getId() + " is in migration",
+								CloudSim.clock());
+					}
 					totalAllocatedMips /= 0.9; // performance degradation due to migration - 10%
 				}
 			}
@@ -266,11 +271,22 @@ public class HostDynamicWorkload extends Host {
 	}
 
 	/**
-	 * Gets the state history.
+	 * Gets a read-only list view of the state history, which creates an entry object on each
+	 * access.
 	 * 
 	 * @return the state history
+	 * @see #getStateHistoryColumns()
 	 */
 	public List<HostStateHistoryEntry> getStateHistory() {
+		return stateHistory.asList();
+	}
+
+	/**
+	 * Gets the state history, stored in columns of primitive values.
+	 * 
+	 * @return the state history
+	 */
+	public HostStateHistory getStateHistoryColumns() {
 		return stateHistory;
 	}
 
@@ -285,20 +301,7 @@ public class HostDynamicWorkload extends Host {
 	public
 			void
 			addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
-
-		HostStateHistoryEntry newState = new HostStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isActive);
-		if (!getStateHistory().isEmpty()) {
-			HostStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		stateHistory.add(time, allocatedMips, requestedMips, isActive);
 	}
 
 }
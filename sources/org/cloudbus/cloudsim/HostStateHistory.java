@@ -0,0 +1,49 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * The state history of a host, whose flag tells if the host is active.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class HostStateHistory extends StateHistory<HostStateHistoryEntry> {
+
+	/**
+	 * Adds an entry, or replaces the last one if it has the same time.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param isActive the is active
+	 */
+	public void add(double time, double allocatedMips, double requestedMips, boolean isActive) {
+		addEntry(time, allocatedMips, requestedMips, isActive);
+	}
+
+	/**
+	 * Checks if the host is active in an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return true, if the host is active
+	 */
+	public boolean isActive(int index) {
+		return getFlag(index);
+	}
+
+	@Override
+	protected HostStateHistoryEntry createEntry(
+			double time,
+			double allocatedMips,
+			double requestedMips,
+			boolean isActive) {
+		return new HostStateHistoryEntry(time, allocatedMips, requestedMips, isActive);
+	}
+
+}
@@ -10,10 +10,19 @@ package org.cloudbus.cloudsim;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * The Log class used for performing loggin of the simulation process. It provides the ability to
  * substitute the output stream by any OutputStream subclass.
+ * <p>
+ * Besides the plain print methods, which only depend on the disable output flag, messages can be
+ * logged with a {@link Level} in a {@link Category}. Such a message is printed only if the output
+ * is enabled and the level is not more detailed than the level of the category. Code on a hot path
+ * should check {@link #isLoggable(Category, Level)} before building a message, or pass a
+ * {@link Message} that is only evaluated when it is printed, so that a disabled log costs no
+ * formatting or boxing.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
@@ -26,9 +35,113 @@ public class Log {
 	/** The output. */
 	private static OutputStream output;
 
+	/** The outputs of the threads that do not write to the shared output. */
+	private static final ThreadLocal<OutputStream> threadOutput = new ThreadLocal<OutputStream>();
+
 	/** The disable output flag. */
 	private static boolean disabled;
 
+	/** The level of the categories that have no level of their own. */
+	private static Level defaultLevel = Level.INFO;
+
+	/** The categories by name. */
+	private static final Map<String, Category> categories = new HashMap<String, Category>();
+
+	/** The category of the power-aware datacenters and allocation policies. */
+	public static final Category POWER = getCategory("power");
+
+	/** The category of the processing of the VMs by the hosts. */
+	public static final Category HOST = getCategory("host");
+
+	/** The category of the brokers. */
+	public static final Category BROKER = getCategory("broker");
+
+	/**
+	 * The levels of the messages, from the least to the most detailed.
+	 */
+	public enum Level {
+		/** Errors that may stop the simulation. */
+		ERROR,
+		/** Unexpected situations the simulation recovers from. */
+		WARNING,
+		/** The progress of the simulation; the plain print methods are at this level. */
+		INFO,
+		/** Details of the processing, such as the state of each host at each interval. */
+		DEBUG,
+		/** Everything else. */
+		TRACE
+	}
+
+	/**
+	 * A message that is built only when it is printed.
+	 */
+	public interface Message {
+
+		/**
+		 * Builds the message.
+		 * 
+		 * @return the message
+		 */
+		String get();
+
+	}
+
+	/**
+	 * A named category of messages with its own level. The categories are obtained with
+	 * {@link Log#getCategory(String)} and are usually kept in static fields.
+	 */
+	public static final class Category {
+
+		/** The name. */
+		private final String name;
+
+		/** The level, or null to use the default level. */
+		private Level level;
+
+		/**
+		 * Instantiates a new category.
+		 * 
+		 * @param name the name
+		 */
+		private Category(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Gets the name.
+		 * 
+		 * @return the name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the level of the category.
+		 * 
+		 * @return the level, or the default level if the category has no level of its own
+		 */
+		public Level getLevel() {
+			Level categoryLevel = level;
+			return categoryLevel != null ? categoryLevel : defaultLevel;
+		}
+
+		/**
+		 * Sets the level of the category.
+		 * 
+		 * @param level the level, or null to use the default level
+		 */
+		public void setLevel(Level level) {
+			this.level = level;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+
+	}
+
 	/**
 	 * Prints the message.
 	 * 
@@ -37,7 +150,7 @@ public class Log {
 	public static void print(String message) {
 		if (!isDisabled()) {
 			try {
-				getOutput().write(message.getBytes());
+				getCurrentOutput().write(message.getBytes());
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -110,6 +223,132 @@ public class Log {
 		}
 	}
 
+	/**
+	 * Checks if a message of the given level in the given category would be printed.
+	 * 
+	 * @param category the category
+	 * @param level the level of the message
+	 * @return true, if the output is enabled and the level is enabled for the category
+	 */
+	public static boolean isLoggable(Category category, Level level) {
+		return !isDisabled() && level.compareTo(category.getLevel()) <= 0;
+	}
+
+	/**
+	 * Prints the message if its level is enabled for the category.
+	 * 
+	 * @param category the category
+	 * @param level the level of the message
+	 * @param message the message
+	 */
+	public static void print(Category category, Level level, String message) {
+		if (isLoggable(category, level)) {
+			print(message);
+		}
+	}
+
+	/**
+	 * Prints the line if its level is enabled for the category.
+	 * 
+	 * @param category the category
+	 * @param level the level of the message
+	 * @param message the message
+	 */
+	public static void printLine(Category category, Level level, String message) {
+		if (isLoggable(category, level)) {
+			printLine(message);
+		}
+	}
+
+	/**
+	 * Builds and prints the line if its level is enabled for the category.
+	 * 
+	 * @param category the category
+	 * @param level the level of the message
+	 * @param message the message
+	 */
+	public static void printLine(Category category, Level level, Message message) {
+		if (isLoggable(category, level)) {
+			printLine(message.get());
+		}
+	}
+
+	/**
+	 * Prints a line formated as in String.format() if its level is enabled for the category. The
+	 * arguments are boxed by the caller, so hot paths should check
+	 * {@link #isLoggable(Category, Level)} first.
+	 * 
+	 * @param category the category
+	 * @param level the level of the message
+	 * @param format the format
+	 * @param args the args
+	 */
+	public static void formatLine(Category category, Level level, String format, Object... args) {
+		if (isLoggable(category, level)) {
+			printLine(String.format(format, args));
+		}
+	}
+
+	/**
+	 * Gets the category with the given name, creating it if needed.
+	 * 
+	 * @param name the name of the category
+	 * @return the category
+	 */
+	public static Category getCategory(String name) {
+		synchronized (categories) {
+			Category category = categories.get(name);
+			if (category == null) {
+				category = new Category(name);
+				categories.put(name, category);
+			}
+			return category;
+		}
+	}
+
+	/**
+	 * Sets the level of a category.
+	 * 
+	 * @param name the name of the category
+	 * @param level the level, or null to use the default level
+	 */
+	public static void setLevel(String name, Level level) {
+		getCategory(name).setLevel(level);
+	}
+
+	/**
+	 * Gets the level of the categories that have no level of their own.
+	 * 
+	 * @return the default level
+	 */
+	public static Level getDefaultLevel() {
+		return defaultLevel;
+	}
+
+	/**
+	 * Sets the level of the categories that have no level of their own.
+	 * 
+	 * @param level the default level
+	 */
+	public static void setDefaultLevel(Level level) {
+		if (level == null) {
+			throw new IllegalArgumentException("The default level cannot be null");
+		}
+		defaultLevel = level;
+	}
+
+	/**
+	 * Flushes the output, which is needed before reading the output of a buffered or asynchronous
+	 * stream.
+	 */
+	public static void flush() {
+		try {
+			getCurrentOutput().flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Sets the output.
 	 * 
@@ -131,6 +370,35 @@ public class Log {
 		return output;
 	}
 
+	/**
+	 * Sets the output of the current thread, which replaces the shared output for the messages
+	 * printed by this thread only. This allows simulations running concurrently to redirect their
+	 * messages without affecting each other.
+	 * 
+	 * @param _output the output of the current thread, or null to use the shared output
+	 * @return the previous output of the current thread, or null
+	 */
+	public static OutputStream setThreadOutput(OutputStream _output) {
+		OutputStream previous = threadOutput.get();
+		if (_output == null) {
+			threadOutput.remove();
+		} else {
+			threadOutput.set(_output);
+		}
+		return previous;
+	}
+
+	/**
+	 * Gets the output the messages printed by the current thread are written to, i.e. the output of
+	 * the thread if it has one, or the shared output.
+	 * 
+	 * @return the output of the current thread
+	 */
+	public static OutputStream getCurrentOutput() {
+		OutputStream _output = threadOutput.get();
+		return _output != null ? _output : getOutput();
+	}
+
 	/**
 	 * Sets the disable output flag.
 	 * 
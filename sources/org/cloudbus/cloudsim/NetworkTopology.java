@@ -8,13 +8,22 @@
 
 package org.cloudbus.cloudsim;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.network.BriteTopologyCache;
+import org.cloudbus.cloudsim.network.CompactTopologicalGraph;
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
+import org.cloudbus.cloudsim.network.FlowNetworkEntity;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
+import org.cloudbus.cloudsim.network.LazyDelayMatrix_Float;
+import org.cloudbus.cloudsim.network.MappedDelayMatrix_Float;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
 import org.cloudbus.cloudsim.network.TopologicalLink;
 import org.cloudbus.cloudsim.network.TopologicalNode;
@@ -29,6 +38,23 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  * Nevertheless, each CloudSim entity must be mapped to one (and only one) BRITE node to allow
  * proper work of the network simulation. Each BRITE node can be mapped to only one entity at a
  * time.
+ * <p>
+ * The topology belongs to the current {@link SimulationContext}, so concurrent simulations have
+ * their own topologies.
+ * <p>
+ * Adding a link updates the delays incrementally when the link only makes paths shorter, and
+ * {@link #addLinks(int[], int[], double[], double[])} computes them once for many links. For large
+ * topologies, the delays can be {@link #setDelaysComputedOnDemand(boolean) computed on demand}
+ * from each source node instead of for all the pairs of nodes, or, for a sparse topology read from
+ * a BRITE file, between the nodes mapped to entities only.
+ * <p>
+ * A BRITE file is parsed each time a topology is built from it, unless a
+ * {@link #setTopologyCacheDirectory(File) cache directory} is set: the parsed graph and its
+ * all-pairs delays are then kept in a file of that directory and read back by the next runs.
+ * <p>
+ * The bandwidths of the links are used once the {@link #setFlowModelEnabled(boolean) flow model}
+ * is enabled: the messages sent as transfers of data share the bandwidth of the links they cross,
+ * instead of only being delayed by the latency between their entities.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -36,17 +62,23 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  */
 public class NetworkTopology {
 
-	protected static int nextIdx = 0;
-
-	private static boolean networkEnabled = false;
-
-	protected static DelayMatrix_Float delayMatrix = null;
+	/** The key of the topology in the simulation context. */
+	private static final Object TOPOLOGY_KEY = new Object();
 
-	protected static double[][] bwMatrix = null;
-
-	protected static TopologicalGraph graph = null;
-
-	protected static Map<Integer, Integer> map = null;
+	/**
+	 * Gets the topology of the current simulation context, creating an empty one if needed.
+	 * 
+	 * @return the topology
+	 */
+	private static Topology getTopology() {
+		SimulationContext context = CloudSim.getContext();
+		Topology topology = (Topology) context.getAttribute(TOPOLOGY_KEY);
+		if (topology == null) {
+			topology = new Topology();
+			context.setAttribute(TOPOLOGY_KEY, topology);
+		}
+		return topology;
+	}
 
 	/**
 	 * Creates the network topology if file exists and if file can be succesfully parsed. File is
@@ -57,15 +89,41 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void buildNetworkTopology(String fileName) {
-		Log.printLine("Topology file: " + fileName);
+		buildNetworkTopology(fileName, false);
+	}
 
-		// try to find the file
-		GraphReaderBrite reader = new GraphReaderBrite();
+	/**
+	 * Creates the network topology if file exists and if file can be succesfully parsed. File is
+	 * written in the BRITE format and contains topologycal information on simulation entities.
+	 * <p>
+	 * A sparse topology computes and stores the delays between the BRITE nodes mapped to CloudSim
+	 * entities only, when they are mapped, and no bandwidth matrix. It suits topologies of many
+	 * thousands of nodes, whose matrices between all the nodes would take gigabytes.
+	 * 
+	 * @param fileName name of the BRITE file
+	 * @param sparse true to keep the delays between the mapped nodes only
+	 * @pre fileName != null
+	 * @post $none
+	 */
+	public static void buildNetworkTopology(String fileName, boolean sparse) {
+		Topology topology = getTopology();
+		Log.printLine("Topology file: " + fileName);
 
 		try {
-			graph = reader.readGraphFile(fileName);
-			map = new HashMap<Integer, Integer>();
-			generateMatrices();
+			if (topology.cacheDirectory == null) {
+				topology.brite = null;
+				topology.briteGraph = new GraphReaderBrite().readCompactGraphFile(fileName, false);
+			} else {
+				// the graph is parsed once and cached, with its delays, for the next runs
+				File briteFile = new File(fileName);
+				topology.brite = BriteTopologyCache.getInstance(briteFile,
+						BriteTopologyCache.getCacheFile(briteFile, topology.cacheDirectory));
+				topology.briteGraph = topology.brite.getGraph();
+			}
+			topology.graph = null;
+			topology.map = new HashMap<Integer, Integer>();
+			topology.sparse = sparse;
+			generateMatrices(topology);
 		} catch (IOException e) {
 			// problem with the file. Does not simulate network
 			Log.printLine("Problem in processing BRITE file. Network simulation is disabled. Error: "
@@ -76,15 +134,76 @@ public class NetworkTopology {
 
 	/**
 	 * Generates the matrices used internally to set latency and bandwidth between elements
+	 * 
+	 * @param topology the topology
 	 */
-	private static void generateMatrices() {
+	private static void generateMatrices(Topology topology) {
 		// creates the delay matrix
-		delayMatrix = new DelayMatrix_Float(graph, false);
+		topology.delayMatrix = createDelayMatrix(topology);
 
 		// creates the bw matrix
-		bwMatrix = createBwMatrix(graph, false);
+		if (topology.sparse) {
+			topology.bwMatrix = null;
+		} else if (topology.graph == null) {
+			topology.bwMatrix = createBwMatrix(topology.briteGraph);
+		} else {
+			topology.bwMatrix = createBwMatrix(topology.graph, false);
+		}
 
-		networkEnabled = true;
+		topology.networkEnabled = true;
+	}
+
+	/**
+	 * Creates the delay matrix of the topology, depending on how the delays are computed.
+	 * 
+	 * @param topology the topology
+	 * @return the delay matrix
+	 */
+	private static DelayMatrix_Float createDelayMatrix(Topology topology) {
+		if (topology.graph == null) {
+			return createBriteDelayMatrix(topology);
+		}
+		if (topology.sparse) {
+			MappedDelayMatrix_Float delayMatrix = new MappedDelayMatrix_Float(topology.graph);
+			for (int briteID : topology.map.values()) {
+				delayMatrix.mapNode(briteID);
+			}
+			return delayMatrix;
+		}
+		if (topology.delaysComputedOnDemand) {
+			return new LazyDelayMatrix_Float(topology.graph, false);
+		}
+		return new DelayMatrix_Float(topology.graph, false);
+	}
+
+	/**
+	 * Creates the delay matrix of a BRITE topology, whose all-pairs delays are read from its cache
+	 * if it has one.
+	 * 
+	 * @param topology the topology
+	 * @return the delay matrix
+	 */
+	private static DelayMatrix_Float createBriteDelayMatrix(Topology topology) {
+		if (topology.sparse) {
+			MappedDelayMatrix_Float delayMatrix = new MappedDelayMatrix_Float(topology.briteGraph);
+			for (int briteID : topology.map.values()) {
+				delayMatrix.mapNode(briteID);
+			}
+			return delayMatrix;
+		}
+		if (topology.delaysComputedOnDemand) {
+			return new LazyDelayMatrix_Float(topology.briteGraph);
+		}
+		if (topology.brite == null) {
+			return new DelayMatrix_Float(topology.briteGraph);
+		}
+		try {
+			return topology.brite.getDelayMatrix();
+		} catch (IOException e) {
+			Log.printLine("Problem in reading the cached delays of the BRITE file. Error: "
+					+ e.getMessage());
+			return new DelayMatrix_Float(topology.briteGraph);
+		}
 	}
 
 	/**
@@ -99,33 +218,271 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void addLink(int srcId, int destId, double bw, double lat) {
+		Topology topology = getTopology();
+		float previousDelay = getDirectDelay(topology, srcId, destId);
+		TopologicalLink link = addLinkToGraph(topology, srcId, destId, bw, lat);
 
-		if (graph == null) {
-			graph = new TopologicalGraph();
+		if (topology.delayMatrix == null || topology.delaysComputedOnDemand || topology.sparse) {
+			generateMatrices(topology);
+			return;
 		}
 
-		if (map == null) {
-			map = new HashMap<Integer, Integer>();
+		// a link making a direct delay longer only changes the delays if the previous link was
+		// on a shortest path, otherwise the delays are updated incrementally
+		int nodes = topology.graph.getNumberOfNodes();
+		float delay = link.getLinkDelay() == 0 ? Float.MAX_VALUE : link.getLinkDelay();
+		if (delay <= previousDelay) {
+			topology.delayMatrix.addLink(link.getSrcNodeID(), link.getDestNodeID(),
+					link.getLinkDelay(), nodes, false);
+		} else if (topology.delayMatrix.getDelay(link.getSrcNodeID(),
+				link.getDestNodeID()) >= previousDelay) {
+			generateMatrices(topology);
+			return;
 		}
 
-		// maybe add the nodes
-		if (!map.containsKey(srcId)) {
-			graph.addNode(new TopologicalNode(nextIdx));
-			map.put(srcId, nextIdx);
-			nextIdx++;
+		if (topology.bwMatrix.length < nodes) {
+			double[][] bwMatrix = new double[nodes][nodes];
+			for (int i = 0; i < topology.bwMatrix.length; i++) {
+				System.arraycopy(topology.bwMatrix[i], 0, bwMatrix[i], 0, topology.bwMatrix.length);
+			}
+			topology.bwMatrix = bwMatrix;
 		}
+		topology.bwMatrix[link.getSrcNodeID()][link.getDestNodeID()] = link.getLinkBw();
+		topology.bwMatrix[link.getDestNodeID()][link.getSrcNodeID()] = link.getLinkBw();
+	}
 
-		if (!map.containsKey(destId)) {
-			graph.addNode(new TopologicalNode(nextIdx));
-			map.put(destId, nextIdx);
-			nextIdx++;
+	/**
+	 * Adds new links in the network topology, and computes the delays and bandwidths once for all
+	 * of them, which is faster than adding them one by one to build a topology.
+	 * 
+	 * @param srcIds IDs of the links' sources
+	 * @param destIds IDs of the links' destinations
+	 * @param bw links' bandwidths
+	 * @param lat links' latencies
+	 * @throws IllegalArgumentException if the arrays have different lengths
+	 */
+	public static void addLinks(int[] srcIds, int[] destIds, double[] bw, double[] lat) {
+		if (destIds.length != srcIds.length || bw.length != srcIds.length
+				|| lat.length != srcIds.length) {
+			throw new IllegalArgumentException("The links must have as many sources, destinations,"
+					+ " bandwidths and latencies");
+		}
+		Topology topology = getTopology();
+		for (int i = 0; i < srcIds.length; i++) {
+			addLinkToGraph(topology, srcIds[i], destIds[i], bw[i], lat[i]);
 		}
+		generateMatrices(topology);
+	}
 
-		// generate a new link
-		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
+	/**
+	 * Sets whether the delays are computed on demand, from each source node when a delay from it is
+	 * first asked for, instead of for all the pairs of nodes when the topology changes.
+	 * 
+	 * @param delaysComputedOnDemand true to compute the delays on demand
+	 */
+	public static void setDelaysComputedOnDemand(boolean delaysComputedOnDemand) {
+		Topology topology = getTopology();
+		if (topology.delaysComputedOnDemand != delaysComputedOnDemand) {
+			topology.delaysComputedOnDemand = delaysComputedOnDemand;
+			if (topology.delayMatrix != null && !topology.sparse) {
+				topology.delayMatrix = createDelayMatrix(topology);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the delays are computed on demand.
+	 * 
+	 * @return true, if the delays are computed on demand
+	 */
+	public static boolean isDelaysComputedOnDemand() {
+		return getTopology().delaysComputedOnDemand;
+	}
+
+	/**
+	 * Sets the directory in which the BRITE topologies are cached. When it is set, the graph parsed
+	 * from a BRITE file and its all-pairs delays are written to a file of the directory, which is
+	 * read instead of the BRITE file by the next topologies built from it, in this run or the next
+	 * ones, as long as the BRITE file does not change. No cache is kept by default.
+	 * 
+	 * @param cacheDirectory the directory, for instance the temporary directory, or null to parse
+	 *            the BRITE files each time
+	 * @see BriteTopologyCache
+	 */
+	public static void setTopologyCacheDirectory(File cacheDirectory) {
+		getTopology().cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Gets the directory in which the BRITE topologies are cached.
+	 * 
+	 * @return the directory, or null if the BRITE files are parsed each time
+	 */
+	public static File getTopologyCacheDirectory() {
+		return getTopology().cacheDirectory;
+	}
+
+	/**
+	 * Sets whether the flow model is enabled. Once it is, the messages sent as transfers by
+	 * {@link org.cloudbus.cloudsim.core.SimEntity#sendTransfer(int, double, int, Object)} cross the
+	 * shortest path between the nodes of their entities and share the bandwidth of its links, with
+	 * max-min fairness, before being delayed by the latency between the entities. The bandwidths
+	 * of the links are taken in Mbit/s.
+	 * <p>
+	 * The flow model is enabled with an entity transferring the messages, created the first time
+	 * for each simulation, which must then be after the simulation is initialised and before it is
+	 * started. The links
+	 * of the topology are read at that time: the links added afterwards are not shared.
+	 * 
+	 * @param flowModelEnabled true to enable the flow model
+	 * @throws IllegalStateException if the flow model is enabled while the network simulation is
+	 *             not
+	 */
+	public static void setFlowModelEnabled(boolean flowModelEnabled) {
+		Topology topology = getTopology();
+		if (flowModelEnabled && !hasFlowEntity(topology)) {
+			if (!topology.networkEnabled) {
+				throw new IllegalStateException("The flow model needs a network topology");
+			}
+			CompactTopologicalGraph graph = topology.graph == null ? topology.briteGraph
+					: CompactTopologicalGraph.fromGraph(topology.graph, false);
+			topology.flowEntity = new FlowNetworkEntity("NetworkFlows", graph);
+		}
+		topology.flowModelEnabled = flowModelEnabled;
+	}
+
+	/**
+	 * Checks if the flow model is enabled.
+	 * 
+	 * @return true, if the flow model is enabled
+	 */
+	public static boolean isFlowModelEnabled() {
+		return getTopology().flowModelEnabled;
+	}
+
+	/**
+	 * Checks if the topology has an entity transferring the messages in the current simulation,
+	 * the entity of a previous simulation of the context being out of date.
+	 * 
+	 * @param topology the topology
+	 * @return true, if the topology has an entity in the current simulation
+	 */
+	private static boolean hasFlowEntity(Topology topology) {
+		int id = topology.flowEntity == null ? -1 : topology.flowEntity.getId();
+		return id >= 0 && id < CloudSim.getNumEntities() && CloudSim.getEntity(id) == topology.flowEntity;
+	}
+
+	/**
+	 * Starts the transfer of a message between two entities in the flow model. The message is
+	 * delivered once it is transferred, as if it had been sent by the source entity.
+	 * 
+	 * @param srcID ID of the source entity
+	 * @param destID ID of the destination entity
+	 * @param size the size of the message, in MB
+	 * @param tag the tag of the message
+	 * @param data the data of the message
+	 * @return true if the transfer is started, false if the flow model is not enabled or an entity
+	 *         is not mapped, in which case the message is to be sent as usual
+	 */
+	public static boolean startTransfer(int srcID, int destID, double size, int tag, Object data) {
+		Topology topology = getTopology();
+		if (!topology.flowModelEnabled || !topology.networkEnabled || !hasFlowEntity(topology)) {
+			return false;
+		}
+		Integer srcNode = topology.map.get(srcID);
+		Integer destNode = topology.map.get(destID);
+		if (srcNode == null || destNode == null) {
+			return false;
+		}
+		FlowNetworkEntity.Transfer transfer = new FlowNetworkEntity.Transfer(srcID, destID,
+				srcNode, destNode, size, getDelay(srcID, destID), tag, data);
+		CloudSim.send(srcID, topology.flowEntity.getId(), 0, CloudSimTags.NETWORK_FLOW_START,
+				transfer);
+		return true;
+	}
+
+	/**
+	 * Gets the direct delay between two entities, set by the last link between them.
+	 * 
+	 * @param topology the topology
+	 * @param srcId ID of the source
+	 * @param destId ID of the destination
+	 * @return the direct delay, or Float.MAX_VALUE if they are not linked
+	 */
+	private static float getDirectDelay(Topology topology, int srcId, int destId) {
+		TopologicalGraph graph = getGraph(topology);
+		if (graph == null || topology.map == null || !topology.map.containsKey(srcId)
+				|| !topology.map.containsKey(destId)) {
+			return Float.MAX_VALUE;
+		}
+		int src = topology.map.get(srcId);
+		int dest = topology.map.get(destId);
+		float delay = 0;
+		Iterator<TopologicalLink> iter = graph.getLinkIterator();
+		while (iter.hasNext()) {
+			TopologicalLink edge = iter.next();
+			if (edge.getSrcNodeID() == src && edge.getDestNodeID() == dest
+					|| edge.getSrcNodeID() == dest && edge.getDestNodeID() == src) {
+				delay = edge.getLinkDelay();
+			}
+		}
+		return delay == 0 ? Float.MAX_VALUE : delay;
+	}
+
+	/**
+	 * Gets the graph of the topology to add links to. The compact graph of a BRITE topology is
+	 * converted to a topological graph the first time.
+	 * 
+	 * @param topology the topology
+	 * @return the graph, or null if the topology has none
+	 */
+	private static TopologicalGraph getGraph(Topology topology) {
+		if (topology.graph == null && topology.briteGraph != null) {
+			topology.graph = topology.briteGraph.toTopologicalGraph();
+			topology.briteGraph = null;
+			topology.brite = null;
+		}
+		return topology.graph;
+	}
+
+	/**
+	 * Adds a link and its nodes to the graph of the topology, without computing the matrices.
+	 * 
+	 * @param topology the topology
+	 * @param srcId ID of the link's source
+	 * @param destId ID of the link's destination
+	 * @param bw Link's bandwidth
+	 * @param lat link's latency
+	 * @return the link
+	 */
+	private static TopologicalLink addLinkToGraph(Topology topology, int srcId, int destId,
+			double bw, double lat) {
+		if (getGraph(topology) == null) {
+			topology.graph = new TopologicalGraph();
+		}
 
-		generateMatrices();
+		if (topology.map == null) {
+			topology.map = new HashMap<Integer, Integer>();
+		}
 
+		// maybe add the nodes
+		if (!topology.map.containsKey(srcId)) {
+			topology.graph.addNode(new TopologicalNode(topology.nextIdx));
+			topology.map.put(srcId, topology.nextIdx);
+			topology.nextIdx++;
+		}
+
+		if (!topology.map.containsKey(destId)) {
+			topology.graph.addNode(new TopologicalNode(topology.nextIdx));
+			topology.map.put(destId, topology.nextIdx);
+			topology.nextIdx++;
+		}
+
+		// generate a new link
+		TopologicalLink link = new TopologicalLink(topology.map.get(srcId), topology.map.get(destId),
+				(float) lat, (float) bw);
+		topology.graph.addLink(link);
+		return link;
 	}
 
 	/**
@@ -161,6 +518,28 @@ public class NetworkTopology {
 		return mtx;
 	}
 
+	/**
+	 * Creates the matrix containiing the available bandiwdth beteen two nodes of a compact graph
+	 * 
+	 * @param graph compact graph describing the topology
+	 * @return the bandwidth graph
+	 */
+	private static double[][] createBwMatrix(CompactTopologicalGraph graph) {
+		int nodes = graph.getNumberOfNodes();
+		int[] firstLinks = graph.getFirstLinks();
+		int[] linkDestinations = graph.getLinkDestinations();
+		float[] linkBandwidths = graph.getLinkBandwidths();
+
+		double[][] mtx = new double[nodes][nodes];
+		for (int i = 0; i < nodes; i++) {
+			for (int link = firstLinks[i]; link < firstLinks[i + 1]; link++) {
+				mtx[i][linkDestinations[link]] = linkBandwidths[link];
+			}
+		}
+
+		return mtx;
+	}
+
 	/**
 	 * Maps a CloudSim entity to a node in the network topology
 	 * 
@@ -171,12 +550,16 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void mapNode(int cloudSimEntityID, int briteID) {
-		if (networkEnabled) {
+		Topology topology = getTopology();
+		if (topology.networkEnabled) {
 			try {
 				// this CloudSim entity was already mapped?
-				if (!map.containsKey(cloudSimEntityID)) {
-					if (!map.containsValue(briteID)) { // this BRITE node was already mapped?
-						map.put(cloudSimEntityID, briteID);
+				if (!topology.map.containsKey(cloudSimEntityID)) {
+					if (!topology.map.containsValue(briteID)) { // this BRITE node was already mapped?
+						if (topology.sparse) {
+							((MappedDelayMatrix_Float) topology.delayMatrix).mapNode(briteID);
+						}
+						topology.map.put(cloudSimEntityID, briteID);
 					} else {
 						Log.printLine("Error in network mapping. BRITE node " + briteID + " already in use.");
 					}
@@ -199,9 +582,13 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void unmapNode(int cloudSimEntityID) {
-		if (networkEnabled) {
+		Topology topology = getTopology();
+		if (topology.networkEnabled) {
 			try {
-				map.remove(cloudSimEntityID);
+				Integer briteID = topology.map.remove(cloudSimEntityID);
+				if (topology.sparse && briteID != null) {
+					((MappedDelayMatrix_Float) topology.delayMatrix).unmapNode(briteID);
+				}
 			} catch (Exception e) {
 				Log.printLine("Error in network unmapping. CloudSim node: " + cloudSimEntityID);
 			}
@@ -219,10 +606,12 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static double getDelay(int srcID, int destID) {
-		if (networkEnabled) {
+		Topology topology = getTopology();
+		if (topology.networkEnabled) {
 			try {
 				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+				double delay = topology.delayMatrix.getDelay(topology.map.get(srcID),
+						topology.map.get(destID));
 
 				return delay;
 			} catch (Exception e) {
@@ -242,7 +631,39 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static boolean isNetworkEnabled() {
-		return networkEnabled;
+		return getTopology().networkEnabled;
+	}
+
+	/**
+	 * The network topology of a simulation context.
+	 */
+	private static class Topology {
+
+		int nextIdx = 0;
+
+		boolean networkEnabled = false;
+
+		boolean delaysComputedOnDemand = false;
+
+		boolean sparse = false;
+
+		DelayMatrix_Float delayMatrix = null;
+
+		double[][] bwMatrix = null;
+
+		TopologicalGraph graph = null;
+
+		CompactTopologicalGraph briteGraph = null;
+
+		BriteTopologyCache brite = null;
+
+		File cacheDirectory = null;
+
+		Map<Integer, Integer> map = null;
+
+		boolean flowModelEnabled = false;
+
+		FlowNetworkEntity flowEntity = null;
 	}
 
 }
@@ -0,0 +1,232 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The state history of a host or a VM, stored in columns of primitive values: the time, the
+ * allocated MIPS, the requested MIPS and a flag of each entry. The columns grow by chunks, so that
+ * adding an entry neither creates an object nor copies the previous entries.
+ * <p>
+ * An entry with the same time as the last one replaces it. The entries are read by index, without
+ * creating entry objects, or through a read-only {@link #asList() list view}.
+ *
+ * @param <E> the type of the entries of the list view
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class StateHistory<E> {
+
+	/** The binary logarithm of the number of entries of a chunk. */
+	private static final int CHUNK_SHIFT = 6;
+
+	/** The number of entries of a chunk. */
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	/** The chunks of the times. */
+	private double[][] times = new double[0][];
+
+	/** The chunks of the allocated MIPS. */
+	private double[][] allocatedMips = new double[0][];
+
+	/** The chunks of the requested MIPS. */
+	private double[][] requestedMips = new double[0][];
+
+	/** The chunks of the flags. */
+	private boolean[][] flags = new boolean[0][];
+
+	/** The number of entries. */
+	private int size;
+
+	/**
+	 * Adds an entry, or replaces the last one if it has the same time.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 */
+	protected void addEntry(double time, double allocatedMips, double requestedMips, boolean flag) {
+		int index = size;
+		if (size > 0 && getTime(size - 1) == time) {
+			index = size - 1;
+		} else {
+			if ((size & (CHUNK_SIZE - 1)) == 0) {
+				addChunk();
+			}
+			size++;
+		}
+		int chunk = index >>> CHUNK_SHIFT;
+		int offset = index & (CHUNK_SIZE - 1);
+		times[chunk][offset] = time;
+		this.allocatedMips[chunk][offset] = allocatedMips;
+		this.requestedMips[chunk][offset] = requestedMips;
+		flags[chunk][offset] = flag;
+	}
+
+	/**
+	 * Adds a chunk to each column.
+	 */
+	private void addChunk() {
+		int chunks = times.length;
+		times = Arrays.copyOf(times, chunks + 1);
+		allocatedMips = Arrays.copyOf(allocatedMips, chunks + 1);
+		requestedMips = Arrays.copyOf(requestedMips, chunks + 1);
+		flags = Arrays.copyOf(flags, chunks + 1);
+		times[chunks] = new double[CHUNK_SIZE];
+		allocatedMips[chunks] = new double[CHUNK_SIZE];
+		requestedMips[chunks] = new double[CHUNK_SIZE];
+		flags[chunks] = new boolean[CHUNK_SIZE];
+	}
+
+	/**
+	 * Gets the number of entries.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the history is empty.
+	 *
+	 * @return true, if it is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the time of an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return the time
+	 */
+	public double getTime(int index) {
+		checkIndex(index);
+		return times[index >>> CHUNK_SHIFT][index & (CHUNK_SIZE - 1)];
+	}
+
+	/**
+	 * Gets the allocated mips of an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return the allocated mips
+	 */
+	public double getAllocatedMips(int index) {
+		checkIndex(index);
+		return allocatedMips[index >>> CHUNK_SHIFT][index & (CHUNK_SIZE - 1)];
+	}
+
+	/**
+	 * Gets the requested mips of an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return the requested mips
+	 */
+	public double getRequestedMips(int index) {
+		checkIndex(index);
+		return requestedMips[index >>> CHUNK_SHIFT][index & (CHUNK_SIZE - 1)];
+	}
+
+	/**
+	 * Gets the flag of an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return the flag
+	 */
+	protected boolean getFlag(int index) {
+		checkIndex(index);
+		return flags[index >>> CHUNK_SHIFT][index & (CHUNK_SIZE - 1)];
+	}
+
+	/**
+	 * Checks an index.
+	 *
+	 * @param index the index
+	 * @throws IndexOutOfBoundsException if the index is not less than the size
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * Creates an entry object of the list view.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 * @return the entry
+	 */
+	protected abstract E createEntry(double time, double allocatedMips, double requestedMips, boolean flag);
+
+	/**
+	 * Gets a read-only list view of the entries. The view follows the changes of the history, and
+	 * creates an entry object on each access.
+	 *
+	 * @return the view
+	 */
+	public List<E> asList() {
+		return new AbstractList<E>() {
+
+			@Override
+			public E get(int index) {
+				return createEntry(
+						getTime(index),
+						getAllocatedMips(index),
+						getRequestedMips(index),
+						getFlag(index));
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Writes the history column by column: the number of entries as an int, then the times, the
+	 * allocated MIPS and the requested MIPS as doubles, and the flags as booleans.
+	 *
+	 * @param out the output
+	 * @throws IOException if the output fails
+	 */
+	public void writeColumns(DataOutput out) throws IOException {
+		out.writeInt(size);
+		writeColumn(out, times);
+		writeColumn(out, allocatedMips);
+		writeColumn(out, requestedMips);
+		for (int i = 0; i < size; i++) {
+			out.writeBoolean(flags[i >>> CHUNK_SHIFT][i & (CHUNK_SIZE - 1)]);
+		}
+	}
+
+	/**
+	 * Writes a column of doubles.
+	 *
+	 * @param out the output
+	 * @param column the chunks of the column
+	 * @throws IOException if the output fails
+	 */
+	private void writeColumn(DataOutput out, double[][] column) throws IOException {
+		for (int i = 0; i < size; i++) {
+			out.writeDouble(column[i >>> CHUNK_SHIFT][i & (CHUNK_SIZE - 1)]);
+		}
+	}
+
+}
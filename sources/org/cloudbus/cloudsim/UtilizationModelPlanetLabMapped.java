@@ -0,0 +1,112 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.nio.ShortBuffer;
+
+import org.cloudbus.cloudsim.util.PlanetLabTraceStore;
+
+/**
+ * A utilization model reading a PlanetLab trace in place, from a buffer shared with the other
+ * traces, such as a {@link PlanetLabTraceStore memory-mapped trace store}. The samples are the
+ * percentages of the trace, and the utilization is interpolated between them as by
+ * {@link UtilizationModelPlanetLabInMemory}, whose last sample is repeated once.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationModelPlanetLabMapped implements UtilizationModel {
+
+	/** The scheduling interval. */
+	private final double schedulingInterval;
+
+	/** The shared buffer of the samples. */
+	private final ShortBuffer samples;
+
+	/** The position of the first sample of the trace in the buffer. */
+	private final int offset;
+
+	/** The number of samples of the trace. */
+	private final int length;
+
+	/**
+	 * Instantiates a new utilization model reading a trace in a shared buffer. The buffer is read
+	 * by absolute positions only, so it can be shared by any number of models.
+	 *
+	 * @param samples the shared buffer of the samples
+	 * @param offset the position of the first sample of the trace
+	 * @param length the number of samples of the trace
+	 * @param schedulingInterval the scheduling interval
+	 * @throws IllegalArgumentException if the trace is not in the buffer
+	 */
+	public UtilizationModelPlanetLabMapped(
+			ShortBuffer samples,
+			int offset,
+			int length,
+			double schedulingInterval) {
+		if (length <= 0 || offset < 0 || offset + length > samples.limit()) {
+			throw new IllegalArgumentException("The trace is not in the buffer: offset " + offset
+					+ ", length " + length + ", limit " + samples.limit());
+		}
+		this.samples = samples;
+		this.offset = offset;
+		this.length = length;
+		this.schedulingInterval = schedulingInterval;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		if (time % getSchedulingInterval() == 0) {
+			return getSample((int) time / (int) getSchedulingInterval());
+		}
+		int time1 = (int) Math.floor(time / getSchedulingInterval());
+		int time2 = (int) Math.ceil(time / getSchedulingInterval());
+		double utilization1 = getSample(time1);
+		double utilization2 = getSample(time2);
+		double delta = (utilization2 - utilization1) / ((time2 - time1) * getSchedulingInterval());
+		double utilization = utilization1 + delta * (time - time1 * getSchedulingInterval());
+		return utilization;
+	}
+
+	/**
+	 * Gets a sample of the trace as a utilization. The sample after the last one is the last one.
+	 *
+	 * @param index the index of the sample
+	 * @return the utilization
+	 * @throws IndexOutOfBoundsException if the index is past the sample after the last one
+	 */
+	protected double getSample(int index) {
+		if (index < 0 || index > length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + (length + 1));
+		}
+		return samples.get(offset + Math.min(index, length - 1)) / 100.0;
+	}
+
+	/**
+	 * Gets the number of samples of the trace.
+	 *
+	 * @return the number of samples
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Gets the scheduling interval.
+	 *
+	 * @return the scheduling interval
+	 */
+	public double getSchedulingInterval() {
+		return schedulingInterval;
+	}
+
+}
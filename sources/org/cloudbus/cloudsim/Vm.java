@@ -8,7 +8,6 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -74,7 +73,7 @@ public class Vm {
 	private boolean beingInstantiated;
 
 	/** The mips allocation history. */
-	private final List<VmStateHistoryEntry> stateHistory = new LinkedList<VmStateHistoryEntry>();
+	private final VmStateHistory stateHistory = new VmStateHistory();
 
 	/**
 	 * Creates a new VMCharacteristics object.
@@ -570,11 +569,22 @@ public class Vm {
 	}
 
 	/**
-	 * Gets the state history.
+	 * Gets a read-only list view of the state history, which creates an entry object on each
+	 * access.
 	 * 
 	 * @return the state history
+	 * @see #getStateHistoryColumns()
 	 */
 	public List<VmStateHistoryEntry> getStateHistory() {
+		return stateHistory.asList();
+	}
+
+	/**
+	 * Gets the state history, stored in columns of primitive values.
+	 * 
+	 * @return the state history
+	 */
+	public VmStateHistory getStateHistoryColumns() {
 		return stateHistory;
 	}
 
@@ -591,19 +601,7 @@ public class Vm {
 			double allocatedMips,
 			double requestedMips,
 			boolean isInMigration) {
-		VmStateHistoryEntry newState = new VmStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isInMigration);
-		if (!getStateHistory().isEmpty()) {
-			VmStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		stateHistory.add(time, allocatedMips, requestedMips, isInMigration);
 	}
 
 }
@@ -57,6 +57,24 @@ public abstract class VmAllocationPolicy {
 	 */
 	public abstract boolean allocateHostForVm(Vm vm, Host host);
 
+	/**
+	 * Allocates hosts for a list of VMs, in the order of the list. The default implementation
+	 * calls {@link #allocateHostForVm(Vm)} for each VM; policies that can place many VMs faster
+	 * than one by one override it.
+	 * 
+	 * @param vmList the VMs
+	 * @return for each VM of the list, $true if a host could be allocated; $false otherwise
+	 * @pre vmList != null
+	 * @post $none
+	 */
+	public boolean[] allocateHostsForVms(List<? extends Vm> vmList) {
+		boolean[] results = new boolean[vmList.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = allocateHostForVm(vmList.get(i));
+		}
+		return results;
+	}
+
 	/**
 	 * Optimize allocation of the VMs according to current utilization.
 	 * 
@@ -0,0 +1,71 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.List;
+
+/**
+ * A VM allocation policy that places each VM in the host that it leaves with the least free
+ * capacity, the sum of the free PEs, MIPS, RAM and bandwidth relative to the largest host. The
+ * VMs allocated together are placed from the largest to the smallest, as best-fit decreasing.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class VmAllocationPolicyBestFitDecreasing extends VmAllocationPolicyBinPackingAbstract {
+
+	/**
+	 * Instantiates a new best-fit decreasing VM allocation policy.
+	 *
+	 * @param list the hosts
+	 */
+	public VmAllocationPolicyBestFitDecreasing(List<? extends Host> list) {
+		super(list);
+	}
+
+	/**
+	 * Scores a host by the capacity left after placing the VM, its slack less the requirements of
+	 * the VM.
+	 *
+	 * @param free the free capacity of the host
+	 * @param required the requirements of the VM
+	 * @param scale the scale of each value
+	 * @return the sum of the relative capacities left
+	 */
+	@Override
+	public double getScore(double[] free, double[] required, double[] scale) {
+		return free[HostCapacityIndex.SLACK] - getRequiredSlack(required, scale);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.HostCapacityIndex.Scorer#getScoreBound(double[], double[],
+	 * double[], double[])
+	 */
+	@Override
+	public double getScoreBound(double[] minFree, double[] maxFree, double[] required,
+			double[] scale) {
+		return minFree[HostCapacityIndex.SLACK] - getRequiredSlack(required, scale);
+	}
+
+	/**
+	 * Gets the sum of the requirements of a VM, each relative to its scale.
+	 *
+	 * @param required the requirements of the VM
+	 * @param scale the scale of each value
+	 * @return the sum
+	 */
+	private static double getRequiredSlack(double[] required, double[] scale) {
+		double slack = 0;
+		for (int d = 0; d < HostCapacityIndex.SCORED_DIMENSIONS; d++) {
+			slack += required[d] / scale[d];
+		}
+		return slack;
+	}
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * The base class of the VM allocation policies that place the VMs as vector bin packing: each
+ * host is a bin whose capacity is its free PEs, MIPS, RAM and bandwidth, and the subclasses
+ * choose among the hosts that may hold a VM by a score, as a {@link HostCapacityIndex.Scorer}.
+ * The hosts are searched in a {@link HostCapacityIndex}, so that a placement does not evaluate
+ * every host.
+ * <p>
+ * A VM placed alone by {@link #allocateHostForVm(Vm)} goes to the best host at that time. The VMs
+ * placed together by {@link #allocateHostsForVms(List)} are placed in decreasing order of size,
+ * the sum of their requirements relative to the largest host, as in the first-fit decreasing and
+ * best-fit decreasing heuristics.
+ * <p>
+ * The index follows the VMs created and destroyed through the policy. The changes made to the
+ * hosts otherwise, such as the MIPS reallocated when the VMs are updated, are seen when the host
+ * is next used by the policy or after {@link #updateHosts()}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class VmAllocationPolicyBinPackingAbstract extends VmAllocationPolicy implements
+		HostCapacityIndex.Scorer {
+
+	/** The vm table. */
+	private final Map<String, Host> vmTable = new HashMap<String, Host>();
+
+	/** The capacity index of the hosts, built on first use. */
+	private HostCapacityIndex index;
+
+	/**
+	 * Instantiates a new bin packing VM allocation policy.
+	 *
+	 * @param list the hosts
+	 */
+	public VmAllocationPolicyBinPackingAbstract(List<? extends Host> list) {
+		super(list);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.VmAllocationPolicy#allocateHostForVm(org.cloudbus.cloudsim.Vm)
+	 */
+	@Override
+	public boolean allocateHostForVm(Vm vm) {
+		if (getVmTable().containsKey(vm.getUid())) { // if this vm was already created
+			return false;
+		}
+
+		HostCapacityIndex index = getIndex();
+		List<Integer> triedHosts = new ArrayList<Integer>();
+		boolean result = false;
+		int idx;
+		while ((idx = index.findHost(vm, this)) >= 0) {
+			Host host = getHostList().get(idx);
+			if (host.vmCreate(vm)) {
+				getVmTable().put(vm.getUid(), host);
+				index.update(idx);
+				result = true;
+				break;
+			}
+			// the index did not know the latest state of the host
+			index.exclude(idx);
+			triedHosts.add(idx);
+		}
+
+		for (int tried : triedHosts) {
+			index.update(tried);
+		}
+		return result;
+	}
+
+	/**
+	 * Allocates hosts for a list of VMs, in decreasing order of size.
+	 *
+	 * @param vmList the VMs
+	 * @return for each VM of the list, $true if a host could be allocated; $false otherwise
+	 * @pre vmList != null
+	 * @post $none
+	 */
+	@Override
+	public boolean[] allocateHostsForVms(List<? extends Vm> vmList) {
+		final double[] sizes = new double[vmList.size()];
+		List<Integer> order = new ArrayList<Integer>(vmList.size());
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = getVmSize(vmList.get(i));
+			order.add(i);
+		}
+		// the sort is stable, so equal VMs keep the order of the list
+		Collections.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(sizes[b], sizes[a]);
+			}
+		});
+
+		boolean[] results = new boolean[sizes.length];
+		for (int i : order) {
+			results[i] = allocateHostForVm(vmList.get(i));
+		}
+		return results;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.VmAllocationPolicy#allocateHostForVm(org.cloudbus.cloudsim.Vm,
+	 * org.cloudbus.cloudsim.Host)
+	 */
+	@Override
+	public boolean allocateHostForVm(Vm vm, Host host) {
+		if (host != null && host.vmCreate(vm)) { // if vm has been succesfully created in the host
+			getVmTable().put(vm.getUid(), host);
+			updateHost(host);
+			Log.formatLine(
+					"%.2f: VM #" + vm.getId() + " has been allocated to the host #" + host.getId(),
+					CloudSim.clock());
+			return true;
+		}
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.VmAllocationPolicy#deallocateHostForVm(org.cloudbus.cloudsim.Vm)
+	 */
+	@Override
+	public void deallocateHostForVm(Vm vm) {
+		Host host = getVmTable().remove(vm.getUid());
+		if (host != null) {
+			host.vmDestroy(vm);
+			updateHost(host);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.VmAllocationPolicy#optimizeAllocation(java.util.List)
+	 */
+	@Override
+	public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.VmAllocationPolicy#getHost(org.cloudbus.cloudsim.Vm)
+	 */
+	@Override
+	public Host getHost(Vm vm) {
+		return getVmTable().get(vm.getUid());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.VmAllocationPolicy#getHost(int, int)
+	 */
+	@Override
+	public Host getHost(int vmId, int userId) {
+		return getVmTable().get(Vm.getUid(userId, vmId));
+	}
+
+	/**
+	 * Reads again the state of all the hosts, after they were changed other than through the
+	 * policy.
+	 */
+	public void updateHosts() {
+		index = null;
+	}
+
+	/**
+	 * Gets the size of a VM, the sum of its requirements relative to the largest host.
+	 *
+	 * @param vm the VM
+	 * @return the size
+	 */
+	protected double getVmSize(Vm vm) {
+		double[] required = new double[HostCapacityIndex.DIMENSIONS];
+		HostCapacityIndex.getRequirements(vm, required);
+		double[] scale = getIndex().getScale();
+		double size = 0;
+		for (int d = 0; d < HostCapacityIndex.SCORED_DIMENSIONS; d++) {
+			size += required[d] / scale[d];
+		}
+		return size;
+	}
+
+	/**
+	 * Reads again the state of a host in the index.
+	 *
+	 * @param host the host
+	 */
+	protected void updateHost(Host host) {
+		if (index != null) {
+			int idx = index.indexOf(host);
+			if (idx >= 0) {
+				index.update(idx);
+			}
+		}
+	}
+
+	/**
+	 * Gets the capacity index of the hosts, building it if needed.
+	 *
+	 * @return the index
+	 */
+	protected HostCapacityIndex getIndex() {
+		if (index == null) {
+			index = new HostCapacityIndex(getHostList());
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the vm table.
+	 *
+	 * @return the vm table
+	 */
+	public Map<String, Host> getVmTable() {
+		return vmTable;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.List;
+
+/**
+ * A VM allocation policy that places each VM in the host whose free capacity has the largest dot
+ * product with the requirements of the VM, both relative to the largest host. The host that has
+ * most of what the VM needs most is chosen, which keeps the capacity of the hosts balanced across
+ * PEs, MIPS, RAM and bandwidth. The VMs allocated together are placed from the largest to the
+ * smallest.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class VmAllocationPolicyDotProduct extends VmAllocationPolicyBinPackingAbstract {
+
+	/** The relative margin for the rounding errors of the score bound. */
+	private static final double ROUNDING_MARGIN = 1e-9;
+
+	/**
+	 * Instantiates a new dot-product VM allocation policy.
+	 *
+	 * @param list the hosts
+	 */
+	public VmAllocationPolicyDotProduct(List<? extends Host> list) {
+		super(list);
+	}
+
+	/**
+	 * Scores a host by the opposite of the dot product, so that the largest product is chosen.
+	 *
+	 * @param free the free capacity of the host
+	 * @param required the requirements of the VM
+	 * @param scale the scale of each value
+	 * @return the opposite of the dot product
+	 */
+	@Override
+	public double getScore(double[] free, double[] required, double[] scale) {
+		double product = 0;
+		for (int d = 0; d < HostCapacityIndex.SCORED_DIMENSIONS; d++) {
+			product += (required[d] / scale[d]) * (free[d] / scale[d]);
+		}
+		return -product;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.HostCapacityIndex.Scorer#getScoreBound(double[], double[],
+	 * double[], double[])
+	 */
+	@Override
+	public double getScoreBound(double[] minFree, double[] maxFree, double[] required,
+			double[] scale) {
+		// the product is at most the largest relative requirement times the slack; the margin
+		// keeps the bound below the scores computed otherwise despite the rounding errors
+		double largest = 0;
+		for (int d = 0; d < HostCapacityIndex.SCORED_DIMENSIONS; d++) {
+			largest = Math.max(largest, required[d] / scale[d]);
+		}
+		return Math.max(getScore(maxFree, required, scale),
+				-largest * maxFree[HostCapacityIndex.SLACK] * (1 + ROUNDING_MARGIN));
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.List;
+
+/**
+ * A VM allocation policy that places each VM in the first host of the list that may hold it. The
+ * VMs allocated together are placed from the largest to the smallest, as first-fit decreasing.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class VmAllocationPolicyFirstFitDecreasing extends VmAllocationPolicyBinPackingAbstract {
+
+	/**
+	 * Instantiates a new first-fit decreasing VM allocation policy.
+	 *
+	 * @param list the hosts
+	 */
+	public VmAllocationPolicyFirstFitDecreasing(List<? extends Host> list) {
+		super(list);
+	}
+
+	/**
+	 * Scores all the hosts equally, so that the first one is chosen.
+	 *
+	 * @param free the free capacity of the host
+	 * @param required the requirements of the VM
+	 * @param scale the scale of each value
+	 * @return 0
+	 */
+	@Override
+	public double getScore(double[] free, double[] required, double[] scale) {
+		return 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.HostCapacityIndex.Scorer#getScoreBound(double[], double[],
+	 * double[], double[])
+	 */
+	@Override
+	public double getScoreBound(double[] minFree, double[] maxFree, double[] required,
+			double[] scale) {
+		return 0;
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.List;
+
+/**
+ * A VM allocation policy that places each VM in the host that minimizes the squared Euclidean norm
+ * of the capacity left, the free PEs, MIPS, RAM and bandwidth relative to the largest host. Unlike
+ * best fit, a large leftover in one resource weighs more than small leftovers in several, so the
+ * VM goes to the host it fills most evenly. The VMs allocated together are placed from the largest
+ * to the smallest.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class VmAllocationPolicyNormBased extends VmAllocationPolicyBinPackingAbstract {
+
+	/** The relative margin for the rounding errors of the score bound. */
+	private static final double ROUNDING_MARGIN = 1e-9;
+
+	/**
+	 * Instantiates a new norm-based VM allocation policy.
+	 *
+	 * @param list the hosts
+	 */
+	public VmAllocationPolicyNormBased(List<? extends Host> list) {
+		super(list);
+	}
+
+	/**
+	 * Scores a host by the squared norm of the capacity left after placing the VM.
+	 *
+	 * @param free the free capacity of the host
+	 * @param required the requirements of the VM
+	 * @param scale the scale of each value
+	 * @return the squared norm
+	 */
+	@Override
+	public double getScore(double[] free, double[] required, double[] scale) {
+		double score = 0;
+		for (int d = 0; d < HostCapacityIndex.SCORED_DIMENSIONS; d++) {
+			double left = (free[d] - required[d]) / scale[d];
+			score += left * left;
+		}
+		return score;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.HostCapacityIndex.Scorer#getScoreBound(double[], double[],
+	 * double[], double[])
+	 */
+	@Override
+	public double getScoreBound(double[] minFree, double[] maxFree, double[] required,
+			double[] scale) {
+		double bound = 0;
+		double requiredSlack = 0;
+		for (int d = 0; d < HostCapacityIndex.SCORED_DIMENSIONS; d++) {
+			double left = Math.max(0, minFree[d] - required[d]) / scale[d];
+			bound += left * left;
+			requiredSlack += required[d] / scale[d];
+		}
+		// the square of a sum of n values is at most n times the sum of their squares; the margin
+		// keeps the bound below the scores computed otherwise despite the rounding errors
+		double slackLeft = Math.max(0, minFree[HostCapacityIndex.SLACK] - requiredSlack);
+		return Math.max(bound, slackLeft * slackLeft / HostCapacityIndex.SCORED_DIMENSIONS
+				* (1 - ROUNDING_MARGIN));
+	}
+
+}
@@ -10,10 +10,13 @@ package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 
 /**
  * VmAllocationPolicySimple is an VmAllocationPolicy that chooses, as the host for a VM, the host
@@ -34,6 +37,9 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	/** The free pes. */
 	private List<Integer> freePes;
 
+	/** The positions of the hosts in the host list. */
+	private final Map<Host, Integer> hostPositions = new IdentityHashMap<Host, Integer>();
+
 	/**
 	 * Creates the new VmAllocationPolicySimple object.
 	 * 
@@ -105,6 +111,56 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 		return result;
 	}
 
+	/**
+	 * Allocates hosts for a list of VMs. Each VM goes to the same host as with
+	 * {@link #allocateHostForVm(Vm)}, but the hosts are searched in a tree of their free PEs,
+	 * RAM, bandwidth and storage built once for the whole list, instead of a copy of the free PEs
+	 * per VM. The hosts that cannot hold a VM for lack of RAM, bandwidth or storage are skipped
+	 * without trying to create the VM in them.
+	 * 
+	 * @param vmList the VMs
+	 * @return for each VM of the list, $true if a host could be allocated; $false otherwise
+	 * @pre vmList != null
+	 * @post $none
+	 */
+	@Override
+	public boolean[] allocateHostsForVms(List<? extends Vm> vmList) {
+		boolean[] results = new boolean[vmList.size()];
+		HostTree tree = new HostTree();
+		List<Integer> triedHosts = new ArrayList<Integer>();
+
+		for (int i = 0; i < results.length; i++) {
+			Vm vm = vmList.get(i);
+			if (getVmTable().containsKey(vm.getUid())) { // if this vm was already created
+				continue;
+			}
+
+			int requiredPes = vm.getNumberOfPes();
+			int idx;
+			while ((idx = tree.findHost(vm)) >= 0) {
+				Host host = getHostList().get(idx);
+				if (host.vmCreate(vm)) {
+					getVmTable().put(vm.getUid(), host);
+					getUsedPes().put(vm.getUid(), requiredPes);
+					getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
+					tree.update(idx);
+					results[i] = true;
+					break;
+				}
+				tree.exclude(idx);
+				triedHosts.add(idx);
+			}
+
+			// the hosts that failed may still hold the next VMs
+			for (int tried : triedHosts) {
+				tree.update(tried);
+			}
+			triedHosts.clear();
+		}
+
+		return results;
+	}
+
 	/**
 	 * Releases the host used by a VM.
 	 * 
@@ -115,7 +171,7 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	@Override
 	public void deallocateHostForVm(Vm vm) {
 		Host host = getVmTable().remove(vm.getUid());
-		int idx = getHostList().indexOf(host);
+		int idx = indexOfHost(host);
 		int pes = getUsedPes().remove(vm.getUid());
 		if (host != null) {
 			host.vmDestroy(vm);
@@ -123,6 +179,26 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 		}
 	}
 
+	/**
+	 * Gets the position of a host in the host list. The positions are remembered, and checked
+	 * against the list in case it changed since.
+	 * 
+	 * @param host the host
+	 * @return the position, or -1 if the host is not in the list
+	 */
+	protected int indexOfHost(Host host) {
+		Integer idx = hostPositions.get(host);
+		if (idx != null && idx < getHostList().size() && getHostList().get(idx) == host) {
+			return idx;
+		}
+		hostPositions.clear();
+		for (int i = getHostList().size() - 1; i >= 0; i--) {
+			hostPositions.put(getHostList().get(i), i);
+		}
+		idx = hostPositions.get(host);
+		return idx == null ? -1 : idx;
+	}
+
 	/**
 	 * Gets the host that is executing the given VM belonging to the given user.
 	 * 
@@ -225,7 +301,7 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 			getVmTable().put(vm.getUid(), host);
 
 			int requiredPes = vm.getNumberOfPes();
-			int idx = getHostList().indexOf(host);
+			int idx = indexOfHost(host);
 			getUsedPes().put(vm.getUid(), requiredPes);
 			getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
 
@@ -237,4 +313,169 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 
 		return false;
 	}
+
+	/**
+	 * A segment tree over the hosts, in the order of the host list. Each node holds the maximum
+	 * number of free PEs, available RAM, available bandwidth and storage of the hosts below it, so
+	 * that the host with the most free PEs that may hold a VM is found without visiting every
+	 * host. The RAM and bandwidth only bound the search for the simple provisioners, whose
+	 * allocation succeeds exactly when the amount is available.
+	 */
+	private class HostTree {
+
+		/** The number of leaves, a power of two. */
+		private final int leaves;
+
+		/** The maximum free PEs of each node; the excluded hosts have Integer.MIN_VALUE. */
+		private final int[] freePes;
+
+		/** The maximum available RAM of each node. */
+		private final long[] ram;
+
+		/** The maximum available bandwidth of each node. */
+		private final long[] bw;
+
+		/** The maximum storage of each node. */
+		private final long[] storage;
+
+		/** The host found by the current search. */
+		private int found;
+
+		/**
+		 * Builds the tree from the current state of the hosts.
+		 */
+		public HostTree() {
+			int size = 1;
+			while (size < getHostList().size()) {
+				size *= 2;
+			}
+			leaves = size;
+			freePes = new int[2 * size];
+			ram = new long[2 * size];
+			bw = new long[2 * size];
+			storage = new long[2 * size];
+			for (int i = 0; i < size; i++) {
+				if (i < getHostList().size()) {
+					setLeaf(i);
+				} else {
+					excludeLeaf(i);
+				}
+			}
+			for (int node = size - 1; node > 0; node--) {
+				merge(node);
+			}
+		}
+
+		/**
+		 * Finds the host with the most free PEs that is not excluded and whose RAM, bandwidth and
+		 * storage may hold the VM. Among equal hosts, the first one of the host list is chosen.
+		 * 
+		 * @param vm the VM
+		 * @return the position of the host, or -1 if there is none
+		 */
+		public int findHost(Vm vm) {
+			found = -1;
+			search(1, Math.min(vm.getCurrentRequestedRam(), vm.getRam()), vm.getCurrentRequestedBw(),
+					vm.getSize());
+			return found;
+		}
+
+		/**
+		 * Reads again the state of a host, after a VM was created in it or to undo an exclusion.
+		 * 
+		 * @param idx the position of the host
+		 */
+		public void update(int idx) {
+			setLeaf(idx);
+			propagate(idx);
+		}
+
+		/**
+		 * Excludes a host from the next searches, until it is updated.
+		 * 
+		 * @param idx the position of the host
+		 */
+		public void exclude(int idx) {
+			excludeLeaf(idx);
+			propagate(idx);
+		}
+
+		/**
+		 * Searches the subtree of a node, left to right, skipping the subtrees that cannot hold a
+		 * host better than the one already found.
+		 * 
+		 * @param node the node
+		 * @param requiredRam the RAM required by the VM
+		 * @param requiredBw the bandwidth required by the VM
+		 * @param requiredStorage the storage required by the VM
+		 */
+		private void search(int node, long requiredRam, long requiredBw, long requiredStorage) {
+			if (freePes[node] == Integer.MIN_VALUE
+					|| (found >= 0 && freePes[node] <= freePes[leaves + found])
+					|| ram[node] < requiredRam
+					|| bw[node] < requiredBw
+					|| storage[node] < requiredStorage) {
+				return;
+			}
+			if (node >= leaves) {
+				found = node - leaves;
+				return;
+			}
+			search(2 * node, requiredRam, requiredBw, requiredStorage);
+			search(2 * node + 1, requiredRam, requiredBw, requiredStorage);
+		}
+
+		/**
+		 * Sets a leaf from the state of its host.
+		 * 
+		 * @param idx the position of the host
+		 */
+		private void setLeaf(int idx) {
+			Host host = getHostList().get(idx);
+			int node = leaves + idx;
+			freePes[node] = getFreePes().get(idx);
+			ram[node] = host.getRamProvisioner().getClass() == RamProvisionerSimple.class ? host
+					.getRamProvisioner().getAvailableRam() : Long.MAX_VALUE;
+			bw[node] = host.getBwProvisioner().getClass() == BwProvisionerSimple.class ? host
+					.getBwProvisioner().getAvailableBw() : Long.MAX_VALUE;
+			storage[node] = host.getStorage();
+		}
+
+		/**
+		 * Sets a leaf so that it is never found.
+		 * 
+		 * @param idx the position of the leaf
+		 */
+		private void excludeLeaf(int idx) {
+			int node = leaves + idx;
+			freePes[node] = Integer.MIN_VALUE;
+			ram[node] = -1;
+			bw[node] = -1;
+			storage[node] = -1;
+		}
+
+		/**
+		 * Updates the ancestors of a leaf.
+		 * 
+		 * @param idx the position of the leaf
+		 */
+		private void propagate(int idx) {
+			for (int node = (leaves + idx) / 2; node > 0; node /= 2) {
+				merge(node);
+			}
+		}
+
+		/**
+		 * Sets a node from its children.
+		 * 
+		 * @param node the node
+		 */
+		private void merge(int node) {
+			freePes[node] = Math.max(freePes[2 * node], freePes[2 * node + 1]);
+			ram[node] = Math.max(ram[2 * node], ram[2 * node + 1]);
+			bw[node] = Math.max(bw[2 * node], bw[2 * node + 1]);
+			storage[node] = Math.max(storage[2 * node], storage[2 * node + 1]);
+		}
+
+	}
 }
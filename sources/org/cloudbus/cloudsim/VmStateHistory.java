@@ -0,0 +1,49 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * The state history of a VM, whose flag tells if the VM is in migration.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class VmStateHistory extends StateHistory<VmStateHistoryEntry> {
+
+	/**
+	 * Adds an entry, or replaces the last one if it has the same time.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param isInMigration the is in migration
+	 */
+	public void add(double time, double allocatedMips, double requestedMips, boolean isInMigration) {
+		addEntry(time, allocatedMips, requestedMips, isInMigration);
+	}
+
+	/**
+	 * Checks if the VM is in migration in an entry.
+	 *
+	 * @param index the index of the entry
+	 * @return true, if the VM is in migration
+	 */
+	public boolean isInMigration(int index) {
+		return getFlag(index);
+	}
+
+	@Override
+	protected VmStateHistoryEntry createEntry(
+			double time,
+			double allocatedMips,
+			double requestedMips,
+			boolean isInMigration) {
+		return new VmStateHistoryEntry(time, allocatedMips, requestedMips, isInMigration);
+	}
+
+}
@@ -0,0 +1,429 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An event queue based on the calendar queue proposed by R. Brown (Calendar Queues: A Fast O(1)
+ * Priority Queue Implementation for the Simulation Event Set Problem, Communications of the ACM,
+ * 1988). The events are hashed by time into an array of buckets ("days"), each of them holding a
+ * sorted doubly linked list. The number of buckets and their width are adapted to the number of
+ * events and to their time separation, which gives amortized O(1) insertion and removal of the
+ * first event.
+ * <p>
+ * The iteration is not ordered.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventQueue
+ */
+public class CalendarEventQueue implements EventQueue {
+
+	/** The minimal number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The maximal number of events sampled to compute the bucket width. */
+	private static final int WIDTH_SAMPLE_SIZE = 25;
+
+	/** The heads of the buckets. */
+	private Node[] heads;
+
+	/** The tails of the buckets. */
+	private Node[] tails;
+
+	/** The width of a bucket. */
+	private double width;
+
+	/** The absolute index of the bucket holding the first event. No event has a lower one. */
+	private long currentSlot;
+
+	/** The number of events. */
+	private int size;
+
+	/** The insertion counter used to keep ties in the insertion order. */
+	private long order;
+
+	/** Whether resizing is enabled. */
+	private boolean resizeEnabled = true;
+
+	/**
+	 * Instantiates a new calendar event queue.
+	 */
+	public CalendarEventQueue() {
+		this(1.0);
+	}
+
+	/**
+	 * Instantiates a new calendar event queue.
+	 *
+	 * @param initialWidth the initial width of a bucket, i.e. the expected time between events
+	 */
+	public CalendarEventQueue(double initialWidth) {
+		if (initialWidth <= 0) {
+			throw new IllegalArgumentException("The bucket width should be positive, but is:"
+					+ initialWidth);
+		}
+		width = initialWidth;
+		heads = new Node[MIN_BUCKETS];
+		tails = new Node[MIN_BUCKETS];
+	}
+
+	@Override
+	public void add(SimEvent event) {
+		Node node = new Node(this, event, order++);
+		event.setQueueNode(node);
+		node.slot = getSlot(event.eventTime());
+		if (size == 0 || node.slot < currentSlot) {
+			currentSlot = node.slot;
+		}
+		insert(node);
+		size++;
+		if (resizeEnabled && size > 2 * heads.length) {
+			resize(2 * heads.length);
+		}
+	}
+
+	@Override
+	public SimEvent peek() {
+		Node node = findFirst();
+		if (node == null) {
+			return null;
+		}
+		return node.event;
+	}
+
+	@Override
+	public SimEvent poll() {
+		Node node = findFirst();
+		if (node == null) {
+			return null;
+		}
+		unlink(node, true);
+		return node.event;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		Object node = event.getQueueNode();
+		if (!(node instanceof Node) || ((Node) node).queue != this) {
+			return false;
+		}
+		unlink((Node) node, true);
+		return true;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<SimEvent>() {
+
+			private int bucket = -1;
+
+			private Node next = advance(null);
+
+			private Node last;
+
+			private Node advance(Node node) {
+				if (node != null && node.next != null) {
+					return node.next;
+				}
+				while (++bucket < heads.length) {
+					if (heads[bucket] != null) {
+						return heads[bucket];
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = advance(next);
+				return last.event;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				// do not resize, as it would reorganize the buckets being iterated
+				unlink(last, false);
+				last = null;
+			}
+		};
+	}
+
+	@Override
+	public boolean isIterationOrdered() {
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < heads.length; i++) {
+			for (Node node = heads[i]; node != null; node = node.next) {
+				node.event.setQueueNode(null);
+			}
+		}
+		heads = new Node[MIN_BUCKETS];
+		tails = new Node[MIN_BUCKETS];
+		size = 0;
+		currentSlot = 0;
+	}
+
+	/**
+	 * Finds the first event and moves the current bucket to it.
+	 *
+	 * @return the node of the first event or <tt>null</tt> if the queue is empty
+	 */
+	private Node findFirst() {
+		if (size == 0) {
+			return null;
+		}
+
+		// scan one "year" starting from the current bucket
+		long slot = currentSlot;
+		for (int i = 0; i < heads.length; i++, slot++) {
+			Node head = heads[getBucket(slot)];
+			if (head != null && head.slot == slot) {
+				currentSlot = slot;
+				return head;
+			}
+		}
+
+		// the events are sparse, search for the first one directly
+		Node first = null;
+		for (int i = 0; i < heads.length; i++) {
+			if (heads[i] != null && (first == null || compare(heads[i], first) < 0)) {
+				first = heads[i];
+			}
+		}
+		currentSlot = first.slot;
+		return first;
+	}
+
+	/**
+	 * Inserts a node into its bucket. The bucket is scanned from the tail, as new events usually
+	 * come after the ones already stored.
+	 *
+	 * @param node the node
+	 */
+	private void insert(Node node) {
+		int bucket = getBucket(node.slot);
+		Node after = tails[bucket];
+		while (after != null && compare(after, node) > 0) {
+			after = after.prev;
+		}
+
+		node.prev = after;
+		if (after == null) {
+			node.next = heads[bucket];
+			heads[bucket] = node;
+		} else {
+			node.next = after.next;
+			after.next = node;
+		}
+		if (node.next == null) {
+			tails[bucket] = node;
+		} else {
+			node.next.prev = node;
+		}
+	}
+
+	/**
+	 * Removes a node from its bucket.
+	 *
+	 * @param node the node
+	 * @param resize whether the calendar can be shrunk
+	 */
+	private void unlink(Node node, boolean resize) {
+		int bucket = getBucket(node.slot);
+		if (node.prev == null) {
+			heads[bucket] = node.next;
+		} else {
+			node.prev.next = node.next;
+		}
+		if (node.next == null) {
+			tails[bucket] = node.prev;
+		} else {
+			node.next.prev = node.prev;
+		}
+		node.prev = null;
+		node.next = null;
+		node.event.setQueueNode(null);
+		size--;
+
+		if (resize && resizeEnabled && heads.length > MIN_BUCKETS && size < heads.length / 2) {
+			resize(heads.length / 2);
+		}
+	}
+
+	/**
+	 * Rebuilds the calendar with a new number of buckets and a new bucket width.
+	 *
+	 * @param numberOfBuckets the number of buckets
+	 */
+	private void resize(int numberOfBuckets) {
+		double newWidth = computeWidth();
+		Node[] oldHeads = heads;
+
+		width = newWidth;
+		heads = new Node[numberOfBuckets];
+		tails = new Node[numberOfBuckets];
+
+		boolean first = true;
+		for (int i = 0; i < oldHeads.length; i++) {
+			Node node = oldHeads[i];
+			while (node != null) {
+				Node next = node.next;
+				node.slot = getSlot(node.event.eventTime());
+				if (first || node.slot < currentSlot) {
+					currentSlot = node.slot;
+					first = false;
+				}
+				insert(node);
+				node = next;
+			}
+		}
+	}
+
+	/**
+	 * Computes the bucket width as three times the average separation of the first events,
+	 * ignoring the separations larger than twice the average.
+	 *
+	 * @return the bucket width
+	 */
+	private double computeWidth() {
+		int sampleSize = Math.min(size, WIDTH_SAMPLE_SIZE);
+		if (sampleSize < 2) {
+			return width;
+		}
+
+		resizeEnabled = false;
+		Node[] sample = new Node[sampleSize];
+		for (int i = 0; i < sampleSize; i++) {
+			sample[i] = findFirst();
+			unlink(sample[i], false);
+		}
+		for (int i = 0; i < sampleSize; i++) {
+			sample[i].event.setQueueNode(sample[i]);
+			insert(sample[i]);
+			size++;
+		}
+		resizeEnabled = true;
+
+		double total = sample[sampleSize - 1].event.eventTime() - sample[0].event.eventTime();
+		double average = total / (sampleSize - 1);
+		double sum = 0;
+		int count = 0;
+		for (int i = 1; i < sampleSize; i++) {
+			double separation = sample[i].event.eventTime() - sample[i - 1].event.eventTime();
+			if (separation <= 2 * average) {
+				sum += separation;
+				count++;
+			}
+		}
+
+		double newWidth = 3 * sum / count;
+		if (newWidth > 0 && !Double.isInfinite(newWidth) && !Double.isNaN(newWidth)) {
+			return newWidth;
+		}
+		return width;
+	}
+
+	/**
+	 * Gets the absolute index of the bucket holding a given time.
+	 *
+	 * @param time the time
+	 * @return the slot
+	 */
+	private long getSlot(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	/**
+	 * Gets the index in the bucket array of a slot.
+	 *
+	 * @param slot the slot
+	 * @return the bucket index
+	 */
+	private int getBucket(long slot) {
+		int bucket = (int) (slot % heads.length);
+		if (bucket < 0) {
+			bucket += heads.length;
+		}
+		return bucket;
+	}
+
+	/**
+	 * Compares two nodes by event time, serial number and insertion order.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @return a negative integer, zero or a positive integer
+	 */
+	private static int compare(Node a, Node b) {
+		double timeA = a.event.eventTime();
+		double timeB = b.event.eventTime();
+		if (timeA != timeB) {
+			return timeA < timeB ? -1 : 1;
+		}
+		long serialA = a.event.getSerial();
+		long serialB = b.event.getSerial();
+		if (serialA != serialB) {
+			return serialA < serialB ? -1 : 1;
+		}
+		return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+	}
+
+	/**
+	 * A node of a bucket list.
+	 */
+	private static class Node {
+
+		/** The queue holding the node. */
+		final CalendarEventQueue queue;
+
+		/** The event. */
+		final SimEvent event;
+
+		/** The insertion order. */
+		final long order;
+
+		/** The absolute bucket index. */
+		long slot;
+
+		/** The previous node in the bucket. */
+		Node prev;
+
+		/** The next node in the bucket. */
+		Node next;
+
+		Node(CalendarEventQueue queue, SimEvent event, long order) {
+			this.queue = queue;
+			this.event = event;
+			this.order = order;
+		}
+	}
+
+}
@@ -265,6 +265,36 @@ public class CloudSimTags {
 
 	public static final int NextCycle = BASE + 48;
 
+	/**
+	 * Denotes the submission of a list of Cloudlets to the same CloudResource at once. No
+	 * acknowledgement is sent back.
+	 */
+	public static final int CLOUDLET_SUBMIT_BATCH = BASE + 49;
+
+	/**
+	 * Denotes a request to create a list of VMs in a Datacentre at once. No acknowledgement is
+	 * sent back.
+	 */
+	public static final int VM_CREATE_BATCH = BASE + 50;
+
+	/**
+	 * Denotes a request to create a list of VMs in a Datacentre at once, with one
+	 * {@link #VM_CREATE_ACK} sent back by the Datacentre for each VM.
+	 */
+	public static final int VM_CREATE_BATCH_ACK = BASE + 51;
+
+	/**
+	 * Denotes the start of a transfer in the flow-level network model, sent to the entity sharing
+	 * the bandwidth of the network topology between the transfers.
+	 */
+	public static final int NETWORK_FLOW_START = BASE + 52;
+
+	/** Denotes the end of the next transfers in the flow-level network model. */
+	public static final int NETWORK_FLOW_UPDATE = BASE + 53;
+
+	/** Denotes the end of the next VM migrations sharing the bandwidth of the hosts. */
+	public static final int VM_MIGRATE_FLOW_UPDATE = BASE + 54;
+
 	/** Private Constructor */
 	private CloudSimTags() {
 		throw new UnsupportedOperationException("CloudSim Tags cannot be instantiated");
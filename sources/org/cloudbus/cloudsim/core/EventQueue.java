@@ -0,0 +1,87 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+
+/**
+ * The interface of the priority queues that can back the {@link FutureQueue}. Implementations
+ * must order the events by time and then by serial number, as defined by
+ * {@link SimEvent#compareTo(SimEvent)}. Events that have the same time and serial number must be
+ * returned in the order in which they were added.
+ * <p>
+ * An implementation can be selected with {@link CloudSim#init(int, java.util.Calendar, boolean,
+ * EventQueue)}.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see FutureQueue
+ * @see TreeSetEventQueue
+ * @see CalendarEventQueue
+ * @see PairingHeapEventQueue
+ */
+public interface EventQueue {
+
+	/**
+	 * Adds an event to the queue. The serial number of the event must be already set.
+	 *
+	 * @param event the event
+	 */
+	void add(SimEvent event);
+
+	/**
+	 * Returns the first event of the queue without removing it.
+	 *
+	 * @return the first event or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent peek();
+
+	/**
+	 * Removes and returns the first event of the queue.
+	 *
+	 * @return the first event or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent poll();
+
+	/**
+	 * Removes an event from the queue.
+	 *
+	 * @param event the event
+	 * @return true, if the event was in the queue
+	 */
+	boolean remove(SimEvent event);
+
+	/**
+	 * Returns an iterator over the events of the queue. The iteration order is only guaranteed to
+	 * be the queue order if {@link #isIterationOrdered()} returns <tt>true</tt>. The iterator
+	 * supports removal.
+	 *
+	 * @return the iterator
+	 */
+	Iterator<SimEvent> iterator();
+
+	/**
+	 * Checks if {@link #iterator()} returns the events in the queue order.
+	 *
+	 * @return true, if the iteration is ordered
+	 */
+	boolean isIterationOrdered();
+
+	/**
+	 * Returns the number of events in the queue.
+	 *
+	 * @return the size
+	 */
+	int size();
+
+	/**
+	 * Removes all the events from the queue.
+	 */
+	void clear();
+
+}
@@ -0,0 +1,279 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * A binary trace of the simulation, written to a memory-mapped file for post-mortem analysis. The
+ * trace is a ring of fixed-size records: once it is full, each new record overwrites the oldest
+ * one, so the file keeps the last records up to the capacity. The trace is read back with an
+ * {@link EventTraceReader}.
+ * <p>
+ * A trace is enabled with {@link CloudSim#setEventTrace(EventTrace)}. The simulation then records
+ * each event it processes, and the cloudlets created with the history enabled record their
+ * history here instead of in a text buffer.
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: a magic number, the version, the
+ * record size, the capacity and the number of records written so far. Each record holds the
+ * time, the kind, the source and destination entities, the tag, the cloudlet, VM and host ids
+ * (-1 if unknown) and two values whose meaning depends on the kind. All values are big-endian.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventTraceReader
+ */
+public class EventTrace implements Closeable {
+
+	/** The magic number at the start of the file. */
+	public static final int MAGIC = 0x43535452;
+
+	/** The version of the file format. */
+	public static final int VERSION = 1;
+
+	/** The size of the header, in bytes. */
+	public static final int HEADER_SIZE = 64;
+
+	/** The size of a record, in bytes. */
+	public static final int RECORD_SIZE = 56;
+
+	/** An event processed by the simulation; the first value is the type of the event. */
+	public static final int EVENT = 0;
+
+	/** A cloudlet assigned to a user, the source. */
+	public static final int CLOUDLET_USER = 1;
+
+	/**
+	 * A cloudlet allocated to a resource, the destination, from the source resource or -1; the
+	 * first value is the cost per second.
+	 */
+	public static final int CLOUDLET_RESOURCE = 2;
+
+	/** The length executed so far of a cloudlet, the first value. */
+	public static final int CLOUDLET_FINISHED_SO_FAR = 3;
+
+	/** The submission time of a cloudlet, the first value. */
+	public static final int CLOUDLET_SUBMISSION = 4;
+
+	/** The execution start time of a cloudlet, the first value. */
+	public static final int CLOUDLET_EXEC_START = 5;
+
+	/** The wall clock time and the actual CPU time of a cloudlet, the two values. */
+	public static final int CLOUDLET_EXEC_PARAM = 6;
+
+	/** The status change of a cloudlet, from the first value to the second one. */
+	public static final int CLOUDLET_STATUS = 7;
+
+	/** The names of the kinds of record. */
+	private static final String[] KIND_NAMES = { "EVENT", "CLOUDLET_USER", "CLOUDLET_RESOURCE",
+			"CLOUDLET_FINISHED_SO_FAR", "CLOUDLET_SUBMISSION", "CLOUDLET_EXEC_START",
+			"CLOUDLET_EXEC_PARAM", "CLOUDLET_STATUS" };
+
+	/** The offset of the number of records in the header. */
+	static final int COUNT_OFFSET = 16;
+
+	/** The file. */
+	private final RandomAccessFile file;
+
+	/** The mapped content of the file. */
+	private final MappedByteBuffer buffer;
+
+	/** The number of records of the ring. */
+	private final int capacity;
+
+	/** The number of records written so far. */
+	private long count;
+
+	/** The closed flag. */
+	private boolean closed;
+
+	/**
+	 * Creates a trace, replacing the content of the file.
+	 *
+	 * @param path the file
+	 * @param capacity the number of records kept
+	 * @throws IOException if the file cannot be created or mapped
+	 */
+	public EventTrace(File path, int capacity) throws IOException {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be greater than 0");
+		}
+		if (capacity > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+			throw new IllegalArgumentException("The capacity is too large to map the file: "
+					+ capacity);
+		}
+		this.capacity = capacity;
+		int size = HEADER_SIZE + capacity * RECORD_SIZE;
+		file = new RandomAccessFile(path, "rw");
+		try {
+			file.setLength(0);
+			file.setLength(size);
+			buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putInt(8, RECORD_SIZE);
+		buffer.putInt(12, capacity);
+		buffer.putLong(COUNT_OFFSET, 0);
+	}
+
+	/**
+	 * Records an event processed by the simulation. The ids are taken from the data of the event
+	 * when it is a cloudlet, a VM or a migration map.
+	 *
+	 * @param e the event
+	 */
+	public void recordEvent(SimEvent e) {
+		int cloudletId = -1;
+		int vmId = -1;
+		int hostId = -1;
+		Object data = e.getData();
+		if (data instanceof Cloudlet) {
+			Cloudlet cloudlet = (Cloudlet) data;
+			cloudletId = cloudlet.getCloudletId();
+			vmId = cloudlet.getVmId();
+		} else if (data instanceof Vm) {
+			Vm vm = (Vm) data;
+			vmId = vm.getId();
+			if (vm.getHost() != null) {
+				hostId = vm.getHost().getId();
+			}
+		} else if (data instanceof Map<?, ?>) {
+			Object vm = ((Map<?, ?>) data).get("vm");
+			Object host = ((Map<?, ?>) data).get("host");
+			if (vm instanceof Vm) {
+				vmId = ((Vm) vm).getId();
+			}
+			if (host instanceof Host) {
+				hostId = ((Host) host).getId();
+			}
+		}
+		record(e.eventTime(), EVENT, e.getSource(), e.getDestination(), e.getTag(), cloudletId, vmId,
+				hostId, e.getType(), 0);
+	}
+
+	/**
+	 * Records a change of a cloudlet at the current simulation time.
+	 *
+	 * @param kind the kind of record, one of the CLOUDLET constants
+	 * @param cloudlet the cloudlet
+	 * @param source the source entity, or -1
+	 * @param destination the destination entity, or -1
+	 * @param value1 the first value
+	 * @param value2 the second value
+	 */
+	public void recordCloudlet(int kind, Cloudlet cloudlet, int source, int destination,
+			double value1, double value2) {
+		record(CloudSim.clock(), kind, source, destination, -1, cloudlet.getCloudletId(),
+				cloudlet.getVmId(), -1, value1, value2);
+	}
+
+	/**
+	 * Records a record.
+	 *
+	 * @param time the simulation time
+	 * @param kind the kind of record
+	 * @param source the source entity, or -1
+	 * @param destination the destination entity, or -1
+	 * @param tag the tag, or -1
+	 * @param cloudletId the cloudlet id, or -1
+	 * @param vmId the VM id, or -1
+	 * @param hostId the host id, or -1
+	 * @param value1 the first value
+	 * @param value2 the second value
+	 */
+	public synchronized void record(double time, int kind, int source, int destination, int tag,
+			int cloudletId, int vmId, int hostId, double value1, double value2) {
+		if (closed) {
+			throw new IllegalStateException("The event trace is closed");
+		}
+		int position = HEADER_SIZE + (int) (count % capacity) * RECORD_SIZE;
+		buffer.putDouble(position, time);
+		buffer.putDouble(position + 8, value1);
+		buffer.putDouble(position + 16, value2);
+		buffer.putInt(position + 24, kind);
+		buffer.putInt(position + 28, source);
+		buffer.putInt(position + 32, destination);
+		buffer.putInt(position + 36, tag);
+		buffer.putInt(position + 40, cloudletId);
+		buffer.putInt(position + 44, vmId);
+		buffer.putInt(position + 48, hostId);
+		buffer.putInt(position + 52, 0);
+		count++;
+		buffer.putLong(COUNT_OFFSET, count);
+	}
+
+	/**
+	 * Gets the number of records of the ring.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the number of records written so far, including the overwritten ones.
+	 *
+	 * @return the number of records
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Writes the records to the disk.
+	 */
+	public synchronized void force() {
+		buffer.force();
+	}
+
+	/**
+	 * Writes the records to the disk and closes the file.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		buffer.force();
+		file.close();
+	}
+
+	/**
+	 * Gets the name of a kind of record.
+	 *
+	 * @param kind the kind
+	 * @return the name, or the number for an unknown kind
+	 */
+	public static String getKindName(int kind) {
+		if (kind >= 0 && kind < KIND_NAMES.length) {
+			return KIND_NAMES[kind];
+		}
+		return String.valueOf(kind);
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the file written by an {@link EventTrace}. The records are indexed from the oldest one
+ * kept in the ring, so the index 0 is the first record written if the ring never wrapped.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class EventTraceReader implements Closeable, Iterable<EventTraceRecord> {
+
+	/** The header of the CSV export. */
+	private static final String CSV_HEADER = "time,kind,source,destination,tag,cloudlet,vm,host,value1,value2";
+
+	/** The file. */
+	private final RandomAccessFile file;
+
+	/** The mapped content of the file. */
+	private final MappedByteBuffer buffer;
+
+	/** The number of records of the ring. */
+	private final int capacity;
+
+	/** The number of records written, including the overwritten ones. */
+	private final long count;
+
+	/** The number of records kept. */
+	private final int size;
+
+	/**
+	 * Opens a trace.
+	 *
+	 * @param path the file
+	 * @throws IOException if the file cannot be read or is not an event trace
+	 */
+	public EventTraceReader(File path) throws IOException {
+		file = new RandomAccessFile(path, "r");
+		try {
+			if (file.length() < EventTrace.HEADER_SIZE) {
+				throw new IOException(path + " is not an event trace");
+			}
+			buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+			buffer.order(ByteOrder.BIG_ENDIAN);
+			if (buffer.getInt(0) != EventTrace.MAGIC) {
+				throw new IOException(path + " is not an event trace");
+			}
+			if (buffer.getInt(4) != EventTrace.VERSION || buffer.getInt(8) != EventTrace.RECORD_SIZE) {
+				throw new IOException("Unsupported event trace version " + buffer.getInt(4) + " in "
+						+ path);
+			}
+			capacity = buffer.getInt(12);
+			count = buffer.getLong(EventTrace.COUNT_OFFSET);
+			if (capacity <= 0 || count < 0
+					|| file.length() < EventTrace.HEADER_SIZE + (long) capacity * EventTrace.RECORD_SIZE) {
+				throw new IOException(path + " is truncated");
+			}
+			size = (int) Math.min(count, capacity);
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Gets the number of records kept in the file.
+	 *
+	 * @return the number of records
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of records written, including the ones overwritten when the ring wrapped.
+	 *
+	 * @return the number of records written
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the number of records of the ring.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Reads a record.
+	 *
+	 * @param index the index of the record, from 0 (the oldest) to size() - 1 (the latest)
+	 * @return the record
+	 */
+	public EventTraceRecord get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+		long first = count - size;
+		int position = EventTrace.HEADER_SIZE + (int) ((first + index) % capacity)
+				* EventTrace.RECORD_SIZE;
+		return new EventTraceRecord(
+				buffer.getDouble(position),
+				buffer.getInt(position + 24),
+				buffer.getInt(position + 28),
+				buffer.getInt(position + 32),
+				buffer.getInt(position + 36),
+				buffer.getInt(position + 40),
+				buffer.getInt(position + 44),
+				buffer.getInt(position + 48),
+				buffer.getDouble(position + 8),
+				buffer.getDouble(position + 16));
+	}
+
+	/**
+	 * Iterates over the records, from the oldest to the latest.
+	 *
+	 * @return the iterator
+	 */
+	@Override
+	public Iterator<EventTraceRecord> iterator() {
+		return new Iterator<EventTraceRecord>() {
+
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public EventTraceRecord next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return get(next++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Exports the records as CSV, with a header line. The kinds are written by name.
+	 *
+	 * @param out the output
+	 * @throws IOException if the output cannot be written
+	 */
+	public void writeCsv(Writer out) throws IOException {
+		out.write(CSV_HEADER);
+		out.write('\n');
+		StringBuilder line = new StringBuilder(128);
+		for (int i = 0; i < size; i++) {
+			EventTraceRecord record = get(i);
+			line.setLength(0);
+			line.append(record.getTime()).append(',')
+					.append(EventTrace.getKindName(record.getKind())).append(',')
+					.append(record.getSource()).append(',')
+					.append(record.getDestination()).append(',')
+					.append(record.getTag()).append(',')
+					.append(record.getCloudletId()).append(',')
+					.append(record.getVmId()).append(',')
+					.append(record.getHostId()).append(',')
+					.append(record.getValue1()).append(',')
+					.append(record.getValue2()).append('\n');
+			out.write(line.toString());
+		}
+		out.flush();
+	}
+
+	/**
+	 * Closes the file.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+/**
+ * A record of an {@link EventTrace}, as read by an {@link EventTraceReader}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class EventTraceRecord {
+
+	/** The simulation time. */
+	private final double time;
+
+	/** The kind of record. */
+	private final int kind;
+
+	/** The source entity. */
+	private final int source;
+
+	/** The destination entity. */
+	private final int destination;
+
+	/** The tag. */
+	private final int tag;
+
+	/** The cloudlet id. */
+	private final int cloudletId;
+
+	/** The VM id. */
+	private final int vmId;
+
+	/** The host id. */
+	private final int hostId;
+
+	/** The first value. */
+	private final double value1;
+
+	/** The second value. */
+	private final double value2;
+
+	/**
+	 * Instantiates a new record.
+	 *
+	 * @param time the simulation time
+	 * @param kind the kind of record
+	 * @param source the source entity, or -1
+	 * @param destination the destination entity, or -1
+	 * @param tag the tag, or -1
+	 * @param cloudletId the cloudlet id, or -1
+	 * @param vmId the VM id, or -1
+	 * @param hostId the host id, or -1
+	 * @param value1 the first value
+	 * @param value2 the second value
+	 */
+	public EventTraceRecord(double time, int kind, int source, int destination, int tag,
+			int cloudletId, int vmId, int hostId, double value1, double value2) {
+		this.time = time;
+		this.kind = kind;
+		this.source = source;
+		this.destination = destination;
+		this.tag = tag;
+		this.cloudletId = cloudletId;
+		this.vmId = vmId;
+		this.hostId = hostId;
+		this.value1 = value1;
+		this.value2 = value2;
+	}
+
+	/**
+	 * Gets the simulation time.
+	 *
+	 * @return the time
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Gets the kind of record, one of the constants of {@link EventTrace}.
+	 *
+	 * @return the kind
+	 */
+	public int getKind() {
+		return kind;
+	}
+
+	/**
+	 * Gets the source entity.
+	 *
+	 * @return the source, or -1
+	 */
+	public int getSource() {
+		return source;
+	}
+
+	/**
+	 * Gets the destination entity.
+	 *
+	 * @return the destination, or -1
+	 */
+	public int getDestination() {
+		return destination;
+	}
+
+	/**
+	 * Gets the tag.
+	 *
+	 * @return the tag, or -1
+	 */
+	public int getTag() {
+		return tag;
+	}
+
+	/**
+	 * Gets the cloudlet id.
+	 *
+	 * @return the cloudlet id, or -1
+	 */
+	public int getCloudletId() {
+		return cloudletId;
+	}
+
+	/**
+	 * Gets the VM id.
+	 *
+	 * @return the VM id, or -1
+	 */
+	public int getVmId() {
+		return vmId;
+	}
+
+	/**
+	 * Gets the host id.
+	 *
+	 * @return the host id, or -1
+	 */
+	public int getHostId() {
+		return hostId;
+	}
+
+	/**
+	 * Gets the first value.
+	 *
+	 * @return the first value
+	 */
+	public double getValue1() {
+		return value1;
+	}
+
+	/**
+	 * Gets the second value.
+	 *
+	 * @return the second value
+	 */
+	public double getValue2() {
+		return value2;
+	}
+
+	@Override
+	public String toString() {
+		return time + " " + EventTrace.getKindName(kind) + " src=" + source + " dst=" + destination
+				+ " tag=" + tag + " cloudlet=" + cloudletId + " vm=" + vmId + " host=" + hostId + " "
+				+ value1 + " " + value2;
+	}
+
+}
@@ -8,28 +8,86 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateAny;
+import org.cloudbus.cloudsim.core.predicates.PredicateFrom;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
- * This class implements the future event queue used by {@link Simulation}. The event queue uses a
- * {@link TreeSet} in order to store the events.
+ * This class implements the future event queue used by {@link Simulation}. It assigns the serial
+ * numbers that keep the order of events scheduled at the same time, and delegates the storage of
+ * the events to an {@link EventQueue}. By default, a {@link TreeSetEventQueue} is used.
+ * <p>
+ * The pending events are also indexed by source entity and tag, so that cancelling the events of
+ * an entity with a {@link PredicateType}, a {@link PredicateFrom} or a {@link PredicateAny} does
+ * not scan the whole queue. Processed events are removed from the index lazily.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  * @see Simulation
- * @see java.util.TreeSet
+ * @see EventQueue
  */
 public class FutureQueue {
 
-	/** The sorted set. */
-	private final SortedSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
+	/** The queue storing the events. */
+	private final EventQueue queue;
 
 	/** The serial. */
 	private long serial = 0;
 
+	/**
+	 * The serial of the events added to the head of the queue. It is lower than any other serial,
+	 * so that these events come first among the events of the same time, in insertion order.
+	 */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/** The pending events indexed by source entity id and then by tag. */
+	private final List<Map<Integer, EventList>> index = new ArrayList<Map<Integer, EventList>>();
+
+	/**
+	 * Instantiates a new future queue backed by a {@link TreeSetEventQueue}.
+	 */
+	public FutureQueue() {
+		this(new TreeSetEventQueue());
+	}
+
+	/**
+	 * Instantiates a new future queue.
+	 * 
+	 * @param queue the queue storing the events
+	 */
+	public FutureQueue(EventQueue queue) {
+		if (queue == null) {
+			throw new IllegalArgumentException("The event queue can't be null.");
+		}
+		this.queue = queue;
+	}
+
+	/**
+	 * Gets the serial number of the next event added to the queue.
+	 * 
+	 * @return the serial number
+	 */
+	long getSerial() {
+		return serial;
+	}
+
+	/**
+	 * Gets the serial number of the next event added to the head of the queue.
+	 * 
+	 * @return the serial number
+	 */
+	long getFirstSerial() {
+		return firstSerial;
+	}
+
 	/**
 	 * Add a new event to the queue. Adding a new event to the queue preserves the temporal order of
 	 * the events in the queue.
@@ -38,7 +96,7 @@ public class FutureQueue {
 	 */
 	public void addEvent(SimEvent newEvent) {
 		newEvent.setSerial(serial++);
-		sortedSet.add(newEvent);
+		enqueue(newEvent);
 	}
 
 	/**
@@ -47,17 +105,79 @@ public class FutureQueue {
 	 * @param newEvent The event to be put in the queue.
 	 */
 	public void addEventFirst(SimEvent newEvent) {
-		newEvent.setSerial(0);
-		sortedSet.add(newEvent);
+		newEvent.setSerial(firstSerial++);
+		enqueue(newEvent);
+	}
+
+	/**
+	 * Adds an event that already has a serial number, e.g. an event moved from another queue.
+	 * 
+	 * @param event the event
+	 */
+	void addEventWithSerial(SimEvent event) {
+		enqueue(event);
+	}
+
+	/**
+	 * Returns the first event of the queue without removing it.
+	 * 
+	 * @return the first event or <tt>null</tt> if the queue is empty
+	 */
+	public SimEvent peek() {
+		return queue.peek();
 	}
 
 	/**
-	 * Returns an iterator to the queue.
+	 * Removes and returns the first event of the queue.
+	 * 
+	 * @return the first event or <tt>null</tt> if the queue is empty
+	 */
+	public SimEvent poll() {
+		SimEvent event = queue.poll();
+		if (event != null) {
+			event.setQueued(false);
+		}
+		return event;
+	}
+
+	/**
+	 * Returns an iterator to the queue. The events are returned in the queue order only if
+	 * {@link #isIterationOrdered()} is <tt>true</tt>.
 	 * 
 	 * @return the iterator
 	 */
 	public Iterator<SimEvent> iterator() {
-		return sortedSet.iterator();
+		final Iterator<SimEvent> iterator = queue.iterator();
+		return new Iterator<SimEvent>() {
+
+			private SimEvent last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public SimEvent next() {
+				last = iterator.next();
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				last.setQueued(false);
+			}
+		};
+	}
+
+	/**
+	 * Checks if {@link #iterator()} returns the events in the queue order.
+	 * 
+	 * @return true, if the iteration is ordered
+	 */
+	public boolean isIterationOrdered() {
+		return queue.isIterationOrdered();
 	}
 
 	/**
@@ -66,7 +186,7 @@ public class FutureQueue {
 	 * @return the size
 	 */
 	public int size() {
-		return sortedSet.size();
+		return queue.size();
 	}
 
 	/**
@@ -76,7 +196,12 @@ public class FutureQueue {
 	 * @return true, if successful
 	 */
 	public boolean remove(SimEvent event) {
-		return sortedSet.remove(event);
+		// the event may be queued in another queue, whose flag must survive
+		if (!event.isQueued() || !queue.remove(event)) {
+			return false;
+		}
+		event.setQueued(false);
+		return true;
 	}
 
 	/**
@@ -86,14 +211,221 @@ public class FutureQueue {
 	 * @return true, if successful
 	 */
 	public boolean removeAll(Collection<SimEvent> events) {
-		return sortedSet.removeAll(events);
+		boolean removed = false;
+		for (SimEvent event : events) {
+			removed |= remove(event);
+		}
+		return removed;
+	}
+
+	/**
+	 * Removes the first event sent by a given entity that matches a predicate.
+	 * 
+	 * @param src the id of the source entity
+	 * @param p the predicate
+	 * @return the removed event or <tt>null</tt> if no event matches
+	 */
+	public SimEvent cancel(int src, Predicate p) {
+		SimEvent first = findFirst(src, p);
+		if (first != null) {
+			remove(first);
+		}
+		return first;
+	}
+
+	/**
+	 * Finds the first event sent by a given entity that matches a predicate.
+	 * 
+	 * @param src the id of the source entity
+	 * @param p the predicate
+	 * @return the first matching event or <tt>null</tt> if no event matches
+	 */
+	SimEvent findFirst(int src, Predicate p) {
+		SimEvent first = null;
+		List<EventList> lists = getIndexedEvents(src, p);
+		if (lists != null) {
+			for (EventList list : lists) {
+				for (SimEvent event : list) {
+					if (event.isQueued() && (first == null || event.compareTo(first) < 0)) {
+						first = event;
+					}
+				}
+			}
+		} else if (isIterationOrdered()) {
+			Iterator<SimEvent> iterator = queue.iterator();
+			while (iterator.hasNext()) {
+				SimEvent event = iterator.next();
+				if (event.getSource() == src && p.match(event)) {
+					first = event;
+					break;
+				}
+			}
+		} else {
+			// the queue is not iterated in order, so look for the first matching event
+			Iterator<SimEvent> iterator = queue.iterator();
+			while (iterator.hasNext()) {
+				SimEvent event = iterator.next();
+				if (event.getSource() == src && p.match(event) && (first == null || event.compareTo(first) < 0)) {
+					first = event;
+				}
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Removes all the events sent by a given entity that match a predicate.
+	 * 
+	 * @param src the id of the source entity
+	 * @param p the predicate
+	 * @return true, if at least one event has been removed
+	 */
+	public boolean cancelAll(int src, Predicate p) {
+		boolean removed = false;
+		List<EventList> lists = getIndexedEvents(src, p);
+		if (lists != null) {
+			for (EventList list : lists) {
+				for (SimEvent event : list) {
+					removed |= remove(event);
+				}
+				list.clear();
+			}
+			return removed;
+		}
+
+		Iterator<SimEvent> iterator = iterator();
+		while (iterator.hasNext()) {
+			SimEvent event = iterator.next();
+			if (event.getSource() == src && p.match(event)) {
+				iterator.remove();
+				removed = true;
+			}
+		}
+		return removed;
 	}
 
 	/**
 	 * Clears the queue.
 	 */
 	public void clear() {
-		sortedSet.clear();
+		queue.clear();
+		index.clear();
+	}
+
+	/**
+	 * Adds an event to the queue and to the index.
+	 * 
+	 * @param event the event
+	 */
+	private void enqueue(SimEvent event) {
+		event.setQueued(true);
+		queue.add(event);
+
+		int src = event.getSource();
+		if (src < 0) {
+			return;
+		}
+		while (index.size() <= src) {
+			index.add(null);
+		}
+		Map<Integer, EventList> eventsByTag = index.get(src);
+		if (eventsByTag == null) {
+			eventsByTag = new HashMap<Integer, EventList>();
+			index.set(src, eventsByTag);
+		}
+		EventList list = eventsByTag.get(event.getTag());
+		if (list == null) {
+			list = new EventList();
+			eventsByTag.put(event.getTag(), list);
+		}
+		list.addEvent(event);
+	}
+
+	/**
+	 * Gets the index lists holding all the candidate events sent by an entity for a predicate.
+	 * 
+	 * @param src the id of the source entity
+	 * @param p the predicate
+	 * @return the index lists, or <tt>null</tt> if the predicate cannot be answered by the index
+	 */
+	private List<EventList> getIndexedEvents(int src, Predicate p) {
+		if (src < 0) {
+			return null;
+		}
+
+		// subclasses may override match(), so only the exact predicate classes are handled
+		Class<?> type = p.getClass();
+		if (type != PredicateType.class && type != PredicateFrom.class && type != PredicateAny.class) {
+			return null;
+		}
+
+		List<EventList> lists = new ArrayList<EventList>();
+		Map<Integer, EventList> eventsByTag = src < index.size() ? index.get(src) : null;
+		if (eventsByTag == null) {
+			return lists;
+		}
+
+		if (type == PredicateType.class) {
+			for (int tag : ((PredicateType) p).getTags()) {
+				EventList list = eventsByTag.get(tag);
+				if (list != null) {
+					lists.add(list);
+				}
+			}
+		} else if (type == PredicateAny.class || contains(((PredicateFrom) p).getIds(), src)) {
+			lists.addAll(eventsByTag.values());
+		}
+		return lists;
+	}
+
+	/**
+	 * Checks if an array contains a value.
+	 * 
+	 * @param values the values
+	 * @param value the value
+	 * @return true, if found
+	 */
+	private static boolean contains(int[] values, int value) {
+		for (int v : values) {
+			if (v == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A list of indexed events, which may still contain events that are no longer queued. Such
+	 * events are purged when the list grows beyond twice its size after the last purge.
+	 */
+	@SuppressWarnings("serial")
+	private static class EventList extends ArrayList<SimEvent> {
+
+		/** The minimal size triggering a purge. */
+		private static final int MIN_PURGE_SIZE = 8;
+
+		/** The size triggering the next purge. */
+		private int purgeSize = MIN_PURGE_SIZE;
+
+		/**
+		 * Adds an event, purging the events that are no longer queued if needed.
+		 * 
+		 * @param event the event
+		 */
+		public void addEvent(SimEvent event) {
+			if (size() >= purgeSize) {
+				int queued = 0;
+				for (int i = 0; i < size(); i++) {
+					SimEvent e = get(i);
+					if (e.isQueued()) {
+						set(queued++, e);
+					}
+				}
+				removeRange(queued, size());
+				purgeSize = Math.max(MIN_PURGE_SIZE, 2 * queued);
+			}
+			add(event);
+		}
 	}
 
-}
\ No newline at end of file
+}
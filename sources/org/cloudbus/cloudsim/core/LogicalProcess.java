@@ -0,0 +1,518 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * A logical process of the parallel simulation. It owns a subset of the entities and processes the
+ * events sent to them within a time window, which is bounded by the lookahead, i.e. by the minimal
+ * delay of the events sent between entities of different logical processes. During the window, the
+ * logical process has its own clock, future queue and deferred queue, so that it can run
+ * concurrently with the other logical processes.
+ * <p>
+ * The events and the log messages produced during a window are tagged with the position at which
+ * the sequential engine would have produced them, i.e. the event time, the round of events at that
+ * time, the id of the running entity and a sequence number. They are merged in this order at the
+ * end of the window, which gives the same serial numbers and the same log as the sequential engine.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see SimulationContext#startParallelSimulation(int, List)
+ */
+class LogicalProcess implements Callable<Void> {
+
+	/** The logical process run by the current thread. */
+	private static final ThreadLocal<LogicalProcess> current = new ThreadLocal<LogicalProcess>();
+
+	/** The context of the simulation. */
+	private final SimulationContext context;
+
+	/** The index of the logical process. */
+	private final int index;
+
+	/** The entities of the logical process, sorted by id. */
+	private final List<SimEntity> entities = new ArrayList<SimEntity>();
+
+	/** The index of the logical process of each entity, by entity id. */
+	private final int[] processOfEntity;
+
+	/** The events to be processed in the current window. */
+	private final FutureQueue queue = new FutureQueue(new TreeSetEventQueue());
+
+	/** The events created in the window that have to be processed after it. */
+	private final FutureQueue outbox = new FutureQueue(new TreeSetEventQueue());
+
+	/** The deferred events of the entities of the logical process. */
+	private final DeferredQueue deferred = new DeferredQueue();
+
+	/** The events moved from the global future queue in the current window. */
+	private final List<SimEvent> received = new ArrayList<SimEvent>();
+
+	/** The events created in the current window. */
+	private final List<Entry> created = new ArrayList<Entry>();
+
+	/** The log messages written in the current window. */
+	private final List<Entry> logs = new ArrayList<Entry>();
+
+	/** The log messages of the running entity. */
+	private ByteArrayOutputStream log;
+
+	/** The output of the thread running the logical process. */
+	private final LogOutput logOutput = new LogOutput(this);
+
+	/** The end of the window (exclusive). */
+	private double end;
+
+	/** Whether only the first round of events is processed in the window. */
+	private boolean singleRound;
+
+	/** The clock of the logical process. */
+	private double clock;
+
+	/** The round of events processed at the current time. */
+	private int round;
+
+	/** The time of the last processed events, or -1 if none were processed in the window. */
+	private double lastTime;
+
+	/** The id of the running entity. */
+	private int runningEntity;
+
+	/** The sequence number of the created events and log messages. */
+	private long sequence;
+
+	/** The next serial number of the created events. */
+	private long serial;
+
+	/** The next serial number of the created events added to the head of the queue. */
+	private long firstSerial;
+
+	/**
+	 * Instantiates a new logical process.
+	 *
+	 * @param context the context of the simulation
+	 * @param index the index of the logical process
+	 * @param processOfEntity the index of the logical process of each entity, by entity id
+	 */
+	LogicalProcess(SimulationContext context, int index, int[] processOfEntity) {
+		this.context = context;
+		this.index = index;
+		this.processOfEntity = processOfEntity;
+	}
+
+	/**
+	 * Gets the logical process run by the current thread.
+	 *
+	 * @return the logical process or <tt>null</tt>
+	 */
+	static LogicalProcess current() {
+		return current.get();
+	}
+
+	/**
+	 * Adds an entity to the logical process. The entities must be added in the order of their ids.
+	 *
+	 * @param entity the entity
+	 */
+	void addEntity(SimEntity entity) {
+		entities.add(entity);
+	}
+
+	/**
+	 * Gets the index.
+	 *
+	 * @return the index
+	 */
+	int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Gets the clock of the logical process.
+	 *
+	 * @return the clock
+	 */
+	double getClock() {
+		return clock;
+	}
+
+	/**
+	 * Gets the time of the last events processed in the window.
+	 *
+	 * @return the time, or -1 if no events were processed
+	 */
+	double getLastTime() {
+		return lastTime;
+	}
+
+	/**
+	 * Gets the round of the last events processed in the window.
+	 *
+	 * @return the round
+	 */
+	int getRound() {
+		return round;
+	}
+
+	/**
+	 * Gets the deferred queue of the logical process.
+	 *
+	 * @return the deferred queue
+	 */
+	DeferredQueue getDeferred() {
+		return deferred;
+	}
+
+	/**
+	 * Checks if the logical process has events to process in the window.
+	 *
+	 * @return true, if there are events
+	 */
+	boolean hasEvents() {
+		return queue.size() > 0;
+	}
+
+	/**
+	 * Adds an event moved from the global future queue, keeping its serial number.
+	 *
+	 * @param event the event
+	 */
+	void receive(SimEvent event) {
+		received.add(event);
+		queue.addEventWithSerial(event);
+	}
+
+	/**
+	 * Prepares the logical process for a window.
+	 *
+	 * @param end the end of the window (exclusive)
+	 * @param singleRound whether only the first round of events is processed
+	 * @param future the global future queue, whose serial numbers are continued
+	 */
+	void startWindow(double end, boolean singleRound, FutureQueue future) {
+		this.end = end;
+		this.singleRound = singleRound;
+		round = 0;
+		lastTime = -1;
+		sequence = 0;
+		serial = future.getSerial();
+		firstSerial = future.getFirstSerial();
+	}
+
+	/**
+	 * Processes the events of the window: at each time, the events are delivered to the entities,
+	 * and then the runnable entities are run in the order of their ids, as in
+	 * {@link SimulationContext#runClockTick()}.
+	 *
+	 * @return nothing
+	 */
+	@Override
+	public Void call() {
+		LogicalProcess previous = current.get();
+		SimulationContext previousContext = CloudSim.bindContext(context);
+		OutputStream previousOutput = Log.setThreadOutput(logOutput);
+		current.set(this);
+		try {
+			while (!context.isAbruptlyTerminated()) {
+				SimEvent first = queue.peek();
+				if (first == null || (singleRound ? lastTime != -1 : first.eventTime() >= end)) {
+					break;
+				}
+
+				double time = first.eventTime();
+				round = time == lastTime ? round + 1 : 1;
+				lastTime = time;
+
+				while (first != null && first.eventTime() == time) {
+					context.processEvent(queue.poll());
+					first = queue.peek();
+				}
+
+				for (SimEntity entity : entities) {
+					if (entity.getState() == SimEntity.RUNNABLE) {
+						runningEntity = entity.getId();
+						log = null;
+						entity.run();
+					}
+				}
+				log = null;
+			}
+		} finally {
+			current.set(previous);
+			Log.setThreadOutput(previousOutput);
+			CloudSim.bindContext(previousContext);
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the clock of the logical process.
+	 *
+	 * @param clock the clock
+	 */
+	void setClock(double clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Adds an event created by an entity of the logical process during the window.
+	 *
+	 * @param event the event
+	 * @param first whether the event has to be added to the head of the queue
+	 */
+	void send(SimEvent event, boolean first) {
+		event.setSerial(first ? firstSerial++ : serial++);
+
+		if (event.getType() == SimEvent.CREATE) {
+			// entities are created at the end of the window
+			created.add(new Entry(nextKey(), event, first));
+			outbox.addEventWithSerial(event);
+			return;
+		}
+
+		int process = event.getType() == SimEvent.HOLD_DONE ? index : getProcessOf(event
+				.getDestination());
+		boolean local = process == index && !singleRound && event.eventTime() < end;
+		if (process != index && event.eventTime() < end) {
+			throw new IllegalStateException("Lookahead violation: the event with tag "
+					+ event.getTag() + " sent by entity #" + event.getSource() + " to entity #"
+					+ event.getDestination() + " at time " + clock + " is due at "
+					+ event.eventTime() + ", before the end of the window at " + end + ".");
+		}
+
+		created.add(new Entry(nextKey(), event, first));
+		if (local) {
+			queue.addEventWithSerial(event);
+		} else {
+			outbox.addEventWithSerial(event);
+		}
+	}
+
+	/**
+	 * Finds the first event sent by an entity of the logical process that matches a predicate, in
+	 * the events processed or created in the window.
+	 *
+	 * @param src the id of the source entity
+	 * @param p the predicate
+	 * @return the first event or <tt>null</tt>
+	 */
+	SimEvent findFirst(int src, Predicate p) {
+		SimEvent first = queue.findFirst(src, p);
+		SimEvent next = outbox.findFirst(src, p);
+		if (first == null || (next != null && next.compareTo(first) < 0)) {
+			first = next;
+		}
+		return first;
+	}
+
+	/**
+	 * Removes an event held by the logical process.
+	 *
+	 * @param event the event
+	 * @return true, if successful
+	 */
+	boolean remove(SimEvent event) {
+		return queue.remove(event) || outbox.remove(event);
+	}
+
+	/**
+	 * Removes all the events sent by an entity of the logical process that match a predicate.
+	 *
+	 * @param src the id of the source entity
+	 * @param p the predicate
+	 * @return true, if at least one event has been removed
+	 */
+	boolean cancelAll(int src, Predicate p) {
+		boolean removed = queue.cancelAll(src, p);
+		removed |= outbox.cancelAll(src, p);
+		return removed;
+	}
+
+	/**
+	 * Writes a log message of the running entity.
+	 *
+	 * @param b the data
+	 * @param off the offset
+	 * @param len the length
+	 */
+	void log(byte[] b, int off, int len) {
+		if (log == null) {
+			log = new ByteArrayOutputStream();
+			logs.add(new Entry(nextKey(), log, false));
+		}
+		log.write(b, off, len);
+	}
+
+	/**
+	 * Moves the events that were not processed in the window to the global future queue, and adds
+	 * the created events and log messages to the given lists.
+	 *
+	 * @param future the global future queue
+	 * @param createdEvents the list of created events to be merged
+	 * @param logMessages the list of log messages to be merged
+	 */
+	void finishWindow(FutureQueue future, List<Entry> createdEvents, List<Entry> logMessages) {
+		// events not processed because the simulation has been terminated
+		for (SimEvent event : received) {
+			if (event.isQueued()) {
+				queue.remove(event);
+				future.addEventWithSerial(event);
+			}
+		}
+		for (Entry entry : created) {
+			if (((SimEvent) entry.data).isQueued()) {
+				createdEvents.add(entry);
+			}
+		}
+		logMessages.addAll(logs);
+
+		queue.clear();
+		outbox.clear();
+		received.clear();
+		created.clear();
+		logs.clear();
+		log = null;
+	}
+
+	/**
+	 * Gets the index of the logical process of an entity.
+	 *
+	 * @param entityId the entity id
+	 * @return the index of the logical process, or -1 if the entity has been created in the window
+	 */
+	private int getProcessOf(int entityId) {
+		if (entityId < 0 || entityId >= processOfEntity.length) {
+			return -1;
+		}
+		return processOfEntity[entityId];
+	}
+
+	/**
+	 * Creates the key of the next created event or log message.
+	 *
+	 * @return the key
+	 */
+	private Key nextKey() {
+		return new Key(clock, round, runningEntity, sequence++);
+	}
+
+	/**
+	 * The position at which the sequential engine would have produced an event or a log message.
+	 */
+	static class Key implements Comparable<Key> {
+
+		/** The time. */
+		private final double time;
+
+		/** The round of events at the time. */
+		private final int round;
+
+		/** The id of the running entity. */
+		private final int entity;
+
+		/** The sequence number in the logical process. */
+		private final long sequence;
+
+		Key(double time, int round, int entity, long sequence) {
+			this.time = time;
+			this.round = round;
+			this.entity = entity;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(Key key) {
+			if (time != key.time) {
+				return time < key.time ? -1 : 1;
+			}
+			if (round != key.round) {
+				return round < key.round ? -1 : 1;
+			}
+			if (entity != key.entity) {
+				return entity < key.entity ? -1 : 1;
+			}
+			return sequence < key.sequence ? -1 : (sequence == key.sequence ? 0 : 1);
+		}
+	}
+
+	/**
+	 * An event or a log message tagged with its key.
+	 */
+	static class Entry implements Comparable<Entry> {
+
+		/** The key. */
+		final Key key;
+
+		/** The event or the log message. */
+		final Object data;
+
+		/** Whether the event has to be added to the head of the queue. */
+		final boolean first;
+
+		Entry(Key key, Object data, boolean first) {
+			this.key = key;
+			this.data = data;
+			this.first = first;
+		}
+
+		@Override
+		public int compareTo(Entry entry) {
+			return key.compareTo(entry.key);
+		}
+	}
+
+	/**
+	 * The output of the thread running a logical process (see
+	 * {@link Log#setThreadOutput(OutputStream)}). The messages are buffered by the logical process
+	 * and written in order at the end of each window.
+	 */
+	static class LogOutput extends OutputStream {
+
+		/** The logical process. */
+		private final LogicalProcess process;
+
+		LogOutput(LogicalProcess process) {
+			this.process = process;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			process.log(b, off, len);
+		}
+
+		/**
+		 * Writes the log messages of a window in order.
+		 *
+		 * @param messages the messages
+		 * @param output the output
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		static void writeAll(List<Entry> messages, OutputStream output) throws IOException {
+			Iterator<Entry> iterator = messages.iterator();
+			while (iterator.hasNext()) {
+				((ByteArrayOutputStream) iterator.next().data).writeTo(output);
+			}
+		}
+	}
+
+}
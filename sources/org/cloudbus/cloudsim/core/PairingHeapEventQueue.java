@@ -0,0 +1,303 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An event queue based on a pairing heap. Insertion takes O(1) time and the removal of the first
+ * event takes amortized O(log n) time. Unlike the calendar queue, the performance does not depend
+ * on the distribution of the event times.
+ * <p>
+ * The iteration is not ordered.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventQueue
+ */
+public class PairingHeapEventQueue implements EventQueue {
+
+	/** The root of the heap. */
+	private Node root;
+
+	/** The number of events. */
+	private int size;
+
+	/** The insertion counter used to keep ties in the insertion order. */
+	private long order;
+
+	/** The buffer used when merging the children of a removed node. */
+	private final List<Node> pairs = new ArrayList<Node>();
+
+	@Override
+	public void add(SimEvent event) {
+		Node node = new Node(this, event, order++);
+		event.setQueueNode(node);
+		root = meld(root, node);
+		size++;
+	}
+
+	@Override
+	public SimEvent peek() {
+		if (root == null) {
+			return null;
+		}
+		return root.event;
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (root == null) {
+			return null;
+		}
+		Node first = root;
+		root = mergePairs(first.child);
+		if (root != null) {
+			root.prev = null;
+		}
+		detach(first);
+		size--;
+		return first.event;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		Object node = event.getQueueNode();
+		if (!(node instanceof Node) || ((Node) node).queue != this) {
+			return false;
+		}
+		remove((Node) node);
+		return true;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		// iterate over a snapshot, as removals restructure the heap
+		final List<Node> nodes = new ArrayList<Node>(size);
+		if (root != null) {
+			nodes.add(root);
+			for (int i = 0; i < nodes.size(); i++) {
+				for (Node child = nodes.get(i).child; child != null; child = child.next) {
+					nodes.add(child);
+				}
+			}
+		}
+
+		return new Iterator<SimEvent>() {
+
+			private int index;
+
+			private Node last;
+
+			@Override
+			public boolean hasNext() {
+				return index < nodes.size();
+			}
+
+			@Override
+			public SimEvent next() {
+				if (index >= nodes.size()) {
+					throw new NoSuchElementException();
+				}
+				last = nodes.get(index++);
+				return last.event;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				PairingHeapEventQueue.this.remove(last);
+				last = null;
+			}
+		};
+	}
+
+	@Override
+	public boolean isIterationOrdered() {
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		Iterator<SimEvent> iterator = iterator();
+		while (iterator.hasNext()) {
+			iterator.next().setQueueNode(null);
+		}
+		root = null;
+		size = 0;
+	}
+
+	/**
+	 * Removes an arbitrary node from the heap.
+	 *
+	 * @param node the node
+	 */
+	private void remove(Node node) {
+		if (node == root) {
+			poll();
+			return;
+		}
+
+		// cut the node from its parent or left sibling
+		if (node.prev.child == node) {
+			node.prev.child = node.next;
+		} else {
+			node.prev.next = node.next;
+		}
+		if (node.next != null) {
+			node.next.prev = node.prev;
+		}
+
+		Node subtree = mergePairs(node.child);
+		if (subtree != null) {
+			subtree.prev = null;
+		}
+		root = meld(root, subtree);
+		detach(node);
+		size--;
+	}
+
+	/**
+	 * Melds two heaps. The root with the greater key becomes the leftmost child of the other one.
+	 *
+	 * @param a the first heap
+	 * @param b the second heap
+	 * @return the melded heap
+	 */
+	private static Node meld(Node a, Node b) {
+		if (a == null) {
+			return b;
+		}
+		if (b == null) {
+			return a;
+		}
+		if (compare(b, a) < 0) {
+			Node tmp = a;
+			a = b;
+			b = tmp;
+		}
+		b.prev = a;
+		b.next = a.child;
+		if (a.child != null) {
+			a.child.prev = b;
+		}
+		a.child = b;
+		a.next = null;
+		return a;
+	}
+
+	/**
+	 * Merges a list of siblings with the standard two-pass method.
+	 *
+	 * @param first the first sibling
+	 * @return the merged heap
+	 */
+	private Node mergePairs(Node first) {
+		if (first == null || first.next == null) {
+			return first;
+		}
+
+		// first pass: meld the siblings pairwise from left to right
+		pairs.clear();
+		Node node = first;
+		while (node != null) {
+			Node a = node;
+			Node b = a.next;
+			node = b == null ? null : b.next;
+			a.next = null;
+			a.prev = null;
+			if (b != null) {
+				b.next = null;
+				b.prev = null;
+			}
+			pairs.add(meld(a, b));
+		}
+
+		// second pass: meld the pairs from right to left
+		Node result = pairs.get(pairs.size() - 1);
+		for (int i = pairs.size() - 2; i >= 0; i--) {
+			result = meld(pairs.get(i), result);
+		}
+		pairs.clear();
+		return result;
+	}
+
+	/**
+	 * Clears the links of a removed node.
+	 *
+	 * @param node the node
+	 */
+	private static void detach(Node node) {
+		node.child = null;
+		node.next = null;
+		node.prev = null;
+		node.event.setQueueNode(null);
+	}
+
+	/**
+	 * Compares two nodes by event time, serial number and insertion order.
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 * @return a negative integer, zero or a positive integer
+	 */
+	private static int compare(Node a, Node b) {
+		double timeA = a.event.eventTime();
+		double timeB = b.event.eventTime();
+		if (timeA != timeB) {
+			return timeA < timeB ? -1 : 1;
+		}
+		long serialA = a.event.getSerial();
+		long serialB = b.event.getSerial();
+		if (serialA != serialB) {
+			return serialA < serialB ? -1 : 1;
+		}
+		return a.order < b.order ? -1 : (a.order == b.order ? 0 : 1);
+	}
+
+	/**
+	 * A node of the heap.
+	 */
+	private static class Node {
+
+		/** The queue holding the node. */
+		final PairingHeapEventQueue queue;
+
+		/** The event. */
+		final SimEvent event;
+
+		/** The insertion order. */
+		final long order;
+
+		/** The leftmost child. */
+		Node child;
+
+		/** The right sibling. */
+		Node next;
+
+		/** The left sibling, or the parent for the leftmost child. */
+		Node prev;
+
+		Node(PairingHeapEventQueue queue, SimEvent event, long order) {
+			this.queue = queue;
+			this.event = event;
+			this.order = order;
+		}
+	}
+
+}
@@ -42,6 +42,9 @@ public abstract class SimEntity implements Cloneable {
 	/** The entity's current state. */
 	private int state;
 
+	/** The context of the simulation the entity belongs to. */
+	private final SimulationContext context;
+
 	/**
 	 * Creates a new entity.
 	 * 
@@ -54,7 +57,18 @@ public abstract class SimEntity implements Cloneable {
 		this.name = name;
 		id = -1;
 		state = RUNNABLE;
-		CloudSim.addEntity(this);
+		context = CloudSim.getContext();
+		context.addEntity(this);
+	}
+
+	/**
+	 * Gets the context of the simulation the entity belongs to, i.e. the context that was current
+	 * when the entity was created.
+	 * 
+	 * @return the simulation context
+	 */
+	public SimulationContext getSimulationContext() {
+		return context;
 	}
 
 	/**
@@ -87,10 +101,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void schedule(int dest, double delay, int tag, Object data) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
-		CloudSim.send(id, dest, delay, tag, data);
+		context.send(id, dest, delay, tag, data);
 	}
 
 	/**
@@ -115,7 +129,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void schedule(String dest, double delay, int tag, Object data) {
-		schedule(CloudSim.getEntityId(dest), delay, tag, data);
+		schedule(context.getEntityId(dest), delay, tag, data);
 	}
 
 	/**
@@ -162,7 +176,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleNow(String dest, int tag, Object data) {
-		schedule(CloudSim.getEntityId(dest), 0, tag, data);
+		schedule(context.getEntityId(dest), 0, tag, data);
 	}
 
 	/**
@@ -186,10 +200,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirst(int dest, double delay, int tag, Object data) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
-		CloudSim.sendFirst(id, dest, delay, tag, data);
+		context.sendFirst(id, dest, delay, tag, data);
 	}
 
 	/**
@@ -214,7 +228,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirst(String dest, double delay, int tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dest), delay, tag, data);
+		scheduleFirst(context.getEntityId(dest), delay, tag, data);
 	}
 
 	/**
@@ -261,7 +275,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirstNow(String dest, int tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dest), 0, tag, data);
+		scheduleFirst(context.getEntityId(dest), 0, tag, data);
 	}
 
 	/**
@@ -284,10 +298,10 @@ public abstract class SimEntity implements Cloneable {
 		if (delay < 0) {
 			throw new IllegalArgumentException("Negative delay supplied.");
 		}
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
-		CloudSim.pause(id, delay);
+		context.pause(id, delay);
 	}
 
 	/**
@@ -297,7 +311,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The count of matching events
 	 */
 	public int numEventsWaiting(Predicate p) {
-		return CloudSim.waiting(id, p);
+		return context.waiting(id, p);
 	}
 
 	/**
@@ -306,7 +320,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The count of events
 	 */
 	public int numEventsWaiting() {
-		return CloudSim.waiting(id, CloudSim.SIM_ANY);
+		return context.waiting(id, CloudSim.SIM_ANY);
 	}
 
 	/**
@@ -316,11 +330,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the simulation event
 	 */
 	public SimEvent selectEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return null;
 		}
 
-		return CloudSim.select(id, p);
+		return context.select(id, p);
 	}
 
 	/**
@@ -330,11 +344,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The number of events cancelled (0 or 1)
 	 */
 	public SimEvent cancelEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return null;
 		}
 
-		return CloudSim.cancel(id, p);
+		return context.cancel(id, p);
 	}
 
 	/**
@@ -345,7 +359,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the simulation event
 	 */
 	public SimEvent getNextEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return null;
 		}
 		if (numEventsWaiting(p) > 0) {
@@ -361,11 +375,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @param p The predicate to match
 	 */
 	public void waitForEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
 
-		CloudSim.wait(id, p);
+		context.wait(id, p);
 		state = WAITING;
 	}
 
@@ -575,7 +589,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @post $none
 	 */
 	protected void send(String entityName, double delay, int cloudSimTag, Object data) {
-		send(CloudSim.getEntityId(entityName), delay, cloudSimTag, data);
+		send(context.getEntityId(entityName), delay, cloudSimTag, data);
 	}
 
 	/**
@@ -643,7 +657,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @post $none
 	 */
 	protected void sendNow(String entityName, int cloudSimTag, Object data) {
-		send(CloudSim.getEntityId(entityName), 0, cloudSimTag, data);
+		send(context.getEntityId(entityName), 0, cloudSimTag, data);
 	}
 
 	/**
@@ -662,6 +676,30 @@ public abstract class SimEntity implements Cloneable {
 		send(entityName, 0, cloudSimTag, null);
 	}
 
+	/**
+	 * Sends an event/message to another entity as a transfer of data over the network. If the
+	 * {@link NetworkTopology#setFlowModelEnabled(boolean) flow model} is enabled, the message is
+	 * delivered once it is transferred, sharing the bandwidth of the links it crosses with the
+	 * other transfers, and after the network delay; otherwise it is sent now.
+	 * 
+	 * @param entityId the id number of the destination entity
+	 * @param size the size of the data, in MB
+	 * @param cloudSimTag an user-defined number representing the type of an event/message
+	 * @param data A reference to data to be sent with the event
+	 * @pre entityID > 0
+	 * @pre size >= 0.0
+	 * @post $none
+	 */
+	protected void sendTransfer(int entityId, double size, int cloudSimTag, Object data) {
+		if (entityId < 0) {
+			return;
+		}
+		if (entityId == getId()
+				|| !NetworkTopology.startTransfer(getId(), entityId, size, cloudSimTag, data)) {
+			send(entityId, 0, cloudSimTag, data);
+		}
+	}
+
 	/**
 	 * Gets the network delay associated to the sent of a message from a given source to a given
 	 * destination.
@@ -40,6 +40,12 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 
 	private long serial = -1;
 
+	/** bookkeeping node of the event queue currently holding this event **/
+	private Object queueNode;
+
+	/** whether the event is pending in the future event queue **/
+	private boolean queued;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -86,6 +92,51 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		this.serial = serial;
 	}
 
+	/**
+	 * Gets the serial number assigned by the future event queue.
+	 * 
+	 * @return the serial
+	 */
+	long getSerial() {
+		return serial;
+	}
+
+	/**
+	 * Gets the node used by the {@link EventQueue} currently holding this event.
+	 * 
+	 * @return the queue node or <tt>null</tt>
+	 */
+	Object getQueueNode() {
+		return queueNode;
+	}
+
+	/**
+	 * Sets the node used by the {@link EventQueue} currently holding this event.
+	 * 
+	 * @param queueNode the queue node
+	 */
+	void setQueueNode(Object queueNode) {
+		this.queueNode = queueNode;
+	}
+
+	/**
+	 * Checks if the event is pending in the future event queue.
+	 * 
+	 * @return true, if the event is queued
+	 */
+	boolean isQueued() {
+		return queued;
+	}
+
+	/**
+	 * Sets whether the event is pending in the future event queue.
+	 * 
+	 * @param queued whether the event is queued
+	 */
+	void setQueued(boolean queued) {
+		this.queued = queued;
+	}
+
 	/**
 	 * Used to set the time at which this event finished waiting in the event
 	 * 
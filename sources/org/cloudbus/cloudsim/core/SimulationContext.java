@@ -0,0 +1,1676 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.NetworkTopology;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * The context of a simulation, which owns the state of the simulation engine: the entities, the
+ * clock and the event queues. The static methods of {@link CloudSim} delegate to the context bound
+ * to the current thread (see {@link CloudSim#setContext(SimulationContext)}), or to a default
+ * context, so several simulations can run concurrently in different threads of the same JVM.
+ * <p>
+ * The entities are bound to the context that is current when they are created. The simulation
+ * binds itself to the thread running it, so the code of the entities can keep using the static
+ * methods of {@link CloudSim}. The state of the modules outside the engine, such as the network
+ * topology, can be attached to the context with {@link #setAttribute(Object, Object)}.
+ * 
+ * @since CloudSim Toolkit 3.0
+ * @see CloudSim
+ */
+public class SimulationContext {
+
+	/** The Constant CLOUDSIM_VERSION_STRING. */
+	private static final String CLOUDSIM_VERSION_STRING = "3.0";
+
+	/** The id of CIS entity. */
+	private int cisId = -1;
+
+	/** The id of CloudSimShutdown entity. */
+	@SuppressWarnings("unused")
+	private int shutdownId = -1;
+
+	/** The CIS object. */
+	private CloudInformationService cis = null;
+
+	/** The Constant NOT_FOUND. */
+	private static final int NOT_FOUND = -1;
+
+	/** The trace flag. */
+	@SuppressWarnings("unused")
+	private boolean traceFlag = false;
+
+	/** The calendar. */
+	private Calendar calendar = null;
+
+	/** The termination time. */
+	private double terminateAt = -1;
+
+	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
+	private double minTimeBetweenEvents = 0.1;
+
+	/** The queue used to store future events of the next simulation, or null for the default one. */
+	private EventQueue eventQueue = null;
+
+	/** The objects attached to the context, by key. */
+	private final Map<Object, Object> attributes = new ConcurrentHashMap<Object, Object>();
+
+	/** The trace of the processed events, or null. */
+	private EventTrace eventTrace;
+
+	/**
+	 * Instantiates a new simulation context. It has to be initialised with
+	 * {@link #init(int, Calendar, boolean)} before creating the entities.
+	 */
+	public SimulationContext() {
+	}
+
+	/**
+	 * Gets an object attached to the context.
+	 * 
+	 * @param key the key of the object
+	 * @return the object, or <tt>null</tt> if no object is attached with this key
+	 */
+	public Object getAttribute(Object key) {
+		return attributes.get(key);
+	}
+
+	/**
+	 * Attaches an object to the context. Unlike the state of the engine, the attached objects are
+	 * kept when the context is initialised again.
+	 * 
+	 * @param key the key of the object
+	 * @param value the object, or <tt>null</tt> to remove the object attached with this key
+	 */
+	public void setAttribute(Object key, Object value) {
+		if (value == null) {
+			attributes.remove(key);
+		} else {
+			attributes.put(key, value);
+		}
+	}
+
+	/**
+	 * Initialises all the common attributes.
+	 * 
+	 * @param _calendar the _calendar
+	 * @param _traceFlag the _trace flag
+	 * @param numUser number of users
+	 * @throws Exception This happens when creating this entity before initialising CloudSim package
+	 *             or this entity name is <tt>null</tt> or empty
+	 * @pre $none
+	 * @post $none
+	 */
+	private void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser)
+			throws Exception {
+		initialize();
+		// NOTE: the order for the below 3 lines are important
+		traceFlag = _traceFlag;
+
+		// Set the current Wall clock time as the starting time of
+		// simulation
+		if (_calendar == null) {
+			calendar = Calendar.getInstance();
+		} else {
+			calendar = _calendar;
+		}
+
+		// creates a CloudSimShutdown object
+		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
+		shutdownId = shutdown.getId();
+	}
+
+	/**
+	 * Initialises CloudSim parameters. This method should be called before creating any entities.
+	 * <p>
+	 * Inside this method, it will create the following CloudSim entities:
+	 * <ul>
+	 * <li>CloudInformationService.
+	 * <li>CloudSimShutdown
+	 * </ul>
+	 * <p>
+	 * 
+	 * @param numUser the number of User Entities created. This parameters indicates that
+	 *            {@link gridsim.CloudSimShutdown} first waits for all user entities's
+	 *            END_OF_SIMULATION signal before issuing terminate signal to other entities
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @see gridsim.CloudSimShutdown
+	 * @see CloudInformationService.CloudInformationService
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag) {
+		// the entities created below are bound to the current context
+		SimulationContext previous = CloudSim.bindContext(this);
+		try {
+			initCommonVariable(cal, traceFlag, numUser);
+
+			// create a GIS object
+			cis = new CloudInformationService("CloudInformationService");
+
+			// set all the above entity IDs
+			cisId = cis.getId();
+		} catch (IllegalArgumentException s) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(s.getMessage());
+		} catch (Exception e) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(e.getMessage());
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * Initialises CloudSim parameters. This method should be called before creating any entities.
+	 * <p>
+	 * Inside this method, it will create the following CloudSim entities:
+	 * <ul>
+	 * <li>CloudInformationService.
+	 * <li>CloudSimShutdown
+	 * </ul>
+	 * <p>
+	 * 
+	 * @param numUser the number of User Entities created. This parameters indicates that
+	 *            {@link gridsim.CloudSimShutdown} first waits for all user entities's
+	 *            END_OF_SIMULATION signal before issuing terminate signal to other entities
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param periodBetweenEvents - the minimal period between events. Events within shorter periods
+	 * after the last event are discarded.
+	 * @see gridsim.CloudSimShutdown
+	 * @see CloudInformationService.CloudInformationService
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, double periodBetweenEvents) {
+	    if (periodBetweenEvents <= 0) {
+		throw new IllegalArgumentException("The minimal time between events should be positive, but is:" + periodBetweenEvents);
+	    }
+	    
+	    init(numUser, cal, traceFlag);
+	    minTimeBetweenEvents = periodBetweenEvents;
+	}
+
+	/**
+	 * Initialises CloudSim parameters using a given queue to store the future events. This method
+	 * should be called before creating any entities.
+	 * 
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param queue the queue storing the future events, e.g. a {@link CalendarEventQueue} or a
+	 *            {@link PairingHeapEventQueue}. If it is <tt>null</tt>, a
+	 *            {@link TreeSetEventQueue} is used.
+	 * @see #init(int, Calendar, boolean)
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, EventQueue queue) {
+		eventQueue = queue;
+		init(numUser, cal, traceFlag);
+	}
+
+	/**
+	 * Initialises CloudSim parameters using a given queue to store the future events. This method
+	 * should be called before creating any entities.
+	 * 
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param periodBetweenEvents - the minimal period between events. Events within shorter periods
+	 *            after the last event are discarded.
+	 * @param queue the queue storing the future events. If it is <tt>null</tt>, a
+	 *            {@link TreeSetEventQueue} is used.
+	 * @see #init(int, Calendar, boolean, double)
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, double periodBetweenEvents,
+			EventQueue queue) {
+		eventQueue = queue;
+		init(numUser, cal, traceFlag, periodBetweenEvents);
+	}
+	
+	
+	
+	/**
+	 * Starts the execution of CloudSim simulation. It waits for complete execution of all entities,
+	 * i.e. until all entities threads reach non-RUNNABLE state or there are no more events in the
+	 * future event queue.
+	 * <p>
+	 * <b>Note</b>: This method should be called after all the entities have been setup and added.
+	 * 
+	 * @return the double
+	 * @throws NullPointerException This happens when creating this entity before initialising
+	 *             CloudSim package or this entity name is <tt>null</tt> or empty.
+	 * @see gridsim.CloudSim#init(int, Calendar, boolean)
+	 * @pre $none
+	 * @post $none
+	 */
+	public double startSimulation() throws NullPointerException {
+		Log.printLine("Starting CloudSim version " + CLOUDSIM_VERSION_STRING);
+		SimulationContext previous = CloudSim.bindContext(this);
+		try {
+			double clock = run();
+
+			// reset the state of the simulation
+			cisId = -1;
+			shutdownId = -1;
+			cis = null;
+			calendar = null;
+			traceFlag = false;
+
+			return clock;
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+			throw new NullPointerException("CloudSim.startCloudSimulation() :"
+					+ " Error - you haven't initialized CloudSim.");
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * Starts the execution of CloudSim simulation, processing the events of the given groups of
+	 * entities concurrently. Each group is a logical process, which owns the events sent to its
+	 * entities. The entities that do not belong to any group, such as the
+	 * <tt>CloudInformationService</tt>, form an additional logical process.
+	 * <p>
+	 * The logical processes are synchronized conservatively: the events are processed in windows
+	 * whose length is the lookahead, i.e. the minimal network delay between two entities of
+	 * different logical processes (see {@link NetworkTopology}). Without network delays, a window
+	 * holds the events of a single simulation time. The events created in a window and the messages
+	 * written to the {@link Log} are merged in the order of the sequential engine, so the results are
+	 * the same as the ones of {@link #startSimulation()}.
+	 * <p>
+	 * <b>Note</b>: the entities of different logical processes must interact only through events.
+	 * An entity must not cancel the events it has sent to another logical process, and entities
+	 * can only be created during the simulation if the lookahead is 0. The termination time must be
+	 * set before the simulation starts.
+	 * 
+	 * @param numThreads the number of threads processing the logical processes
+	 * @param logicalProcesses the groups of entities forming the logical processes
+	 * @return the last clock value
+	 * @throws NullPointerException This happens when creating this entity before initialising
+	 *             CloudSim package or this entity name is <tt>null</tt> or empty.
+	 * @throws IllegalStateException if the events of the logical processes cannot be processed
+	 *             concurrently, e.g. if an event is sent to another logical process with a delay
+	 *             shorter than the lookahead
+	 * @see #startSimulation()
+	 * @pre numThreads > 0
+	 * @post $none
+	 */
+	public double startParallelSimulation(int numThreads,
+			List<? extends Collection<? extends SimEntity>> logicalProcesses)
+			throws NullPointerException {
+		if (numThreads <= 0) {
+			throw new IllegalArgumentException("The number of threads should be positive, but is:"
+					+ numThreads);
+		}
+		if (logicalProcesses == null) {
+			throw new IllegalArgumentException("The list of logical processes is null.");
+		}
+		if (entities != null) {
+			// check the groups before starting the entities
+			createProcesses(logicalProcesses);
+		}
+
+		Log.printLine("Starting CloudSim version " + CLOUDSIM_VERSION_STRING);
+		SimulationContext previous = CloudSim.bindContext(this);
+		try {
+			double clock = runParallel(numThreads, logicalProcesses);
+
+			// reset the state of the simulation
+			cisId = -1;
+			shutdownId = -1;
+			cis = null;
+			calendar = null;
+			traceFlag = false;
+
+			return clock;
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+			throw new NullPointerException("CloudSim.startParallelSimulation() :"
+					+ " Error - you haven't initialized CloudSim.");
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * Starts the execution of CloudSim simulation, processing the events of each datacenter
+	 * concurrently. The other entities, e.g. the brokers, form a single logical process, as they
+	 * access the <tt>CloudInformationService</tt> directly.
+	 * 
+	 * @param numThreads the number of threads processing the datacenters
+	 * @return the last clock value
+	 * @throws NullPointerException This happens when creating this entity before initialising
+	 *             CloudSim package or this entity name is <tt>null</tt> or empty.
+	 * @see #startParallelSimulation(int, List)
+	 * @pre numThreads > 0
+	 * @post $none
+	 */
+	public double startParallelSimulation(int numThreads) throws NullPointerException {
+		List<List<SimEntity>> logicalProcesses = new ArrayList<List<SimEntity>>();
+		if (entities != null) {
+			for (SimEntity entity : entities) {
+				if (entity instanceof Datacenter) {
+					logicalProcesses.add(Collections.singletonList(entity));
+				}
+			}
+		}
+		return startParallelSimulation(numThreads, logicalProcesses);
+	}
+
+	/**
+	 * Stops Cloud Simulation (based on {@link Simulation#runStop()}). This should be only called if
+	 * any of the user defined entities <b>explicitly</b> want to terminate simulation during
+	 * execution.
+	 * 
+	 * @throws NullPointerException This happens when creating this entity before initialising
+	 *             CloudSim package or this entity name is <tt>null</tt> or empty
+	 * @see gridsim.CloudSim#init(int, Calendar, boolean)
+	 * @see Simulation#runStop()
+	 * @pre $none
+	 * @post $none
+	 */
+	public void stopSimulation() throws NullPointerException {
+		try {
+			runStop();
+		} catch (IllegalArgumentException e) {
+			throw new NullPointerException("CloudSim.stopCloudSimulation() : "
+					+ "Error - can't stop Cloud Simulation.");
+		}
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation.
+	 * 
+	 * @return true, if successful; false otherwise.
+	 */
+	public boolean terminateSimulation() {
+		running = false;
+		printMessage("Simulation: Reached termination time.");
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation at a given time.
+	 * 
+	 * @param time the time at which the simulation has to be terminated
+	 * @return true, if successful otherwise.
+	 */
+	public boolean terminateSimulation(double time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			terminateAt = time;
+		}
+		return true;
+	}
+
+	
+	/**
+	 * Returns the minimum time between events. Events within shorter periods after the last event are discarded. 
+	 * @return the minimum time between events.
+	 */
+	public double getMinTimeBetweenEvents() {
+	    return minTimeBetweenEvents;
+	}
+
+	/**
+	 * Gets the binary trace of the simulation.
+	 * 
+	 * @return the trace, or <tt>null</tt> if the simulation is not traced
+	 */
+	public EventTrace getEventTrace() {
+		return eventTrace;
+	}
+
+	/**
+	 * Sets the binary trace of the simulation. The trace records each processed event and the
+	 * history of the cloudlets that record one. Like the attributes, it is kept when the context is
+	 * initialised again.
+	 * 
+	 * @param eventTrace the trace, or <tt>null</tt> to stop tracing
+	 */
+	public void setEventTrace(EventTrace eventTrace) {
+		this.eventTrace = eventTrace;
+	}
+
+	/**
+	 * Gets a new copy of initial simulation Calendar.
+	 * 
+	 * @return a new copy of Calendar object or if CloudSim hasn't been initialized
+	 * @see gridsim.CloudSim#init(int, Calendar, boolean, String[], String[], String)
+	 * @see gridsim.CloudSim#init(int, Calendar, boolean)
+	 * @pre $none
+	 * @post $none
+	 */
+	public Calendar getSimulationCalendar() {
+		// make a new copy
+		Calendar clone = calendar;
+		if (calendar != null) {
+			clone = (Calendar) calendar.clone();
+		}
+
+		return clone;
+	}
+
+	/**
+	 * Gets the entity ID of <tt>CloudInformationService</tt>.
+	 * 
+	 * @return the Entity ID or if it is not found
+	 * @pre $none
+	 * @post $result >= -1
+	 */
+	public int getCloudInfoServiceEntityId() {
+		return cisId;
+	}
+
+	/**
+	 * Sends a request to Cloud Information Service (GIS) entity to get the list of all Cloud
+	 * hostList.
+	 * 
+	 * @return A List containing CloudResource ID (as an Integer object) or if a CIS entity hasn't
+	 *         been created before
+	 * @pre $none
+	 * @post $none
+	 */
+	public List<Integer> getCloudResourceList() {
+		if (cis == null) {
+			return null;
+		}
+
+		return cis.getList();
+	}
+
+	// ======== SIMULATION METHODS ===============//
+
+	/** The entities. */
+	private List<SimEntity> entities;
+
+	/** The future event queue. */
+	private FutureQueue future;
+
+	/** The deferred event queue. */
+	private DeferredQueue deferred;
+
+	/** The simulation clock. */
+	private double clock;
+
+	/** Flag for checking if the simulation is running. */
+	private boolean running;
+
+	/** The entities by name. */
+	private Map<String, SimEntity> entitiesByName;
+
+	// The predicates used in entity wait methods
+	/** The wait predicates. */
+	private Map<Integer, Predicate> waitPredicates;
+
+	/** The paused. */
+	private boolean paused = false;
+
+	/** The pause at. */
+	private long pauseAt = -1;
+
+	/** The abrupt terminate. */
+	private volatile boolean abruptTerminate = false;
+
+	/** Whether the logical processes of a parallel simulation are processing a window. */
+	private volatile boolean parallelWindow = false;
+
+	/** The logical processes of the parallel simulation. */
+	private LogicalProcess[] processes;
+
+	/** The index of the logical process of each entity, by entity id. */
+	private int[] processOfEntity;
+
+	/** The entities created in the current window. */
+	private List<SimEntity> createdEntities;
+
+	/** The events sent to another logical process in the current window, by source entity id. */
+	private Map<Integer, List<SimEvent>> crossEvents;
+
+	/** The lock guarding the future queue while a window is processed. */
+	private final Object futureLock = new Object();
+
+	/** The time at which the simulation has been abruptly terminated in a window. */
+	private double abruptTerminateTime;
+
+	/** The round of events at which the simulation has been abruptly terminated in a window. */
+	private int abruptTerminateRound;
+
+	/**
+	 * Initialise the simulation for stand alone simulations. This function should be called at the
+	 * start of the simulation.
+	 */
+	protected void initialize() {
+		Log.printLine("Initialising...");
+		entities = new ArrayList<SimEntity>();
+		entitiesByName = new LinkedHashMap<String, SimEntity>();
+		if (eventQueue == null) {
+			future = new FutureQueue();
+		} else {
+			eventQueue.clear();
+			future = new FutureQueue(eventQueue);
+			eventQueue = null;
+		}
+		deferred = new DeferredQueue();
+		waitPredicates = Collections.synchronizedMap(new HashMap<Integer, Predicate>());
+		clock = 0;
+		running = false;
+	}
+
+	// Public access methods
+
+	/**
+	 * Get the current simulation time.
+	 * 
+	 * @return the simulation time
+	 */
+	public double clock() {
+		if (parallelWindow) {
+			LogicalProcess process = LogicalProcess.current();
+			if (process != null) {
+				return process.getClock();
+			}
+		}
+		return clock;
+	}
+
+	/**
+	 * Get the current number of entities in the simulation.
+	 * 
+	 * @return The number of entities
+	 */
+	public int getNumEntities() {
+		return entities.size();
+	}
+
+	/**
+	 * Get the entity with a given id.
+	 * 
+	 * @param id the entity's unique id number
+	 * @return The entity, or if it could not be found
+	 */
+	public SimEntity getEntity(int id) {
+		return entities.get(id);
+	}
+
+	/**
+	 * Get the entity with a given name.
+	 * 
+	 * @param name The entity's name
+	 * @return The entity
+	 */
+	public SimEntity getEntity(String name) {
+		return entitiesByName.get(name);
+	}
+
+	/**
+	 * Get the id of an entity with a given name.
+	 * 
+	 * @param name The entity's name
+	 * @return The entity's unique id number
+	 */
+	public int getEntityId(String name) {
+		SimEntity obj = entitiesByName.get(name);
+		if (obj == null) {
+			return NOT_FOUND;
+		} else {
+			return obj.getId();
+		}
+	}
+
+	/**
+	 * Gets name of the entity given its entity ID.
+	 * 
+	 * @param entityID the entity ID
+	 * @return the Entity name or if this object does not have one
+	 * @pre entityID > 0
+	 * @post $none
+	 */
+	public String getEntityName(int entityID) {
+		try {
+			return getEntity(entityID).getName();
+		} catch (IllegalArgumentException e) {
+			return null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Gets name of the entity given its entity ID.
+	 * 
+	 * @param entityID the entity ID
+	 * @return the Entity name or if this object does not have one
+	 * @pre entityID > 0
+	 * @post $none
+	 */
+	public String getEntityName(Integer entityID) {
+		if (entityID != null) {
+			return getEntityName(entityID.intValue());
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a list of entities created for the simulation.
+	 * 
+	 * @return the entity iterator
+	 */
+	public List<SimEntity> getEntityList() {
+		// create a new list to prevent the user from changing
+		// the list of entities used by Simulation
+		List<SimEntity> list = new LinkedList<SimEntity>();
+		list.addAll(entities);
+		return list;
+	}
+
+	// Public update methods
+
+	/**
+	 * Add a new entity to the simulation. This is present for compatibility with existing
+	 * simulations since entities are automatically added to the simulation upon instantiation.
+	 * 
+	 * @param e The new entity
+	 */
+	public void addEntity(SimEntity e) {
+		SimEvent evt;
+		if (running) {
+			// Post an event to make this entity
+			evt = new SimEvent(SimEvent.CREATE, clock(), 1, 0, 0, e);
+			addEvent(evt, false);
+		}
+		if (e.getId() == -1 && getCurrentProcess() != null) {
+			// the entity joins the simulation at the end of the window
+			synchronized (futureLock) {
+				e.setId(entities.size() + createdEntities.size());
+				createdEntities.add(e);
+			}
+		} else if (e.getId() == -1) { // Only add once!
+			int id = entities.size();
+			e.setId(id);
+			entities.add(e);
+			entitiesByName.put(e.getName(), e);
+		}
+	}
+
+	/**
+	 * Internal method used to add a new entity to the simulation when the simulation is running. It
+	 * should <b>not</b> be called from user simulations.
+	 * 
+	 * @param e The new entity
+	 */
+	protected void addEntityDynamically(SimEntity e) {
+		if (e == null) {
+			throw new IllegalArgumentException("Adding null entity.");
+		} else {
+			printMessage("Adding: " + e.getName());
+		}
+		e.startEntity();
+	}
+
+	/**
+	 * Internal method used to run one tick of the simulation. This method should <b>not</b> be
+	 * called in simulations.
+	 * 
+	 * @return true, if successful otherwise
+	 */
+	public boolean runClockTick() {
+		runEntities();
+		return processFutureEvents();
+	}
+
+	/**
+	 * Runs the runnable entities.
+	 */
+	private void runEntities() {
+		SimEntity ent;
+		int entities_size = entities.size();
+
+		for (int i = 0; i < entities_size; i++) {
+			ent = entities.get(i);
+			if (ent.getState() == SimEntity.RUNNABLE) {
+				ent.run();
+			}
+		}
+	}
+
+	/**
+	 * Processes the first events of the future queue, i.e. the ones that have the same time.
+	 * 
+	 * @return true, if the future queue is empty
+	 */
+	private boolean processFutureEvents() {
+		boolean queue_empty;
+
+		// If there are more future events then deal with them
+		if (future.size() > 0) {
+			queue_empty = false;
+			SimEvent first = future.poll();
+			processEvent(first);
+
+			// Check if next events are at same time...
+			SimEvent next = future.peek();
+			while (next != null && next.eventTime() == first.eventTime()) {
+				processEvent(future.poll());
+				next = future.peek();
+			}
+
+		} else {
+			queue_empty = true;
+			running = false;
+			printMessage("Simulation: No more future events");
+		}
+
+		return queue_empty;
+	}
+
+	/**
+	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
+	 */
+	public void runStop() {
+		printMessage("Simulation completed.");
+	}
+
+	/**
+	 * Used to hold an entity for some time.
+	 * 
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void hold(int src, long delay) {
+		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock() + delay, src);
+		addEvent(e, false);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to pause an entity for some time.
+	 * 
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void pause(int src, double delay) {
+		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock() + delay, src);
+		addEvent(e, false);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to send an event from one entity to another.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void send(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock() + delay, src, dest, tag, data);
+		addEvent(e, false);
+	}
+
+	/**
+	 * Used to send an event from one entity to another, with priority in the queue.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void sendFirst(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock() + delay, src, dest, tag, data);
+		addEvent(e, true);
+	}
+
+	/**
+	 * Sets an entity's state to be waiting. The predicate used to wait for an event is now passed
+	 * to Sim_system. Only events that satisfy the predicate will be passed to the entity. This is
+	 * done to avoid unnecessary context switches.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 */
+	public void wait(int src, Predicate p) {
+		entities.get(src).setState(SimEntity.WAITING);
+		if (p != CloudSim.SIM_ANY) {
+			// If a predicate has been used store it in order to check it
+			waitPredicates.put(src, p);
+		}
+	}
+
+	/**
+	 * Checks if events for a specific entity are present in the deferred event queue.
+	 * 
+	 * @param d the d
+	 * @param p the p
+	 * @return the int
+	 */
+	public int waiting(int d, Predicate p) {
+		int count = 0;
+		SimEvent event;
+		Iterator<SimEvent> iterator = getDeferred().iterator();
+		while (iterator.hasNext()) {
+			event = iterator.next();
+			if ((event.getDestination() == d) && (p.match(event))) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Selects an event matching a predicate.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent select(int src, Predicate p) {
+		SimEvent ev = null;
+		Iterator<SimEvent> iterator = getDeferred().iterator();
+		while (iterator.hasNext()) {
+			ev = iterator.next();
+			if (ev.getDestination() == src && p.match(ev)) {
+				iterator.remove();
+				break;
+			}
+		}
+		return ev;
+	}
+
+	/**
+	 * Find first deferred event matching a predicate.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent findFirstDeferred(int src, Predicate p) {
+		SimEvent ev = null;
+		Iterator<SimEvent> iterator = getDeferred().iterator();
+		while (iterator.hasNext()) {
+			ev = iterator.next();
+			if (ev.getDestination() == src && p.match(ev)) {
+				break;
+			}
+		}
+		return ev;
+	}
+
+	/**
+	 * Removes an event from the event queue.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent cancel(int src, Predicate p) {
+		LogicalProcess process = getCurrentProcess();
+		if (process == null) {
+			return future.cancel(src, p);
+		}
+
+		checkCrossEvents(src, p);
+		SimEvent first = process.findFirst(src, p);
+		synchronized (futureLock) {
+			SimEvent next = future.findFirst(src, p);
+			if (first == null || (next != null && next.compareTo(first) < 0)) {
+				first = next;
+			}
+			if (first != null && !process.remove(first)) {
+				future.remove(first);
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Removes all events that match a given predicate from the future event queue returns true if
+	 * at least one event has been cancelled; false otherwise.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return true, if successful
+	 */
+	public boolean cancelAll(int src, Predicate p) {
+		LogicalProcess process = getCurrentProcess();
+		if (process == null) {
+			return future.cancelAll(src, p);
+		}
+
+		checkCrossEvents(src, p);
+		boolean removed = process.cancelAll(src, p);
+		synchronized (futureLock) {
+			removed |= future.cancelAll(src, p);
+		}
+		return removed;
+	}
+
+	//
+	// Private internal methods
+	//
+
+	/**
+	 * Processes an event.
+	 * 
+	 * @param e the e
+	 */
+	void processEvent(SimEvent e) {
+		int dest, src;
+		SimEntity dest_ent;
+		LogicalProcess process = getCurrentProcess();
+		// Update the system's clock
+		if (e.eventTime() < clock()) {
+			throw new IllegalArgumentException("Past event detected.");
+		}
+		if (process == null) {
+			clock = e.eventTime();
+		} else {
+			process.setClock(e.eventTime());
+		}
+		if (eventTrace != null) {
+			eventTrace.recordEvent(e);
+		}
+
+		// Ok now process it
+		switch (e.getType()) {
+			case SimEvent.ENULL:
+				throw new IllegalArgumentException("Event has a null type.");
+
+			case SimEvent.CREATE:
+				SimEntity newe = (SimEntity) e.getData();
+				addEntityDynamically(newe);
+				break;
+
+			case SimEvent.SEND:
+				// Check for matching wait
+				dest = e.getDestination();
+				if (dest < 0) {
+					throw new IllegalArgumentException("Attempt to send to a null entity detected.");
+				} else {
+					int tag = e.getTag();
+					dest_ent = entities.get(dest);
+					if (dest_ent.getState() == SimEntity.WAITING) {
+						Integer destObj = Integer.valueOf(dest);
+						Predicate p = waitPredicates.get(destObj);
+						if ((p == null) || (tag == 9999) || (p.match(e))) {
+							dest_ent.setEventBuffer((SimEvent) e.clone());
+							dest_ent.setState(SimEntity.RUNNABLE);
+							waitPredicates.remove(destObj);
+						} else {
+							getDeferred().addEvent(e);
+						}
+					} else {
+						getDeferred().addEvent(e);
+					}
+				}
+				break;
+
+			case SimEvent.HOLD_DONE:
+				src = e.getSource();
+				if (src < 0) {
+					throw new IllegalArgumentException("Null entity holding.");
+				} else {
+					entities.get(src).setState(SimEntity.RUNNABLE);
+				}
+				break;
+
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Internal method used to start the simulation. This method should <b>not</b> be used by user
+	 * simulations.
+	 */
+	public void runStart() {
+		running = true;
+		// Start all the entities
+		for (SimEntity ent : entities) {
+			ent.startEntity();
+		}
+
+		printMessage("Entities started.");
+	}
+
+	/**
+	 * Check if the simulation is still running. This method should be used by entities to check if
+	 * they should continue executing.
+	 * 
+	 * @return if the simulation is still running, otherwise
+	 */
+	public boolean running() {
+		return running;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation.
+	 * 
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation() {
+		paused = true;
+		return paused;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation at a given time.
+	 * 
+	 * @param time the time at which the simulation has to be paused
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation(long time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			pauseAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to resume the simulation that has previously been paused.
+	 * 
+	 * @return if the simulation has been restarted or or otherwise.
+	 */
+	public boolean resumeSimulation() {
+		paused = false;
+
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+
+		return !paused;
+	}
+
+	/**
+	 * Start the simulation running. This should be called after all the entities have been setup
+	 * and added, and their ports linked.
+	 * 
+	 * @return the double last clock value
+	 */
+	public double run() {
+		if (!running) {
+			runStart();
+		}
+		while (true) {
+			if (runClockTick() || abruptTerminate) {
+				break;
+			}
+
+			// this block allows termination of simulation at a specific time
+			if (terminateAt > 0.0 && clock >= terminateAt) {
+				terminateSimulation();
+				clock = terminateAt;
+				break;
+			}
+
+			if (pauseAt != -1
+					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.peek().eventTime()) || future.size() == 0 && pauseAt <= clock)) {
+				pauseSimulation();
+				clock = pauseAt;
+			}
+
+			while (paused) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		double clock = clock();
+
+		finishSimulation();
+		runStop();
+
+		return clock;
+	}
+
+	/**
+	 * Runs a parallel simulation. The events are processed in windows by the logical processes when
+	 * possible, and sequentially otherwise, e.g. to create entities or to pause the simulation.
+	 * 
+	 * @param numThreads the number of threads processing the logical processes
+	 * @param logicalProcesses the groups of entities forming the logical processes
+	 * @return the last clock value
+	 */
+	private double runParallel(int numThreads,
+			List<? extends Collection<? extends SimEntity>> logicalProcesses) {
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "CloudSim logical process");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		crossEvents = new HashMap<Integer, List<SimEvent>>();
+		createdEntities = new ArrayList<SimEntity>();
+
+		try {
+			if (!running) {
+				runStart();
+			}
+			createProcesses(logicalProcesses);
+			double lookahead = getLookahead();
+
+			runEntities();
+			while (true) {
+				if (canRunWindow() && runWindow(executor, lookahead)) {
+					if (abruptTerminate) {
+						processFutureEvents();
+						break;
+					}
+					continue;
+				}
+
+				// process the next events sequentially, as in run()
+				if (processFutureEvents() || abruptTerminate) {
+					break;
+				}
+
+				if (terminateAt > 0.0 && clock >= terminateAt) {
+					terminateSimulation();
+					clock = terminateAt;
+					break;
+				}
+
+				if (pauseAt != -1
+						&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.peek().eventTime()) || future.size() == 0 && pauseAt <= clock)) {
+					pauseSimulation();
+					clock = pauseAt;
+				}
+
+				while (paused) {
+					try {
+						Thread.sleep(100);
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					}
+				}
+
+				if (entities.size() > processOfEntity.length) {
+					// the entities created during the simulation join the default logical process
+					createProcesses(logicalProcesses);
+					lookahead = getLookahead();
+				}
+				runEntities();
+			}
+
+			double clock = clock();
+
+			finishSimulation();
+			runStop();
+
+			return clock;
+		} finally {
+			executor.shutdownNow();
+			processes = null;
+			processOfEntity = null;
+			crossEvents = null;
+			createdEntities = null;
+		}
+	}
+
+	/**
+	 * Creates the logical processes. The entities that do not belong to any group form an
+	 * additional logical process. The logical processes without entities are discarded.
+	 * 
+	 * @param logicalProcesses the groups of entities forming the logical processes
+	 */
+	private void createProcesses(List<? extends Collection<? extends SimEntity>> logicalProcesses) {
+		int[] groupOfEntity = new int[entities.size()];
+		for (int i = 0; i < logicalProcesses.size(); i++) {
+			for (SimEntity entity : logicalProcesses.get(i)) {
+				if (entity == null || entity.getId() < 0 || entity.getId() >= entities.size()
+						|| entities.get(entity.getId()) != entity) {
+					throw new IllegalArgumentException("The logical process #" + i
+							+ " contains an entity that is not part of the simulation.");
+				}
+				if (groupOfEntity[entity.getId()] != 0) {
+					throw new IllegalArgumentException("The entity " + entity.getName()
+							+ " belongs to several logical processes.");
+				}
+				groupOfEntity[entity.getId()] = i + 1;
+			}
+		}
+
+		int[] processOfGroup = new int[logicalProcesses.size() + 1];
+		Arrays.fill(processOfGroup, -1);
+		List<LogicalProcess> processList = new ArrayList<LogicalProcess>();
+		int[] processOf = new int[entities.size()];
+		for (SimEntity entity : entities) {
+			int group = groupOfEntity[entity.getId()];
+			if (processOfGroup[group] == -1) {
+				processOfGroup[group] = processList.size();
+				processList.add(new LogicalProcess(this, processList.size(), processOf));
+			}
+			processOf[entity.getId()] = processOfGroup[group];
+			processList.get(processOfGroup[group]).addEntity(entity);
+		}
+
+		processes = processList.toArray(new LogicalProcess[processList.size()]);
+		processOfEntity = processOf;
+	}
+
+	/**
+	 * Gets the lookahead of the logical processes, i.e. the minimal delay of the events sent between
+	 * entities of different logical processes.
+	 * 
+	 * @return the lookahead, or 0 if the network is not simulated
+	 */
+	private double getLookahead() {
+		if (!NetworkTopology.isNetworkEnabled()) {
+			return 0;
+		}
+
+		double lookahead = Double.MAX_VALUE;
+		for (int i = 0; i < processOfEntity.length; i++) {
+			for (int j = 0; j < processOfEntity.length; j++) {
+				if (processOfEntity[i] != processOfEntity[j]) {
+					lookahead = Math.min(lookahead, NetworkTopology.getDelay(i, j));
+				}
+			}
+		}
+		if (lookahead == Double.MAX_VALUE) {
+			return 0;
+		}
+		return lookahead;
+	}
+
+	/**
+	 * Checks if the next events can be processed in a window by the logical processes.
+	 * 
+	 * @return true, if a window can be processed
+	 */
+	private boolean canRunWindow() {
+		return processes.length > 1 && !abruptTerminate && !paused && pauseAt == -1
+				&& future.size() > 0
+				&& (terminateAt <= 0.0 || future.peek().eventTime() < terminateAt);
+	}
+
+	/**
+	 * Processes a window of events with the logical processes. The window starts at the time of the
+	 * first future event and ends after the lookahead, or after the first events if the lookahead is
+	 * 0.
+	 * 
+	 * @param executor the executor running the logical processes
+	 * @param lookahead the lookahead
+	 * @return true, if the window has been processed; false if the next events have to be
+	 *         processed sequentially
+	 */
+	private boolean runWindow(ExecutorService executor, double lookahead) {
+		if (entities.size() > processOfEntity.length) {
+			return false;
+		}
+
+		double start = future.peek().eventTime();
+		boolean singleRound = lookahead <= 0;
+		double end = singleRound ? start : start + lookahead;
+		if (terminateAt > 0.0 && end > terminateAt) {
+			end = terminateAt;
+		}
+
+		// take the events of the window from the future queue
+		List<SimEvent> events = new ArrayList<SimEvent>();
+		SimEvent first = future.peek();
+		while (first != null && (singleRound ? first.eventTime() == start : first.eventTime() < end)) {
+			if (!isParallelEvent(first)) {
+				for (SimEvent event : events) {
+					future.addEventWithSerial(event);
+				}
+				return false;
+			}
+			events.add(future.poll());
+			first = future.peek();
+		}
+
+		// move them to the logical processes of their destinations
+		crossEvents.clear();
+		for (SimEvent event : events) {
+			int source = processOfEntity[event.getSource()];
+			int target = event.getType() == SimEvent.HOLD_DONE ? source : processOfEntity[event
+					.getDestination()];
+			processes[target].receive(event);
+			if (source != target) {
+				List<SimEvent> sent = crossEvents.get(event.getSource());
+				if (sent == null) {
+					sent = new ArrayList<SimEvent>();
+					crossEvents.put(event.getSource(), sent);
+				}
+				sent.add(event);
+			}
+		}
+		Iterator<SimEvent> iterator = deferred.iterator();
+		while (iterator.hasNext()) {
+			SimEvent event = iterator.next();
+			processes[processOfEntity[event.getDestination()]].getDeferred().addEvent(event);
+		}
+		deferred.clear();
+
+		List<LogicalProcess> active = new ArrayList<LogicalProcess>();
+		for (LogicalProcess process : processes) {
+			process.setClock(clock);
+			process.startWindow(end, singleRound, future);
+			if (process.hasEvents()) {
+				active.add(process);
+			}
+		}
+
+		// run the logical processes
+		abruptTerminateTime = -1;
+		parallelWindow = true;
+		try {
+			if (active.size() == 1) {
+				active.get(0).call();
+			} else {
+				for (Future<Void> result : executor.invokeAll(active)) {
+					result.get();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The parallel simulation has been interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			parallelWindow = false;
+		}
+
+		// merge the results in the order of the sequential simulation
+		List<LogicalProcess.Entry> created = new ArrayList<LogicalProcess.Entry>();
+		List<LogicalProcess.Entry> messages = new ArrayList<LogicalProcess.Entry>();
+		for (LogicalProcess process : processes) {
+			process.finishWindow(future, created, messages);
+			iterator = process.getDeferred().iterator();
+			while (iterator.hasNext()) {
+				deferred.addEvent(iterator.next());
+			}
+			process.getDeferred().clear();
+			clock = Math.max(clock, process.getLastTime());
+		}
+		Collections.sort(created);
+		addCreatedEntities(created);
+		for (LogicalProcess.Entry entry : created) {
+			if (entry.first) {
+				future.addEventFirst((SimEvent) entry.data);
+			} else {
+				future.addEvent((SimEvent) entry.data);
+			}
+		}
+		Collections.sort(messages);
+		try {
+			LogicalProcess.LogOutput.writeAll(messages, Log.getCurrentOutput());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		if (abruptTerminate && abruptTerminateTime >= 0) {
+			for (LogicalProcess process : processes) {
+				if (process.getLastTime() > abruptTerminateTime
+						|| (process.getLastTime() == abruptTerminateTime && process.getRound() > abruptTerminateRound)) {
+					throw new IllegalStateException("The simulation has been abruptly terminated at "
+							+ abruptTerminateTime + ", but the logical process #" + process.getIndex()
+							+ " has already processed the events at " + process.getLastTime() + ".");
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the entities created in a window to the simulation. Their ids must follow the order in
+	 * which the sequential simulation would have created them.
+	 * 
+	 * @param created the events created in the window, in the order of the sequential simulation
+	 */
+	private void addCreatedEntities(List<LogicalProcess.Entry> created) {
+		if (createdEntities.isEmpty()) {
+			return;
+		}
+
+		int id = entities.size();
+		for (LogicalProcess.Entry entry : created) {
+			SimEvent event = (SimEvent) entry.data;
+			if (event.getType() != SimEvent.CREATE) {
+				continue;
+			}
+			SimEntity entity = (SimEntity) event.getData();
+			if (entity.getId() != id || event.eventTime() < clock) {
+				throw new IllegalStateException("The entity " + entity.getName()
+						+ " has been created concurrently with the events of other logical processes.");
+			}
+			id++;
+		}
+
+		for (SimEntity entity : createdEntities) {
+			entities.add(entity);
+			entitiesByName.put(entity.getName(), entity);
+		}
+		createdEntities.clear();
+	}
+
+	/**
+	 * Checks if an event can be processed by the logical processes.
+	 * 
+	 * @param event the event
+	 * @return true, if the event can be processed in a window
+	 */
+	private boolean isParallelEvent(SimEvent event) {
+		if (event.getSource() < 0 || event.getSource() >= processOfEntity.length) {
+			return false;
+		}
+		switch (event.getType()) {
+			case SimEvent.SEND:
+				return event.getDestination() >= 0 && event.getDestination() < processOfEntity.length;
+			case SimEvent.HOLD_DONE:
+				return true;
+			default:
+				// e.g. the creation of an entity
+				return false;
+		}
+	}
+
+	/**
+	 * Gets the logical process run by the current thread while a window is processed.
+	 * 
+	 * @return the logical process, or <tt>null</tt> if the events are processed sequentially
+	 */
+	private LogicalProcess getCurrentProcess() {
+		if (parallelWindow) {
+			return LogicalProcess.current();
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the deferred queue of the current thread.
+	 * 
+	 * @return the deferred queue
+	 */
+	private DeferredQueue getDeferred() {
+		LogicalProcess process = getCurrentProcess();
+		if (process != null) {
+			return process.getDeferred();
+		}
+		return deferred;
+	}
+
+	/**
+	 * Adds a new event to the future queue, or to the logical process of the current thread.
+	 * 
+	 * @param e the event
+	 * @param first whether the event has to be added to the head of the queue
+	 */
+	private void addEvent(SimEvent e, boolean first) {
+		LogicalProcess process = getCurrentProcess();
+		if (process != null) {
+			process.send(e, first);
+		} else if (first) {
+			future.addEventFirst(e);
+		} else {
+			future.addEvent(e);
+		}
+	}
+
+	/**
+	 * Checks that an entity does not cancel the events it has sent to another logical process in
+	 * the current window, as they are held by that logical process.
+	 * 
+	 * @param src the id of the source entity
+	 * @param p the predicate
+	 */
+	private void checkCrossEvents(int src, Predicate p) {
+		List<SimEvent> sent = crossEvents.get(src);
+		if (sent == null) {
+			return;
+		}
+		for (SimEvent event : sent) {
+			if (event.isQueued() && p.match(event)) {
+				throw new IllegalStateException("The entity #" + src
+						+ " cannot cancel the event with tag " + event.getTag() + " sent to entity #"
+						+ event.getDestination() + ", which belongs to another logical process.");
+			}
+		}
+	}
+
+	/**
+	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
+	 * in user simulations.
+	 */
+	public void finishSimulation() {
+		// Allow all entities to exit their body method
+		if (!abruptTerminate) {
+			for (SimEntity ent : entities) {
+				if (ent.getState() != SimEntity.FINISHED) {
+					ent.run();
+				}
+			}
+		}
+
+		for (SimEntity ent : entities) {
+			ent.shutdownEntity();
+		}
+
+		// reset the state of the simulation
+		// Private data members
+		entities = null;
+		entitiesByName = null;
+		future = null;
+		deferred = null;
+		clock = 0L;
+		running = false;
+
+		waitPredicates = null;
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+	}
+
+	/**
+	 * Abruptally terminate.
+	 */
+	public void abruptallyTerminate() {
+		LogicalProcess process = getCurrentProcess();
+		if (process != null) {
+			synchronized (futureLock) {
+				if (!abruptTerminate
+						|| process.getClock() < abruptTerminateTime
+						|| (process.getClock() == abruptTerminateTime && process.getRound() < abruptTerminateRound)) {
+					abruptTerminateTime = process.getClock();
+					abruptTerminateRound = process.getRound();
+				}
+				abruptTerminate = true;
+			}
+			return;
+		}
+		abruptTerminate = true;
+	}
+
+	/**
+	 * Checks if the simulation has been abruptly terminated.
+	 * 
+	 * @return true, if abruptly terminated
+	 */
+	boolean isAbruptlyTerminated() {
+		return abruptTerminate;
+	}
+
+	/**
+	 * Prints a message about the progress of the simulation.
+	 * 
+	 * @param message the message
+	 */
+	private void printMessage(String message) {
+		Log.printLine(message);
+	}
+
+	/**
+	 * Checks if is paused.
+	 * 
+	 * @return true, if is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * The default event queue, which stores the events in a {@link TreeSet}. Insertion and removal of
+ * the first event take O(log n) time. The iteration is ordered.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventQueue
+ */
+public class TreeSetEventQueue implements EventQueue {
+
+	/** The sorted set. */
+	private final TreeSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
+
+	@Override
+	public void add(SimEvent event) {
+		sortedSet.add(event);
+	}
+
+	@Override
+	public SimEvent peek() {
+		if (sortedSet.isEmpty()) {
+			return null;
+		}
+		return sortedSet.first();
+	}
+
+	@Override
+	public SimEvent poll() {
+		return sortedSet.pollFirst();
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		return sortedSet.remove(event);
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return sortedSet.iterator();
+	}
+
+	@Override
+	public boolean isIterationOrdered() {
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return sortedSet.size();
+	}
+
+	@Override
+	public void clear() {
+		sortedSet.clear();
+	}
+
+}
@@ -59,4 +59,13 @@ public class PredicateFrom extends Predicate {
 		return false;
 	}
 
+	/**
+	 * Gets the ids of the source entities selected by this predicate.
+	 * 
+	 * @return a copy of the ids
+	 */
+	public int[] getIds() {
+		return ids.clone();
+	}
+
 }
@@ -22,6 +22,26 @@ import org.cloudbus.cloudsim.Cloudlet;
  */
 public class CloudletList {
 
+	/** The identifier of the lists of cloudlets indexed by cloudlet id. */
+	public static final IndexedList.Identifier<Cloudlet> ID = new IndexedList.Identifier<Cloudlet>() {
+
+		@Override
+		public int getId(Cloudlet cloudlet) {
+			return cloudlet.getCloudletId();
+		}
+	};
+
+	/**
+	 * Creates a list of cloudlets indexed by cloudlet id, on which {@link #getById(List, int)} and
+	 * {@link #getPositionById(List, int)} take constant time.
+	 * 
+	 * @param <T> the type of the cloudlets
+	 * @return the list
+	 */
+	public static <T extends Cloudlet> List<T> createIndexedList() {
+		return new IndexedList<T>(ID);
+	}
+
 	/**
 	 * Gets the by id.
 	 * 
@@ -30,6 +50,10 @@ public class CloudletList {
 	 * @return the by id
 	 */
 	public static <T extends Cloudlet> T getById(List<T> cloudletList, int id) {
+		IndexedList<T> indexed = IndexedList.asIndexed(cloudletList, ID);
+		if (indexed != null) {
+			return indexed.getById(id);
+		}
 		for (T cloudlet : cloudletList) {
 			if (cloudlet.getCloudletId() == id) {
 				return cloudlet;
@@ -45,6 +69,10 @@ public class CloudletList {
 	 * @return - the position of the cloudlet with that id, or -1 otherwise.
 	 */
 	public static <T extends Cloudlet> int getPositionById(List<T> cloudletList, int id) {
+		IndexedList<T> indexed = IndexedList.asIndexed(cloudletList, ID);
+		if (indexed != null) {
+			return indexed.indexOfId(id);
+		}
 		int i = 0 ;
 	        for (T cloudlet : cloudletList) {
 			if (cloudlet.getCloudletId() == id) {
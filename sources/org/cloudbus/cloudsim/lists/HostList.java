@@ -20,6 +20,26 @@ import org.cloudbus.cloudsim.Host;
  */
 public class HostList {
 
+	/** The identifier of the lists of hosts indexed by host id. */
+	public static final IndexedList.Identifier<Host> ID = new IndexedList.Identifier<Host>() {
+
+		@Override
+		public int getId(Host host) {
+			return host.getId();
+		}
+	};
+
+	/**
+	 * Creates a list of hosts indexed by host id, on which {@link #getById(List, int)} takes
+	 * constant time.
+	 * 
+	 * @param <T> the type of the hosts
+	 * @return the list
+	 */
+	public static <T extends Host> List<T> createIndexedList() {
+		return new IndexedList<T>(ID);
+	}
+
 	/**
 	 * Gets the Machine object for a particular ID.
 	 * 
@@ -32,6 +52,10 @@ public class HostList {
 	 * @post $none
 	 */
 	public static <T extends Host> T getById(List<T> hostList, int id) {
+		IndexedList<T> indexed = IndexedList.asIndexed(hostList, ID);
+		if (indexed != null) {
+			return indexed.getById(id);
+		}
 		for (T host : hostList) {
 			if (host.getId() == id) {
 				return host;
@@ -0,0 +1,523 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An array list that also indexes its elements by id, so that {@link #getById(int)} and
+ * {@link #indexOfId(int)} take logarithmic time instead of scanning the list. The index maps each
+ * id to the position of its first element, like a scan from the start of the list would find it.
+ * <p>
+ * Each position holds a stamp, increasing along the list, and the index maps each id to the stamp
+ * of its first element. The position of a stamp is the number of live stamps before it, counted by
+ * a Fenwick tree. The index thus follows the appends, the removals, including those of ranges and
+ * those made through iterators and sub-lists, and the replacements in logarithmic time. The other
+ * changes, such as inserting in the middle or sorting, only invalidate it, and it is rebuilt by the
+ * next lookup.
+ * <p>
+ * The utility classes of this package, such as {@link VmList#getById(List, int)}, use the index
+ * when they are given an indexed list of the right kind and scan other lists.
+ *
+ * @param <T> the type of the elements
+ * @since CloudSim Toolkit 3.0
+ */
+public class IndexedList<T> extends ArrayList<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Gives the id of the elements of an indexed list.
+	 *
+	 * @param <T> the type of the elements
+	 */
+	public interface Identifier<T> {
+
+		/**
+		 * Gets the id of an element.
+		 *
+		 * @param element the element
+		 * @return the id
+		 */
+		int getId(T element);
+
+	}
+
+	/** The identifier of the elements. */
+	private final Identifier<? super T> identifier;
+
+	/** The stamp of the first element and the number of elements of each id. */
+	private transient Map<Integer, IdEntry> entries = new HashMap<Integer, IdEntry>();
+
+	/** The stamp of each position. */
+	private transient int[] stamps = new int[0];
+
+	/** The Fenwick tree counting the live stamps, one-based. */
+	private transient int[] tree = new int[1];
+
+	/** The stamp of the next appended element. */
+	private transient int nextStamp;
+
+	/** The modification count of the list when the index was last up to date, or -1. */
+	private transient int indexedModCount = -1;
+
+	/**
+	 * Instantiates a new empty indexed list.
+	 *
+	 * @param identifier the identifier of the elements
+	 */
+	public IndexedList(Identifier<? super T> identifier) {
+		if (identifier == null) {
+			throw new IllegalArgumentException("The identifier cannot be null");
+		}
+		this.identifier = identifier;
+	}
+
+	/**
+	 * Instantiates a new indexed list containing the given elements.
+	 *
+	 * @param identifier the identifier of the elements
+	 * @param elements the elements
+	 */
+	public IndexedList(Identifier<? super T> identifier, Collection<? extends T> elements) {
+		this(identifier);
+		addAll(elements);
+	}
+
+	/**
+	 * Gets the identifier of the elements.
+	 *
+	 * @return the identifier
+	 */
+	public Identifier<? super T> getIdentifier() {
+		return identifier;
+	}
+
+	/**
+	 * Gets the first element with the given id.
+	 *
+	 * @param id the id
+	 * @return the element, or null if there is none
+	 */
+	public T getById(int id) {
+		int position = indexOfId(id);
+		return position < 0 ? null : get(position);
+	}
+
+	/**
+	 * Gets the position of the first element with the given id.
+	 *
+	 * @param id the id
+	 * @return the position, or -1 if there is no such element
+	 */
+	public int indexOfId(int id) {
+		if (!isIndexed()) {
+			rebuildIndex();
+		}
+		IdEntry entry = entries.get(id);
+		return entry == null ? -1 : countLiveStamps(entry.stamp);
+	}
+
+	@Override
+	public boolean add(T element) {
+		boolean indexed = isIndexed();
+		super.add(element);
+		if (indexed) {
+			append(size() - 1);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends T> elements) {
+		boolean indexed = isIndexed();
+		int first = size();
+		boolean changed = super.addAll(elements);
+		if (indexed) {
+			for (int i = first; i < size(); i++) {
+				append(i);
+			}
+		}
+		return changed;
+	}
+
+	@Override
+	public T set(int position, T element) {
+		boolean indexed = isIndexed();
+		T previous = super.set(position, element);
+		if (indexed && identifier.getId(previous) != identifier.getId(element)) {
+			unindex(position, previous, position + 1);
+			index(position, element);
+		}
+		return previous;
+	}
+
+	@Override
+	public T remove(int position) {
+		if (!isIndexed()) {
+			return super.remove(position);
+		}
+		unindex(position, get(position), position + 1);
+		removeStamp(stamps[position]);
+		T previous = super.remove(position);
+		System.arraycopy(stamps, position + 1, stamps, position, size() - position);
+		indexedModCount = modCount;
+		return previous;
+	}
+
+	@Override
+	public boolean remove(Object element) {
+		// the array list removes without going through remove(int)
+		int position = indexOf(element);
+		if (position < 0) {
+			return false;
+		}
+		remove(position);
+		return true;
+	}
+
+	@Override
+	protected void removeRange(int from, int to) {
+		if (!isIndexed()) {
+			super.removeRange(from, to);
+			return;
+		}
+		for (int i = from; i < to; i++) {
+			unindex(i, get(i), to);
+			removeStamp(stamps[i]);
+		}
+		super.removeRange(from, to);
+		System.arraycopy(stamps, to, stamps, from, size() - from);
+		indexedModCount = modCount;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		resetIndex(0);
+		indexedModCount = modCount;
+	}
+
+	/**
+	 * Gets a view of a range of the list, whose changes go through the methods of the list, so
+	 * that they are indexed.
+	 *
+	 * @param from the first position of the range
+	 * @param to the position after the range
+	 * @return the view of the range
+	 */
+	@Override
+	public List<T> subList(int from, int to) {
+		if (from < 0 || to > size() || from > to) {
+			throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", size: "
+					+ size());
+		}
+		return new SubList(from, to);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Object clone() {
+		IndexedList<T> copy = (IndexedList<T>) super.clone();
+		copy.resetIndex(0);
+		copy.indexedModCount = -1;
+		return copy;
+	}
+
+	/**
+	 * Checks if the index is up to date.
+	 *
+	 * @return true, if the index is up to date
+	 */
+	private boolean isIndexed() {
+		return indexedModCount == modCount;
+	}
+
+	/**
+	 * Indexes an element appended at the given position with a new stamp. If there is no stamp
+	 * left, the index is invalidated, and it is rebuilt with more stamps by the next lookup.
+	 *
+	 * @param position the position
+	 */
+	private void append(int position) {
+		if (nextStamp == tree.length - 1) {
+			indexedModCount = -1;
+			return;
+		}
+		int stamp = nextStamp++;
+		stamps[position] = stamp;
+		for (int i = stamp + 1; i < tree.length; i += i & -i) {
+			tree[i]++;
+		}
+		index(position, get(position));
+		indexedModCount = modCount;
+	}
+
+	/**
+	 * Indexes an element at the given position, whose stamp is already set.
+	 *
+	 * @param position the position
+	 * @param element the element
+	 */
+	private void index(int position, T element) {
+		Integer id = identifier.getId(element);
+		IdEntry entry = entries.get(id);
+		if (entry == null) {
+			entries.put(id, new IdEntry(stamps[position]));
+		} else {
+			entry.count++;
+			entry.stamp = Math.min(entry.stamp, stamps[position]);
+		}
+	}
+
+	/**
+	 * Unindexes an element leaving the given position. If it was the first element of its id, the
+	 * next one is searched from the given position: only the lists with duplicate ids are scanned.
+	 * If the other elements of the id are all before that position, they are leaving the list as
+	 * well, and the last of them removes the id.
+	 *
+	 * @param position the position
+	 * @param element the element
+	 * @param searchFrom the position from which the next element of the id is searched
+	 */
+	private void unindex(int position, T element, int searchFrom) {
+		Integer id = identifier.getId(element);
+		IdEntry entry = entries.get(id);
+		entry.count--;
+		if (entry.count == 0) {
+			entries.remove(id);
+		} else if (entry.stamp == stamps[position]) {
+			for (int i = searchFrom; i < size(); i++) {
+				if (identifier.getId(get(i)) == id) {
+					entry.stamp = stamps[i];
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the stamp of a removed position from the tree.
+	 *
+	 * @param stamp the stamp
+	 */
+	private void removeStamp(int stamp) {
+		for (int i = stamp + 1; i < tree.length; i += i & -i) {
+			tree[i]--;
+		}
+	}
+
+	/**
+	 * Counts the live stamps before the given one, which is the position of the stamp.
+	 *
+	 * @param stamp the stamp
+	 * @return the number of live stamps before it
+	 */
+	private int countLiveStamps(int stamp) {
+		int count = 0;
+		for (int i = stamp; i > 0; i -= i & -i) {
+			count += tree[i];
+		}
+		return count;
+	}
+
+	/**
+	 * Empties the index, with room for the given number of stamps.
+	 *
+	 * @param capacity the number of stamps
+	 */
+	private void resetIndex(int capacity) {
+		entries = new HashMap<Integer, IdEntry>();
+		stamps = new int[capacity];
+		tree = new int[capacity + 1];
+		nextStamp = 0;
+	}
+
+	/**
+	 * Rebuilds the index from the elements of the list, stamping the positions in order.
+	 */
+	private void rebuildIndex() {
+		int size = size();
+		resetIndex(Math.max(16, 2 * size));
+		for (int i = 0; i < size; i++) {
+			stamps[i] = i;
+			tree[i + 1] = 1;
+			index(i, get(i));
+		}
+		for (int i = 1; i < tree.length; i++) {
+			int parent = i + (i & -i);
+			if (parent < tree.length) {
+				tree[parent] += tree[i];
+			}
+		}
+		nextStamp = size;
+		indexedModCount = modCount;
+	}
+
+	/**
+	 * Reads the list and resets the index, which is not serialized.
+	 *
+	 * @param in the input
+	 * @throws java.io.IOException if the list cannot be read
+	 * @throws ClassNotFoundException if the class of an element cannot be found
+	 */
+	private void readObject(java.io.ObjectInputStream in) throws java.io.IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		resetIndex(0);
+		indexedModCount = -1;
+	}
+
+	/**
+	 * The stamp of the first element of an id, and the number of elements of the id.
+	 */
+	private static class IdEntry {
+
+		/** The stamp of the first element. */
+		private int stamp;
+
+		/** The number of elements. */
+		private int count = 1;
+
+		/**
+		 * Instantiates a new entry for a single element.
+		 *
+		 * @param stamp the stamp of the element
+		 */
+		public IdEntry(int stamp) {
+			this.stamp = stamp;
+		}
+
+	}
+
+	/**
+	 * A view of a range of the list, which changes the list through its methods.
+	 */
+	private class SubList extends AbstractList<T> implements RandomAccess {
+
+		/** The position of the range in the list. */
+		private final int offset;
+
+		/** The size of the range. */
+		private int size;
+
+		/** The modification count of the list expected by the view. */
+		private int expectedModCount;
+
+		/**
+		 * Instantiates a new view.
+		 *
+		 * @param from the first position of the range
+		 * @param to the position after the range
+		 */
+		public SubList(int from, int to) {
+			offset = from;
+			size = to - from;
+			expectedModCount = IndexedList.this.modCount;
+		}
+
+		@Override
+		public T get(int position) {
+			checkPosition(position, size - 1);
+			return IndexedList.this.get(offset + position);
+		}
+
+		@Override
+		public T set(int position, T element) {
+			checkPosition(position, size - 1);
+			return IndexedList.this.set(offset + position, element);
+		}
+
+		@Override
+		public int size() {
+			checkModCount();
+			return size;
+		}
+
+		@Override
+		public void add(int position, T element) {
+			checkPosition(position, size);
+			IndexedList.this.add(offset + position, element);
+			changed(1);
+		}
+
+		@Override
+		public T remove(int position) {
+			checkPosition(position, size - 1);
+			T previous = IndexedList.this.remove(offset + position);
+			changed(-1);
+			return previous;
+		}
+
+		@Override
+		protected void removeRange(int from, int to) {
+			checkModCount();
+			IndexedList.this.removeRange(offset + from, offset + to);
+			changed(from - to);
+		}
+
+		/**
+		 * Checks that a position is in the view and that the list was not changed behind it.
+		 *
+		 * @param position the position
+		 * @param last the last valid position
+		 */
+		private void checkPosition(int position, int last) {
+			if (position < 0 || position > last) {
+				throw new IndexOutOfBoundsException("Position: " + position + ", size: " + size);
+			}
+			checkModCount();
+		}
+
+		/**
+		 * Checks that the list was not changed behind the view.
+		 */
+		private void checkModCount() {
+			if (IndexedList.this.modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		/**
+		 * Records a change of the list made through the view.
+		 *
+		 * @param delta the change of the size of the view
+		 */
+		private void changed(int delta) {
+			expectedModCount = IndexedList.this.modCount;
+			size += delta;
+			modCount++;
+		}
+
+	}
+
+	/**
+	 * Gets a list as an indexed list, if it is indexed with the given identifier.
+	 *
+	 * @param <T> the type of the elements
+	 * @param list the list
+	 * @param identifier the identifier
+	 * @return the indexed list, or null if the list is not indexed with the identifier
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> IndexedList<T> asIndexed(List<T> list, Identifier<?> identifier) {
+		if (list instanceof IndexedList && ((IndexedList<T>) list).getIdentifier() == identifier) {
+			return (IndexedList<T>) list;
+		}
+		return null;
+	}
+
+}
@@ -20,6 +20,26 @@ import org.cloudbus.cloudsim.ResCloudlet;
  */
 public class ResCloudletList {
 
+	/** The identifier of the lists of cloudlets indexed by cloudlet id. */
+	public static final IndexedList.Identifier<ResCloudlet> ID = new IndexedList.Identifier<ResCloudlet>() {
+
+		@Override
+		public int getId(ResCloudlet rcl) {
+			return rcl.getCloudletId();
+		}
+	};
+
+	/**
+	 * Creates a list of cloudlets indexed by cloudlet id, on which the lookups of this class take
+	 * constant time.
+	 * 
+	 * @param <T> the type of the cloudlets
+	 * @return the list
+	 */
+	public static <T extends ResCloudlet> List<T> createIndexedList() {
+		return new IndexedList<T>(ID);
+	}
+
 	/**
 	 * Returns a given Cloudlet. This method needs a combination of Cloudlet Id and User Id because
 	 * each Cloud Users might have exactly same Cloudlet Ids.
@@ -38,6 +58,11 @@ public class ResCloudletList {
 			List<T> list,
 			int cloudletId,
 			int userId) {
+		IndexedList<T> indexed = IndexedList.asIndexed(list, ID);
+		if (indexed != null) {
+			int position = indexOf(list, cloudletId, userId);
+			return position < 0 ? null : list.get(position);
+		}
 		for (T rcl : list) {
 			if (rcl.getCloudletId() == cloudletId && rcl.getUserId() == userId) {
 				return rcl;
@@ -60,6 +85,14 @@ public class ResCloudletList {
 	 * @post $none
 	 */
 	public static <T extends ResCloudlet> int indexOf(List<T> list, int cloudletId, int userId) {
+		IndexedList<T> indexed = IndexedList.asIndexed(list, ID);
+		if (indexed != null) {
+			int position = indexed.indexOfId(cloudletId);
+			if (position < 0 || list.get(position).getUserId() == userId) {
+				return position;
+			}
+			// cloudlets of different users may share the id
+		}
 		int i = 0;
 		for (T rcl : list) {
 			if (rcl.getCloudletId() == cloudletId && rcl.getUserId() == userId) {
@@ -96,6 +129,10 @@ public class ResCloudletList {
 	 * @return - the position of the cloudlet with that id, or -1 otherwise.
 	 */
 	public static <T extends ResCloudlet> int getPositionById(List<T> cloudletList, int id) {
+		IndexedList<T> indexed = IndexedList.asIndexed(cloudletList, ID);
+		if (indexed != null) {
+			return indexed.indexOfId(id);
+		}
 		int i = 0 ;
 	        for (T cloudlet : cloudletList) {
 			if (cloudlet.getCloudletId() == id) {
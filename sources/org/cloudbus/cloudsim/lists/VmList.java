@@ -20,6 +20,26 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class VmList {
 
+	/** The identifier of the lists of VMs indexed by VM id. */
+	public static final IndexedList.Identifier<Vm> ID = new IndexedList.Identifier<Vm>() {
+
+		@Override
+		public int getId(Vm vm) {
+			return vm.getId();
+		}
+	};
+
+	/**
+	 * Creates a list of VMs indexed by VM id, on which {@link #getById(List, int)} and
+	 * {@link #getByIdAndUserId(List, int, int)} take constant time.
+	 * 
+	 * @param <T> the type of the VMs
+	 * @return the list
+	 */
+	public static <T extends Vm> List<T> createIndexedList() {
+		return new IndexedList<T>(ID);
+	}
+
 	/**
 	 * Return a reference to a Vm object from its ID.
 	 * 
@@ -30,6 +50,10 @@ public class VmList {
 	 * @post $none
 	 */
 	public static <T extends Vm> T getById(List<T> vmList, int id) {
+		IndexedList<T> indexed = IndexedList.asIndexed(vmList, ID);
+		if (indexed != null) {
+			return indexed.getById(id);
+		}
 		for (T vm : vmList) {
 			if (vm.getId() == id) {
 				return vm;
@@ -49,6 +73,14 @@ public class VmList {
 	 * @post $none
 	 */
 	public static <T extends Vm> T getByIdAndUserId(List<T> vmList, int id, int userId) {
+		IndexedList<T> indexed = IndexedList.asIndexed(vmList, ID);
+		if (indexed != null) {
+			T vm = indexed.getById(id);
+			if (vm == null || vm.getUserId() == userId) {
+				return vm;
+			}
+			// VMs of different users may share the id
+		}
 		for (T vm : vmList) {
 			if (vm.getId() == id && vm.getUserId() == userId) {
 				return vm;
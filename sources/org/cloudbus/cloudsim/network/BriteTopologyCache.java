@@ -0,0 +1,359 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.cloudbus.cloudsim.Log;
+
+/**
+ * A BRITE topology parsed once into an undirected {@link CompactTopologicalGraph}, and kept with
+ * its all-pairs delays in a binary cache file. The runs using the same topology then memory-map
+ * the cache file instead of parsing the BRITE file and running Floyd-Warshall again.
+ * <p>
+ * The cache file is kept in the temporary directory, or the given one, and is keyed by a hash of
+ * the contents of the BRITE file: it is written again when the file changes. The caches are also
+ * shared by all the simulations of the JVM: {@link #getInstance(File)} returns the same cache for
+ * the same file as long as it does not change.
+ * <p>
+ * {@link org.cloudbus.cloudsim.NetworkTopology} only uses a cache once a
+ * {@link org.cloudbus.cloudsim.NetworkTopology#setTopologyCacheDirectory(File) cache directory} is
+ * set.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class BriteTopologyCache {
+
+	/** The magic number of the cache files. */
+	private static final int MAGIC = 0x42525443;
+
+	/** The version of the format of the cache files. */
+	private static final int VERSION = 1;
+
+	/** The length of the header of the cache files. */
+	private static final int HEADER_LENGTH = 32;
+
+	/** The caches, by the canonical path of their BRITE file. */
+	private static final Map<String, BriteTopologyCache> caches = new HashMap<String, BriteTopologyCache>();
+
+	/** The BRITE file. */
+	private final File briteFile;
+
+	/** The cache file. */
+	private final File cacheFile;
+
+	/** The hash of the contents of the BRITE file. */
+	private final long signature;
+
+	/** The graph of the topology. */
+	private final CompactTopologicalGraph graph;
+
+	/** The position of the delays in the cache file, or 0 if they are not computed yet. */
+	private long delaysStart;
+
+	/**
+	 * Gets the cache of a BRITE file, parsing it to a cache file in the temporary directory if
+	 * needed.
+	 *
+	 * @param briteFile the BRITE file
+	 * @return the cache
+	 * @throws IOException if the BRITE file or the cache file cannot be read
+	 */
+	public static BriteTopologyCache getInstance(File briteFile) throws IOException {
+		return getInstance(briteFile, getCacheFile(briteFile,
+				new File(System.getProperty("java.io.tmpdir"))));
+	}
+
+	/**
+	 * Gets the cache file of a BRITE file in a directory, named after the path of the BRITE file.
+	 *
+	 * @param briteFile the BRITE file
+	 * @param directory the directory
+	 * @return the cache file
+	 * @throws IOException if the path of the BRITE file cannot be resolved
+	 */
+	public static File getCacheFile(File briteFile, File directory) throws IOException {
+		String path = briteFile.getCanonicalPath();
+		return new File(directory, "cloudsim-brite-" + Integer.toHexString(path.hashCode()) + ".bin");
+	}
+
+	/**
+	 * Gets the cache of a BRITE file, parsing it to the given cache file if needed.
+	 *
+	 * @param briteFile the BRITE file
+	 * @param cacheFile the cache file
+	 * @return the cache
+	 * @throws IOException if the BRITE file or the cache file cannot be read
+	 */
+	public static synchronized BriteTopologyCache getInstance(File briteFile, File cacheFile)
+			throws IOException {
+		String path = briteFile.getCanonicalPath();
+		long signature = getSignature(briteFile);
+		BriteTopologyCache cache = caches.get(path);
+		if (cache == null || cache.signature != signature || !cache.cacheFile.equals(cacheFile)) {
+			cache = new BriteTopologyCache(briteFile.getCanonicalFile(), cacheFile, signature);
+			caches.put(path, cache);
+		}
+		return cache;
+	}
+
+	/**
+	 * Instantiates a new cache, parsing the BRITE file if the cache file is missing or out of date.
+	 *
+	 * @param briteFile the BRITE file
+	 * @param cacheFile the cache file
+	 * @param signature the hash of the contents of the BRITE file
+	 * @throws IOException if the BRITE file or the cache file cannot be read
+	 */
+	private BriteTopologyCache(File briteFile, File cacheFile, long signature) throws IOException {
+		this.briteFile = briteFile;
+		this.cacheFile = cacheFile;
+		this.signature = signature;
+
+		CompactTopologicalGraph cachedGraph = read();
+		if (cachedGraph == null) {
+			cachedGraph = new GraphReaderBrite().readCompactGraphFile(briteFile.getPath(), false);
+			tryWrite(cachedGraph, null);
+		}
+		graph = cachedGraph;
+	}
+
+	/**
+	 * Gets the graph of the topology.
+	 *
+	 * @return the graph
+	 */
+	public CompactTopologicalGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Creates a delay-matrix with the all-pairs delays of the topology. The delays are read from
+	 * the cache file, or computed with Floyd-Warshall and added to the cache file the first time.
+	 *
+	 * @return the delay-matrix, which can be modified
+	 * @throws IOException if the cache file cannot be read
+	 */
+	public synchronized DelayMatrix_Float getDelayMatrix() throws IOException {
+		int nodes = graph.getNumberOfNodes();
+		if (delaysStart == 0) {
+			DelayMatrix_Float delayMatrix = new DelayMatrix_Float(graph);
+			tryWrite(graph, delayMatrix.mDelayMatrix);
+			return delayMatrix;
+		}
+		RandomAccessFile input = new RandomAccessFile(cacheFile, "r");
+		try {
+			MappedByteBuffer buffer = input.getChannel().map(FileChannel.MapMode.READ_ONLY,
+					delaysStart, (long) nodes * nodes * 4);
+			return new DelayMatrix_Float(buffer.asFloatBuffer(), nodes);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Gets the BRITE file.
+	 *
+	 * @return the BRITE file
+	 */
+	public File getBriteFile() {
+		return briteFile;
+	}
+
+	/**
+	 * Reads the graph from the cache file, and the position of the delays.
+	 *
+	 * @return the graph, or null if the cache file is missing or out of date
+	 * @throws IOException if the cache file cannot be read
+	 */
+	private CompactTopologicalGraph read() throws IOException {
+		if (!cacheFile.isFile() || cacheFile.length() < HEADER_LENGTH) {
+			return null;
+		}
+		RandomAccessFile input = new RandomAccessFile(cacheFile, "r");
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+			input.getChannel().read(header, 0);
+			header.flip();
+			if (header.getInt() != MAGIC || header.getInt() != VERSION
+					|| header.getLong() != signature) {
+				return null;
+			}
+			int nodes = header.getInt();
+			int links = header.getInt();
+			long delays = header.getLong();
+			long graphEnd = getGraphEnd(nodes, links);
+			if (cacheFile.length() < graphEnd
+					|| delays != 0 && cacheFile.length() < delays + (long) nodes * nodes * 4) {
+				return null;
+			}
+
+			ByteBuffer buffer = ByteBuffer.allocate((int) (graphEnd - HEADER_LENGTH));
+			while (buffer.hasRemaining()
+					&& input.getChannel().read(buffer, HEADER_LENGTH + buffer.position()) > 0) {
+				// reads the arrays of the graph
+			}
+			buffer.flip();
+			int[] firstLinks = new int[nodes + 1];
+			int[] linkDestinations = new int[links];
+			float[] linkDelays = new float[links];
+			float[] linkBandwidths = new float[links];
+			buffer.asIntBuffer().get(firstLinks);
+			buffer.position(buffer.position() + firstLinks.length * 4);
+			buffer.asIntBuffer().get(linkDestinations);
+			buffer.position(buffer.position() + links * 4);
+			buffer.asFloatBuffer().get(linkDelays);
+			buffer.position(buffer.position() + links * 4);
+			buffer.asFloatBuffer().get(linkBandwidths);
+			delaysStart = delays;
+			return new CompactTopologicalGraph(nodes, false, firstLinks, linkDestinations,
+					linkDelays, linkBandwidths);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Writes the cache file, which is only logged if it fails: the topology can still be used
+	 * without it.
+	 *
+	 * @param graph the graph
+	 * @param delays the all-pairs delays, or null
+	 */
+	private void tryWrite(CompactTopologicalGraph graph, float[][] delays) {
+		try {
+			write(graph, delays);
+		} catch (IOException e) {
+			Log.printLine("Problem in writing the topology cache file " + cacheFile + ": "
+					+ e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the cache file: a header with the hash of the BRITE file, the numbers of nodes and
+	 * links and the position of the delays, then the arrays of the graph, then the delays row by
+	 * row from an 8-byte aligned position, if they are given. The file is written under a temporary
+	 * name and renamed, so that a partly written file is never read.
+	 *
+	 * @param graph the graph
+	 * @param delays the all-pairs delays, or null
+	 * @throws IOException if the cache file cannot be written
+	 */
+	private void write(CompactTopologicalGraph graph, float[][] delays) throws IOException {
+		int nodes = graph.getNumberOfNodes();
+		int links = graph.getNumberOfLinks();
+		long graphEnd = getGraphEnd(nodes, links);
+		long delaysPosition = 0;
+		if (delays != null) {
+			delaysPosition = (graphEnd + 7) & ~7L;
+			if (delaysPosition + (long) nodes * nodes * 4 > Integer.MAX_VALUE) {
+				// too large to be mapped at once, the delays are computed each time
+				return;
+			}
+		}
+
+		File temporaryFile = File.createTempFile(cacheFile.getName(), ".tmp",
+				cacheFile.getAbsoluteFile().getParentFile());
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(temporaryFile), 1 << 16));
+		boolean written = false;
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(signature);
+			output.writeInt(nodes);
+			output.writeInt(links);
+			output.writeLong(delaysPosition);
+			for (int value : graph.getFirstLinks()) {
+				output.writeInt(value);
+			}
+			for (int value : graph.getLinkDestinations()) {
+				output.writeInt(value);
+			}
+			for (float value : graph.getLinkDelays()) {
+				output.writeFloat(value);
+			}
+			for (float value : graph.getLinkBandwidths()) {
+				output.writeFloat(value);
+			}
+			if (delays != null) {
+				while (output.size() < delaysPosition) {
+					output.writeByte(0);
+				}
+				ByteBuffer row = ByteBuffer.allocate(nodes * 4);
+				for (float[] delaysFromNode : delays) {
+					row.clear();
+					row.asFloatBuffer().put(delaysFromNode);
+					output.write(row.array());
+				}
+			}
+			written = true;
+		} finally {
+			output.close();
+			if (!written) {
+				temporaryFile.delete();
+			}
+		}
+		cacheFile.delete();
+		if (!temporaryFile.renameTo(cacheFile)) {
+			temporaryFile.delete();
+			throw new IOException("The topology cache file cannot be written: " + cacheFile);
+		}
+		delaysStart = delaysPosition;
+	}
+
+	/**
+	 * Gets the end of the arrays of the graph in the cache file.
+	 *
+	 * @param nodes the number of nodes
+	 * @param links the number of links
+	 * @return the end of the arrays
+	 */
+	private static long getGraphEnd(int nodes, int links) {
+		return HEADER_LENGTH + (nodes + 1L) * 4 + links * 12L;
+	}
+
+	/**
+	 * Gets the signature of a BRITE file, from the CRC-32 of its contents and its length.
+	 *
+	 * @param briteFile the BRITE file
+	 * @return the signature
+	 * @throws IOException if the BRITE file cannot be read
+	 */
+	private static long getSignature(File briteFile) throws IOException {
+		CRC32 crc = new CRC32();
+		long length = 0;
+		InputStream input = new FileInputStream(briteFile);
+		try {
+			byte[] buffer = new byte[1 << 16];
+			int read;
+			while ((read = input.read(buffer)) > 0) {
+				crc.update(buffer, 0, read);
+				length += read;
+			}
+		} finally {
+			input.close();
+		}
+		return length << 32 ^ crc.getValue();
+	}
+
+}
@@ -0,0 +1,415 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * A read-only graph whose links are kept in primitive arrays, by source node (compressed sparse
+ * rows), instead of as one object per node and link. An undirected graph has the links in both
+ * directions.
+ * <p>
+ * The links are read as by {@link DelayMatrix_Float}: the last link between two nodes replaces the
+ * previous ones, so that there is at most one link from a node to another. The links with a delay
+ * of 0 are kept for their bandwidth, although they do not connect their ends.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class CompactTopologicalGraph {
+
+	/** The number of nodes. */
+	private final int nodeCount;
+
+	/** Whether the graph is directed. */
+	private final boolean directed;
+
+	/** The first link of each node in the link arrays, and the end of the arrays. */
+	private final int[] firstLinks;
+
+	/** The destination nodes of the links, by source node. */
+	private final int[] linkDestinations;
+
+	/** The delays of the links, by source node. */
+	private final float[] linkDelays;
+
+	/** The bandwidths of the links, by source node. */
+	private final float[] linkBandwidths;
+
+	/**
+	 * Creates a graph from a list of links.
+	 *
+	 * @param nodeCount the number of nodes
+	 * @param linkCount the number of links
+	 * @param srcIds the source nodes of the links
+	 * @param destIds the destination nodes of the links
+	 * @param delays the delays of the links
+	 * @param bandwidths the bandwidths of the links
+	 * @param directed true if the graph is directed, false otherwise
+	 * @throws ArrayIndexOutOfBoundsException if a link has an end that is not a node
+	 */
+	public CompactTopologicalGraph(
+			int nodeCount,
+			int linkCount,
+			int[] srcIds,
+			int[] destIds,
+			float[] delays,
+			float[] bandwidths,
+			boolean directed) {
+		this.nodeCount = nodeCount;
+		this.directed = directed;
+
+		// the links by source node, in the order of the list
+		int[] rowStarts = new int[nodeCount + 1];
+		for (int link = 0; link < linkCount; link++) {
+			rowStarts[srcIds[link] + 1]++;
+			if (!directed) {
+				rowStarts[destIds[link] + 1]++;
+			}
+		}
+		for (int node = 0; node < nodeCount; node++) {
+			rowStarts[node + 1] += rowStarts[node];
+		}
+		int[] next = Arrays.copyOf(rowStarts, nodeCount);
+		int[] rowLinks = new int[rowStarts[nodeCount]];
+		int[] rowDestinations = new int[rowStarts[nodeCount]];
+		for (int link = 0; link < linkCount; link++) {
+			int position = next[srcIds[link]]++;
+			rowLinks[position] = link;
+			rowDestinations[position] = destIds[link];
+			if (!directed) {
+				position = next[destIds[link]]++;
+				rowLinks[position] = link;
+				rowDestinations[position] = srcIds[link];
+			}
+		}
+
+		// the last link of each row to each destination
+		firstLinks = new int[nodeCount + 1];
+		long[] keys = new long[rowLinks.length];
+		int count = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			int start = rowStarts[node];
+			int end = rowStarts[node + 1];
+			for (int position = start; position < end; position++) {
+				keys[position] = (long) rowDestinations[position] << 32 | rowLinks[position];
+			}
+			Arrays.sort(keys, start, end);
+			for (int position = start; position < end; position++) {
+				if (position + 1 == end || keys[position + 1] >>> 32 != keys[position] >>> 32) {
+					keys[count++] = keys[position];
+				}
+			}
+			firstLinks[node + 1] = count;
+		}
+
+		linkDestinations = new int[count];
+		linkDelays = new float[count];
+		linkBandwidths = new float[count];
+		for (int position = 0; position < count; position++) {
+			int link = (int) keys[position];
+			linkDestinations[position] = (int) (keys[position] >>> 32);
+			linkDelays[position] = delays[link];
+			linkBandwidths[position] = bandwidths[link];
+		}
+	}
+
+	/**
+	 * Creates a graph from its link arrays.
+	 *
+	 * @param nodeCount the number of nodes
+	 * @param directed true if the graph is directed, false otherwise
+	 * @param firstLinks the first link of each node, and the end of the arrays
+	 * @param linkDestinations the destination nodes of the links
+	 * @param linkDelays the delays of the links
+	 * @param linkBandwidths the bandwidths of the links
+	 */
+	CompactTopologicalGraph(
+			int nodeCount,
+			boolean directed,
+			int[] firstLinks,
+			int[] linkDestinations,
+			float[] linkDelays,
+			float[] linkBandwidths) {
+		this.nodeCount = nodeCount;
+		this.directed = directed;
+		this.firstLinks = firstLinks;
+		this.linkDestinations = linkDestinations;
+		this.linkDelays = linkDelays;
+		this.linkBandwidths = linkBandwidths;
+	}
+
+	/**
+	 * Creates a compact graph from a topological graph.
+	 *
+	 * @param graph the topological graph
+	 * @param directed true if the graph is directed, false otherwise
+	 * @return the compact graph
+	 */
+	public static CompactTopologicalGraph fromGraph(TopologicalGraph graph, boolean directed) {
+		int linkCount = graph.getNumberOfLinks();
+		int[] srcIds = new int[linkCount];
+		int[] destIds = new int[linkCount];
+		float[] delays = new float[linkCount];
+		float[] bandwidths = new float[linkCount];
+		Iterator<TopologicalLink> itr = graph.getLinkIterator();
+		for (int link = 0; itr.hasNext(); link++) {
+			TopologicalLink edge = itr.next();
+			srcIds[link] = edge.getSrcNodeID();
+			destIds[link] = edge.getDestNodeID();
+			delays[link] = edge.getLinkDelay();
+			bandwidths[link] = edge.getLinkBw();
+		}
+		return new CompactTopologicalGraph(graph.getNumberOfNodes(), linkCount, srcIds, destIds,
+				delays, bandwidths, directed);
+	}
+
+	/**
+	 * Creates a topological graph with the nodes and links of this graph. The links of an
+	 * undirected graph are added once.
+	 *
+	 * @return the topological graph
+	 */
+	public TopologicalGraph toTopologicalGraph() {
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int node = 0; node < nodeCount; node++) {
+			graph.addNode(new TopologicalNode(node));
+		}
+		for (int node = 0; node < nodeCount; node++) {
+			for (int link = firstLinks[node]; link < firstLinks[node + 1]; link++) {
+				if (directed || node <= linkDestinations[link]) {
+					graph.addLink(new TopologicalLink(node, linkDestinations[link], linkDelays[link],
+							linkBandwidths[link]));
+				}
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Gets the links of a shortest path between two nodes, by delay, as computed by
+	 * {@link #getShortestPaths(int, boolean[], int, int[])}.
+	 *
+	 * @param srcID the id of the source-node
+	 * @param destID the id of the destination-node
+	 * @return the positions of the links of the path in the link arrays, from the source-node, or
+	 *         null if the destination-node cannot be reached
+	 * @throws ArrayIndexOutOfBoundsException if a node is not in the graph
+	 */
+	public int[] getShortestPath(int srcID, int destID) {
+		if (srcID < 0 || srcID >= nodeCount || destID < 0 || destID >= nodeCount) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is not a node of the graph");
+		}
+		boolean[] targets = new boolean[nodeCount];
+		targets[destID] = true;
+		int[] previousLinks = new int[nodeCount];
+		if (getShortestPaths(srcID, targets, 1, previousLinks)[destID] == Float.MAX_VALUE) {
+			return null;
+		}
+
+		int length = 0;
+		for (int node = destID; node != srcID; node = getLinkSource(previousLinks[node])) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int node = destID; node != srcID; node = getLinkSource(previousLinks[node])) {
+			path[--length] = previousLinks[node];
+		}
+		return path;
+	}
+
+	/**
+	 * Computes the delays from a node with Dijkstra's algorithm. The nodes to visit are kept in a
+	 * binary heap, in which a node is added again instead of being moved when its delay decreases.
+	 * The computation can stop once the delays to some target nodes are known, the delays to the
+	 * other nodes being then only upper bounds. The links with a delay of 0 do not connect their
+	 * ends.
+	 *
+	 * @param srcID the id of the source-node
+	 * @param targets the target nodes, or null to compute the delays to all the nodes
+	 * @param targetCount the number of target nodes
+	 * @param previousLinks the last link of the path to each reached node, set if not null
+	 * @return the delays from the node, Float.MAX_VALUE for the nodes not reached
+	 */
+	float[] getShortestPaths(int srcID, boolean[] targets, int targetCount, int[] previousLinks) {
+		float[] delays = new float[nodeCount];
+		Arrays.fill(delays, Float.MAX_VALUE);
+		delays[srcID] = 0;
+
+		float[] heapDelays = new float[linkDestinations.length + 1];
+		int[] heapNodes = new int[linkDestinations.length + 1];
+		int heapSize = push(heapDelays, heapNodes, 0, 0, srcID);
+		boolean[] visited = new boolean[nodeCount];
+		while (heapSize > 0) {
+			int node = heapNodes[0];
+			heapSize = pop(heapDelays, heapNodes, heapSize);
+			if (visited[node]) {
+				continue;
+			}
+			visited[node] = true;
+			if (targets != null && targets[node] && --targetCount == 0) {
+				break;
+			}
+			for (int link = firstLinks[node]; link < firstLinks[node + 1]; link++) {
+				int destination = linkDestinations[link];
+				float delay = delays[node] + linkDelays[link];
+				if (linkDelays[link] != 0 && !visited[destination] && delay < delays[destination]) {
+					delays[destination] = delay;
+					if (previousLinks != null) {
+						previousLinks[destination] = link;
+					}
+					heapSize = push(heapDelays, heapNodes, heapSize, delay, destination);
+				}
+			}
+		}
+		return delays;
+	}
+
+	/**
+	 * Gets the source node of a link.
+	 *
+	 * @param link the position of the link in the link arrays
+	 * @return the source node
+	 */
+	private int getLinkSource(int link) {
+		int low = 0;
+		int high = nodeCount - 1;
+		// the last node whose first link is not after the link
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (firstLinks[middle] <= link) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Adds a node to the heap.
+	 *
+	 * @param heapDelays the delays of the heap
+	 * @param heapNodes the nodes of the heap
+	 * @param heapSize the size of the heap
+	 * @param delay the delay of the node
+	 * @param node the node
+	 * @return the new size of the heap
+	 */
+	private static int push(float[] heapDelays, int[] heapNodes, int heapSize, float delay, int node) {
+		int child = heapSize;
+		while (child > 0) {
+			int parent = (child - 1) / 2;
+			if (heapDelays[parent] <= delay) {
+				break;
+			}
+			heapDelays[child] = heapDelays[parent];
+			heapNodes[child] = heapNodes[parent];
+			child = parent;
+		}
+		heapDelays[child] = delay;
+		heapNodes[child] = node;
+		return heapSize + 1;
+	}
+
+	/**
+	 * Removes the node with the smallest delay from the heap.
+	 *
+	 * @param heapDelays the delays of the heap
+	 * @param heapNodes the nodes of the heap
+	 * @param heapSize the size of the heap
+	 * @return the new size of the heap
+	 */
+	private static int pop(float[] heapDelays, int[] heapNodes, int heapSize) {
+		heapSize--;
+		float delay = heapDelays[heapSize];
+		int node = heapNodes[heapSize];
+		int parent = 0;
+		while (2 * parent + 1 < heapSize) {
+			int child = 2 * parent + 1;
+			if (child + 1 < heapSize && heapDelays[child + 1] < heapDelays[child]) {
+				child++;
+			}
+			if (delay <= heapDelays[child]) {
+				break;
+			}
+			heapDelays[parent] = heapDelays[child];
+			heapNodes[parent] = heapNodes[child];
+			parent = child;
+		}
+		heapDelays[parent] = delay;
+		heapNodes[parent] = node;
+		return heapSize;
+	}
+
+	/**
+	 * Gets the number of nodes.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNumberOfNodes() {
+		return nodeCount;
+	}
+
+	/**
+	 * Gets the number of links, counted in both directions in an undirected graph.
+	 *
+	 * @return the number of links
+	 */
+	public int getNumberOfLinks() {
+		return linkDestinations.length;
+	}
+
+	/**
+	 * Checks if the graph is directed.
+	 *
+	 * @return true, if the graph is directed
+	 */
+	public boolean isDirected() {
+		return directed;
+	}
+
+	/**
+	 * Gets the first link of each node in the link arrays, followed by the end of the arrays. The
+	 * links of a node are between its first link and the first link of the next node.
+	 *
+	 * @return the first links, not to be modified
+	 */
+	public int[] getFirstLinks() {
+		return firstLinks;
+	}
+
+	/**
+	 * Gets the destination nodes of the links.
+	 *
+	 * @return the destination nodes, not to be modified
+	 */
+	public int[] getLinkDestinations() {
+		return linkDestinations;
+	}
+
+	/**
+	 * Gets the delays of the links.
+	 *
+	 * @return the delays, not to be modified
+	 */
+	public float[] getLinkDelays() {
+		return linkDelays;
+	}
+
+	/**
+	 * Gets the bandwidths of the links.
+	 *
+	 * @return the bandwidths, not to be modified
+	 */
+	public float[] getLinkBandwidths() {
+		return linkBandwidths;
+	}
+
+}
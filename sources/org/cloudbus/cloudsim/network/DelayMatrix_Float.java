@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.nio.FloatBuffer;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -29,10 +31,10 @@ public class DelayMatrix_Float {
 	protected int mTotalNodeNum = 0;
 
 	/**
-	 * private constructor to ensure that only an correct initialized delay-matrix could be created
+	 * constructor for the subclasses computing the delays in another way; other classes can only
+	 * create a correct initialized delay-matrix
 	 */
-	@SuppressWarnings("unused")
-	private DelayMatrix_Float() {
+	protected DelayMatrix_Float() {
 	};
 
 	/**
@@ -50,6 +52,36 @@ public class DelayMatrix_Float {
 		calculateShortestPath();
 	}
 
+	/**
+	 * this constructor creates an correct initialized Float-Delay-Matrix from a compact graph,
+	 * directed if the graph is
+	 * 
+	 * @param graph the compact graph as source-information
+	 */
+	public DelayMatrix_Float(CompactTopologicalGraph graph) {
+
+		// lets preinitialize the Delay-Matrix
+		createDelayMatrix(graph);
+
+		// now its time to calculate all possible connection-delays
+		calculateShortestPath();
+	}
+
+	/**
+	 * this constructor reads the delays computed before, for instance in a cache-file
+	 * 
+	 * @param delays the delays, row by row
+	 * @param totalNodeNum the number of nodes
+	 */
+	DelayMatrix_Float(FloatBuffer delays, int totalNodeNum) {
+		mTotalNodeNum = totalNodeNum;
+		mDelayMatrix = new float[mTotalNodeNum][mTotalNodeNum];
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			delays.position(row * mTotalNodeNum);
+			delays.get(mDelayMatrix[row]);
+		}
+	}
+
 	/**
 	 * @param srcID the id of the source-node
 	 * @param destID the id of the destination-node
@@ -102,6 +134,96 @@ public class DelayMatrix_Float {
 		}
 	}
 
+	/**
+	 * creates all internal necessary network-distance structures from the given compact graph,
+	 * whose links are already in both directions if it is undirected
+	 * 
+	 * @param graph this graph contains all node and link information
+	 */
+	private void createDelayMatrix(CompactTopologicalGraph graph) {
+
+		// number of nodes inside the network
+		mTotalNodeNum = graph.getNumberOfNodes();
+
+		mDelayMatrix = new float[mTotalNodeNum][mTotalNodeNum];
+
+		int[] firstLinks = graph.getFirstLinks();
+		int[] linkDestinations = graph.getLinkDestinations();
+		float[] linkDelays = graph.getLinkDelays();
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			Arrays.fill(mDelayMatrix[row], Float.MAX_VALUE);
+			for (int link = firstLinks[row]; link < firstLinks[row + 1]; ++link) {
+				mDelayMatrix[row][linkDestinations[link]] = linkDelays[link];
+			}
+		}
+	}
+
+	/**
+	 * Adds a link to an initialized delay-matrix, and updates the delays incrementally instead of
+	 * running Floyd-Warshall again. A shortest path uses the new link at most once, so the new
+	 * delay between two nodes is the old one, or the delay to one end of the link plus the link
+	 * delay plus the delay from the other end, which takes O(n^2) instead of O(n^3).
+	 * <p>
+	 * The update is only valid if the link does not make the direct delay between its ends longer,
+	 * that is if there was no link between them, or one with a longer delay. As in the matrix
+	 * created from a graph, a link with a delay of 0 does not connect its ends. The delays are
+	 * those of a new Floyd-Warshall run, but for the rounding of the float sums along the paths.
+	 * 
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the delay of the link
+	 * @param totalNodeNum the number of nodes with the link, which may add nodes to the matrix
+	 * @param directed true if the matrix is directed, false otherwise
+	 */
+	public void addLink(int srcID, int destID, float delay, int totalNodeNum, boolean directed) {
+		if (totalNodeNum > mTotalNodeNum) {
+			float[][] delayMatrix = new float[totalNodeNum][];
+			for (int row = 0; row < totalNodeNum; ++row) {
+				delayMatrix[row] = new float[totalNodeNum];
+				if (row < mTotalNodeNum) {
+					System.arraycopy(mDelayMatrix[row], 0, delayMatrix[row], 0, mTotalNodeNum);
+				}
+				for (int col = row < mTotalNodeNum ? mTotalNodeNum : 0; col < totalNodeNum; ++col) {
+					delayMatrix[row][col] = row == col ? 0 : Float.MAX_VALUE;
+				}
+			}
+			mDelayMatrix = delayMatrix;
+			mTotalNodeNum = totalNodeNum;
+		}
+		if (delay == 0) {
+			return;
+		}
+
+		// the delays to and from the ends of the link before the update
+		float[] toSrc = new float[mTotalNodeNum];
+		float[] toDest = new float[mTotalNodeNum];
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			toSrc[row] = mDelayMatrix[row][srcID];
+			toDest[row] = mDelayMatrix[row][destID];
+		}
+		float[] fromSrc = mDelayMatrix[srcID].clone();
+		float[] fromDest = mDelayMatrix[destID].clone();
+
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			float[] delays = mDelayMatrix[row];
+			for (int col = 0; col < mTotalNodeNum; ++col) {
+				if (row == col) {
+					continue;
+				}
+				float viaLink = toSrc[row] + delay + fromDest[col];
+				if (viaLink < delays[col]) {
+					delays[col] = viaLink;
+				}
+				if (!directed) {
+					viaLink = toDest[row] + delay + fromSrc[col];
+					if (viaLink < delays[col]) {
+						delays[col] = viaLink;
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * just calculates all pairs shortest paths
 	 */
@@ -131,10 +253,11 @@ public class DelayMatrix_Float {
 			buffer.append("\n" + row);
 
 			for (int col = 0; col < mTotalNodeNum; ++col) {
-				if (mDelayMatrix[row][col] == Float.MAX_VALUE) {
+				float delay = getDelay(row, col);
+				if (delay == Float.MAX_VALUE) {
 					buffer.append("\t" + "-");
 				} else {
-					buffer.append("\t" + mDelayMatrix[row][col]);
+					buffer.append("\t" + delay);
 				}
 			}
 		}
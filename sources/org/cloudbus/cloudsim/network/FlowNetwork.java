@@ -0,0 +1,461 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A flow-level model of transfers sharing the capacity of network links. Each flow crosses a path
+ * of links, and the capacity of each link is shared by the flows crossing it with max-min fairness:
+ * the rates are computed by progressive filling, fixing the rates of the flows of the most loaded
+ * link first. The rates are only computed again when a flow starts or finishes, and the remaining
+ * sizes of the flows are advanced in between at their constant rates.
+ * <p>
+ * The model has no unit: the sizes and the capacities only have to be given in the same unit of
+ * data, and the times in the unit of the capacities.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class FlowNetwork {
+
+	/** The capacities of the links. */
+	private double[] capacities = new double[16];
+
+	/** The number of links. */
+	private int linkCount;
+
+	/** The flows in progress. */
+	private final List<Flow> flows = new ArrayList<Flow>();
+
+	/** The time the remaining sizes of the flows were last advanced to. */
+	private double time;
+
+	/** The capacity of each link not yet given to flows, while the rates are computed. */
+	private double[] capacitiesLeft = new double[16];
+
+	/** The number of flows of each link without a rate, while the rates are computed. */
+	private int[] flowsLeft = new int[16];
+
+	/** The position of each link among the links of the flows, while the rates are computed. */
+	private int[] linkPositions = new int[16];
+
+	/**
+	 * Adds a link.
+	 *
+	 * @param capacity the capacity of the link, in data per unit of time, which can be infinite
+	 * @return the id of the link
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public int addLink(double capacity) {
+		if (!(capacity > 0)) {
+			throw new IllegalArgumentException("The capacity of a link must be positive: " + capacity);
+		}
+		if (linkCount == capacities.length) {
+			capacities = Arrays.copyOf(capacities, linkCount * 2);
+			capacitiesLeft = new double[linkCount * 2];
+			flowsLeft = new int[linkCount * 2];
+			linkPositions = new int[linkCount * 2];
+		}
+		capacities[linkCount] = capacity;
+		return linkCount++;
+	}
+
+	/**
+	 * Gets the number of links.
+	 *
+	 * @return the number of links
+	 */
+	public int getNumberOfLinks() {
+		return linkCount;
+	}
+
+	/**
+	 * Gets the capacity of a link.
+	 *
+	 * @param link the id of the link
+	 * @return the capacity
+	 */
+	public double getCapacity(int link) {
+		if (link < 0 || link >= linkCount) {
+			throw new ArrayIndexOutOfBoundsException("Not a link: " + link);
+		}
+		return capacities[link];
+	}
+
+	/**
+	 * Starts a flow, and computes the rates of the flows again.
+	 *
+	 * @param time the current time, not before the previous start or finish
+	 * @param links the ids of the links crossed by the flow
+	 * @param size the size of the flow
+	 * @param data the data of the flow
+	 * @return the flow
+	 * @throws IllegalArgumentException if the size is negative, a link does not exist or the time
+	 *             is before the previous start or finish
+	 */
+	public Flow startFlow(double time, int[] links, double size, Object data) {
+		if (size < 0) {
+			throw new IllegalArgumentException("The size of a flow cannot be negative: " + size);
+		}
+		for (int link : links) {
+			if (link < 0 || link >= linkCount) {
+				throw new IllegalArgumentException("Not a link: " + link);
+			}
+		}
+		advance(time);
+		Flow flow = new Flow(time, links.clone(), size, data);
+		flows.add(flow);
+		computeRates();
+		return flow;
+	}
+
+	/**
+	 * Gets the time at which the next flow finishes, at the current rates.
+	 *
+	 * @return the time, or Double.MAX_VALUE if there is no flow
+	 */
+	public double getNextFinishTime() {
+		double nextTime = Double.MAX_VALUE;
+		for (Flow flow : flows) {
+			nextTime = Math.min(nextTime, time + flow.getTimeLeft());
+		}
+		return nextTime;
+	}
+
+	/**
+	 * Removes the flows finished at a time, and computes the rates of the other flows again.
+	 *
+	 * @param time the current time, not before the previous start or finish
+	 * @return the finished flows, in the order they were started
+	 * @throws IllegalArgumentException if the time is before the previous start or finish
+	 */
+	public List<Flow> finishFlows(double time) {
+		advance(time);
+		List<Flow> finished = new ArrayList<Flow>();
+		for (Flow flow : flows) {
+			if (flow.isFinished()) {
+				finished.add(flow);
+			}
+		}
+		if (!finished.isEmpty()) {
+			int count = 0;
+			for (Flow flow : flows) {
+				if (!flow.isFinished()) {
+					flows.set(count++, flow);
+				}
+			}
+			flows.subList(count, flows.size()).clear();
+			computeRates();
+		}
+		return finished;
+	}
+
+	/**
+	 * Gets the flows in progress.
+	 *
+	 * @return the flows, in the order they were started, not to be modified
+	 */
+	public List<Flow> getFlows() {
+		return flows;
+	}
+
+	/**
+	 * Advances the remaining sizes of the flows to a time, at their current rates.
+	 *
+	 * @param time the time
+	 */
+	private void advance(double time) {
+		if (time < this.time) {
+			throw new IllegalArgumentException("The flows are at time " + this.time
+					+ ", they cannot go back to time " + time);
+		}
+		double elapsed = time - this.time;
+		if (elapsed > 0) {
+			for (Flow flow : flows) {
+				flow.remaining = Math.max(0, flow.remaining - flow.rate * elapsed);
+			}
+		}
+		this.time = time;
+	}
+
+	/**
+	 * Computes the max-min fair rates of the flows by progressive filling: the flows crossing the
+	 * link with the smallest fair share get that share, which is then taken from the other links
+	 * they cross, until every flow has a rate. A flow crossing no link with a finite capacity has
+	 * an infinite rate.
+	 * <p>
+	 * The links are kept in a heap by fair share, in which a link is added again instead of being
+	 * moved when its share changes, as the shares only grow as the flows get their rates.
+	 */
+	private void computeRates() {
+		// the links crossed by the flows, and the flows crossing each of them
+		int crossingCount = 0;
+		for (Flow flow : flows) {
+			crossingCount += flow.links.length;
+		}
+		int[] activeLinks = new int[Math.min(linkCount, crossingCount)];
+		int activeLinkCount = 0;
+		for (Flow flow : flows) {
+			flow.rate = -1;
+			for (int link : flow.links) {
+				if (flowsLeft[link]++ == 0) {
+					capacitiesLeft[link] = capacities[link];
+					linkPositions[link] = activeLinkCount;
+					activeLinks[activeLinkCount++] = link;
+				}
+			}
+		}
+		int[] firstFlows = new int[activeLinkCount + 1];
+		for (int position = 0; position < activeLinkCount; position++) {
+			firstFlows[position + 1] = firstFlows[position] + flowsLeft[activeLinks[position]];
+		}
+		int[] next = Arrays.copyOf(firstFlows, activeLinkCount);
+		Flow[] linkFlows = new Flow[crossingCount];
+		for (Flow flow : flows) {
+			for (int link : flow.links) {
+				linkFlows[next[linkPositions[link]]++] = flow;
+			}
+		}
+
+		double[] heapShares = new double[activeLinkCount + crossingCount];
+		int[] heapLinks = new int[activeLinkCount + crossingCount];
+		int heapSize = 0;
+		for (int position = 0; position < activeLinkCount; position++) {
+			int link = activeLinks[position];
+			if (!Double.isInfinite(capacities[link])) {
+				heapSize = push(heapShares, heapLinks, heapSize, getShare(link), link);
+			}
+		}
+
+		while (heapSize > 0) {
+			double share = heapShares[0];
+			int bottleneck = heapLinks[0];
+			heapSize = pop(heapShares, heapLinks, heapSize);
+			if (flowsLeft[bottleneck] == 0 || share != getShare(bottleneck)) {
+				continue;
+			}
+			int position = linkPositions[bottleneck];
+			for (int crossing = firstFlows[position]; crossing < firstFlows[position + 1]; crossing++) {
+				Flow flow = linkFlows[crossing];
+				if (flow.rate >= 0) {
+					continue;
+				}
+				flow.rate = share;
+				for (int link : flow.links) {
+					capacitiesLeft[link] -= share;
+					if (--flowsLeft[link] > 0 && link != bottleneck
+							&& !Double.isInfinite(capacities[link])) {
+						heapSize = push(heapShares, heapLinks, heapSize, getShare(link), link);
+					}
+				}
+			}
+		}
+
+		for (Flow flow : flows) {
+			if (flow.rate < 0) {
+				flow.rate = Double.POSITIVE_INFINITY;
+				for (int link : flow.links) {
+					flowsLeft[link]--;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the fair share of a link, between its flows without a rate, while the rates are
+	 * computed.
+	 *
+	 * @param link the id of the link
+	 * @return the fair share
+	 */
+	private double getShare(int link) {
+		return Math.max(0, capacitiesLeft[link]) / flowsLeft[link];
+	}
+
+	/**
+	 * Adds a link to the heap.
+	 *
+	 * @param heapShares the shares of the heap
+	 * @param heapLinks the links of the heap
+	 * @param heapSize the size of the heap
+	 * @param share the share of the link
+	 * @param link the link
+	 * @return the new size of the heap
+	 */
+	private static int push(
+			double[] heapShares,
+			int[] heapLinks,
+			int heapSize,
+			double share,
+			int link) {
+		int child = heapSize;
+		while (child > 0) {
+			int parent = (child - 1) / 2;
+			if (heapShares[parent] <= share) {
+				break;
+			}
+			heapShares[child] = heapShares[parent];
+			heapLinks[child] = heapLinks[parent];
+			child = parent;
+		}
+		heapShares[child] = share;
+		heapLinks[child] = link;
+		return heapSize + 1;
+	}
+
+	/**
+	 * Removes the link with the smallest share from the heap.
+	 *
+	 * @param heapShares the shares of the heap
+	 * @param heapLinks the links of the heap
+	 * @param heapSize the size of the heap
+	 * @return the new size of the heap
+	 */
+	private static int pop(double[] heapShares, int[] heapLinks, int heapSize) {
+		heapSize--;
+		double share = heapShares[heapSize];
+		int link = heapLinks[heapSize];
+		int parent = 0;
+		while (2 * parent + 1 < heapSize) {
+			int child = 2 * parent + 1;
+			if (child + 1 < heapSize && heapShares[child + 1] < heapShares[child]) {
+				child++;
+			}
+			if (share <= heapShares[child]) {
+				break;
+			}
+			heapShares[parent] = heapShares[child];
+			heapLinks[parent] = heapLinks[child];
+			parent = child;
+		}
+		heapShares[parent] = share;
+		heapLinks[parent] = link;
+		return heapSize;
+	}
+
+	/**
+	 * A transfer of data crossing some links of the network.
+	 */
+	public static class Flow {
+
+		/** The time the flow started. */
+		private final double startTime;
+
+		/** The links crossed by the flow. */
+		private final int[] links;
+
+		/** The size of the flow. */
+		private final double size;
+
+		/** The data of the flow. */
+		private final Object data;
+
+		/** The size left to transfer. */
+		private double remaining;
+
+		/** The current rate. */
+		private double rate;
+
+		/**
+		 * Instantiates a new flow.
+		 *
+		 * @param startTime the time the flow started
+		 * @param links the links crossed by the flow
+		 * @param size the size of the flow
+		 * @param data the data of the flow
+		 */
+		private Flow(double startTime, int[] links, double size, Object data) {
+			this.startTime = startTime;
+			this.links = links;
+			this.size = size;
+			this.data = data;
+			remaining = size;
+		}
+
+		/**
+		 * Gets the time left to finish the flow, at its current rate.
+		 *
+		 * @return the time left
+		 */
+		private double getTimeLeft() {
+			if (remaining <= 0 || Double.isInfinite(rate)) {
+				return 0;
+			}
+			return rate > 0 ? remaining / rate : Double.MAX_VALUE;
+		}
+
+		/**
+		 * Checks if the flow is finished, which it is if less than a nanosecond of it is left, to
+		 * absorb the rounding of the remaining size.
+		 *
+		 * @return true, if the flow is finished
+		 */
+		private boolean isFinished() {
+			return getTimeLeft() < 1e-9;
+		}
+
+		/**
+		 * Gets the time the flow started.
+		 *
+		 * @return the start time
+		 */
+		public double getStartTime() {
+			return startTime;
+		}
+
+		/**
+		 * Gets the links crossed by the flow.
+		 *
+		 * @return the ids of the links, not to be modified
+		 */
+		public int[] getLinks() {
+			return links;
+		}
+
+		/**
+		 * Gets the size of the flow.
+		 *
+		 * @return the size
+		 */
+		public double getSize() {
+			return size;
+		}
+
+		/**
+		 * Gets the size left to transfer.
+		 *
+		 * @return the remaining size
+		 */
+		public double getRemaining() {
+			return remaining;
+		}
+
+		/**
+		 * Gets the current rate of the flow.
+		 *
+		 * @return the rate, which is infinite if the flow crosses no link with a finite capacity
+		 */
+		public double getRate() {
+			return rate;
+		}
+
+		/**
+		 * Gets the data of the flow.
+		 *
+		 * @return the data
+		 */
+		public Object getData() {
+			return data;
+		}
+
+	}
+
+}
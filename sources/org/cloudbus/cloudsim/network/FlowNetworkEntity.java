@@ -0,0 +1,270 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * An entity sharing the bandwidth of the links of a network topology between the transfers of the
+ * messages crossing them, with a {@link FlowNetwork}. A transfer follows the shortest path by
+ * delay between the nodes of its source and destination entities, and the message is delivered to
+ * its destination once it is transferred, after the delay of the path, as if it had been sent by
+ * its source.
+ * <p>
+ * The bandwidths of the links are taken in Mbit/s, and the sizes of the transfers in MB. A link
+ * with no bandwidth does not limit the transfers crossing it.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class FlowNetworkEntity extends SimEntity {
+
+	/** The graph of the topology, whose links are the links of the flow network. */
+	private final CompactTopologicalGraph graph;
+
+	/** The flow network. */
+	private final FlowNetwork network;
+
+	/** The paths between the nodes, by source and destination node. */
+	private final Map<Long, int[]> paths;
+
+	/** The version of the scheduled update, the older updates being ignored. */
+	private int updateVersion;
+
+	/**
+	 * Instantiates a new entity sharing the bandwidth of the links of a graph.
+	 *
+	 * @param name the name of the entity
+	 * @param graph the graph of the topology
+	 */
+	public FlowNetworkEntity(String name, CompactTopologicalGraph graph) {
+		super(name);
+		this.graph = graph;
+		network = new FlowNetwork();
+		for (float bandwidth : graph.getLinkBandwidths()) {
+			network.addLink(bandwidth > 0 ? bandwidth / 8.0 : Double.POSITIVE_INFINITY);
+		}
+		paths = new HashMap<Long, int[]>();
+	}
+
+	@Override
+	public void startEntity() {
+	}
+
+	@Override
+	public void processEvent(SimEvent ev) {
+		switch (ev.getTag()) {
+			case CloudSimTags.NETWORK_FLOW_START:
+				processTransferStart((Transfer) ev.getData());
+				break;
+
+			case CloudSimTags.NETWORK_FLOW_UPDATE:
+				if (((Integer) ev.getData()).intValue() == updateVersion) {
+					processTransferEnd();
+				}
+				break;
+
+			default:
+				Log.printLine(getName() + ".processEvent(): Error - unknown event tag " + ev.getTag());
+				break;
+		}
+	}
+
+	@Override
+	public void shutdownEntity() {
+	}
+
+	/**
+	 * Starts a transfer, or delivers its message at once if its nodes are not connected.
+	 *
+	 * @param transfer the transfer
+	 */
+	private void processTransferStart(Transfer transfer) {
+		int[] path = getPath(transfer.srcNode, transfer.destNode);
+		if (path == null) {
+			deliver(transfer);
+			return;
+		}
+		network.startFlow(CloudSim.clock(), path, transfer.size, transfer);
+		scheduleUpdate();
+	}
+
+	/**
+	 * Delivers the messages of the finished transfers.
+	 */
+	private void processTransferEnd() {
+		for (FlowNetwork.Flow flow : network.finishFlows(CloudSim.clock())) {
+			deliver((Transfer) flow.getData());
+		}
+		scheduleUpdate();
+	}
+
+	/**
+	 * Schedules an update at the time the next transfer finishes, which makes the updates already
+	 * scheduled out of date.
+	 */
+	private void scheduleUpdate() {
+		updateVersion++;
+		double nextTime = network.getNextFinishTime();
+		if (nextTime != Double.MAX_VALUE) {
+			schedule(getId(), Math.max(0, nextTime - CloudSim.clock()),
+					CloudSimTags.NETWORK_FLOW_UPDATE, Integer.valueOf(updateVersion));
+		}
+	}
+
+	/**
+	 * Delivers the message of a transfer to its destination, after the delay between its nodes.
+	 *
+	 * @param transfer the transfer
+	 */
+	private void deliver(Transfer transfer) {
+		CloudSim.send(transfer.srcId, transfer.destId, transfer.delay, transfer.tag, transfer.data);
+	}
+
+	/**
+	 * Gets the links of the path between two nodes, computed the first time.
+	 *
+	 * @param srcNode the source node
+	 * @param destNode the destination node
+	 * @return the links of the path, or null if the nodes are not connected
+	 */
+	private int[] getPath(int srcNode, int destNode) {
+		Long key = Long.valueOf((long) srcNode << 32 | destNode);
+		if (paths.containsKey(key)) {
+			return paths.get(key);
+		}
+		int[] path = graph.getShortestPath(srcNode, destNode);
+		paths.put(key, path);
+		return path;
+	}
+
+	/**
+	 * Gets the flow network.
+	 *
+	 * @return the flow network
+	 */
+	public FlowNetwork getFlowNetwork() {
+		return network;
+	}
+
+	/**
+	 * A message transferred between two entities, which is the data of the
+	 * {@link CloudSimTags#NETWORK_FLOW_START} events.
+	 */
+	public static class Transfer {
+
+		/** The id of the source entity. */
+		private final int srcId;
+
+		/** The id of the destination entity. */
+		private final int destId;
+
+		/** The node of the source entity. */
+		private final int srcNode;
+
+		/** The node of the destination entity. */
+		private final int destNode;
+
+		/** The size of the message, in MB. */
+		private final double size;
+
+		/** The delay between the nodes. */
+		private final double delay;
+
+		/** The tag of the message. */
+		private final int tag;
+
+		/** The data of the message. */
+		private final Object data;
+
+		/**
+		 * Instantiates a new transfer.
+		 *
+		 * @param srcId the id of the source entity
+		 * @param destId the id of the destination entity
+		 * @param srcNode the node of the source entity
+		 * @param destNode the node of the destination entity
+		 * @param size the size of the message, in MB
+		 * @param delay the delay between the nodes
+		 * @param tag the tag of the message
+		 * @param data the data of the message
+		 */
+		public Transfer(
+				int srcId,
+				int destId,
+				int srcNode,
+				int destNode,
+				double size,
+				double delay,
+				int tag,
+				Object data) {
+			this.srcId = srcId;
+			this.destId = destId;
+			this.srcNode = srcNode;
+			this.destNode = destNode;
+			this.size = size;
+			this.delay = delay;
+			this.tag = tag;
+			this.data = data;
+		}
+
+		/**
+		 * Gets the id of the source entity.
+		 *
+		 * @return the id of the source entity
+		 */
+		public int getSrcId() {
+			return srcId;
+		}
+
+		/**
+		 * Gets the id of the destination entity.
+		 *
+		 * @return the id of the destination entity
+		 */
+		public int getDestId() {
+			return destId;
+		}
+
+		/**
+		 * Gets the size of the message.
+		 *
+		 * @return the size, in MB
+		 */
+		public double getSize() {
+			return size;
+		}
+
+		/**
+		 * Gets the tag of the message.
+		 *
+		 * @return the tag
+		 */
+		public int getTag() {
+			return tag;
+		}
+
+		/**
+		 * Gets the data of the message.
+		 *
+		 * @return the data
+		 */
+		public Object getData() {
+			return data;
+		}
+
+	}
+
+}
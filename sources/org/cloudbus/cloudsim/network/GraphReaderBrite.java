@@ -11,6 +11,7 @@ package org.cloudbus.cloudsim.network;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.StringTokenizer;
 
 /**
@@ -18,6 +19,9 @@ import java.util.StringTokenizer;
  * followed: Node-section: NodeID, xpos, ypos, indegree, outdegree, ASid, type(router/AS)
  * Edge-section: EdgeID, fromNode, toNode, euclideanLength, linkDelay, linkBandwith, AS_from, AS_to,
  * type
+ * <p>
+ * The file can be read into a {@link TopologicalGraph}, or streamed into a
+ * {@link CompactTopologicalGraph} of primitive arrays, which is much faster for large topologies.
  * 
  * @author Thomas Hohnstein
  * @since CloudSim Toolkit 1.0
@@ -50,18 +54,9 @@ public class GraphReaderBrite implements GraphReaderIF {
 		FileReader fr = new FileReader(filename);
 		BufferedReader br = new BufferedReader(fr);
 
-		String lineSep = System.getProperty("line.separator");
 		String nextLine = null;
-		StringBuffer sb = new StringBuffer();
 
 		while ((nextLine = br.readLine()) != null) {
-			sb.append(nextLine);
-			//
-			// note:
-			// BufferedReader strips the EOL character.
-			//
-			sb.append(lineSep);
-
 			// functionality to diferentiate between all the parsing-states
 			// state that should just find the start of node-declaration
 			if (state == PARSE_NOTHING) {
@@ -87,11 +82,133 @@ public class GraphReaderBrite implements GraphReaderIF {
 		br.close();
 
 		// Log.printLine("read file successfully...");
-		// Log.printLine(sb.toString());
 
 		return graph;
 	}
 
+	/**
+	 * this method reads the file as it streams in, and creates a compact graph of its links
+	 * without creating an object per node and link; the links are parsed as by
+	 * {@link #readGraphFile(String)}
+	 * 
+	 * @param filename name of the file to read
+	 * @param directed true if the graph is directed, false otherwise
+	 * @return created CompactTopologicalGraph
+	 * @throws IOException
+	 */
+	public CompactTopologicalGraph readCompactGraphFile(String filename, boolean directed)
+			throws IOException {
+		BufferedReader br = new BufferedReader(new FileReader(filename), 1 << 16);
+
+		int parseState = PARSE_NOTHING;
+		int nodeCount = 0;
+		int linkCount = 0;
+		int[] srcIds = new int[1024];
+		int[] destIds = new int[1024];
+		float[] delays = new float[1024];
+		float[] bandwidths = new float[1024];
+
+		try {
+			String nextLine = null;
+			while ((nextLine = br.readLine()) != null) {
+				if (parseState == PARSE_NOTHING) {
+					if (nextLine.contains("Nodes:")) {
+						parseState = PARSE_NODES;
+					}
+				} else if (parseState == PARSE_NODES) {
+					if (nextLine.contains("Edges:")) {
+						parseState = PARSE_EDGES;
+					} else if (nextToken(nextLine, 0) < nextLine.length()) {
+						nodeCount++;
+					}
+				} else if (parseState == PARSE_EDGES) {
+					int start = nextToken(nextLine, 0);
+					if (start == nextLine.length()) {
+						continue;
+					}
+					if (linkCount == srcIds.length) {
+						srcIds = Arrays.copyOf(srcIds, linkCount * 2);
+						destIds = Arrays.copyOf(destIds, linkCount * 2);
+						delays = Arrays.copyOf(delays, linkCount * 2);
+						bandwidths = Arrays.copyOf(bandwidths, linkCount * 2);
+					}
+
+					// EdgeID, fromNode, toNode, euclideanLength, linkDelay, linkBandwith, ...
+					int fromNode = 0;
+					int toNode = 0;
+					float linkDelay = 0;
+					int linkBandwith = 0;
+					for (int actualParam = 0; start < nextLine.length() && actualParam < 6; actualParam++) {
+						int end = endOfToken(nextLine, start);
+						switch (actualParam) {
+							case 1:
+								fromNode = Integer.parseInt(nextLine.substring(start, end));
+								break;
+							case 2:
+								toNode = Integer.parseInt(nextLine.substring(start, end));
+								break;
+							case 4:
+								linkDelay = Float.parseFloat(nextLine.substring(start, end));
+								break;
+							case 5:
+								linkBandwith = (int) Float.parseFloat(nextLine.substring(start, end));
+								break;
+						}
+						start = nextToken(nextLine, end);
+					}
+					srcIds[linkCount] = fromNode;
+					destIds[linkCount] = toNode;
+					delays[linkCount] = linkDelay;
+					bandwidths[linkCount] = linkBandwith;
+					linkCount++;
+				}
+			}
+		} finally {
+			br.close();
+		}
+
+		return new CompactTopologicalGraph(nodeCount, linkCount, srcIds, destIds, delays, bandwidths,
+				directed);
+	}
+
+	/**
+	 * finds the start of the next token of a line, as separated by a StringTokenizer
+	 * 
+	 * @param line the line
+	 * @param from the position to start from
+	 * @return the start of the token, or the length of the line if there is none
+	 */
+	private static int nextToken(String line, int from) {
+		while (from < line.length() && isDelimiter(line.charAt(from))) {
+			from++;
+		}
+		return from;
+	}
+
+	/**
+	 * finds the end of a token of a line
+	 * 
+	 * @param line the line
+	 * @param from the start of the token
+	 * @return the end of the token
+	 */
+	private static int endOfToken(String line, int from) {
+		while (from < line.length() && !isDelimiter(line.charAt(from))) {
+			from++;
+		}
+		return from;
+	}
+
+	/**
+	 * checks if a character separates the tokens of a line, as for a StringTokenizer
+	 * 
+	 * @param c the character
+	 * @return true, if the character is a delimiter
+	 */
+	private static boolean isDelimiter(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+	}
+
 	private void parseNodeString(String nodeLine) {
 
 		StringTokenizer tokenizer = new StringTokenizer(nodeLine);
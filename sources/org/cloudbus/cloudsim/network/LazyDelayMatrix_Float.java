@@ -0,0 +1,88 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A delay-matrix computing the delays from a node only when they are first asked for, with
+ * Dijkstra's algorithm from that node, and keeping them. Large topologies of which only a few
+ * nodes are mapped to entities are so neither stored in full nor computed with Floyd-Warshall.
+ * <p>
+ * The links are read as by {@link DelayMatrix_Float}: the last link between two nodes sets their
+ * direct delay, and a link with a delay of 0 does not connect them. The delays are the same as
+ * those of Floyd-Warshall, but for the rounding of the float sums along the paths.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class LazyDelayMatrix_Float extends DelayMatrix_Float {
+
+	/** The graph the delays are computed on. */
+	private final CompactTopologicalGraph graph;
+
+	/** The computed rows of delays, null until they are computed. */
+	private final AtomicReferenceArray<float[]> rows;
+
+	/**
+	 * Creates a delay-matrix computing its rows on demand. The links of the graph are read now.
+	 *
+	 * @param graph the topological graph as source-information
+	 * @param directed true if an directed matrix should be computed, false otherwise
+	 */
+	public LazyDelayMatrix_Float(TopologicalGraph graph, boolean directed) {
+		this(CompactTopologicalGraph.fromGraph(graph, directed));
+	}
+
+	/**
+	 * Creates a delay-matrix computing its rows on demand, directed if the graph is.
+	 *
+	 * @param graph the compact graph as source-information
+	 */
+	public LazyDelayMatrix_Float(CompactTopologicalGraph graph) {
+		mTotalNodeNum = graph.getNumberOfNodes();
+		this.graph = graph;
+		rows = new AtomicReferenceArray<float[]>(mTotalNodeNum);
+	}
+
+	/**
+	 * @param srcID the id of the source-node
+	 * @param destID the id of the destination-node
+	 * @return the delay-count between the given two nodes
+	 */
+	@Override
+	public float getDelay(int srcID, int destID) {
+		// check the nodeIDs against internal array-boundarys
+		if (srcID > mTotalNodeNum || destID > mTotalNodeNum) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
+		}
+		float[] row = rows.get(srcID);
+		if (row == null) {
+			row = getShortestPaths(srcID, null, 0);
+			if (!rows.compareAndSet(srcID, null, row)) {
+				row = rows.get(srcID);
+			}
+		}
+		return row[destID];
+	}
+
+	/**
+	 * Computes the delays from a node with Dijkstra's algorithm. The computation can stop once the
+	 * delays to some target nodes are known, the delays to the other nodes being then only upper
+	 * bounds.
+	 *
+	 * @param srcID the id of the source-node
+	 * @param targets the target nodes, or null to compute the delays to all the nodes
+	 * @param targetCount the number of target nodes
+	 * @return the delays from the node
+	 */
+	protected float[] getShortestPaths(int srcID, boolean[] targets, int targetCount) {
+		return graph.getShortestPaths(srcID, targets, targetCount, null);
+	}
+
+}
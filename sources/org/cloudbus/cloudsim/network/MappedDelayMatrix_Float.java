@@ -0,0 +1,235 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * An undirected delay-matrix keeping the delays between the mapped nodes only, the nodes to which
+ * simulation entities are mapped. When a node is mapped, its delays to the other mapped nodes are
+ * computed with Dijkstra's algorithm, which stops once they are all reached, and stored off the
+ * heap. The memory so grows with the square of the number of mapped nodes instead of the number of
+ * nodes of the topology, and a topology of tens of thousands of nodes needs no more than its links.
+ * <p>
+ * The delay from a node that is not mapped is computed each time it is asked for, and not kept.
+ * The delays are the same as those of Floyd-Warshall, but for the rounding of the float sums along
+ * the paths.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class MappedDelayMatrix_Float extends LazyDelayMatrix_Float {
+
+	/** The initial number of mapped nodes the delays can be stored for. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The slot of each node in the stored delays, or -1 if the node is not mapped. */
+	private final int[] slots;
+
+	/** Whether each node is mapped. */
+	private final boolean[] mapped;
+
+	/** The node of each slot, or -1 if the slot is free. */
+	private int[] slotNodes;
+
+	/** The number of used and free slots. */
+	private int slotCount;
+
+	/** The number of mapped nodes. */
+	private int mappedCount;
+
+	/** The free slots, reused before new ones. */
+	private int[] freeSlots;
+
+	/** The number of free slots. */
+	private int freeSlotCount;
+
+	/** The number of mapped nodes the delays can be stored for. */
+	private int capacity;
+
+	/** The delays between the slots, by row of capacity slots, off the heap. */
+	private FloatBuffer delays;
+
+	/**
+	 * Creates a delay-matrix with no mapped node. The links of the graph are read now.
+	 *
+	 * @param graph the topological graph as source-information
+	 */
+	public MappedDelayMatrix_Float(TopologicalGraph graph) {
+		this(CompactTopologicalGraph.fromGraph(graph, false));
+	}
+
+	/**
+	 * Creates a delay-matrix with no mapped node.
+	 *
+	 * @param graph the undirected compact graph as source-information
+	 * @throws IllegalArgumentException if the graph is directed
+	 */
+	public MappedDelayMatrix_Float(CompactTopologicalGraph graph) {
+		super(graph);
+		if (graph.isDirected()) {
+			throw new IllegalArgumentException("The graph of a mapped delay-matrix must be undirected");
+		}
+		slots = new int[mTotalNodeNum];
+		Arrays.fill(slots, -1);
+		mapped = new boolean[mTotalNodeNum];
+		capacity = INITIAL_CAPACITY;
+		slotNodes = new int[capacity];
+		freeSlots = new int[capacity];
+		delays = allocate(capacity);
+	}
+
+	/**
+	 * Maps a node, and computes its delays to the other mapped nodes. Nothing is done if the node
+	 * is already mapped.
+	 *
+	 * @param nodeID the id of the node
+	 * @throws ArrayIndexOutOfBoundsException if the node is not in the matrix
+	 */
+	public synchronized void mapNode(int nodeID) {
+		if (nodeID < 0 || nodeID >= mTotalNodeNum) {
+			throw new ArrayIndexOutOfBoundsException("nodeID is not a stored node-ID: " + nodeID);
+		}
+		if (mapped[nodeID]) {
+			return;
+		}
+
+		int slot;
+		if (freeSlotCount > 0) {
+			slot = freeSlots[--freeSlotCount];
+		} else {
+			if (slotCount == capacity) {
+				grow();
+			}
+			slot = slotCount++;
+		}
+		mapped[nodeID] = true;
+		mappedCount++;
+		slots[nodeID] = slot;
+		slotNodes[slot] = nodeID;
+
+		float[] delaysFromNode = getShortestPaths(nodeID, mapped, mappedCount);
+		for (int other = 0; other < slotCount; other++) {
+			if (slotNodes[other] >= 0) {
+				float delay = delaysFromNode[slotNodes[other]];
+				delays.put(slot * capacity + other, delay);
+				delays.put(other * capacity + slot, delay);
+			}
+		}
+	}
+
+	/**
+	 * Unmaps a node, and frees its delays. Nothing is done if the node is not mapped.
+	 *
+	 * @param nodeID the id of the node
+	 */
+	public synchronized void unmapNode(int nodeID) {
+		if (nodeID < 0 || nodeID >= mTotalNodeNum || !mapped[nodeID]) {
+			return;
+		}
+		int slot = slots[nodeID];
+		mapped[nodeID] = false;
+		mappedCount--;
+		slots[nodeID] = -1;
+		slotNodes[slot] = -1;
+		freeSlots[freeSlotCount++] = slot;
+	}
+
+	/**
+	 * Checks if a node is mapped.
+	 *
+	 * @param nodeID the id of the node
+	 * @return true, if the node is mapped
+	 */
+	public synchronized boolean isMapped(int nodeID) {
+		return nodeID >= 0 && nodeID < mTotalNodeNum && mapped[nodeID];
+	}
+
+	/**
+	 * @param srcID the id of the source-node
+	 * @param destID the id of the destination-node
+	 * @return the delay-count between the given two nodes
+	 */
+	@Override
+	public synchronized float getDelay(int srcID, int destID) {
+		// check the nodeIDs against internal array-boundarys
+		if (srcID > mTotalNodeNum || destID > mTotalNodeNum) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
+		}
+		if (mapped[srcID] && mapped[destID]) {
+			return delays.get(slots[srcID] * capacity + slots[destID]);
+		}
+		boolean[] targets = new boolean[mTotalNodeNum];
+		targets[destID] = true;
+		return getShortestPaths(srcID, targets, 1)[destID];
+	}
+
+	/**
+	 * Doubles the number of mapped nodes the delays can be stored for.
+	 */
+	private void grow() {
+		int newCapacity = capacity * 2;
+		FloatBuffer newDelays = allocate(newCapacity);
+		for (int row = 0; row < slotCount; row++) {
+			for (int col = 0; col < slotCount; col++) {
+				newDelays.put(row * newCapacity + col, delays.get(row * capacity + col));
+			}
+		}
+		delays = newDelays;
+		slotNodes = Arrays.copyOf(slotNodes, newCapacity);
+		freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+		capacity = newCapacity;
+	}
+
+	/**
+	 * Allocates the delays between a number of slots off the heap.
+	 *
+	 * @param capacity the number of slots
+	 * @return the delays
+	 */
+	private static FloatBuffer allocate(int capacity) {
+		return ByteBuffer.allocateDirect(capacity * capacity * 4).order(ByteOrder.nativeOrder())
+				.asFloatBuffer();
+	}
+
+	/**
+	 * Creates a String representing the delays between the mapped nodes.
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuffer buffer = new StringBuffer();
+
+		buffer.append("delay-matrix between the " + mappedCount + " mapped nodes of "
+				+ mTotalNodeNum + " nodes:\n");
+
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			if (!mapped[row]) {
+				continue;
+			}
+			buffer.append("\n" + row);
+
+			for (int col = 0; col < mTotalNodeNum; ++col) {
+				if (!mapped[col]) {
+					continue;
+				}
+				float delay = getDelay(row, col);
+				if (delay == Float.MAX_VALUE) {
+					buffer.append("\t" + "-");
+				} else {
+					buffer.append("\t" + delay);
+				}
+			}
+		}
+
+		return buffer.toString();
+	}
+
+}
@@ -13,9 +13,6 @@ import java.util.HashMap;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.core.CloudSimTags;
-import org.cloudbus.cloudsim.core.SimEvent;
-import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
  * This class allows to simulate aggregate switch for Datacenter network. It interacts with other
@@ -55,31 +52,23 @@ public class AggregateSwitch extends Switch {
 	/**
 	 * Send Packet to switch connected through a downlink port
 	 * 
-	 * @param ev Event/packet to process
+	 * @param hspkt packet to process
 	 */
 
 	@Override
-	protected void processpacket_down(SimEvent ev) {
+	protected void routepacket_down(NetworkPacket hspkt) {
 		// packet coming from up level router.
 		// has to send downward
 		// check which switch to forward to
 		// add packet in the switch list
 		// add packet in the host list
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), latency, CloudSimTags.Network_Event_send);
 
 		if (level == NetworkConstants.Agg_LEVEL) {
 			// packet is coming from root so need to be sent to edgelevel swich
 			// find the id for edgelevel switch
 			int switchid = dc.VmToSwitchid.get(recvVMid);
-			List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				downlinkswitchpktlist.put(switchid, pktlist);
-			}
-			pktlist.add(hspkt);
+			addPacket(DOWNLINK_PORT, switchid, hspkt);
 			return;
 		}
 
@@ -88,48 +77,28 @@ public class AggregateSwitch extends Switch {
 	/**
 	 * Send Packet to switch connected through a uplink port
 	 * 
-	 * @param ev Event/packet to process
+	 * @param hspkt packet to process
 	 */
 	@Override
-	protected void processpacket_up(SimEvent ev) {
+	protected void routepacket_up(NetworkPacket hspkt) {
 		// packet coming from down level router.
 		// has to send up
 		// check which switch to forward to
 		// add packet in the switch list
 		//
-		// int src=ev.getSource();
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
 
 		if (level == NetworkConstants.Agg_LEVEL) {
 			// packet is coming from edge level router so need to be sent to
 			// either root or another edge level swich
 			// find the id for edgelevel switch
 			int switchid = dc.VmToSwitchid.get(recvVMid);
-			boolean flagtoswtich = false;
-			for (Switch sw : downlinkswitches) {
-				if (switchid == sw.getId()) {
-					flagtoswtich = true;
-				}
-			}
-			if (flagtoswtich) {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(switchid, pktlist);
-				}
-				pktlist.add(hspkt);
+			if (getDownlinkRoute(switchid) == switchid) {
+				addPacket(DOWNLINK_PORT, switchid, hspkt);
 			} else// send to up
 			{
 				Switch sw = uplinkswitches.get(0);
-				List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					uplinkswitchpktlist.put(sw.getId(), pktlist);
-				}
-				pktlist.add(hspkt);
+				addPacket(UPLINK_PORT, sw.getId(), hspkt);
 			}
 		}
 	}
@@ -17,7 +17,6 @@ import java.util.Map.Entry;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
-import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
  * This class allows to simulate Edge switch for Datacenter network. It interacts with other
@@ -58,20 +57,16 @@ public class EdgeSwitch extends Switch {
 	/**
 	 * Send Packet to switch connected through a uplink port
 	 * 
-	 * @param ev Event/packet to process
+	 * @param hspkt packet to process
 	 */
 	@Override
-	protected void processpacket_up(SimEvent ev) {
+	protected void routepacket_up(NetworkPacket hspkt) {
 		// packet coming from down level router/host.
 		// has to send up
 		// check which switch to forward to
 		// add packet in the switch list
 		//
-		// int src=ev.getSource();
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
 
 		// packet is recieved from host
 		// packet is to be sent to aggregate level or to another host in the same level
@@ -83,12 +78,7 @@ public class EdgeSwitch extends Switch {
 		// packet needs to go to a host which is connected directly to switch
 		if (hs != null) {
 			// packet to be sent to host connected to the switch
-			List<NetworkPacket> pktlist = packetTohost.get(hostid);
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				packetTohost.put(hostid, pktlist);
-			}
-			pktlist.add(hspkt);
+			addPacket(HOST_PORT, hostid, hspkt);
 			return;
 
 		}
@@ -98,12 +88,7 @@ public class EdgeSwitch extends Switch {
 		// if there are more than one Aggregate level switch one need to modify following code
 
 		Switch sw = uplinkswitches.get(0);
-		List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
-		if (pktlist == null) {
-			pktlist = new ArrayList<NetworkPacket>();
-			uplinkswitchpktlist.put(sw.getId(), pktlist);
-		}
-		pktlist.add(hspkt);
+		addPacket(UPLINK_PORT, sw.getId(), hspkt);
 		return;
 
 	}
@@ -81,7 +81,8 @@ public class NetDatacenterBroker extends SimEntity {
 	/** The datacenter characteristics list. */
 	private Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
-	public static NetworkDatacenter linkDC;
+	/** The key of the datacenter linked to the brokers in the simulation context. */
+	private static final Object LINK_DC_KEY = new Object();
 
 	public boolean createvmflag = true;
 
@@ -147,7 +148,16 @@ public class NetDatacenterBroker extends SimEntity {
 	}
 
 	public void setLinkDC(NetworkDatacenter alinkDC) {
-		linkDC = alinkDC;
+		getSimulationContext().setAttribute(LINK_DC_KEY, alinkDC);
+	}
+
+	/**
+	 * Gets the datacenter linked to the brokers of the current simulation context.
+	 * 
+	 * @return the linked datacenter
+	 */
+	public static NetworkDatacenter getLinkDC() {
+		return (NetworkDatacenter) CloudSim.getContext().getAttribute(LINK_DC_KEY);
 	}
 
 	/**
@@ -181,7 +191,7 @@ public class NetDatacenterBroker extends SimEntity {
 				break;
 			case CloudSimTags.NextCycle:
 				if (NetworkConstants.BASE) {
-					createVmsInDatacenterBase(linkDC.getId());
+					createVmsInDatacenterBase(getLinkDC().getId());
 				}
 
 				break;
@@ -319,7 +329,7 @@ public class NetDatacenterBroker extends SimEntity {
 		for (AppCloudlet app : this.getAppCloudletList()) {
 
 			List<Integer> vmids = new ArrayList<Integer>();
-			int numVms = linkDC.getVmList().size();
+			int numVms = getLinkDC().getVmList().size();
 			UniformDistr ufrnd = new UniformDistr(0, numVms, 5);
 			for (int i = 0; i < app.numbervm; i++) {
 
@@ -362,7 +372,7 @@ public class NetDatacenterBroker extends SimEntity {
 
 	private void CreateVMs(int datacenterId) {
 		// two VMs per host
-		int numVM = linkDC.getHostList().size() * NetworkConstants.maxhostVM;
+		int numVM = getLinkDC().getHostList().size() * NetworkConstants.maxhostVM;
 		for (int i = 0; i < numVM; i++) {
 			int vmid = i;
 			int mips = 1;
@@ -383,7 +393,7 @@ public class NetDatacenterBroker extends SimEntity {
 					size,
 					vmm,
 					new NetworkCloudletSpaceSharedScheduler());
-			linkDC.processVmCreateNetwork(vm);
+			getLinkDC().processVmCreateNetwork(vm);
 			// add the VM to the vmList
 			getVmList().add(vm);
 			getVmsToDatacentersMap().put(vmid, datacenterId);
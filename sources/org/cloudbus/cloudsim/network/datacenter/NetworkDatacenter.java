@@ -14,10 +14,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import org.cloudbus.cloudsim.Cloudlet;
-import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
-import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
@@ -144,69 +142,15 @@ public class NetworkDatacenter extends Datacenter {
 			// gets the Cloudlet object
 			Cloudlet cl = (Cloudlet) ev.getData();
 
-			// checks whether this Cloudlet has finished or not
-			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
-				Log.printLine(getName() + ": Warning - Cloudlet #" + cl.getCloudletId() + " owned by " + name
-						+ " is already completed/finished.");
-				Log.printLine("Therefore, it is not being executed again");
-				Log.printLine();
-
-				// NOTE: If a Cloudlet has finished, then it won't be processed.
-				// So, if ack is required, this method sends back a result.
-				// If ack is not required, this method don't send back a result.
-				// Hence, this might cause CloudSim to be hanged since waiting
-				// for this Cloudlet back.
-				if (ack) {
-					int[] data = new int[3];
-					data[0] = getId();
-					data[1] = cl.getCloudletId();
-					data[2] = CloudSimTags.FALSE;
-
-					// unique tag = operation tag
-					int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-					sendNow(cl.getUserId(), tag, data);
-				}
-
-				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
-
-				return;
-			}
-
-			// process this Cloudlet to this CloudResource
-			cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
-					.getCostPerBw());
-
-			int userId = cl.getUserId();
-			int vmId = cl.getVmId();
-
-			// time to transfer the files
-			double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
-
-			Host host = getVmAllocationPolicy().getHost(vmId, userId);
-			Vm vm = host.getVm(vmId, userId);
-			CloudletScheduler scheduler = vm.getCloudletScheduler();
-			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+			double estimatedFinishTime = submitCloudlet(cl, ack);
 
 			if (estimatedFinishTime > 0.0) { // if this cloudlet is in the exec
 				// time to process the cloudlet
-				estimatedFinishTime += fileTransferTime;
 				send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
 
 				// event to update the stages
 				send(getId(), 0.0001, CloudSimTags.VM_DATACENTER_EVENT);
 			}
-
-			if (ack) {
-				int[] data = new int[3];
-				data[0] = getId();
-				data[1] = cl.getCloudletId();
-				data[2] = CloudSimTags.TRUE;
-
-				// unique tag = operation tag
-				int tag = CloudSimTags.CLOUDLET_SUBMIT_ACK;
-				sendNow(cl.getUserId(), tag, data);
-			}
 		} catch (ClassCastException c) {
 			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
 			c.printStackTrace();
@@ -218,4 +162,30 @@ public class NetworkDatacenter extends Datacenter {
 		checkCloudletCompletion();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processCloudletSubmitBatch(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processCloudletSubmitBatch(SimEvent ev) {
+		super.processCloudletSubmitBatch(ev);
+
+		// event to update the stages
+		send(getId(), 0.0001, CloudSimTags.VM_DATACENTER_EVENT);
+	}
+
+	/**
+	 * The incremental update is not supported, as the hosts exchange packets on each update.
+	 * 
+	 * @param incrementalUpdate must be false
+	 */
+	@Override
+	public void setIncrementalUpdate(boolean incrementalUpdate) {
+		if (incrementalUpdate) {
+			throw new UnsupportedOperationException(getName()
+					+ ": the incremental update is not supported by network datacenters");
+		}
+		super.setIncrementalUpdate(incrementalUpdate);
+	}
+
 }
@@ -9,6 +9,8 @@
 package org.cloudbus.cloudsim.network.datacenter;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -23,7 +25,6 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
-import org.cloudbus.cloudsim.lists.VmList;
 
 public class Switch extends SimEntity {
 
@@ -72,6 +73,30 @@ public class Switch extends SimEntity {
 
 	public Map<Integer, NetworkVm> Vmlist;
 
+	/** The port of an uplink switch. */
+	protected static final int UPLINK_PORT = 0;
+
+	/** The port of a downlink switch. */
+	protected static final int DOWNLINK_PORT = 1;
+
+	/** The port of a host. */
+	protected static final int HOST_PORT = 2;
+
+	/** Whether the packets queued on a port are sent at once, after the previous ones. */
+	private boolean packetbatching;
+
+	/** Whether a forward of the batched packets is scheduled. */
+	private boolean forwardscheduled;
+
+	/** The ports with packets to forward, by type and id, when the packets are batched. */
+	private final List<Long> pendingports = new ArrayList<Long>();
+
+	/** The time until which each port sends packets, by type and id, when they are batched. */
+	private final Map<Long, Double> portbusytimes = new HashMap<Long, Double>();
+
+	/** The downlink switch leading to each switch below, indexed at the first packet. */
+	private Map<Integer, Integer> downlinkroutes;
+
 	public Switch(String name, int level, NetworkDatacenter dc) {
 		super(name);
 		this.level = level;
@@ -98,7 +123,11 @@ public class Switch extends SimEntity {
 				processpacket_down(ev);
 				break;
 			case CloudSimTags.Network_Event_send:
-				processpacketforward(ev);
+				if (packetbatching) {
+					processpacketbatches();
+				} else {
+					processpacketforward(ev);
+				}
 				break;
 
 			case CloudSimTags.Network_Event_Host:
@@ -117,60 +146,84 @@ public class Switch extends SimEntity {
 
 	protected void processhostpacket(SimEvent ev) {
 		// Send packet to host
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		NetworkHost hs = hostlist.get(hspkt.recieverhostid);
-		hs.packetrecieved.add(hspkt);
+		for (NetworkPacket hspkt : getPackets(ev)) {
+			NetworkHost hs = hostlist.get(hspkt.recieverhostid);
+			hs.packetrecieved.add(hspkt);
+		}
 	}
 
 	protected void processpacket_down(SimEvent ev) {
-		// packet coming from up level router.
-		// has to send downward
+		// packets coming from up level router.
+		// have to send downward
+		scheduleforward(latency);
+		for (NetworkPacket hspkt : getPackets(ev)) {
+			routepacket_down(hspkt);
+		}
+	}
+
+	/**
+	 * Schedules the next forward of the packets. The packets are otherwise forwarded once no
+	 * packet has arrived for the delay, but when they are batched, the packets arriving until the
+	 * forward scheduled at the first of them are forwarded with it.
+	 * 
+	 * @param delay the delay of the forward
+	 */
+	private void scheduleforward(double delay) {
+		if (!packetbatching) {
+			CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
+			schedule(getId(), delay, CloudSimTags.Network_Event_send);
+		} else if (!forwardscheduled) {
+			forwardscheduled = true;
+			schedule(getId(), delay, CloudSimTags.Network_Event_send);
+		}
+	}
+
+	/**
+	 * Adds a packet coming from an uplink switch to the list of the port it is sent through.
+	 * 
+	 * @param hspkt the packet
+	 */
+	protected void routepacket_down(NetworkPacket hspkt) {
 		// check which switch to forward to
 		// add packet in the switch list
 		// add packet in the host list
-		// int src=ev.getSource();
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), latency, CloudSimTags.Network_Event_send);
 		if (level == NetworkConstants.EDGE_LEVEL) {
 			// packet is to be recieved by host
 			int hostid = dc.VmtoHostlist.get(recvVMid);
 			hspkt.recieverhostid = hostid;
-			List<NetworkPacket> pktlist = packetTohost.get(hostid);
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				packetTohost.put(hostid, pktlist);
-			}
-			pktlist.add(hspkt);
+			addPacket(HOST_PORT, hostid, hspkt);
 			return;
 		}
 		if (level == NetworkConstants.Agg_LEVEL) {
 			// packet is coming from root so need to be sent to edgelevel swich
 			// find the id for edgelevel switch
 			int switchid = dc.VmToSwitchid.get(recvVMid);
-			List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				downlinkswitchpktlist.put(switchid, pktlist);
-			}
-			pktlist.add(hspkt);
+			addPacket(DOWNLINK_PORT, switchid, hspkt);
 			return;
 		}
 
 	}
 
 	protected void processpacket_up(SimEvent ev) {
-		// packet coming from down level router.
-		// has to send up
+		// packets coming from down level router.
+		// have to send up
+		scheduleforward(switching_delay);
+		for (NetworkPacket hspkt : getPackets(ev)) {
+			routepacket_up(hspkt);
+		}
+	}
+
+	/**
+	 * Adds a packet coming from a downlink switch or host to the list of the port it is sent
+	 * through.
+	 * 
+	 * @param hspkt the packet
+	 */
+	protected void routepacket_up(NetworkPacket hspkt) {
 		// check which switch to forward to
 		// add packet in the switch list
-		//
-		// int src=ev.getSource();
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
 		if (level == NetworkConstants.EDGE_LEVEL) {
 			// packet is recieved from host
 			// packet is to be sent to aggregate level or to another host in the
@@ -181,12 +234,7 @@ public class Switch extends SimEntity {
 			hspkt.recieverhostid = hostid;
 			if (hs != null) {
 				// packet to be sent to host connected to the switch
-				List<NetworkPacket> pktlist = packetTohost.get(hostid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					packetTohost.put(hostid, pktlist);
-				}
-				pktlist.add(hspkt);
+				addPacket(HOST_PORT, hostid, hspkt);
 				return;
 
 			}
@@ -194,12 +242,7 @@ public class Switch extends SimEntity {
 			// ASSUMPTION EACH EDGE is Connected to one aggregate level switch
 
 			Switch sw = uplinkswitches.get(0);
-			List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				uplinkswitchpktlist.put(sw.getId(), pktlist);
-			}
-			pktlist.add(hspkt);
+			addPacket(UPLINK_PORT, sw.getId(), hspkt);
 			return;
 		}
 		if (level == NetworkConstants.Agg_LEVEL) {
@@ -207,55 +250,106 @@ public class Switch extends SimEntity {
 			// either root or another edge level swich
 			// find the id for edgelevel switch
 			int switchid = dc.VmToSwitchid.get(recvVMid);
-			boolean flagtoswtich = false;
-			for (Switch sw : downlinkswitches) {
-				if (switchid == sw.getId()) {
-					flagtoswtich = true;
-				}
-			}
-			if (flagtoswtich) {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(switchid, pktlist);
-				}
-				pktlist.add(hspkt);
+			if (getDownlinkRoute(switchid) == switchid) {
+				addPacket(DOWNLINK_PORT, switchid, hspkt);
 			} else// send to up
 			{
 				Switch sw = uplinkswitches.get(0);
-				List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					uplinkswitchpktlist.put(sw.getId(), pktlist);
-				}
-				pktlist.add(hspkt);
+				addPacket(UPLINK_PORT, sw.getId(), hspkt);
 			}
 		}
 		if (level == NetworkConstants.ROOT_LEVEL) {
 			// get id of edge router
 			int edgeswitchid = dc.VmToSwitchid.get(recvVMid);
-			// search which aggregate switch has it
-			int aggSwtichid = -1;
-			;
-			for (Switch sw : downlinkswitches) {
-				for (Switch edge : sw.downlinkswitches) {
-					if (edge.getId() == edgeswitchid) {
-						aggSwtichid = sw.getId();
-						break;
-					}
-				}
-			}
+			// get the aggregate switch which has it
+			int aggSwtichid = getDownlinkRoute(edgeswitchid);
 			if (aggSwtichid < 0) {
 				System.out.println(" No destination for this packet");
 			} else {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(aggSwtichid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(aggSwtichid, pktlist);
+				addPacket(DOWNLINK_PORT, aggSwtichid, hspkt);
+			}
+		}
+	}
+
+	/**
+	 * Adds a packet to the list of a port, to be sent at the next forward.
+	 * 
+	 * @param port the type of the port: {@link #UPLINK_PORT}, {@link #DOWNLINK_PORT} or
+	 *            {@link #HOST_PORT}
+	 * @param portid the id of the switch or host of the port
+	 * @param hspkt the packet
+	 */
+	protected void addPacket(int port, int portid, NetworkPacket hspkt) {
+		Map<Integer, List<NetworkPacket>> pktlists = getPacketLists(port);
+		List<NetworkPacket> pktlist = pktlists.get(portid);
+		if (pktlist == null) {
+			pktlist = new ArrayList<NetworkPacket>();
+			pktlists.put(portid, pktlist);
+		}
+		if (packetbatching && pktlist.isEmpty()) {
+			pendingports.add((long) port << 32 | portid);
+		}
+		pktlist.add(hspkt);
+	}
+
+	/**
+	 * Gets the lists of packets of the ports of a type.
+	 * 
+	 * @param port the type of the ports
+	 * @return the lists of packets, by switch or host id
+	 */
+	private Map<Integer, List<NetworkPacket>> getPacketLists(int port) {
+		switch (port) {
+			case UPLINK_PORT:
+				return uplinkswitchpktlist;
+			case DOWNLINK_PORT:
+				return downlinkswitchpktlist;
+			default:
+				return packetTohost;
+		}
+	}
+
+	/**
+	 * Gets the downlink switch through which a switch below this one is reached: the switch itself
+	 * if it is a downlink switch, or the downlink switch it is a downlink switch of. The downlink
+	 * switches are indexed the first time, once the network is built.
+	 * 
+	 * @param switchid the id of the switch below
+	 * @return the id of the downlink switch, or -1 if the switch is not below this one
+	 */
+	protected int getDownlinkRoute(int switchid) {
+		if (downlinkroutes == null) {
+			downlinkroutes = new HashMap<Integer, Integer>();
+			if (downlinkswitches != null) {
+				for (Switch sw : downlinkswitches) {
+					if (sw.downlinkswitches != null) {
+						for (Switch edge : sw.downlinkswitches) {
+							downlinkroutes.put(edge.getId(), sw.getId());
+						}
+					}
+				}
+				for (Switch sw : downlinkswitches) {
+					downlinkroutes.put(sw.getId(), sw.getId());
 				}
-				pktlist.add(hspkt);
 			}
 		}
+		Integer route = downlinkroutes.get(switchid);
+		return route == null ? -1 : route;
+	}
+
+	/**
+	 * Gets the packets of an event, which carries a packet or, when the packets are batched, a
+	 * list of packets.
+	 * 
+	 * @param ev the event
+	 * @return the packets
+	 */
+	@SuppressWarnings("unchecked")
+	protected static List<NetworkPacket> getPackets(SimEvent ev) {
+		if (ev.getData() instanceof List) {
+			return (List<NetworkPacket>) ev.getData();
+		}
+		return Collections.singletonList((NetworkPacket) ev.getData());
 	}
 
 	private void registerHost(SimEvent ev) {
@@ -336,18 +430,78 @@ public class Switch extends SimEntity {
 
 	}
 
+	/**
+	 * Sends the packets of the ports to which packets were added since the last forward, the
+	 * packets of each port at once, in one event. A port sends its packets one after the other,
+	 * at its full bandwidth, after the packets it is still sending: the packets are received once
+	 * all of them are sent, as the packets sharing the bandwidth of a port otherwise are.
+	 */
+	protected void processpacketbatches() {
+		forwardscheduled = false;
+		double now = CloudSim.clock();
+		for (Long key : pendingports) {
+			int port = (int) (key >>> 32);
+			int portid = (int) key.longValue();
+			List<NetworkPacket> hspktlist = getPacketLists(port).get(portid);
+			if (hspktlist.isEmpty()) {
+				continue;
+			}
+
+			// the serialization delays of the packets, in the units of the packets sent one by one
+			double bandwidth = port == UPLINK_PORT ? uplinkbandwidth : downlinkbandwidth;
+			double delay = 0;
+			for (NetworkPacket hspkt : hspktlist) {
+				delay += port == HOST_PORT ? hspkt.pkt.data / bandwidth
+						: 1000 * hspkt.pkt.data / bandwidth;
+			}
+			Double busytime = portbusytimes.get(key);
+			double finishtime = (busytime == null ? now : Math.max(now, busytime)) + delay;
+			portbusytimes.put(key, finishtime);
+
+			List<NetworkPacket> batch = new ArrayList<NetworkPacket>(hspktlist);
+			hspktlist.clear();
+			if (port == HOST_PORT) {
+				send(getId(), finishtime - now, CloudSimTags.Network_Event_Host, batch);
+			} else if (port == UPLINK_PORT) {
+				send(portid, finishtime - now, CloudSimTags.Network_Event_UP, batch);
+			} else {
+				send(portid, finishtime - now, CloudSimTags.Network_Event_DOWN, batch);
+			}
+		}
+		pendingports.clear();
+	}
+
+	/**
+	 * Checks if the packets queued on a port are batched.
+	 * 
+	 * @return true, if the packets are batched
+	 */
+	public boolean isPacketBatching() {
+		return packetbatching;
+	}
+
+	/**
+	 * Sets whether the packets queued on a port are batched. If they are, each port is a FIFO
+	 * queue: the packets added to it until the next forward are sent one after the other at the
+	 * bandwidth of the port, once the packets it is still sending are, and received together by
+	 * the next switch or host in a single event. Otherwise, each packet is sent in its own event,
+	 * sharing the bandwidth of the port with the packets forwarded with it. It must be set before
+	 * the simulation starts.
+	 * 
+	 * @param packetbatching true to batch the packets
+	 */
+	public void setPacketBatching(boolean packetbatching) {
+		this.packetbatching = packetbatching;
+	}
+
 	//
 	// R: We changed visibility of the below methods from private to protected.
 	//
 
 	protected NetworkHost getHostwithVM(int vmid) {
-		for (Entry<Integer, NetworkHost> es : hostlist.entrySet()) {
-			Vm vm = VmList.getById(es.getValue().getVmList(), vmid);
-			if (vm != null) {
-				return es.getValue();
-			}
-		}
-		return null;
+		// the VM-to-host table of the datacenter, instead of the VMs of each host
+		Integer hostid = dc.VmtoHostlist.get(vmid);
+		return hostid == null ? null : hostlist.get(hostid);
 	}
 
 	protected List<NetworkVm> getfreeVmlist(int numVMReq) {
@@ -0,0 +1,394 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmScheduler;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.provisioners.BwProvisioner;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * A snapshot of the allocation of the VMs to the hosts, with a model of their capacity, for the
+ * VM allocation policies that plan migrations. Planning tries a VM on many hosts and moves some
+ * VMs before the plan is undone.
+ * <p>
+ * The snapshot answers whether a VM could be created on a host, and what the requested MIPS,
+ * utilization and power of the host would be with the VM, without changing the host. For the
+ * provisioners and VM schedulers of the toolkit (RamProvisionerSimple, BwProvisionerSimple,
+ * VmSchedulerTimeShared and VmSchedulerTimeSharedOverSubscription) it reads their free capacity
+ * and reproduces their checks; for other classes it creates the VM on the host and destroys it.
+ * <p>
+ * While the snapshot is open, the moves of the plan go through {@link #vmCreate(Host, Vm)} and
+ * {@link #vmDestroy(Host, Vm)}, which save the VMs of a host before its first change, and
+ * {@link #restore()} recreates the VMs of the changed hosts only. The hosts are still changed by
+ * the moves, because the MIPS shared by the VMs of a host are decided by its VM scheduler. The
+ * other hosts only get the RAM and bandwidth of their VMs allocated again for the current
+ * requests, and their VMs set back to them, as recreating the VMs would. The requested and
+ * allocated MIPS of the hosts are cached until they change through the snapshot.
+ * <p>
+ * The questions about different modeled hosts may be asked from different threads, while the
+ * snapshot is not changed.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerAllocationSnapshot {
+
+	/** The hosts. */
+	private final List<? extends Host> hostList;
+
+	/** The vm table of the policy, updated by the restore. */
+	private final Map<String, Host> vmTable;
+
+	/** The VMs of each changed host before its first change, in the order of the changes. */
+	private final Map<Host, List<Vm>> savedVms = new LinkedHashMap<Host, List<Vm>>();
+
+	/** The requested MIPS of the hosts, cached while the snapshot is open. */
+	private final Map<Host, Double> requestedMips = new ConcurrentHashMap<Host, Double>();
+
+	/** The utilization of the CPU in MIPS of the hosts, cached while the snapshot is open. */
+	private final Map<Host, Double> utilizationMips = new ConcurrentHashMap<Host, Double>();
+
+	/** The open flag. */
+	private boolean open;
+
+	/**
+	 * Instantiates a new closed snapshot.
+	 *
+	 * @param hostList the hosts
+	 * @param vmTable the vm table of the policy, mapping the uid of each VM to its host
+	 */
+	public PowerAllocationSnapshot(List<? extends Host> hostList, Map<String, Host> vmTable) {
+		this.hostList = hostList;
+		this.vmTable = vmTable;
+	}
+
+	/**
+	 * Opens the snapshot before planning. The hosts with VMs migrating in are saved at once, as
+	 * the restore puts these VMs first.
+	 */
+	public void open() {
+		if (open) {
+			throw new IllegalStateException("The snapshot is already open");
+		}
+		open = true;
+		for (Host host : hostList) {
+			if (!host.getVmsMigratingIn().isEmpty()) {
+				save(host);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the snapshot is open.
+	 *
+	 * @return true, if it is open
+	 */
+	public boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * Saves the VMs of a host before it is changed, unless they were already saved. The VMs
+	 * migrating in are not saved, as the host keeps them aside.
+	 *
+	 * @param host the host
+	 */
+	public void save(Host host) {
+		if (!open) {
+			return;
+		}
+		requestedMips.remove(host);
+		utilizationMips.remove(host);
+		if (savedVms.containsKey(host)) {
+			return;
+		}
+		List<Vm> vms = new ArrayList<Vm>(host.getVmList().size());
+		for (Vm vm : host.getVmList()) {
+			if (!host.getVmsMigratingIn().contains(vm)) {
+				vms.add(vm);
+			}
+		}
+		savedVms.put(host, vms);
+	}
+
+	/**
+	 * Creates a VM on a host as a move of the plan.
+	 *
+	 * @param host the host
+	 * @param vm the VM
+	 * @return true, if the VM was created
+	 */
+	public boolean vmCreate(Host host, Vm vm) {
+		save(host);
+		return host.vmCreate(vm);
+	}
+
+	/**
+	 * Destroys a VM on a host as a move of the plan.
+	 *
+	 * @param host the host
+	 * @param vm the VM
+	 */
+	public void vmDestroy(Host host, Vm vm) {
+		save(host);
+		host.vmDestroy(vm);
+	}
+
+	/**
+	 * Restores the VMs of the changed hosts and closes the snapshot. A changed host gets its VMs
+	 * migrating in first, then its saved VMs. The other hosts get the RAM and bandwidth of their
+	 * VMs allocated again, and their VMs, which may have been moved to another host in the plan,
+	 * set back to them.
+	 */
+	public void restore() {
+		if (!open) {
+			throw new IllegalStateException("The snapshot is not open");
+		}
+		for (Host host : savedVms.keySet()) {
+			host.vmDestroyAll();
+			host.reallocateMigratingInVms();
+		}
+		for (Map.Entry<Host, List<Vm>> entry : savedVms.entrySet()) {
+			Host host = entry.getKey();
+			for (Vm vm : entry.getValue()) {
+				if (!host.vmCreate(vm)) {
+					exitOnRestoreFailure(host, vm);
+				}
+				vmTable.put(vm.getUid(), host);
+			}
+		}
+		for (Host host : hostList) {
+			if (!savedVms.containsKey(host)) {
+				restoreUnchangedHost(host);
+			}
+		}
+		savedVms.clear();
+		requestedMips.clear();
+		utilizationMips.clear();
+		open = false;
+	}
+
+	/**
+	 * Checks if a host is suitable for a VM, as {@link Host#isSuitableForVm(Vm)} does.
+	 *
+	 * @param host the host
+	 * @param vm the VM
+	 * @return true, if the host is suitable
+	 */
+	public boolean isSuitableForVm(Host host, Vm vm) {
+		VmScheduler vmScheduler = host.getVmScheduler();
+		return vmScheduler.getPeCapacity() >= vm.getCurrentRequestedMaxMips()
+				&& vmScheduler.getAvailableMips() >= vm.getCurrentRequestedTotalMips()
+				&& isRamSuitable(host.getRamProvisioner(), vm)
+				&& isBwSuitable(host.getBwProvisioner(), vm);
+	}
+
+	/**
+	 * Checks if a VM could be created on a host, as {@link Host#vmCreate(Vm)} would.
+	 *
+	 * @param host the host
+	 * @param vm the VM
+	 * @return true, if the VM could be created
+	 */
+	public boolean isVmCreatable(Host host, Vm vm) {
+		if (!isModeled(host)) {
+			Host vmHost = vm.getHost();
+			boolean result = host.vmCreate(vm);
+			if (result) {
+				host.vmDestroy(vm);
+			}
+			vm.setHost(vmHost);
+			return result;
+		}
+		if (host.getStorage() < vm.getSize() || !isRamSuitable(host.getRamProvisioner(), vm)
+				|| !isBwSuitable(host.getBwProvisioner(), vm)) {
+			return false;
+		}
+		VmScheduler vmScheduler = host.getVmScheduler();
+		if (vmScheduler.getClass() == VmSchedulerTimeSharedOverSubscription.class) {
+			return true;
+		}
+		// the checks of VmSchedulerTimeShared#allocatePesForVm(String, List)
+		double totalRequestedMips = 0;
+		double peMips = vmScheduler.getPeCapacity();
+		for (Double mips : vm.getCurrentRequestedMips()) {
+			if (mips > peMips) {
+				return false;
+			}
+			totalRequestedMips += mips;
+		}
+		return vmScheduler.getAvailableMips() >= totalRequestedMips;
+	}
+
+	/**
+	 * Gets the MIPS requested by the VMs of a host and by an additional VM.
+	 *
+	 * @param host the host
+	 * @param vm the additional VM, or null for none
+	 * @return the requested MIPS
+	 */
+	public double getRequestedTotalMips(Host host, Vm vm) {
+		Double totalRequestedMips = open ? requestedMips.get(host) : null;
+		if (totalRequestedMips == null) {
+			double total = 0;
+			for (Vm hostVm : host.getVmList()) {
+				total += hostVm.getCurrentRequestedTotalMips();
+			}
+			totalRequestedMips = total;
+			if (open) {
+				requestedMips.put(host, totalRequestedMips);
+			}
+		}
+		if (vm != null) {
+			return totalRequestedMips + vm.getCurrentRequestedTotalMips();
+		}
+		return totalRequestedMips;
+	}
+
+	/**
+	 * Gets the utilization of the CPU in MIPS of a host, counting the full MIPS of the VMs
+	 * migrating in, of which the host only allocates 10% during the migration.
+	 *
+	 * @param host the host
+	 * @return the utilization of the CPU in MIPS
+	 */
+	public double getUtilizationOfCpuMips(PowerHost host) {
+		Double hostUtilizationMips = open ? utilizationMips.get(host) : null;
+		if (hostUtilizationMips == null) {
+			double total = 0;
+			for (Vm vm : host.getVmList()) {
+				if (host.getVmsMigratingIn().contains(vm)) {
+					// calculate additional potential CPU usage of a migrating in VM
+					total += host.getTotalAllocatedMipsForVm(vm) * 0.9 / 0.1;
+				}
+				total += host.getTotalAllocatedMipsForVm(vm);
+			}
+			hostUtilizationMips = total;
+			if (open) {
+				utilizationMips.put(host, hostUtilizationMips);
+			}
+		}
+		return hostUtilizationMips;
+	}
+
+	/**
+	 * Gets the utilization of the CPU of a host with an additional VM. The load is assumed to be
+	 * balanced between the PEs.
+	 *
+	 * @param host the host
+	 * @param vm the additional VM
+	 * @return the utilization, from 0 to 1 unless the host would be over-subscribed
+	 */
+	public double getUtilizationAfterAllocation(PowerHost host, Vm vm) {
+		return (getUtilizationOfCpuMips(host) + vm.getCurrentRequestedTotalMips())
+				/ host.getTotalMips();
+	}
+
+	/**
+	 * Gets the power of a host with an additional VM.
+	 *
+	 * @param host the host
+	 * @param vm the additional VM
+	 * @return the power
+	 * @throws IllegalArgumentException if the utilization is out of the range of the power model
+	 */
+	public double getPowerAfterAllocation(PowerHost host, Vm vm) {
+		return host.getPowerModel().getPower(getUtilizationAfterAllocation(host, vm));
+	}
+
+	/**
+	 * Allocates again the RAM and bandwidth of the VMs of an unchanged host for their current
+	 * requests, and sets the host of its VMs.
+	 *
+	 * @param host the host
+	 */
+	private static void restoreUnchangedHost(Host host) {
+		RamProvisioner ramProvisioner = host.getRamProvisioner();
+		BwProvisioner bwProvisioner = host.getBwProvisioner();
+		ramProvisioner.deallocateRamForAllVms();
+		bwProvisioner.deallocateBwForAllVms();
+		for (Vm vm : host.getVmList()) {
+			if (!ramProvisioner.allocateRamForVm(vm, vm.getCurrentRequestedRam())
+					|| !bwProvisioner.allocateBwForVm(vm, vm.getCurrentRequestedBw())) {
+				exitOnRestoreFailure(host, vm);
+			}
+			vm.setHost(host);
+		}
+	}
+
+	/**
+	 * Ends the simulation when a VM cannot be restored on its host.
+	 *
+	 * @param host the host
+	 * @param vm the VM
+	 */
+	private static void exitOnRestoreFailure(Host host, Vm vm) {
+		Log.printLine("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
+		System.exit(0);
+	}
+
+	/**
+	 * Checks if the capacity of a host is modeled, rather than tried.
+	 *
+	 * @param host the host
+	 * @return true, if the provisioners and the VM scheduler of the host are modeled
+	 */
+	public static boolean isModeled(Host host) {
+		Class<?> vmSchedulerClass = host.getVmScheduler().getClass();
+		return host.getRamProvisioner().getClass() == RamProvisionerSimple.class
+				&& host.getBwProvisioner().getClass() == BwProvisionerSimple.class
+				&& (vmSchedulerClass == VmSchedulerTimeShared.class
+				|| vmSchedulerClass == VmSchedulerTimeSharedOverSubscription.class);
+	}
+
+	/**
+	 * Checks if a RAM provisioner could allocate the requested RAM of a VM.
+	 *
+	 * @param ramProvisioner the RAM provisioner
+	 * @param vm the VM
+	 * @return true, if the RAM could be allocated
+	 */
+	private static boolean isRamSuitable(RamProvisioner ramProvisioner, Vm vm) {
+		if (ramProvisioner.getClass() != RamProvisionerSimple.class) {
+			return ramProvisioner.isSuitableForVm(vm, vm.getCurrentRequestedRam());
+		}
+		int ram = Math.min(vm.getCurrentRequestedRam(), vm.getRam());
+		// the RAM already allocated to the VM is released before the allocation
+		return ramProvisioner.getAvailableRam() + ramProvisioner.getAllocatedRamForVm(vm) >= ram;
+	}
+
+	/**
+	 * Checks if a bandwidth provisioner could allocate the requested bandwidth of a VM.
+	 *
+	 * @param bwProvisioner the bandwidth provisioner
+	 * @param vm the VM
+	 * @return true, if the bandwidth could be allocated
+	 */
+	private static boolean isBwSuitable(BwProvisioner bwProvisioner, Vm vm) {
+		if (bwProvisioner.getClass() != BwProvisionerSimple.class) {
+			return bwProvisioner.isSuitableForVm(vm, vm.getCurrentRequestedBw());
+		}
+		// the bandwidth already allocated to the VM is released before the allocation
+		return bwProvisioner.getAvailableBw() + bwProvisioner.getAllocatedBwForVm(vm) >= vm
+				.getCurrentRequestedBw();
+	}
+
+}
@@ -8,12 +8,15 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Log.Level;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
@@ -21,6 +24,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.cloudbus.cloudsim.network.FlowNetwork;
 
 /**
  * PowerDatacenter is a class that enables simulation of power-aware data centers.
@@ -50,6 +54,15 @@ public class PowerDatacenter extends Datacenter {
 	/** The migration count. */
 	private int migrationCount;
 
+	/** The migrations sharing the bandwidth of the hosts, or null if they do not share it. */
+	private FlowNetwork migrationNetwork;
+
+	/** The outgoing link of each host, by host id, its incoming link being the next one. */
+	private Map<Integer, Integer> migrationLinks;
+
+	/** The version of the scheduled migration update, the older updates being ignored. */
+	private int migrationUpdateVersion;
+
 	/**
 	 * Instantiates a new datacenter.
 	 * 
@@ -94,7 +107,9 @@ public class PowerDatacenter extends Datacenter {
 
 		// if some time passed since last processing
 		if (currentTime > getLastProcessTime()) {
-			System.out.print(currentTime + " ");
+			if (Log.isLoggable(Log.POWER, Level.INFO)) {
+				Log.print(currentTime + " ");
+			}
 
 			double minTime = updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 
@@ -108,24 +123,31 @@ public class PowerDatacenter extends Datacenter {
 						PowerHost targetHost = (PowerHost) migrate.get("host");
 						PowerHost oldHost = (PowerHost) vm.getHost();
 
-						if (oldHost == null) {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d to Host #%d is started",
-									currentTime,
-									vm.getId(),
-									targetHost.getId());
-						} else {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
-									currentTime,
-									vm.getId(),
-									oldHost.getId(),
-									targetHost.getId());
+						if (Log.isLoggable(Log.POWER, Level.INFO)) {
+							if (oldHost == null) {
+								Log.formatLine(
+										"%.2f: Migration of VM #%d to Host #%d is started",
+										currentTime,
+										vm.getId(),
+										targetHost.getId());
+							} else {
+								Log.formatLine(
+										"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
+										currentTime,
+										vm.getId(),
+										oldHost.getId(),
+										targetHost.getId());
+							}
 						}
 
 						targetHost.addMigratingInVm(vm);
 						incrementMigrationCount();
 
+						if (isMigrationBandwidthShared()) {
+							startMigrationFlow(vm, oldHost, targetHost, migrate);
+							continue;
+						}
+
 						/** VM migration delay = RAM / bandwidth **/
 						// we use BW / 2 to model BW available for migration purposes, the other
 						// half of BW is for VM communication
@@ -136,6 +158,9 @@ public class PowerDatacenter extends Datacenter {
 								CloudSimTags.VM_MIGRATE,
 								migrate);
 					}
+					if (isMigrationBandwidthShared()) {
+						scheduleMigrationUpdate();
+					}
 				}
 			}
 
@@ -171,30 +196,39 @@ public class PowerDatacenter extends Datacenter {
 		double minTime = Double.MAX_VALUE;
 		double timeDiff = currentTime - getLastProcessTime();
 		double timeFrameDatacenterEnergy = 0.0;
+		boolean log = Log.isLoggable(Log.POWER, Level.INFO);
 
-		Log.printLine("\n\n--------------------------------------------------------------\n\n");
-		Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		if (log) {
+			Log.printLine("\n\n--------------------------------------------------------------\n\n");
+			Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		}
 
 		for (PowerHost host : this.<PowerHost> getHostList()) {
-			Log.printLine();
+			if (log) {
+				Log.printLine();
+			}
 
 			double time = host.updateVmsProcessing(currentTime); // inform VMs to update processing
 			if (time < minTime) {
 				minTime = time;
 			}
 
-			Log.formatLine(
-					"%.2f: [Host #%d] utilization is %.2f%%",
-					currentTime,
-					host.getId(),
-					host.getUtilizationOfCpu() * 100);
+			if (log) {
+				Log.formatLine(
+						"%.2f: [Host #%d] utilization is %.2f%%",
+						currentTime,
+						host.getId(),
+						host.getUtilizationOfCpu() * 100);
+			}
 		}
 
 		if (timeDiff > 0) {
-			Log.formatLine(
-					"\nEnergy consumption for the last time frame from %.2f to %.2f:",
-					getLastProcessTime(),
-					currentTime);
+			if (log) {
+				Log.formatLine(
+						"\nEnergy consumption for the last time frame from %.2f to %.2f:",
+						getLastProcessTime(),
+						currentTime);
+			}
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
 				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
@@ -205,25 +239,29 @@ public class PowerDatacenter extends Datacenter {
 						timeDiff);
 				timeFrameDatacenterEnergy += timeFrameHostEnergy;
 
-				Log.printLine();
-				Log.formatLine(
-						"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
-						currentTime,
-						host.getId(),
-						getLastProcessTime(),
-						previousUtilizationOfCpu * 100,
-						utilizationOfCpu * 100);
+				if (log) {
+					Log.printLine();
+					Log.formatLine(
+							"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
+							currentTime,
+							host.getId(),
+							getLastProcessTime(),
+							previousUtilizationOfCpu * 100,
+							utilizationOfCpu * 100);
+					Log.formatLine(
+							"%.2f: [Host #%d] energy is %.2f W*sec",
+							currentTime,
+							host.getId(),
+							timeFrameHostEnergy);
+				}
+			}
+
+			if (log) {
 				Log.formatLine(
-						"%.2f: [Host #%d] energy is %.2f W*sec",
+						"\n%.2f: Data center's energy is %.2f W*sec\n",
 						currentTime,
-						host.getId(),
-						timeFrameHostEnergy);
+						timeFrameDatacenterEnergy);
 			}
-
-			Log.formatLine(
-					"\n%.2f: Data center's energy is %.2f W*sec\n",
-					currentTime,
-					timeFrameDatacenterEnergy);
 		}
 
 		setPower(getPower() + timeFrameDatacenterEnergy);
@@ -235,11 +273,15 @@ public class PowerDatacenter extends Datacenter {
 			for (Vm vm : host.getCompletedVms()) {
 				getVmAllocationPolicy().deallocateHostForVm(vm);
 				getVmList().remove(vm);
-				Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				if (log) {
+					Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				}
 			}
 		}
 
-		Log.printLine();
+		if (log) {
+			Log.printLine();
+		}
 
 		setLastProcessTime(currentTime);
 		return minTime;
@@ -260,6 +302,88 @@ public class PowerDatacenter extends Datacenter {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processOtherEvent(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == CloudSimTags.VM_MIGRATE_FLOW_UPDATE) {
+			if (((Integer) ev.getData()).intValue() == migrationUpdateVersion) {
+				processMigrationFlowsEnd();
+			}
+			return;
+		}
+		super.processOtherEvent(ev);
+	}
+
+	/**
+	 * Starts the transfer of the memory of a migrating VM, from the outgoing bandwidth of its host
+	 * to the incoming bandwidth of the target host.
+	 * 
+	 * @param vm the vm
+	 * @param oldHost the host of the vm, or null if it has none
+	 * @param targetHost the target host
+	 * @param migrate the migration, sent with {@link CloudSimTags#VM_MIGRATE} once the memory is
+	 *            transferred
+	 */
+	protected void startMigrationFlow(
+			Vm vm,
+			Host oldHost,
+			Host targetHost,
+			Map<String, Object> migrate) {
+		int[] links;
+		if (oldHost == null) {
+			links = new int[] { getMigrationLink(targetHost) + 1 };
+		} else {
+			links = new int[] { getMigrationLink(oldHost), getMigrationLink(targetHost) + 1 };
+		}
+		migrationNetwork.startFlow(CloudSim.clock(), links, vm.getRam(), migrate);
+	}
+
+	/**
+	 * Gets the outgoing link of a host in the migration network, followed by its incoming link,
+	 * adding them the first time. Like the migration delay otherwise, half of the bandwidth of the
+	 * host is used for the migrations.
+	 * 
+	 * @param host the host
+	 * @return the outgoing link of the host
+	 */
+	private int getMigrationLink(Host host) {
+		Integer link = migrationLinks.get(host.getId());
+		if (link == null) {
+			double capacity = (double) host.getBw() / (2 * 8000);
+			link = migrationNetwork.addLink(capacity);
+			migrationNetwork.addLink(capacity);
+			migrationLinks.put(host.getId(), link);
+		}
+		return link;
+	}
+
+	/**
+	 * Sends the finished migrations, with {@link CloudSimTags#VM_MIGRATE} events at the current
+	 * time, and schedules the next update.
+	 */
+	private void processMigrationFlowsEnd() {
+		for (FlowNetwork.Flow flow : migrationNetwork.finishFlows(CloudSim.clock())) {
+			send(getId(), 0, CloudSimTags.VM_MIGRATE, flow.getData());
+		}
+		scheduleMigrationUpdate();
+	}
+
+	/**
+	 * Schedules an update at the time the next migration finishes, which makes the updates already
+	 * scheduled out of date.
+	 */
+	private void scheduleMigrationUpdate() {
+		migrationUpdateVersion++;
+		double nextTime = migrationNetwork.getNextFinishTime();
+		if (nextTime != Double.MAX_VALUE) {
+			send(getId(), Math.max(0, nextTime - CloudSim.clock()), CloudSimTags.VM_MIGRATE_FLOW_UPDATE,
+					Integer.valueOf(migrationUpdateVersion));
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see cloudsim.Datacenter#processCloudletSubmit(cloudsim.core.SimEvent, boolean)
@@ -270,6 +394,16 @@ public class PowerDatacenter extends Datacenter {
 		setCloudletSubmitted(CloudSim.clock());
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processCloudletSubmitBatch(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processCloudletSubmitBatch(SimEvent ev) {
+		super.processCloudletSubmitBatch(ev);
+		setCloudletSubmitted(CloudSim.clock());
+	}
+
 	/**
 	 * Gets the power.
 	 * 
@@ -322,6 +456,49 @@ public class PowerDatacenter extends Datacenter {
 		this.disableMigrations = disableMigrations;
 	}
 
+	/**
+	 * Checks if the migrations share the bandwidth of the hosts.
+	 * 
+	 * @return true, if the migrations share the bandwidth of the hosts
+	 */
+	public boolean isMigrationBandwidthShared() {
+		return migrationNetwork != null;
+	}
+
+	/**
+	 * Sets whether the migrations share the bandwidth of the hosts. If they do, the memory of a
+	 * migrating VM is transferred from the outgoing bandwidth of its host to the incoming bandwidth
+	 * of the target host, shared with max-min fairness with the other migrations from and to these
+	 * hosts, so that concurrent migrations take longer. A single migration takes as long either
+	 * way, between hosts of the same bandwidth. It must be set before the simulation starts.
+	 * 
+	 * @param migrationBandwidthShared true if the migrations share the bandwidth of the hosts
+	 */
+	public void setMigrationBandwidthShared(boolean migrationBandwidthShared) {
+		if (migrationBandwidthShared && migrationNetwork == null) {
+			migrationNetwork = new FlowNetwork();
+			migrationLinks = new HashMap<Integer, Integer>();
+		} else if (!migrationBandwidthShared) {
+			migrationNetwork = null;
+			migrationLinks = null;
+		}
+	}
+
+	/**
+	 * The incremental update is not supported, as this datacenter updates all the hosts to
+	 * account for their power consumption.
+	 * 
+	 * @param incrementalUpdate must be false
+	 */
+	@Override
+	public void setIncrementalUpdate(boolean incrementalUpdate) {
+		if (incrementalUpdate) {
+			throw new UnsupportedOperationException(getName()
+					+ ": the incremental update is not supported by power datacenters");
+		}
+		super.setIncrementalUpdate(incrementalUpdate);
+	}
+
 	/**
 	 * Checks if is cloudlet submited.
 	 * 
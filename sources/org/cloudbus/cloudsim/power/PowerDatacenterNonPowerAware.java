@@ -13,6 +13,7 @@ import java.util.Map;
 
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Log.Level;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
@@ -79,11 +80,16 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 		if (currentTime > getLastProcessTime()) {
 			double timeDiff = currentTime - getLastProcessTime();
 			double minTime = Double.MAX_VALUE;
+			boolean log = Log.isLoggable(Log.POWER, Level.INFO);
 
-			Log.printLine("\n");
+			if (log) {
+				Log.printLine("\n");
+			}
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
-				Log.formatLine("%.2f: Host #%d", CloudSim.clock(), host.getId());
+				if (log) {
+					Log.formatLine("%.2f: Host #%d", CloudSim.clock(), host.getId());
+				}
 
 				double hostPower = 0.0;
 
@@ -94,24 +100,30 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 					e.printStackTrace();
 				}
 
-				Log.formatLine(
-						"%.2f: Host #%d utilization is %.2f%%",
-						CloudSim.clock(),
-						host.getId(),
-						host.getUtilizationOfCpu() * 100);
-				Log.formatLine(
-						"%.2f: Host #%d energy is %.2f W*sec",
-						CloudSim.clock(),
-						host.getId(),
-						hostPower);
+				if (log) {
+					Log.formatLine(
+							"%.2f: Host #%d utilization is %.2f%%",
+							CloudSim.clock(),
+							host.getId(),
+							host.getUtilizationOfCpu() * 100);
+					Log.formatLine(
+							"%.2f: Host #%d energy is %.2f W*sec",
+							CloudSim.clock(),
+							host.getId(),
+							hostPower);
+				}
 			}
 
-			Log.formatLine("\n%.2f: Consumed energy is %.2f W*sec\n", CloudSim.clock(), timeframePower);
+			if (log) {
+				Log.formatLine("\n%.2f: Consumed energy is %.2f W*sec\n", CloudSim.clock(), timeframePower);
 
-			Log.printLine("\n\n--------------------------------------------------------------\n\n");
+				Log.printLine("\n\n--------------------------------------------------------------\n\n");
+			}
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
-				Log.formatLine("\n%.2f: Host #%d", CloudSim.clock(), host.getId());
+				if (log) {
+					Log.formatLine("\n%.2f: Host #%d", CloudSim.clock(), host.getId());
+				}
 
 				double time = host.updateVmsProcessing(currentTime); // inform VMs to update
 																		// processing
@@ -129,11 +141,15 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 				for (Vm vm : host.getCompletedVms()) {
 					getVmAllocationPolicy().deallocateHostForVm(vm);
 					getVmList().remove(vm);
-					Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+					if (log) {
+						Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+					}
 				}
 			}
 
-			Log.printLine();
+			if (log) {
+				Log.printLine();
+			}
 
 			if (!isDisableMigrations()) {
 				List<Map<String, Object>> migrationMap = getVmAllocationPolicy().optimizeAllocation(
@@ -145,19 +161,21 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 						PowerHost targetHost = (PowerHost) migrate.get("host");
 						PowerHost oldHost = (PowerHost) vm.getHost();
 
-						if (oldHost == null) {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d to Host #%d is started",
-									CloudSim.clock(),
-									vm.getId(),
-									targetHost.getId());
-						} else {
-							Log.formatLine(
-									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
-									CloudSim.clock(),
-									vm.getId(),
-									oldHost.getId(),
-									targetHost.getId());
+						if (log) {
+							if (oldHost == null) {
+								Log.formatLine(
+										"%.2f: Migration of VM #%d to Host #%d is started",
+										CloudSim.clock(),
+										vm.getId(),
+										targetHost.getId());
+							} else {
+								Log.formatLine(
+										"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
+										CloudSim.clock(),
+										vm.getId(),
+										oldHost.getId(),
+										targetHost.getId());
+							}
 						}
 
 						targetHost.addMigratingInVm(vm);
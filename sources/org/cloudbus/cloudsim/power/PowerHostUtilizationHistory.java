@@ -8,18 +8,25 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.util.DoubleRingBuffer;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.SlidingWindowStatistics;
 
 /**
  * The class of a host that stores its CPU utilization history. The history is used by VM allocation
- * and selection policies.
+ * and selection policies. It is the sum of the histories of the VMs, relative to the MIPS of the
+ * host, and is kept until the VMs of the host or their history change. When the VMs have only
+ * added a value each to their history, the kept history is shifted by one value instead of being
+ * summed again, and so are its order statistics.
  * 
  * If you are using any algorithms, policies or workload included in the power package please cite
  * the following paper:
@@ -34,6 +41,34 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerHostUtilizationHistory extends PowerHost {
 
+	/** The cached host utilization history, or null. */
+	private double[] utilizationHistory;
+
+	/** The VMs summed in the cached history. */
+	private PowerVm[] summedVms;
+
+	/** The modification counts of the histories of the summed VMs. */
+	private int[] summedModificationCounts;
+
+	/** The addition counts of the histories of the summed VMs. */
+	private int[] summedAdditionCounts;
+
+	/** The MIPS of the summed VMs. */
+	private double[] summedVmMips;
+
+	/** The total MIPS of the host for the cached history. */
+	private double summedHostMips;
+
+	/** The cached history the current one was shifted from, or null if it was summed again. */
+	private double[] shiftedUtilizationHistory;
+
+	/** The order statistics of the non-zero beginning of a cached history. */
+	private final SlidingWindowStatistics utilizationStatistics = new SlidingWindowStatistics(
+			PowerVm.HISTORY_LENGTH);
+
+	/** The cached history the order statistics are of, or null. */
+	private double[] utilizationStatisticsHistory;
+
 	/**
 	 * Instantiates a new power host utilization history.
 	 * 
@@ -62,14 +97,189 @@ public class PowerHostUtilizationHistory extends PowerHost {
 	 * @return the host utilization history
 	 */
 	protected double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+		return getUtilizationHistory(null);
+	}
+
+	/**
+	 * Gets the host utilization history with an additional VM, as if the VM were created on the
+	 * host.
+	 * 
+	 * @param vm the additional VM, or null for none
+	 * @return the host utilization history
+	 */
+	protected double[] getUtilizationHistory(Vm vm) {
+		return MathUtil.trimZeroTail(getUtilizationHistoryView(vm));
+	}
+
+	/**
+	 * Gets the host utilization history with an additional VM, padded with zeros. The values after
+	 * the {@link MathUtil#countNonZeroBeginning(double[]) non-zero beginning} are zero. Without an
+	 * additional VM, the array is not copied: it is shared and must not be changed, and it is
+	 * replaced when the VMs of the host or their history change.
+	 * 
+	 * @param vm the additional VM, or null for none
+	 * @return the host utilization history, padded with zeros
+	 */
+	protected double[] getUtilizationHistoryView(Vm vm) {
+		double[] utilizationHistory = getUtilizationHistoryView();
+		if (vm != null) {
+			PowerVm powerVm = (PowerVm) vm;
+			utilizationHistory = Arrays.copyOf(utilizationHistory,
+					Math.max(utilizationHistory.length, powerVm.getHistoryLength()));
+			addUtilizationHistory(utilizationHistory, powerVm, getTotalMips());
+		}
+		return utilizationHistory;
+	}
+
+	/**
+	 * Gets the order statistics of the {@link MathUtil#countNonZeroBeginning(double[]) non-zero
+	 * beginning} of the host utilization history. When the history was only shifted since the last
+	 * call, the value that entered the window is inserted and the values that left it are removed,
+	 * instead of sorting the window again. The statistics are shared and must not be changed.
+	 * 
+	 * @return the order statistics of the host utilization history
+	 */
+	protected SlidingWindowStatistics getUtilizationHistoryStatistics() {
+		double[] utilizationHistory = getUtilizationHistoryView();
+		if (utilizationStatisticsHistory != utilizationHistory) {
+			int length = MathUtil.countNonZeroBeginning(utilizationHistory);
+			if (utilizationStatisticsHistory != null
+					&& utilizationStatisticsHistory == shiftedUtilizationHistory) {
+				// the new window is the newest value and the beginning of the previous one
+				for (int i = utilizationStatistics.size() - 1; i >= Math.max(length - 1, 0); i--) {
+					utilizationStatistics.remove(utilizationStatisticsHistory[i]);
+				}
+				if (length > 0) {
+					utilizationStatistics.add(utilizationHistory[0]);
+				}
+			} else {
+				utilizationStatistics.set(utilizationHistory, length);
+			}
+			utilizationStatisticsHistory = utilizationHistory;
+		}
+		return utilizationStatistics;
+	}
+
+	/**
+	 * Gets the host utilization history, padded with zeros, without copying it.
+	 * 
+	 * @return the shared host utilization history
+	 * @see #getUtilizationHistoryView(Vm)
+	 */
+	private double[] getUtilizationHistoryView() {
+		List<PowerVm> vmList = this.<PowerVm> getVmList();
 		double hostMips = getTotalMips();
-		for (PowerVm vm : this.<PowerVm> getVmList()) {
-			for (int i = 0; i < vm.getUtilizationHistory().size(); i++) {
-				utilizationHistory[i] += vm.getUtilizationHistory().get(i) * vm.getMips() / hostMips;
+		if (utilizationHistory != null && isUtilizationHistoryShiftOf(vmList, hostMips)) {
+			shiftUtilizationHistory(hostMips);
+		} else if (utilizationHistory == null || !isUtilizationHistoryOf(vmList, hostMips)) {
+			int length = PowerVm.HISTORY_LENGTH;
+			int n = vmList.size();
+			summedVms = new PowerVm[n];
+			summedModificationCounts = new int[n];
+			summedAdditionCounts = new int[n];
+			summedVmMips = new double[n];
+			for (int i = 0; i < n; i++) {
+				PowerVm vm = vmList.get(i);
+				summedVms[i] = vm;
+				summedModificationCounts[i] = vm.getUtilizationHistoryBuffer().getModificationCount();
+				summedAdditionCounts[i] = vm.getUtilizationHistoryBuffer().getAdditionCount();
+				summedVmMips[i] = vm.getMips();
+				length = Math.max(length, vm.getHistoryLength());
+			}
+			summedHostMips = hostMips;
+
+			utilizationHistory = new double[length];
+			for (PowerVm vm : summedVms) {
+				addUtilizationHistory(utilizationHistory, vm, hostMips);
+			}
+			shiftedUtilizationHistory = null;
+		}
+		return utilizationHistory;
+	}
+
+	/**
+	 * Checks if the given VMs are those of the cached host utilization history, in the same order
+	 * and with the same MIPS, and if each of them has only added one value to its history since,
+	 * which shifts the history by one value.
+	 * 
+	 * @param vmList the VMs of the host
+	 * @param hostMips the total MIPS of the host
+	 * @return true, if the cached history can be shifted
+	 */
+	private boolean isUtilizationHistoryShiftOf(List<PowerVm> vmList, double hostMips) {
+		if (summedHostMips != hostMips || summedVms.length != vmList.size() || summedVms.length == 0) {
+			return false;
+		}
+		for (int i = 0; i < summedVms.length; i++) {
+			PowerVm vm = vmList.get(i);
+			DoubleRingBuffer vmUtilizationHistory = vm.getUtilizationHistoryBuffer();
+			if (vm != summedVms[i]
+					|| vmUtilizationHistory.getModificationCount() != summedModificationCounts[i] + 1
+					|| vmUtilizationHistory.getAdditionCount() != summedAdditionCounts[i] + 1
+					|| vmUtilizationHistory.getCapacity() != utilizationHistory.length
+					|| vm.getMips() != summedVmMips[i]) {
+				return false;
 			}
 		}
-		return MathUtil.trimZeroTail(utilizationHistory);
+		return true;
+	}
+
+	/**
+	 * Shifts the cached host utilization history by one value, and sums the newest values of the
+	 * VMs. The other values are those the VMs had at the previous index, so they are not summed
+	 * again.
+	 * 
+	 * @param hostMips the total MIPS of the host
+	 */
+	private void shiftUtilizationHistory(double hostMips) {
+		double[] shifted = new double[utilizationHistory.length];
+		System.arraycopy(utilizationHistory, 0, shifted, 1, shifted.length - 1);
+		for (int i = 0; i < summedVms.length; i++) {
+			DoubleRingBuffer vmUtilizationHistory = summedVms[i].getUtilizationHistoryBuffer();
+			shifted[0] += vmUtilizationHistory.get(0) * summedVms[i].getMips() / hostMips;
+			summedModificationCounts[i] = vmUtilizationHistory.getModificationCount();
+			summedAdditionCounts[i] = vmUtilizationHistory.getAdditionCount();
+		}
+		shiftedUtilizationHistory = utilizationHistory;
+		utilizationHistory = shifted;
+	}
+
+	/**
+	 * Checks if the cached host utilization history was computed from the given VMs, in the same
+	 * order and with the same history and MIPS.
+	 * 
+	 * @param vmList the VMs of the host
+	 * @param hostMips the total MIPS of the host
+	 * @return true, if the cached history is up to date
+	 */
+	private boolean isUtilizationHistoryOf(List<PowerVm> vmList, double hostMips) {
+		if (summedHostMips != hostMips || summedVms.length != vmList.size()) {
+			return false;
+		}
+		for (int i = 0; i < summedVms.length; i++) {
+			PowerVm vm = vmList.get(i);
+			if (vm != summedVms[i]
+					|| vm.getUtilizationHistoryBuffer().getModificationCount() != summedModificationCounts[i]
+					|| vm.getMips() != summedVmMips[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the utilization history of a VM to the host utilization history.
+	 * 
+	 * @param utilizationHistory the host utilization history
+	 * @param vm the VM
+	 * @param hostMips the total MIPS of the host
+	 */
+	private static void addUtilizationHistory(double[] utilizationHistory, PowerVm vm, double hostMips) {
+		DoubleRingBuffer vmUtilizationHistory = vm.getUtilizationHistoryBuffer();
+		double vmMips = vm.getMips();
+		for (int i = 0; i < vmUtilizationHistory.size(); i++) {
+			utilizationHistory[i] += vmUtilizationHistory.get(i) * vmMips / hostMips;
+		}
 	}
 
 }
@@ -8,17 +8,18 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.util.DoubleRingBuffer;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * The class of a VM that stores its CPU utilization history. The history is used by VM allocation
- * and selection policies.
+ * and selection policies. It keeps the last {@link #getHistoryLength()} values, newest first, in a
+ * {@link DoubleRingBuffer}.
  * 
  * If you are using any algorithms, policies or workload included in the power package please cite
  * the following paper:
@@ -33,11 +34,11 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerVm extends Vm {
 
-	/** The Constant HISTORY_LENGTH. */
+	/** The default length of the utilization history. */
 	public static final int HISTORY_LENGTH = 30;
 
 	/** The utilization history. */
-	private final List<Double> utilizationHistory = new LinkedList<Double>();
+	private final DoubleRingBuffer utilizationHistory;
 
 	/** The previous time. */
 	private double previousTime;
@@ -72,8 +73,43 @@ public class PowerVm extends Vm {
 			final String vmm,
 			final CloudletScheduler cloudletScheduler,
 			final double schedulingInterval) {
+		this(id, userId, mips, pesNumber, ram, bw, size, priority, vmm, cloudletScheduler,
+				schedulingInterval, HISTORY_LENGTH);
+	}
+
+	/**
+	 * Instantiates a new power vm with the given length of utilization history.
+	 * 
+	 * @param id the id
+	 * @param userId the user id
+	 * @param mips the mips
+	 * @param pesNumber the pes number
+	 * @param ram the ram
+	 * @param bw the bw
+	 * @param size the size
+	 * @param priority the priority
+	 * @param vmm the vmm
+	 * @param cloudletScheduler the cloudlet scheduler
+	 * @param schedulingInterval the scheduling interval
+	 * @param historyLength the number of utilization values kept
+	 * @throws IllegalArgumentException if the history length is not positive
+	 */
+	public PowerVm(
+			final int id,
+			final int userId,
+			final double mips,
+			final int pesNumber,
+			final int ram,
+			final long bw,
+			final long size,
+			final int priority,
+			final String vmm,
+			final CloudletScheduler cloudletScheduler,
+			final double schedulingInterval,
+			final int historyLength) {
 		super(id, userId, mips, pesNumber, ram, bw, size, vmm, cloudletScheduler);
 		setSchedulingInterval(schedulingInterval);
+		utilizationHistory = new DoubleRingBuffer(historyLength);
 	}
 
 	/**
@@ -108,17 +144,8 @@ public class PowerVm extends Vm {
 	 */
 	public double getUtilizationMad() {
 		double mad = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
-			double median = MathUtil.median(getUtilizationHistory());
-			double[] deviationSum = new double[n];
-			for (int i = 0; i < n; i++) {
-				deviationSum[i] = Math.abs(median - getUtilizationHistory().get(i));
-			}
-			mad = MathUtil.median(deviationSum);
+		if (!utilizationHistory.isEmpty()) {
+			mad = MathUtil.mad(utilizationHistory.toArray());
 		}
 		return mad;
 	}
@@ -130,13 +157,10 @@ public class PowerVm extends Vm {
 	 */
 	public double getUtilizationMean() {
 		double mean = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
+		if (!utilizationHistory.isEmpty()) {
+			int n = utilizationHistory.size();
 			for (int i = 0; i < n; i++) {
-				mean += getUtilizationHistory().get(i);
+				mean += utilizationHistory.get(i);
 			}
 			mean /= n;
 		}
@@ -151,13 +175,10 @@ public class PowerVm extends Vm {
 	public double getUtilizationVariance() {
 		double mean = getUtilizationMean();
 		double variance = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
+		if (!utilizationHistory.isEmpty()) {
+			int n = utilizationHistory.size();
 			for (int i = 0; i < n; i++) {
-				double tmp = getUtilizationHistory().get(i) * getMips() - mean;
+				double tmp = utilizationHistory.get(i) * getMips() - mean;
 				variance += tmp * tmp;
 			}
 			variance /= n;
@@ -171,21 +192,47 @@ public class PowerVm extends Vm {
 	 * @param utilization the utilization
 	 */
 	public void addUtilizationHistoryValue(final double utilization) {
-		getUtilizationHistory().add(0, utilization);
-		if (getUtilizationHistory().size() > HISTORY_LENGTH) {
-			getUtilizationHistory().remove(HISTORY_LENGTH);
-		}
+		utilizationHistory.addFirst(utilization);
 	}
 
 	/**
-	 * Gets the utilization history.
+	 * Gets a read-only view of the utilization history, newest first.
 	 * 
 	 * @return the utilization history
 	 */
 	protected List<Double> getUtilizationHistory() {
+		return utilizationHistory.asList();
+	}
+
+	/**
+	 * Gets the utilization history, newest first, without copying it. It must not be changed
+	 * other than by {@link #addUtilizationHistoryValue(double)}.
+	 * 
+	 * @return the utilization history
+	 */
+	protected DoubleRingBuffer getUtilizationHistoryBuffer() {
 		return utilizationHistory;
 	}
 
+	/**
+	 * Gets the number of utilization values kept.
+	 * 
+	 * @return the history length
+	 */
+	public int getHistoryLength() {
+		return utilizationHistory.getCapacity();
+	}
+
+	/**
+	 * Sets the number of utilization values kept. The newest values are kept.
+	 * 
+	 * @param historyLength the history length
+	 * @throws IllegalArgumentException if the history length is not positive
+	 */
+	public void setHistoryLength(final int historyLength) {
+		utilizationHistory.setCapacity(historyLength);
+	}
+
 	/**
 	 * Gets the previous time.
 	 * 
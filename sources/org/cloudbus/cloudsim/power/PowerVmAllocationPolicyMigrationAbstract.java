@@ -15,12 +15,22 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Log.Level;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.cloudbus.cloudsim.power.lists.PowerVmList;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
 
@@ -36,16 +46,37 @@ import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
  * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
  * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
  * 
+ * With a parallelism above 1, {@link #findHostForVm(Vm, Set)} evaluates the hosts in parallel,
+ * each thread taking a contiguous range of the host list, and picks the same host as the
+ * sequential search: the lowest power increase, and the first host in the list among equal ones.
+ * The hosts that {@link #isHostEvaluatedInParallel(PowerHost)} rejects, whose evaluation creates
+ * the VM on the host, are evaluated by the calling thread. The evaluation of the other hosts,
+ * including {@link #isHostOverUtilized(PowerHost, Vm)}, must not change the state of the hosts
+ * or the VM, as is the case for the policies of this package.
+ * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 3.0
  */
 public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAllocationPolicyAbstract {
 
+	/** The minimum number of hosts evaluated by each thread of a parallel search. */
+	private static final int MIN_HOSTS_PER_THREAD = 128;
+
+	/** The time after which the idle threads of the parallel searches terminate, in seconds. */
+	private static final long THREAD_KEEP_ALIVE_TIME = 10;
+
 	/** The vm selection policy. */
 	private PowerVmSelectionPolicy vmSelectionPolicy;
 
-	/** The saved allocation. */
-	private final List<Map<String, Object>> savedAllocation = new ArrayList<Map<String, Object>>();
+	/** The number of threads evaluating the hosts for a VM. */
+	private int parallelism = 1;
+
+	/** The executor of the parallel searches, created on first use. */
+	private ExecutorService executor;
+
+	/** The snapshot of the allocation, open while the migrations are planned. */
+	private final PowerAllocationSnapshot allocationSnapshot = new PowerAllocationSnapshot(
+			getHostList(), getVmTable());
 
 	/** The utilization history. */
 	private final Map<Integer, List<Double>> utilizationHistory = new HashMap<Integer, List<Double>>();
@@ -105,13 +136,13 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
 		getExecutionTimeHistoryVmSelection().add(ExecutionTimeMeasurer.end("optimizeAllocationVmSelection"));
 
-		Log.printLine("Reallocation of VMs from the over-utilized hosts:");
+		Log.printLine(Log.POWER, Level.INFO, "Reallocation of VMs from the over-utilized hosts:");
 		ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
 		List<Map<String, Object>> migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
 				overUtilizedHosts));
 		getExecutionTimeHistoryVmReallocation().add(
 				ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
-		Log.printLine();
+		Log.printLine(Log.POWER, Level.INFO, "");
 
 		migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
 
@@ -156,7 +187,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				break;
 			}
 
-			Log.printLine("Under-utilized host: host #" + underUtilizedHost.getId() + "\n");
+			if (Log.isLoggable(Log.POWER, Level.INFO)) {
+				Log.printLine("Under-utilized host: host #" + underUtilizedHost.getId() + "\n");
+			}
 
 			excludedHostsForFindingUnderUtilizedHost.add(underUtilizedHost);
 			excludedHostsForFindingNewVmPlacement.add(underUtilizedHost);
@@ -166,13 +199,13 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				continue;
 			}
 
-			Log.print("Reallocation of VMs from the under-utilized host: ");
-			if (!Log.isDisabled()) {
+			if (Log.isLoggable(Log.POWER, Level.INFO)) {
+				Log.print("Reallocation of VMs from the under-utilized host: ");
 				for (Vm vm : vmsToMigrateFromUnderUtilizedHost) {
 					Log.print(vm.getId() + " ");
 				}
+				Log.printLine();
 			}
-			Log.printLine();
 
 			List<Map<String, Object>> newVmPlacement = getNewVmPlacementFromUnderUtilizedHost(
 					vmsToMigrateFromUnderUtilizedHost,
@@ -181,7 +214,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			excludedHostsForFindingUnderUtilizedHost.addAll(extractHostListFromMigrationMap(newVmPlacement));
 
 			migrationMap.addAll(newVmPlacement);
-			Log.printLine();
+			Log.printLine(Log.POWER, Level.INFO, "");
 		}
 
 		return migrationMap;
@@ -193,7 +226,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param overUtilizedHosts the over utilized hosts
 	 */
 	protected void printOverUtilizedHosts(List<PowerHostUtilizationHistory> overUtilizedHosts) {
-		if (!Log.isDisabled()) {
+		if (Log.isLoggable(Log.POWER, Level.INFO)) {
 			Log.printLine("Over-utilized hosts:");
 			for (PowerHostUtilizationHistory host : overUtilizedHosts) {
 				Log.printLine("Host #" + host.getId());
@@ -210,32 +243,130 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the power host
 	 */
 	public PowerHost findHostForVm(Vm vm, Set<? extends Host> excludedHosts) {
+		List<PowerHost> hostList = this.<PowerHost> getHostList();
+		if (getParallelism() > 1 && hostList.size() >= 2 * MIN_HOSTS_PER_THREAD) {
+			return findHostForVmInParallel(vm, excludedHosts);
+		}
+
 		double minPower = Double.MAX_VALUE;
 		PowerHost allocatedHost = null;
 
-		for (PowerHost host : this.<PowerHost> getHostList()) {
+		for (PowerHost host : hostList) {
 			if (excludedHosts.contains(host)) {
 				continue;
 			}
-			if (host.isSuitableForVm(vm)) {
-				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
-					continue;
-				}
+			double powerDiff = getPowerIncreaseAfterAllocation(host, vm);
+			if (powerDiff < minPower) {
+				minPower = powerDiff;
+				allocatedHost = host;
+			}
+		}
+		return allocatedHost;
+	}
 
-				try {
-					double powerAfterAllocation = getPowerAfterAllocation(host, vm);
-					if (powerAfterAllocation != -1) {
-						double powerDiff = powerAfterAllocation - host.getPower();
-						if (powerDiff < minPower) {
-							minPower = powerDiff;
-							allocatedHost = host;
+	/**
+	 * Gets the increase of the power of a host if a VM were allocated to it.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the power increase, or NaN if the host is not suitable for the vm or would be over
+	 *         utilized
+	 */
+	protected double getPowerIncreaseAfterAllocation(PowerHost host, Vm vm) {
+		if (!getAllocationSnapshot().isSuitableForVm(host, vm)
+				|| getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
+			return Double.NaN;
+		}
+		try {
+			double powerAfterAllocation = getPowerAfterAllocation(host, vm);
+			if (powerAfterAllocation != -1) {
+				return powerAfterAllocation - host.getPower();
+			}
+		} catch (Exception e) {
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Checks if a host may be evaluated for a VM by another thread than the calling one, because
+	 * its evaluation does not change it.
+	 * 
+	 * @param host the host
+	 * @return true, if the host may be evaluated in parallel
+	 */
+	protected boolean isHostEvaluatedInParallel(PowerHost host) {
+		return PowerAllocationSnapshot.isModeled(host);
+	}
+
+	/**
+	 * Finds a host for a VM by evaluating ranges of the host list in parallel.
+	 * 
+	 * @param vm the vm
+	 * @param excludedHosts the excluded hosts
+	 * @return the power host
+	 */
+	private PowerHost findHostForVmInParallel(final Vm vm, final Set<? extends Host> excludedHosts) {
+		final List<PowerHost> hostList = this.<PowerHost> getHostList();
+		int threads = Math.min(getParallelism(), hostList.size() / MIN_HOSTS_PER_THREAD);
+		// the pool threads evaluate the hosts at the clock of the simulation of this thread
+		final SimulationContext context = CloudSim.getContext();
+		List<Callable<HostCandidate>> ranges = new ArrayList<Callable<HostCandidate>>(threads);
+		for (int i = 0; i < threads; i++) {
+			final int from = (int) ((long) hostList.size() * i / threads);
+			final int to = (int) ((long) hostList.size() * (i + 1) / threads);
+			ranges.add(new Callable<HostCandidate>() {
+
+				@Override
+				public HostCandidate call() {
+					CloudSim.setContext(context);
+					try {
+						HostCandidate candidate = new HostCandidate();
+						for (int j = from; j < to; j++) {
+							PowerHost host = hostList.get(j);
+							if (excludedHosts.contains(host)) {
+								continue;
+							}
+							if (!isHostEvaluatedInParallel(host)) {
+								candidate.deferHost(j);
+								continue;
+							}
+							candidate.offer(j, getPowerIncreaseAfterAllocation(host, vm));
 						}
+						return candidate;
+					} finally {
+						CloudSim.setContext(null);
 					}
-				} catch (Exception e) {
 				}
+			});
+		}
+
+		// the ranges are in the order of the list, so the first minimum is kept
+		HostCandidate best = new HostCandidate();
+		List<Integer> deferredHosts = new ArrayList<Integer>();
+		try {
+			for (Future<HostCandidate> result : getExecutor().invokeAll(ranges)) {
+				HostCandidate candidate = result.get();
+				if (candidate.getIndex() >= 0) {
+					best.offer(candidate.getIndex(), candidate.getPowerIncrease());
+				}
+				deferredHosts.addAll(candidate.getDeferredHosts());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The search of a host has been interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
 			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
 		}
-		return allocatedHost;
+		for (int index : deferredHosts) {
+			best.offerInOrder(index, getPowerIncreaseAfterAllocation(hostList.get(index), vm));
+		}
+		return best.getIndex() < 0 ? null : hostList.get(best.getIndex());
 	}
 
 	/**
@@ -246,12 +377,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return true, if is host over utilized after allocation
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
-		boolean isHostOverUtilizedAfterAllocation = true;
-		if (host.vmCreate(vm)) {
-			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-			host.vmDestroy(vm);
+		if (!getAllocationSnapshot().isVmCreatable(host, vm)) {
+			return true;
 		}
-		return isHostOverUtilizedAfterAllocation;
+		return isHostOverUtilized(host, vm);
 	}
 
 	/**
@@ -298,8 +427,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
-				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
+				getAllocationSnapshot().vmCreate(allocatedHost, vm);
+				if (Log.isLoggable(Log.POWER, Level.INFO)) {
+					Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
+				}
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
 				migrate.put("vm", vm);
@@ -325,17 +456,20 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
-				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
+				getAllocationSnapshot().vmCreate(allocatedHost, vm);
+				if (Log.isLoggable(Log.POWER, Level.INFO)) {
+					Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
+				}
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
 				migrate.put("vm", vm);
 				migrate.put("host", allocatedHost);
 				migrationMap.add(migrate);
 			} else {
-				Log.printLine("Not all VMs can be reallocated from the host, reallocation cancelled");
+				Log.printLine(Log.POWER, Level.INFO,
+						"Not all VMs can be reallocated from the host, reallocation cancelled");
 				for (Map<String, Object> map : migrationMap) {
-					((Host) map.get("host")).vmDestroy((Vm) map.get("vm"));
+					getAllocationSnapshot().vmDestroy((Host) map.get("host"), (Vm) map.get("vm"));
 				}
 				migrationMap.clear();
 				break;
@@ -361,7 +495,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 					break;
 				}
 				vmsToMigrate.add(vm);
-				host.vmDestroy(vm);
+				getAllocationSnapshot().vmDestroy(host, vm);
 				if (!isHostOverUtilized(host)) {
 					break;
 				}
@@ -465,13 +599,47 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected abstract boolean isHostOverUtilized(PowerHost host);
 
+	/**
+	 * Checks if a host would be over utilized with an additional VM, which must be creatable on
+	 * the host. The subclasses should answer from the VMs of the host and the requested MIPS of
+	 * the VM; by default the VM is created on the host for the check and then destroyed.
+	 * 
+	 * @param host the host
+	 * @param vm the additional vm, or null for none
+	 * @return true, if is host over utilized
+	 */
+	protected boolean isHostOverUtilized(PowerHost host, Vm vm) {
+		if (vm == null) {
+			return isHostOverUtilized(host);
+		}
+		Host vmHost = vm.getHost();
+		boolean isHostOverUtilized = true;
+		if (host.vmCreate(vm)) {
+			isHostOverUtilized = isHostOverUtilized(host);
+			host.vmDestroy(vm);
+		}
+		vm.setHost(vmHost);
+		return isHostOverUtilized;
+	}
+
+	/**
+	 * Gets the MIPS requested by the VMs of a host and by an additional VM.
+	 * 
+	 * @param host the host
+	 * @param vm the additional vm, or null for none
+	 * @return the requested MIPS
+	 */
+	protected double getRequestedTotalMips(PowerHost host, Vm vm) {
+		return getAllocationSnapshot().getRequestedTotalMips(host, vm);
+	}
+
 	/**
 	 * Adds the history value.
 	 * 
 	 * @param host the host
 	 * @param metric the metric
 	 */
-	protected void addHistoryEntry(HostDynamicWorkload host, double metric) {
+	protected synchronized void addHistoryEntry(HostDynamicWorkload host, double metric) {
 		int hostId = host.getId();
 		if (!getTimeHistory().containsKey(hostId)) {
 			getTimeHistory().put(hostId, new LinkedList<Double>());
@@ -490,40 +658,18 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Save allocation.
+	 * Save allocation. The VMs of a host are only saved before the host is first changed while the
+	 * migrations are planned.
 	 */
 	protected void saveAllocation() {
-		getSavedAllocation().clear();
-		for (Host host : getHostList()) {
-			for (Vm vm : host.getVmList()) {
-				if (host.getVmsMigratingIn().contains(vm)) {
-					continue;
-				}
-				Map<String, Object> map = new HashMap<String, Object>();
-				map.put("host", host);
-				map.put("vm", vm);
-				getSavedAllocation().add(map);
-			}
-		}
+		getAllocationSnapshot().open();
 	}
 
 	/**
 	 * Restore allocation.
 	 */
 	protected void restoreAllocation() {
-		for (Host host : getHostList()) {
-			host.vmDestroyAll();
-			host.reallocateMigratingInVms();
-		}
-		for (Map<String, Object> map : getSavedAllocation()) {
-			Vm vm = (Vm) map.get("vm");
-			PowerHost host = (PowerHost) map.get("host");
-			if (!host.vmCreate(vm)) {
-				Log.printLine("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
-				System.exit(0);
-			}
-			getVmTable().put(vm.getUid(), host);
-		}
+		getAllocationSnapshot().restore();
 	}
 
 	/**
@@ -570,24 +716,69 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the utilization of the CPU in MIPS
 	 */
 	protected double getUtilizationOfCpuMips(PowerHost host) {
-		double hostUtilizationMips = 0;
-		for (Vm vm2 : host.getVmList()) {
-			if (host.getVmsMigratingIn().contains(vm2)) {
-				// calculate additional potential CPU usage of a migrating in VM
-				hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2) * 0.9 / 0.1;
-			}
-			hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2);
+		return getAllocationSnapshot().getUtilizationOfCpuMips(host);
+	}
+
+	/**
+	 * Gets the snapshot of the allocation. The VMs created and destroyed while the migrations are
+	 * planned must go through it, so that the allocation can be restored.
+	 * 
+	 * @return the allocation snapshot
+	 */
+	protected PowerAllocationSnapshot getAllocationSnapshot() {
+		return allocationSnapshot;
+	}
+
+	/**
+	 * Sets the number of threads evaluating the hosts for a VM. The default is 1, which evaluates
+	 * them sequentially.
+	 * 
+	 * @param parallelism the number of threads
+	 * @throws IllegalArgumentException if the number of threads is not positive
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("The parallelism must be positive: " + parallelism);
 		}
-		return hostUtilizationMips;
+		if (parallelism != this.parallelism && executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Gets the number of threads evaluating the hosts for a VM.
+	 * 
+	 * @return the number of threads
+	 */
+	public int getParallelism() {
+		return parallelism;
 	}
 
 	/**
-	 * Gets the saved allocation.
+	 * Gets the executor of the parallel searches, creating it if needed. Its threads terminate
+	 * once idle, so that the policies of finished simulations do not keep threads alive.
 	 * 
-	 * @return the saved allocation
+	 * @return the executor
 	 */
-	protected List<Map<String, Object>> getSavedAllocation() {
-		return savedAllocation;
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(getParallelism(), getParallelism(),
+					THREAD_KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "CloudSim host evaluation");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		return executor;
 	}
 
 	/**
@@ -671,4 +862,87 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return executionTimeHistoryTotal;
 	}
 
+	/**
+	 * The best host found by a search: the lowest power increase, and the first host among equal
+	 * ones.
+	 */
+	private static class HostCandidate {
+
+		/** The index of the host in the host list, or -1. */
+		private int index = -1;
+
+		/** The power increase of the host. */
+		private double powerIncrease = Double.MAX_VALUE;
+
+		/** The hosts left to the calling thread, or null. */
+		private List<Integer> deferredHosts;
+
+		/**
+		 * Offers a host that comes after the hosts offered before.
+		 * 
+		 * @param index the index of the host
+		 * @param powerIncrease the power increase, or NaN if the host is not suitable
+		 */
+		public void offer(int index, double powerIncrease) {
+			if (powerIncrease < this.powerIncrease) {
+				this.index = index;
+				this.powerIncrease = powerIncrease;
+			}
+		}
+
+		/**
+		 * Offers a host that may come before the best host.
+		 * 
+		 * @param index the index of the host
+		 * @param powerIncrease the power increase, or NaN if the host is not suitable
+		 */
+		public void offerInOrder(int index, double powerIncrease) {
+			if (powerIncrease < this.powerIncrease
+					|| powerIncrease == this.powerIncrease && this.index >= 0 && index < this.index) {
+				this.index = index;
+				this.powerIncrease = powerIncrease;
+			}
+		}
+
+		/**
+		 * Leaves a host to the calling thread.
+		 * 
+		 * @param index the index of the host
+		 */
+		public void deferHost(int index) {
+			if (deferredHosts == null) {
+				deferredHosts = new ArrayList<Integer>();
+			}
+			deferredHosts.add(index);
+		}
+
+		/**
+		 * Gets the index of the best host.
+		 * 
+		 * @return the index, or -1 if no host is suitable
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Gets the power increase of the best host.
+		 * 
+		 * @return the power increase
+		 */
+		public double getPowerIncrease() {
+			return powerIncrease;
+		}
+
+		/**
+		 * Gets the hosts left to the calling thread, in the order of the list.
+		 * 
+		 * @return the indexes of the hosts
+		 */
+		public List<Integer> getDeferredHosts() {
+			return deferredHosts == null ? new ArrayList<Integer>() : deferredHosts;
+		}
+
+	}
+
 }
@@ -89,11 +89,23 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 */
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
+		return isHostOverUtilized(host, null);
+	}
+
+	/**
+	 * Checks if is host over utilized with an additional vm.
+	 * 
+	 * @param host the host
+	 * @param vm the additional vm, or null for none
+	 * @return true, if is host over utilized
+	 */
+	@Override
+	protected boolean isHostOverUtilized(PowerHost host, Vm vm) {
 		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
-		double[] utilizationHistory = _host.getUtilizationHistory();
+		double[] utilizationHistory = _host.getUtilizationHistoryView(vm);
 		int length = 10; // we use 10 to make the regression responsive enough to latest values
-		if (utilizationHistory.length < length) {
-			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
+		if (MathUtil.countNonZeroBeginning(utilizationHistory) < length) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, vm);
 		}
 		double[] utilizationHistoryReversed = new double[length];
 		for (int i = 0; i < length; i++) {
@@ -103,9 +115,10 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		try {
 			estimates = getParameterEstimates(utilizationHistoryReversed);
 		} catch (IllegalArgumentException e) {
-			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, vm);
 		}
-		double migrationIntervals = Math.ceil(getMaximumVmMigrationTime(_host) / getSchedulingInterval());
+		double migrationIntervals = Math.ceil(getMaximumVmMigrationTime(_host, vm)
+				/ getSchedulingInterval());
 		double predictedUtilization = estimates[0] + estimates[1] * (length + migrationIntervals);
 		predictedUtilization *= getSafetyParameter();
 
@@ -131,9 +144,20 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 * @return the maximum vm migration time
 	 */
 	protected double getMaximumVmMigrationTime(PowerHost host) {
-		int maxRam = Integer.MIN_VALUE;
-		for (Vm vm : host.getVmList()) {
-			int ram = vm.getRam();
+		return getMaximumVmMigrationTime(host, null);
+	}
+
+	/**
+	 * Gets the maximum vm migration time with an additional vm.
+	 * 
+	 * @param host the host
+	 * @param vm the additional vm, or null for none
+	 * @return the maximum vm migration time
+	 */
+	protected double getMaximumVmMigrationTime(PowerHost host, Vm vm) {
+		int maxRam = vm == null ? Integer.MIN_VALUE : vm.getRam();
+		for (Vm hostVm : host.getVmList()) {
+			int ram = hostVm.getRam();
 			if (ram > maxRam) {
 				maxRam = ram;
 			}
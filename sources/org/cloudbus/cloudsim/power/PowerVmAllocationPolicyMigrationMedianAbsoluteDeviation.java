@@ -14,6 +14,7 @@ import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.SlidingWindowStatistics;
 
 /**
  * The Median Absolute Deviation (MAD) VM allocation policy.
@@ -82,19 +83,27 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 	 */
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
+		return isHostOverUtilized(host, null);
+	}
+
+	/**
+	 * Checks if is host over utilized with an additional vm.
+	 * 
+	 * @param host the host
+	 * @param vm the additional vm, or null for none
+	 * @return true, if is host over utilized
+	 */
+	@Override
+	protected boolean isHostOverUtilized(PowerHost host, Vm vm) {
 		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
 		double upperThreshold = 0;
 		try {
-			upperThreshold = 1 - getSafetyParameter() * getHostUtilizationMad(_host);
+			upperThreshold = 1 - getSafetyParameter() * getHostUtilizationMad(_host, vm);
 		} catch (IllegalArgumentException e) {
-			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, vm);
 		}
 		addHistoryEntry(host, upperThreshold);
-		double totalRequestedMips = 0;
-		for (Vm vm : host.getVmList()) {
-			totalRequestedMips += vm.getCurrentRequestedTotalMips();
-		}
-		double utilization = totalRequestedMips / host.getTotalMips();
+		double utilization = getRequestedTotalMips(host, vm) / host.getTotalMips();
 		return utilization > upperThreshold;
 	}
 
@@ -105,9 +114,30 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 	 * @return the host utilization mad
 	 */
 	protected double getHostUtilizationMad(PowerHostUtilizationHistory host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
-		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
-			return MathUtil.mad(data);
+		return getHostUtilizationMad(host, null);
+	}
+
+	/**
+	 * Gets the host utilization mad with an additional vm.
+	 * 
+	 * @param host the host
+	 * @param vm the additional vm, or null for none
+	 * @return the host utilization mad
+	 */
+	protected double getHostUtilizationMad(PowerHostUtilizationHistory host, Vm vm)
+			throws IllegalArgumentException {
+		if (vm == null) {
+			// the statistics of the host follow its history as it is shifted
+			SlidingWindowStatistics statistics = host.getUtilizationHistoryStatistics();
+			if (statistics.size() >= 12) { // 12 has been suggested as a safe value
+				return statistics.mad();
+			}
+			throw new IllegalArgumentException();
+		}
+		double[] data = host.getUtilizationHistoryView(vm);
+		int length = MathUtil.countNonZeroBeginning(data);
+		if (length >= 12) { // 12 has been suggested as a safe value
+			return MathUtil.mad(data, length);
 		}
 		throw new IllegalArgumentException();
 	}
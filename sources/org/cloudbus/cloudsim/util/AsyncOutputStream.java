@@ -0,0 +1,229 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * An output stream that hands the written bytes to a background thread, which writes them to the
+ * underlying stream through a buffer. It is meant as the output of the {@link org.cloudbus.cloudsim.Log}
+ * when the simulation logs a lot, so that the simulation does not wait for the console or the
+ * disk:
+ *
+ * <pre>
+ * Log.setOutput(new AsyncOutputStream(new FileOutputStream(file)));
+ * ...
+ * Log.getOutput().close();
+ * </pre>
+ *
+ * The writes block when the queue of pending writes is full. {@link #flush()} waits until all the
+ * previous writes reach the underlying stream, and {@link #close()} also closes it. An error of
+ * the underlying stream is reported by the next write, flush or close.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class AsyncOutputStream extends OutputStream {
+
+	/** The default number of pending writes. */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/** The marker that stops the writer thread. */
+	private static final Object END = new Object();
+
+	/** The pending writes: byte arrays, flush requests and the end marker. */
+	private final BlockingQueue<Object> queue;
+
+	/** The underlying stream. */
+	private final OutputStream out;
+
+	/** The writer thread. */
+	private final Thread writer;
+
+	/** The closed flag. */
+	private boolean closed;
+
+	/** The first error of the underlying stream. */
+	private volatile IOException error;
+
+	/**
+	 * Instantiates a new asynchronous output stream with the default capacity.
+	 *
+	 * @param out the underlying stream
+	 */
+	public AsyncOutputStream(OutputStream out) {
+		this(out, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new asynchronous output stream.
+	 *
+	 * @param out the underlying stream
+	 * @param capacity the number of pending writes before the writes block
+	 */
+	public AsyncOutputStream(OutputStream out, int capacity) {
+		if (out == null) {
+			throw new IllegalArgumentException("The underlying stream cannot be null");
+		}
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be greater than 0");
+		}
+		this.out = out;
+		queue = new ArrayBlockingQueue<Object>(capacity);
+		writer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				writeQueue();
+			}
+		}, "AsyncOutputStream");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return;
+		}
+		byte[] copy = new byte[len];
+		System.arraycopy(b, off, copy, 0, len);
+		enqueue(copy);
+	}
+
+	@Override
+	public synchronized void flush() throws IOException {
+		checkOpen();
+		CountDownLatch flushed = new CountDownLatch(1);
+		put(flushed);
+		try {
+			flushed.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while flushing");
+		}
+		checkError();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		put(END);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while closing");
+		}
+		checkError();
+	}
+
+	/**
+	 * Queues a write.
+	 *
+	 * @param bytes the bytes to write
+	 * @throws IOException if the stream is closed or the underlying stream failed
+	 */
+	private synchronized void enqueue(byte[] bytes) throws IOException {
+		checkOpen();
+		checkError();
+		put(bytes);
+	}
+
+	/**
+	 * Puts an element in the queue, waiting for space if needed.
+	 *
+	 * @param element the element
+	 * @throws IOException if the thread is interrupted
+	 */
+	private void put(Object element) throws IOException {
+		try {
+			queue.put(element);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while writing");
+		}
+	}
+
+	/**
+	 * Checks that the stream is not closed.
+	 *
+	 * @throws IOException if the stream is closed
+	 */
+	private void checkOpen() throws IOException {
+		if (closed) {
+			throw new IOException("The stream is closed");
+		}
+	}
+
+	/**
+	 * Reports the error of the underlying stream, if any.
+	 *
+	 * @throws IOException the error of the underlying stream
+	 */
+	private void checkError() throws IOException {
+		IOException e = error;
+		if (e != null) {
+			throw new IOException("The underlying stream failed", e);
+		}
+	}
+
+	/**
+	 * The loop of the writer thread. The buffer is flushed whenever the queue becomes empty, so
+	 * the output is not held back while the simulation is idle. After an error the remaining
+	 * writes are dropped, but the flush requests are still released.
+	 */
+	private void writeQueue() {
+		OutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+		while (true) {
+			Object element;
+			try {
+				element = queue.take();
+			} catch (InterruptedException e) {
+				continue;
+			}
+			try {
+				if (element == END) {
+					buffered.flush();
+					out.close();
+					return;
+				} else if (element instanceof CountDownLatch) {
+					buffered.flush();
+				} else if (error == null) {
+					buffered.write((byte[]) element);
+					if (queue.isEmpty()) {
+						buffered.flush();
+					}
+				}
+			} catch (IOException e) {
+				if (error == null) {
+					error = e;
+				}
+			} finally {
+				if (element instanceof CountDownLatch) {
+					((CountDownLatch) element).countDown();
+				}
+			}
+		}
+	}
+
+}
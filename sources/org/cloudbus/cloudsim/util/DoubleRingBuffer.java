@@ -0,0 +1,203 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A bounded history of double values, newest first, stored in a circular array. Adding a value to
+ * a full history drops the oldest one, without moving the others or boxing them.
+ * <p>
+ * The index 0 is the newest value. The modification count changes with each change, so that
+ * values computed from the history can be cached until it changes.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class DoubleRingBuffer {
+
+	/** The values, in a circular array. */
+	private double[] values;
+
+	/** The position of the newest value in the array. */
+	private int head;
+
+	/** The number of values. */
+	private int size;
+
+	/** The modification count. */
+	private int modCount;
+
+	/** The number of values added. */
+	private int additionCount;
+
+	/**
+	 * Instantiates a new empty history.
+	 *
+	 * @param capacity the maximum number of values
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public DoubleRingBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+		}
+		values = new double[capacity];
+	}
+
+	/**
+	 * Adds the newest value, dropping the oldest one if the history is full.
+	 *
+	 * @param value the value
+	 */
+	public void addFirst(double value) {
+		head = head == 0 ? values.length - 1 : head - 1;
+		values[head] = value;
+		if (size < values.length) {
+			size++;
+		}
+		modCount++;
+		additionCount++;
+	}
+
+	/**
+	 * Gets a value.
+	 *
+	 * @param index the index, 0 for the newest value
+	 * @return the value
+	 * @throws IndexOutOfBoundsException if the index is not less than the size
+	 */
+	public double get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int position = head + index;
+		return values[position < values.length ? position : position - values.length];
+	}
+
+	/**
+	 * Gets the number of values.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the history is empty.
+	 *
+	 * @return true, if it is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the maximum number of values.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return values.length;
+	}
+
+	/**
+	 * Sets the maximum number of values. The newest values are kept.
+	 *
+	 * @param capacity the capacity
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public void setCapacity(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+		}
+		double[] newValues = new double[capacity];
+		size = Math.min(size, capacity);
+		copyTo(newValues, size);
+		values = newValues;
+		head = 0;
+		modCount++;
+	}
+
+	/**
+	 * Removes all the values.
+	 */
+	public void clear() {
+		head = 0;
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Copies the newest values to an array, newest first.
+	 *
+	 * @param destination the array
+	 * @param length the number of values, at most the size
+	 */
+	public void copyTo(double[] destination, int length) {
+		if (length > size) {
+			throw new IndexOutOfBoundsException("Length: " + length + ", Size: " + size);
+		}
+		int first = Math.min(length, values.length - head);
+		System.arraycopy(values, head, destination, 0, first);
+		System.arraycopy(values, 0, destination, first, length - first);
+	}
+
+	/**
+	 * Gets the values in a new array, newest first.
+	 *
+	 * @return the values
+	 */
+	public double[] toArray() {
+		double[] array = new double[size];
+		copyTo(array, size);
+		return array;
+	}
+
+	/**
+	 * Gets the modification count, which changes with each change of the history.
+	 *
+	 * @return the modification count
+	 */
+	public int getModificationCount() {
+		return modCount;
+	}
+
+	/**
+	 * Gets the number of values added so far. If it grew by as much as the modification count,
+	 * the history only had values added in the meantime, shifting the others.
+	 *
+	 * @return the addition count
+	 */
+	public int getAdditionCount() {
+		return additionCount;
+	}
+
+	/**
+	 * Gets a read-only list view of the values, newest first. The view follows the changes of the
+	 * history.
+	 *
+	 * @return the view
+	 */
+	public List<Double> asList() {
+		return new AbstractList<Double>() {
+
+			@Override
+			public Double get(int index) {
+				return DoubleRingBuffer.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+}
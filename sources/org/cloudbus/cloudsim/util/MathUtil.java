@@ -72,6 +72,17 @@ public class MathUtil {
 		return getStatistics(list).getPercentile(50);
 	}
 
+	/**
+	 * Gets the median of the beginning of an array.
+	 * 
+	 * @param list the array
+	 * @param length the number of values used
+	 * @return the median
+	 */
+	public static double median(final double[] list, final int length) {
+		return getStatistics(list, length).getPercentile(50);
+	}
+
 	/**
 	 * Returns descriptive statistics for the list of numbers.
 	 * 
@@ -97,11 +108,22 @@ public class MathUtil {
 	 * @return - descriptive statistics for the array of numbers.
 	 */
 	public static DescriptiveStatistics getStatistics(final double[] list) {
+		return getStatistics(list, list.length);
+	}
+
+	/**
+	 * Returns descriptive statistics for the beginning of an array of numbers.
+	 * 
+	 * @param list - the array of numbers. Must not be null.
+	 * @param length - the number of values used.
+	 * @return - descriptive statistics for the values.
+	 */
+	public static DescriptiveStatistics getStatistics(final double[] list, final int length) {
 		// Get a DescriptiveStatistics instance
 		DescriptiveStatistics stats = new DescriptiveStatistics();
 
 		// Add the data from the array
-		for (int i = 0; i < list.length; i++) {
+		for (int i = 0; i < length; i++) {
 			stats.addValue(list[i]);
 		}
 		return stats;
@@ -161,20 +183,24 @@ public class MathUtil {
 	 * @return the mad
 	 */
 	public static double mad(final double[] data) {
-		double mad = 0;
-		if (data.length > 0) {
-			double median = median(data);
-			double[] deviationSum = new double[data.length];
-			for (int i = 0; i < data.length; i++) {
-				deviationSum[i] = Math.abs(median - data[i]);
-			}
-			mad = median(deviationSum);
-		}
-		return mad;
+		return mad(data, data.length);
 	}
 
 	/**
-	 * Gets the IQR.
+	 * Gets the mad of the beginning of the data, which is not changed.
+	 * 
+	 * @param data the data
+	 * @param length the number of values used
+	 * @return the mad
+	 */
+	public static double mad(final double[] data, final int length) {
+		SlidingWindowStatistics statistics = new SlidingWindowStatistics(length);
+		statistics.set(data, length);
+		return statistics.mad();
+	}
+
+	/**
+	 * Gets the IQR. The data is sorted.
 	 * 
 	 * @param data the data
 	 * @return the IQR
@@ -186,6 +212,19 @@ public class MathUtil {
 		return data[q3] - data[q1];
 	}
 
+	/**
+	 * Gets the IQR of the beginning of the data, which is not changed.
+	 * 
+	 * @param data the data
+	 * @param length the number of values used
+	 * @return the IQR
+	 */
+	public static double iqr(final double[] data, final int length) {
+		SlidingWindowStatistics statistics = new SlidingWindowStatistics(length);
+		statistics.set(data, length);
+		return statistics.iqr();
+	}
+
 	/**
 	 * Count non zero beginning of the data.
 	 * 
@@ -376,4 +415,4 @@ public class MathUtil {
 		return result;
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,405 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabMapped;
+
+/**
+ * The traces of a PlanetLab workload directory, parsed once into a buffer of packed shorts. The
+ * utilization models of the traces read the buffer in place, so the traces are neither parsed
+ * nor copied to the heap for each VM.
+ * <p>
+ * The stores are shared by all the simulations of the JVM: {@link #getInstance(File)} returns the
+ * same store for the same directory as long as its files do not change. By default the traces are
+ * parsed in memory. If a {@link #setCacheDirectory(File) cache directory} is set, they are
+ * converted into a binary file of that directory, which is memory-mapped and read back by the
+ * next runs, and converted again when the files of the directory change.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PlanetLabTraceStore {
+
+	/** The number of samples of a trace (5 min * 288 = 24 hours). */
+	public static final int SAMPLES = 288;
+
+	/** The magic number of the binary files. */
+	private static final int MAGIC = 0x504c5452;
+
+	/** The version of the format of the binary files. */
+	private static final int VERSION = 1;
+
+	/** The length of the fixed part of the header of the binary files. */
+	private static final int HEADER_LENGTH = 28;
+
+	/** The stores, by the canonical path of their directory. */
+	private static final Map<String, PlanetLabTraceStore> stores = new HashMap<String, PlanetLabTraceStore>();
+
+	/** The directory of the binary files, or null to parse the traces in memory. */
+	private static File cacheDirectory;
+
+	/** The directory of the traces. */
+	private final File directory;
+
+	/** The binary file, or null if the traces are parsed in memory. */
+	private final File binaryFile;
+
+	/** The signature of the files of the traces. */
+	private final long signature;
+
+	/** The indexes of the traces, by file name. */
+	private final Map<String, Integer> traceIndexes = new HashMap<String, Integer>();
+
+	/** The samples of all the traces, one trace after the other. */
+	private final ShortBuffer samples;
+
+	/**
+	 * Gets the store of the traces of a directory, converting them to a binary file of the
+	 * {@link #setCacheDirectory(File) cache directory} if one is set, or parsing them in memory.
+	 *
+	 * @param directory the directory of the traces
+	 * @return the store
+	 * @throws IOException if a trace or the binary file cannot be read or written
+	 */
+	public static PlanetLabTraceStore getInstance(File directory) throws IOException {
+		File cache = getCacheDirectory();
+		return getInstance(directory, cache == null ? null : getCacheFile(directory, cache));
+	}
+
+	/**
+	 * Gets the binary file of the traces of a directory in a cache directory.
+	 *
+	 * @param directory the directory of the traces
+	 * @param cacheDirectory the cache directory
+	 * @return the binary file
+	 * @throws IOException if the canonical path of the directory cannot be resolved
+	 */
+	public static File getCacheFile(File directory, File cacheDirectory) throws IOException {
+		String path = directory.getCanonicalPath();
+		return new File(cacheDirectory, "cloudsim-planetlab-" + Integer.toHexString(path.hashCode())
+				+ ".bin");
+	}
+
+	/**
+	 * Gets the store of the traces of a directory, converting them to the given binary file if
+	 * needed. The store is created again if the files of the directory changed since it was
+	 * created.
+	 *
+	 * @param directory the directory of the traces
+	 * @param binaryFile the binary file, or null to parse the traces in memory
+	 * @return the store
+	 * @throws IOException if a trace or the binary file cannot be read or written
+	 */
+	public static synchronized PlanetLabTraceStore getInstance(File directory, File binaryFile)
+			throws IOException {
+		File canonicalDirectory = directory.getCanonicalFile();
+		File[] files = getTraceFiles(canonicalDirectory);
+		long signature = getSignature(files);
+		String path = canonicalDirectory.getPath();
+		PlanetLabTraceStore store = stores.get(path);
+		if (store == null || store.signature != signature
+				|| (binaryFile == null ? store.binaryFile != null
+						: !binaryFile.equals(store.binaryFile))) {
+			store = new PlanetLabTraceStore(canonicalDirectory, files, signature, binaryFile);
+			stores.put(path, store);
+		}
+		return store;
+	}
+
+	/**
+	 * Sets the directory of the binary files of the traces. By default, no directory is set and
+	 * the traces are parsed in memory, once per JVM.
+	 *
+	 * @param cacheDirectory the directory, for instance the temporary directory, or null to parse
+	 *            the traces in memory
+	 */
+	public static synchronized void setCacheDirectory(File cacheDirectory) {
+		PlanetLabTraceStore.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * Gets the directory of the binary files of the traces.
+	 *
+	 * @return the directory, or null if the traces are parsed in memory
+	 */
+	public static synchronized File getCacheDirectory() {
+		return cacheDirectory;
+	}
+
+	/**
+	 * Instantiates a new store, converting the traces if the binary file is missing or out of date,
+	 * or parsing them in memory if there is no binary file.
+	 *
+	 * @param directory the directory of the traces
+	 * @param files the files of the traces, sorted
+	 * @param signature the signature of the files
+	 * @param binaryFile the binary file, or null
+	 * @throws IOException if a trace or the binary file cannot be read or written
+	 */
+	private PlanetLabTraceStore(File directory, File[] files, long signature, File binaryFile)
+			throws IOException {
+		this.directory = directory;
+		this.binaryFile = binaryFile;
+		this.signature = signature;
+
+		if (binaryFile == null) {
+			short[] data = new short[files.length * SAMPLES];
+			short[] trace = new short[SAMPLES];
+			for (int i = 0; i < files.length; i++) {
+				readTrace(files[i], trace);
+				System.arraycopy(trace, 0, data, i * SAMPLES, SAMPLES);
+				traceIndexes.put(files[i].getName(), i);
+			}
+			samples = ShortBuffer.wrap(data);
+			return;
+		}
+
+		if (!isConverted(binaryFile, signature, files.length)) {
+			convert(files, binaryFile, signature);
+		}
+
+		DataInputStream header = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(binaryFile)));
+		int traces;
+		int dataStart;
+		try {
+			header.skipBytes(16); // the magic number, the version and the signature
+			traces = header.readInt();
+			header.readInt(); // the number of samples
+			dataStart = header.readInt();
+			for (int i = 0; i < traces; i++) {
+				traceIndexes.put(header.readUTF(), i);
+			}
+		} finally {
+			header.close();
+		}
+
+		RandomAccessFile input = new RandomAccessFile(binaryFile, "r");
+		try {
+			MappedByteBuffer buffer = input.getChannel().map(
+					FileChannel.MapMode.READ_ONLY,
+					dataStart,
+					(long) traces * SAMPLES * 2);
+			samples = buffer.asShortBuffer();
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Gets the utilization model of a trace, reading the mapped samples in place.
+	 *
+	 * @param fileName the name of the file of the trace in the directory
+	 * @param schedulingInterval the scheduling interval
+	 * @return the utilization model
+	 * @throws IllegalArgumentException if the directory has no such trace
+	 */
+	public UtilizationModel getUtilizationModel(String fileName, double schedulingInterval) {
+		Integer index = traceIndexes.get(fileName);
+		if (index == null) {
+			throw new IllegalArgumentException("No trace " + fileName + " in " + getDirectory());
+		}
+		return new UtilizationModelPlanetLabMapped(samples, index * SAMPLES, SAMPLES,
+				schedulingInterval);
+	}
+
+	/**
+	 * Gets the number of traces.
+	 *
+	 * @return the number of traces
+	 */
+	public int getTraceCount() {
+		return traceIndexes.size();
+	}
+
+	/**
+	 * Gets the directory of the traces.
+	 *
+	 * @return the directory
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Checks if a binary file holds the traces of files with the given signature.
+	 *
+	 * @param binaryFile the binary file
+	 * @param signature the signature of the files
+	 * @param traces the number of files
+	 * @return true, if the binary file is up to date
+	 * @throws IOException if the binary file cannot be read
+	 */
+	private static boolean isConverted(File binaryFile, long signature, int traces)
+			throws IOException {
+		if (!binaryFile.isFile() || binaryFile.length() < HEADER_LENGTH) {
+			return false;
+		}
+		RandomAccessFile input = new RandomAccessFile(binaryFile, "r");
+		try {
+			return input.readInt() == MAGIC
+					&& input.readInt() == VERSION
+					&& input.readLong() == signature
+					&& input.readInt() == traces
+					&& input.readInt() == SAMPLES;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Converts the traces to a binary file: a header with the position of the samples and the names
+	 * of the files, then the samples of each trace as shorts, from an 8-byte aligned position. The
+	 * file is written under a temporary name and renamed, so that a partly written file is never
+	 * read.
+	 *
+	 * @param files the files of the traces
+	 * @param binaryFile the binary file
+	 * @param signature the signature of the files
+	 * @throws IOException if a trace cannot be read, or the binary file written
+	 */
+	private static void convert(File[] files, File binaryFile, long signature) throws IOException {
+		ByteArrayOutputStream names = new ByteArrayOutputStream();
+		DataOutputStream namesOutput = new DataOutputStream(names);
+		for (File file : files) {
+			namesOutput.writeUTF(file.getName());
+		}
+		int dataStart = (int) getAlignedPosition(HEADER_LENGTH + names.size());
+
+		File temporaryFile = File.createTempFile(binaryFile.getName(), ".tmp",
+				binaryFile.getAbsoluteFile().getParentFile());
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(temporaryFile)));
+		boolean written = false;
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(signature);
+			output.writeInt(files.length);
+			output.writeInt(SAMPLES);
+			output.writeInt(dataStart);
+			names.writeTo(output);
+			while (output.size() < dataStart) {
+				output.writeByte(0);
+			}
+			short[] trace = new short[SAMPLES];
+			for (File file : files) {
+				readTrace(file, trace);
+				for (short sample : trace) {
+					output.writeShort(sample);
+				}
+			}
+			written = true;
+		} finally {
+			output.close();
+			if (!written) {
+				temporaryFile.delete();
+			}
+		}
+		binaryFile.delete();
+		if (!temporaryFile.renameTo(binaryFile)) {
+			temporaryFile.delete();
+			throw new IOException("The binary trace file cannot be written: " + binaryFile);
+		}
+	}
+
+	/**
+	 * Reads the samples of a trace.
+	 *
+	 * @param file the file of the trace
+	 * @param trace the array receiving the samples
+	 * @throws IOException if the trace cannot be read
+	 */
+	private static void readTrace(File file, short[] trace) throws IOException {
+		BufferedReader input = new BufferedReader(new FileReader(file));
+		try {
+			for (int i = 0; i < SAMPLES; i++) {
+				int sample = Integer.valueOf(input.readLine());
+				if (sample < Short.MIN_VALUE || sample > Short.MAX_VALUE) {
+					throw new IllegalArgumentException("The sample " + sample + " of " + file
+							+ " does not fit in a short");
+				}
+				trace[i] = (short) sample;
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Gets the files of the traces of a directory, sorted by name.
+	 *
+	 * @param directory the directory of the traces
+	 * @return the files
+	 * @throws FileNotFoundException if the directory cannot be read
+	 */
+	private static File[] getTraceFiles(File directory) throws FileNotFoundException {
+		File[] files = directory.listFiles(new FileFilter() {
+
+			@Override
+			public boolean accept(File file) {
+				return file.isFile();
+			}
+		});
+		if (files == null) {
+			throw new FileNotFoundException("The trace directory cannot be read: " + directory);
+		}
+		Arrays.sort(files);
+		return files;
+	}
+
+	/**
+	 * Gets the signature of the files of the traces, from their names, lengths and modification
+	 * times.
+	 *
+	 * @param files the files, sorted
+	 * @return the signature
+	 */
+	private static long getSignature(File[] files) {
+		long signature = files.length;
+		for (File file : files) {
+			signature = 31 * signature + file.getName().hashCode();
+			signature = 31 * signature + file.length();
+			signature = 31 * signature + file.lastModified();
+		}
+		return signature;
+	}
+
+	/**
+	 * Gets the position of the samples after the header, aligned to 8 bytes.
+	 *
+	 * @param headerLength the length of the header
+	 * @return the position of the samples
+	 */
+	private static long getAlignedPosition(long headerLength) {
+		return (headerLength + 7) & ~7L;
+	}
+
+}
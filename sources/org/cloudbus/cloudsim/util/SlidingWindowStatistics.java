@@ -0,0 +1,223 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * The order statistics of a window of values, such as the recent values of a utilization history.
+ * The values are kept sorted, so that a value entering or leaving the window is placed by a binary
+ * search instead of sorting the whole window again, and the median and the quartiles are read
+ * directly.
+ * <p>
+ * The median follows the default percentile estimation of commons-math
+ * {@code DescriptiveStatistics}, and the IQR and the MAD follow {@link MathUtil#iqr(double[])} and
+ * {@link MathUtil#mad(double[])}, so that the values are the same as theirs.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SlidingWindowStatistics {
+
+	/** The values, sorted in ascending order. */
+	private double[] values;
+
+	/** The number of values. */
+	private int size;
+
+	/**
+	 * Instantiates a new empty window.
+	 *
+	 * @param capacity the initial capacity
+	 * @throws IllegalArgumentException if the capacity is negative
+	 */
+	public SlidingWindowStatistics(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("The capacity cannot be negative: " + capacity);
+		}
+		values = new double[capacity];
+	}
+
+	/**
+	 * Replaces the values of the window by the beginning of an array, which is not changed.
+	 *
+	 * @param data the data
+	 * @param length the number of values used
+	 */
+	public void set(double[] data, int length) {
+		if (values.length < length) {
+			values = new double[length];
+		}
+		System.arraycopy(data, 0, values, 0, length);
+		Arrays.sort(values, 0, length);
+		size = length;
+	}
+
+	/**
+	 * Adds a value to the window.
+	 *
+	 * @param value the value
+	 */
+	public void add(double value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, Math.max(2 * size, 16));
+		}
+		int index = Arrays.binarySearch(values, 0, size, value);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		System.arraycopy(values, index, values, index + 1, size - index);
+		values[index] = value;
+		size++;
+	}
+
+	/**
+	 * Removes a value from the window.
+	 *
+	 * @param value the value
+	 * @throws IllegalArgumentException if the value is not in the window
+	 */
+	public void remove(double value) {
+		int index = Arrays.binarySearch(values, 0, size, value);
+		if (index < 0) {
+			throw new IllegalArgumentException("The value is not in the window: " + value);
+		}
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+	}
+
+	/**
+	 * Removes all the values.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of values.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets a value by its rank.
+	 *
+	 * @param rank the rank, 0 for the smallest value
+	 * @return the value
+	 * @throws IndexOutOfBoundsException if the rank is not less than the size
+	 */
+	public double get(int rank) {
+		if (rank < 0 || rank >= size) {
+			throw new IndexOutOfBoundsException("Rank: " + rank + ", Size: " + size);
+		}
+		return values[rank];
+	}
+
+	/**
+	 * Gets the median.
+	 *
+	 * @return the median, or NaN if the window is empty
+	 */
+	public double median() {
+		if (size == 0) {
+			return Double.NaN;
+		}
+		int lower = getMedianLowerRank(size);
+		return median(values[lower], values[Math.min(lower + 1, size - 1)], size);
+	}
+
+	/**
+	 * Gets the median absolute deviation. The deviations from the median are sorted by merging the
+	 * values below and above the median, which are already sorted, so only the deviations up to the
+	 * median one are computed.
+	 *
+	 * @return the mad, or 0 if the window is empty
+	 */
+	public double mad() {
+		if (size == 0) {
+			return 0;
+		}
+		double median = median();
+		int below = Arrays.binarySearch(values, 0, size, median);
+		if (below < 0) {
+			below = -below - 1;
+		}
+		below--;
+		int above = below + 1;
+		int lower = getMedianLowerRank(size);
+		double lowerDeviation = 0;
+		double upperDeviation = 0;
+		for (int rank = 0; rank <= lower + 1 && rank < size; rank++) {
+			double deviation;
+			if (above >= size
+					|| below >= 0 && Math.abs(median - values[below]) <= Math.abs(median - values[above])) {
+				deviation = Math.abs(median - values[below--]);
+			} else {
+				deviation = Math.abs(median - values[above++]);
+			}
+			if (rank == lower) {
+				lowerDeviation = deviation;
+			}
+			upperDeviation = deviation;
+		}
+		return median(lowerDeviation, upperDeviation, size);
+	}
+
+	/**
+	 * Gets the interquartile range.
+	 *
+	 * @return the IQR
+	 * @throws IndexOutOfBoundsException if the window is empty
+	 */
+	public double iqr() {
+		int q1 = (int) Math.round(0.25 * (size + 1)) - 1;
+		int q3 = (int) Math.round(0.75 * (size + 1)) - 1;
+		return get(q3) - get(q1);
+	}
+
+	/**
+	 * Gets the rank of the lower of the two values the median is interpolated between.
+	 *
+	 * @param n the number of values
+	 * @return the rank
+	 */
+	private static int getMedianLowerRank(int n) {
+		double position = 50 * (n + 1.0) / 100;
+		if (position < 1) {
+			return 0;
+		}
+		if (position >= n) {
+			return n - 1;
+		}
+		return (int) Math.floor(position) - 1;
+	}
+
+	/**
+	 * Interpolates the median between the two middle values, as commons-math does.
+	 *
+	 * @param lower the lower middle value
+	 * @param upper the upper middle value
+	 * @param n the number of values
+	 * @return the median
+	 */
+	private static double median(double lower, double upper, int n) {
+		if (n == 1) {
+			return lower;
+		}
+		double position = 50 * (n + 1.0) / 100;
+		if (position < 1 || position >= n) {
+			return lower;
+		}
+		double fraction = position - Math.floor(position);
+		return lower + fraction * (upper - lower);
+	}
+
+}